@@ -0,0 +1,57 @@
+package com.laundrybooking.handlers;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count and writes the results of every run to a JSON file, so that runs of different releases
+ * can be compared.
+ * Arguments: benchmark regex, comma separated thread counts (powers of two up to the number of processors when empty), result
+ * directory.
+ */
+public final class BookingBenchmarkRunner {
+
+    private BookingBenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        final List<Integer> threadCounts = parseThreadCounts(args.length > 1 ? args[1] : "");
+        final File resultDirectory = new File(args.length > 2 ? args[2] : "build/reports/jmh");
+        if (!resultDirectory.isDirectory() && !resultDirectory.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + resultDirectory);
+        }
+        for (final int threads : threadCounts) {
+            final Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDirectory, "results-" + threads + "-threads.json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    private static List<Integer> parseThreadCounts(final String threadCounts) {
+        final List<Integer> counts = new ArrayList<>();
+        if (threadCounts.isEmpty()) {
+            final int processors = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads < processors; threads *= 2) {
+                counts.add(threads);
+            }
+            counts.add(processors);
+            return counts;
+        }
+        for (final String count : threadCounts.split(",")) {
+            counts.add(Integer.parseInt(count.trim()));
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,101 @@
+package com.laundrybooking.handlers;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.time.Instant;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Booking handler wired to the in memory accessors, with the given number of laundry rooms and houses. Fewer rooms and houses
+ * make the benchmark threads contend for the same slots and locks more often.
+ */
+@State(Scope.Benchmark)
+public class BookingBenchmarkState {
+
+    static final int BOOKABLE_DAYS = 28;
+
+    static final int SLOTS_PER_DAY = 23;
+
+    @Param({"10", "1000"})
+    public int laundryRooms;
+
+    @Param({"1000", "100000"})
+    public int houses;
+
+    /**
+     * Fraction of the houses holding an active booking before the benchmark starts
+     */
+    @Param({"0.5"})
+    public double preBookedHouses;
+
+    InMemoryBookingDataAccessor bookingDataAccessor;
+
+    BookingHandler bookingHandler;
+
+    BookingValidator bookingValidator;
+
+    LaundryRoom laundryRoom;
+
+    String[] laundryRoomIds;
+
+    String[] houseIds;
+
+    // Hourly slots over the bookable days as [start, end] strings, laundry rooms open all day
+    String[][] slots;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bookingDataAccessor = new InMemoryBookingDataAccessor();
+        final InMemoryHouseDataAccessor houseDataAccessor = new InMemoryHouseDataAccessor();
+        final InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        laundryRoomIds = new String[laundryRooms];
+        for (int i = 0; i < laundryRooms; i++) {
+            laundryRoom = LaundryRoom.builder()
+                    .id(i)
+                    .name("Laundry room " + i)
+                    .startHour(0)
+                    .endHour(23)
+                    .minSlotLength(30)
+                    .maxSlotLength(120)
+                    .bookingWindow(BOOKABLE_DAYS + 2)
+                    .build();
+            laundryRoomDataAccessor.create(laundryRoom);
+            laundryRoomIds[i] = Integer.toString(i);
+        }
+        houseIds = new String[houses];
+        for (int i = 0; i < houses; i++) {
+            houseDataAccessor.create(House.builder().id(i).build());
+            houseIds[i] = Integer.toString(i);
+        }
+        final Instant firstDay = Instant.now().truncatedTo(DAYS).plus(1, DAYS);
+        slots = new String[BOOKABLE_DAYS * SLOTS_PER_DAY][];
+        for (int day = 0; day < BOOKABLE_DAYS; day++) {
+            for (int hour = 0; hour < SLOTS_PER_DAY; hour++) {
+                final Instant start = firstDay.plus(day, DAYS).plus(hour, HOURS);
+                slots[day * SLOTS_PER_DAY + hour] = new String[] {start.toString(), start.plus(60, MINUTES).toString()};
+            }
+        }
+        bookingValidator = new BookingValidator(laundryRoomDataAccessor, houseDataAccessor);
+        bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor, bookingValidator);
+
+        // Spread the pre booked houses over the rooms and slots, as many as fit
+        final int preBooked = (int) Math.min(houses * preBookedHouses, (long) laundryRooms * slots.length);
+        for (int i = 0; i < preBooked; i++) {
+            final String[] slot = slots[i / laundryRooms];
+            bookingHandler.book(laundryRoomIds[i % laundryRooms], houseIds[i], slot[0], slot[1]);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.Response;
+
+import java.io.Writer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the booking handler hot paths. Every thread books random slots of random rooms for random houses, so the
+ * contention depends on the thread count and on the number of rooms and houses of the state.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingHandlerBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    /**
+     * Books a random slot and cancels the booking again when it went through, which keeps the number of bookings steady
+     */
+    @Benchmark
+    public Response bookAndCancel(final BookingBenchmarkState state, final ThreadState threadState) {
+        final String houseId = state.houseIds[threadState.random.nextInt(state.houseIds.length)];
+        final String[] slot = state.slots[threadState.random.nextInt(state.slots.length)];
+        final Response response = state.bookingHandler.book(state.laundryRoomIds[threadState.random.nextInt(state.laundryRoomIds.length)],
+                houseId, slot[0], slot[1]);
+        if (response.getResponseCode() != 200) {
+            return response;
+        }
+        final Booking booking = state.bookingDataAccessor.read(House.builder().id(Integer.parseInt(houseId)).build(), ACTIVE);
+        return booking == null ? response : state.bookingHandler.cancelBooking(booking.id, houseId);
+    }
+
+    @Benchmark
+    public Response listBookedTimes(final BookingBenchmarkState state) {
+        return state.bookingHandler.listBookedTimes();
+    }
+
+    @Benchmark
+    public Response listBookedTimesStreaming(final BookingBenchmarkState state) {
+        return state.bookingHandler.listBookedTimes(Writer.nullWriter(), null, null, null, null, 100);
+    }
+
+    @Benchmark
+    public String validateBookingTimes(final BookingBenchmarkState state, final ThreadState threadState) {
+        final String[] slot = state.slots[threadState.random.nextInt(state.slots.length)];
+        return state.bookingValidator.validateBookingTimes(slot[0], slot[1], state.laundryRoom);
+    }
+}
@@ -0,0 +1,159 @@
+package com.laundrybooking.server;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+
+import com.laundrybooking.accessor.ConcurrencyLimitedDataAccessor;
+import com.laundrybooking.accessor.DataAccessor;
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.handlers.BookingHandler;
+import com.laundrybooking.handlers.BookingValidator;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.utils.ConcurrencyLimiter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the execution modes of the server under blocking data accessors. Every invocation runs a burst of book requests, as many
+ * as there are concurrent requests, on the executor of the mode and waits for all of them. The house reads block for the given
+ * time like a call to a remote store would, and the store takes a bounded number of concurrent calls.
+ * On a runtime without virtual threads both modes run on the platform thread pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int HOUSES = 10_000;
+
+    @Param({"PLATFORM_THREADS", "VIRTUAL_THREADS"})
+    public ExecutionMode executionMode;
+
+    @Param({"64"})
+    public int platformThreads;
+
+    @Param({"1000"})
+    public int concurrentRequests;
+
+    @Param({"256"})
+    public int storeConcurrency;
+
+    @Param({"1"})
+    public long blockingMillis;
+
+    private ExecutorService executor;
+
+    private BookingHandler bookingHandler;
+
+    private String bookingStartDateTimeUTC;
+
+    private String bookingEndDateTimeUTC;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final InMemoryHouseDataAccessor houseDataAccessor = new InMemoryHouseDataAccessor();
+        for (int i = 0; i < HOUSES; i++) {
+            houseDataAccessor.create(House.builder().id(i).build());
+        }
+        final InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        laundryRoomDataAccessor.create(LaundryRoom.builder()
+                .id(1)
+                .name("Laundry room 1")
+                .startHour(0)
+                .endHour(23)
+                .minSlotLength(30)
+                .maxSlotLength(120)
+                .bookingWindow(30)
+                .build());
+        final DataAccessor<House> blockingHouseDataAccessor = new ConcurrencyLimitedDataAccessor<>(
+                new BlockingDataAccessor<>(houseDataAccessor, blockingMillis), new ConcurrencyLimiter(storeConcurrency));
+        bookingHandler = new BookingHandler(new InMemoryBookingDataAccessor(), laundryRoomDataAccessor, blockingHouseDataAccessor,
+                new BookingValidator(laundryRoomDataAccessor, blockingHouseDataAccessor));
+        // The slot is booked by the first request, the others are rejected after the same reads
+        final Instant start = Instant.now().truncatedTo(DAYS).plus(1, DAYS).plus(10, HOURS);
+        bookingStartDateTimeUTC = start.toString();
+        bookingEndDateTimeUTC = start.plus(1, HOURS).toString();
+        executor = executionMode.newExecutor(platformThreads);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int bookBurst() throws InterruptedException, ExecutionException {
+        final List<Future<Integer>> responses = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            final String houseId = Integer.toString(i % HOUSES);
+            responses.add(executor.submit(() -> bookingHandler.book("1", houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC)
+                    .getResponseCode()));
+        }
+        int responseCodes = 0;
+        for (final Future<Integer> response : responses) {
+            responseCodes += response.get();
+        }
+        return responseCodes;
+    }
+
+    /**
+     * Data accessor whose reads block like a remote call
+     */
+    private static final class BlockingDataAccessor<T> implements DataAccessor<T> {
+        private final DataAccessor<T> dataAccessor;
+
+        private final long blockingMillis;
+
+        private BlockingDataAccessor(final DataAccessor<T> dataAccessor, final long blockingMillis) {
+            this.dataAccessor = dataAccessor;
+            this.blockingMillis = blockingMillis;
+        }
+
+        @Override public void create(final T object) {
+            dataAccessor.create(object);
+        }
+
+        @Override public T read(final String id) {
+            try {
+                Thread.sleep(blockingMillis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return dataAccessor.read(id);
+        }
+
+        @Override public void update() {
+            dataAccessor.update();
+        }
+
+        @Override public void delete() {
+            dataAccessor.delete();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Async booking data accessor, by default running the calls of a blocking booking data accessor on an executor. Stores with a
+ * non blocking client should override the calls.
+ */
+public class AsyncBookingDataAccessor extends ExecutorAsyncDataAccessor<Booking> {
+
+    private final BookingDataAccessor bookingDataAccessor;
+
+    public AsyncBookingDataAccessor(final BookingDataAccessor bookingDataAccessor, final Executor executor) {
+        super(bookingDataAccessor, executor);
+        this.bookingDataAccessor = bookingDataAccessor;
+    }
+
+    public CompletableFuture<Booking> read(final House house, final BookingStatus bookingStatus) {
+        return CompletableFuture.supplyAsync(() -> bookingDataAccessor.read(house, bookingStatus), executor);
+    }
+
+    public CompletableFuture<Booking> read(final String id, final String houseId, final BookingStatus bookingStatus) {
+        return CompletableFuture.supplyAsync(() -> bookingDataAccessor.read(id, houseId, bookingStatus), executor);
+    }
+
+    public CompletableFuture<Booking> read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC,
+                                           final Instant bookingEndTimeUTC, final BookingStatus bookingStatus) {
+        return CompletableFuture.supplyAsync(() -> bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC,
+                bookingStatus), executor);
+    }
+
+    public CompletableFuture<Void> update(final String id, final String fieldName, final String fieldValue) {
+        return CompletableFuture.runAsync(() -> bookingDataAccessor.update(id, fieldName, fieldValue), executor);
+    }
+}
@@ -0,0 +1,14 @@
+package com.laundrybooking.accessor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non blocking counterpart of DataAccessor. Every call returns at once with a future completed by the store, so that independent
+ * calls can be in flight together.
+ */
+public interface AsyncDataAccessor<T> {
+    CompletableFuture<Void> create(T object);
+    CompletableFuture<T> read(String id);
+    CompletableFuture<Void> update();
+    CompletableFuture<Void> delete();
+}
@@ -1,24 +1,51 @@
 package com.laundrybooking.accessor;
 
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.COMPLETED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+
 import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
 import com.laundrybooking.model.BookingStatus;
 import com.laundrybooking.model.House;
 import com.laundrybooking.model.LaundryRoom;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 /**
- * NO OP class for accessing the booking data
+ * Base class for accessing the booking data, extended by the booking stores. The basic reads, create and update are no ops here.
+ * The rest have defaults built on the basic operations, correct for any store but slow, which stores should override where they can
+ * do better: createAll creates the bookings one by one, the read of a slot given as Instants formats them for the read given as
+ * strings, query sorts a whole read of the window, findFreeSlot walks the bookings of the window and completeAll reads and updates
+ * the bookings one by one.
  */
-
 public class BookingDataAccessor implements DataAccessor<Booking> {
 
+    /**
+     * Order of the bookings returned by query, unique for the ACTIVE bookings as those of a laundry room never start together
+     */
+    protected static final Comparator<Booking> QUERY_ORDER = Comparator.<Booking, Instant>comparing(booking -> booking.bookingStartTimeUTC)
+            .thenComparingInt(booking -> booking.laundryRoomId);
+
     @Override public void create(final Booking booking) {
         // No Op data accessor
     }
 
+    /**
+     * Creates the bookings as one group, by default one by one
+     */
+    public void createAll(final List<Booking> bookings) {
+        for (final Booking booking : bookings) {
+            create(booking);
+        }
+    }
+
     @Override public Booking read(final String id) {
         // No Op data accessor
         return Booking.builder().build();
@@ -40,15 +67,77 @@ public class BookingDataAccessor implements DataAccessor<Booking> {
         return Booking.builder().build();
     }
 
+    /**
+     * Same as the read of a laundry room slot given as strings, for booking times already parsed by the caller
+     */
+    public Booking read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC,
+                        final BookingStatus bookingStatus) {
+        return read(laundryRoom, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString(), bookingStatus);
+    }
+
     public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
         // No Op data accessor
         return Collections.emptyList();
     }
 
+    /**
+     * Returns the bookings matching the query in query order. The default reads the whole window and sorts it, stores able to
+     * walk their indexes in order should override it.
+     */
+    public Iterator<Booking> query(final BookingQuery bookingQuery) {
+        return read(bookingQuery.startTime, bookingQuery.endTime, bookingQuery.bookingStatus).stream()
+                .filter(booking -> bookingQuery.laundryRoomId == null || booking.laundryRoomId == bookingQuery.laundryRoomId)
+                .filter(booking -> isAfterCursor(booking, bookingQuery))
+                .sorted(QUERY_ORDER)
+                .iterator();
+    }
+
+    /**
+     * Returns the start of the first [start, start + lengthMinutes) slot of the laundry room within [from, to) that no ACTIVE booking
+     * overlaps, starting on a whole minute, or null if there is none. The default reads the bookings of the window, stores keeping
+     * an availability structure should override it.
+     */
+    public Instant findFreeSlot(final LaundryRoom laundryRoom, final Instant from, final Instant to, final long lengthMinutes) {
+        final List<Booking> bookings = new ArrayList<>(read(from, to, ACTIVE));
+        bookings.sort(QUERY_ORDER);
+        Instant start = ceilToMinute(from);
+        for (final Booking booking : bookings) {
+            if (booking.laundryRoomId != laundryRoom.id) {
+                continue;
+            }
+            if (!start.plus(lengthMinutes, ChronoUnit.MINUTES).isAfter(booking.bookingStartTimeUTC)) {
+                break;
+            }
+            if (booking.bookingEndTimeUTC.isAfter(start)) {
+                start = ceilToMinute(booking.bookingEndTimeUTC);
+            }
+        }
+        return start.plus(lengthMinutes, ChronoUnit.MINUTES).isAfter(to) ? null : start;
+    }
+
     @Override public void update() {
 
     }
 
+    /**
+     * Moves the bookings with the given ids that are still ACTIVE to COMPLETED as one group. The default reads and updates them one
+     * by one, so a booking cancelled in between may still be completed; stores should override it with a conditional update.
+     *
+     * @return the bookings completed
+     */
+    public List<Booking> completeAll(final List<String> ids) {
+        final List<Booking> completed = new ArrayList<>();
+        for (final String id : ids) {
+            final Booking booking = read(id);
+            if (booking != null && booking.bookingStatus == ACTIVE) {
+                update(id, BOOKING_STATUS_KEY, COMPLETED.toString());
+                booking.bookingStatus = COMPLETED;
+                completed.add(booking);
+            }
+        }
+        return completed;
+    }
+
     public void update(final String id, final String fieldName, final String fieldValue) {
 
     }
@@ -56,4 +145,17 @@ public class BookingDataAccessor implements DataAccessor<Booking> {
     @Override public void delete() {
 
     }
+
+    protected static Instant ceilToMinute(final Instant instant) {
+        final Instant minute = instant.truncatedTo(ChronoUnit.MINUTES);
+        return minute.equals(instant) ? minute : minute.plus(1, ChronoUnit.MINUTES);
+    }
+
+    protected static boolean isAfterCursor(final Booking booking, final BookingQuery bookingQuery) {
+        if (bookingQuery.afterStartTime == null) {
+            return true;
+        }
+        final int startTimeOrder = booking.bookingStartTimeUTC.compareTo(bookingQuery.afterStartTime);
+        return startTimeOrder > 0 || (startTimeOrder == 0 && booking.laundryRoomId > bookingQuery.afterLaundryRoomId);
+    }
 }
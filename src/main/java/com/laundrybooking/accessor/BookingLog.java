@@ -0,0 +1,391 @@
+package com.laundrybooking.accessor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append only log of binary records kept as numbered segment files in a directory. Every record is framed as
+ * [payload length][CRC32 of payload][payload].
+ * Appends are group committed: a single writer thread drains all the records queued while the previous fsync was running, writes
+ * them with one channel write and makes them durable with one fsync.
+ * The log can be rolled over to a new segment so that the segments behind a snapshot can be deleted.
+ * A group that fails, whatever the failure, is cut off the file and its appends fail, and the writer thread goes on with the next
+ * group, so no append is left waiting. Only the last group can be torn by a crash, so only the tail of the last segment is
+ * ever cut off on open.
+ */
+class BookingLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "bookings-";
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private static final int MAX_GROUP_SIZE = 1024;
+
+    // Queued by close to stop the group commit thread once everything queued before it is committed
+    private static final PendingAppend CLOSE = new PendingAppend(new byte[0], -1);
+
+    private final Path directory;
+
+    private final BlockingQueue<PendingAppend> pendingAppends = new LinkedBlockingQueue<>();
+
+    private final Thread groupCommitThread;
+
+    // Only used by the group commit thread once the log is open
+    private FileChannel channel;
+
+    private long lastSegment;
+
+    private volatile boolean closed;
+
+    private volatile long syncCount;
+
+    BookingLog(final Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        groupCommitThread = new Thread(this::runGroupCommits, "booking-log-group-commit");
+        groupCommitThread.setDaemon(true);
+    }
+
+    /**
+     * Passes the payload of every valid record of the segments numbered fromSegment and above to the consumer in append order and
+     * starts appending to the last segment. A torn record at the tail of the last segment, left by a crash in the middle of a
+     * write, is cut off the file. A corrupt record anywhere else fails the open, naming the segment file and the offset.
+     */
+    void open(final long fromSegment, final Consumer<ByteBuffer> recordConsumer) throws IOException {
+        final List<Long> segments = segmentsFrom(fromSegment);
+        for (int i = 0; i < segments.size(); i++) {
+            final Path segmentFile = segmentFile(segments.get(i));
+            try (FileChannel segmentChannel = FileChannel.open(segmentFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                replay(segmentFile, segmentChannel, recordConsumer, i == segments.size() - 1);
+            }
+        }
+        lastSegment = segments.isEmpty() ? fromSegment : segments.get(segments.size() - 1);
+        channel = FileChannel.open(segmentFile(lastSegment), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        groupCommitThread.start();
+    }
+
+    /**
+     * Queues a record for the next group commit
+     *
+     * @return future completed once the record is durable
+     */
+    CompletableFuture<Void> append(final byte[] payload) {
+        return enqueue(new PendingAppend(payload, -1));
+    }
+
+    /**
+     * Starts a new segment. Records appended before the call go to the previous segments, records appended after it to the new one.
+     *
+     * @param rolled completed once the previous segments are durable and closed
+     * @return the number of the new segment
+     */
+    synchronized long roll(final CompletableFuture<Void> rolled) {
+        final long segment = ++lastSegment;
+        final PendingAppend roll = new PendingAppend(null, segment);
+        roll.durable.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                rolled.complete(null);
+            } else {
+                rolled.completeExceptionally(throwable);
+            }
+        });
+        enqueue(roll);
+        return segment;
+    }
+
+    /**
+     * Deletes the segments numbered below the given one
+     */
+    void deleteSegmentsBefore(final long segment) throws IOException {
+        for (final long olderSegment : segmentsFrom(0)) {
+            if (olderSegment < segment) {
+                Files.deleteIfExists(segmentFile(olderSegment));
+            }
+        }
+    }
+
+    static void awaitDurable(final CompletableFuture<Void> durable) {
+        try {
+            durable.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the booking log", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    long getSyncCount() {
+        return syncCount;
+    }
+
+    @Override public void close() throws IOException {
+        synchronized (this) {
+            // Nothing can be queued behind the close marker
+            pendingAppends.add(CLOSE);
+            closed = true;
+        }
+        if (groupCommitThread.isAlive()) {
+            try {
+                groupCommitThread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private synchronized CompletableFuture<Void> enqueue(final PendingAppend pendingAppend) {
+        if (closed) {
+            pendingAppend.durable.completeExceptionally(new IllegalStateException("Booking log is closed"));
+        } else {
+            pendingAppends.add(pendingAppend);
+        }
+        return pendingAppend.durable;
+    }
+
+    private void runGroupCommits() {
+        final List<PendingAppend> group = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                group.add(pendingAppends.take());
+            } catch (final InterruptedException e) {
+                continue;
+            }
+            pendingAppends.drainTo(group, MAX_GROUP_SIZE - 1);
+            running = !group.remove(CLOSE);
+            try {
+                commitAndRoll(group);
+            } catch (final Throwable e) {
+                // Completing a future twice is a no op, so this only fails the appends commitAndRoll did not get to
+                e.printStackTrace();
+                for (final PendingAppend pendingAppend : group) {
+                    pendingAppend.durable.completeExceptionally(e);
+                }
+            }
+            group.clear();
+        }
+    }
+
+    /**
+     * Commits the records of the group, switching segments where the group has roll requests
+     */
+    private void commitAndRoll(final List<PendingAppend> group) {
+        int groupStart = 0;
+        for (int i = 0; i < group.size(); i++) {
+            final PendingAppend pendingAppend = group.get(i);
+            if (pendingAppend.payload == null) {
+                commit(group.subList(groupStart, i));
+                switchSegment(pendingAppend);
+                groupStart = i + 1;
+            }
+        }
+        commit(group.subList(groupStart, group.size()));
+    }
+
+    private void commit(final List<PendingAppend> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+        long groupPosition = -1;
+        try {
+            groupPosition = channel.position();
+            int groupBytes = 0;
+            for (final PendingAppend pendingAppend : group) {
+                groupBytes += HEADER_BYTES + pendingAppend.payload.length;
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate(groupBytes);
+            for (final PendingAppend pendingAppend : group) {
+                final ByteBuffer payload = ByteBuffer.wrap(pendingAppend.payload);
+                buffer.putInt(pendingAppend.payload.length);
+                buffer.putInt(checksum(payload));
+                buffer.put(pendingAppend.payload);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // Data only sync, the file length is flushed along with the data it covers
+            channel.force(false);
+            syncCount++;
+            for (final PendingAppend pendingAppend : group) {
+                pendingAppend.durable.complete(null);
+            }
+        } catch (final Throwable e) {
+            discardPartialWrite(groupPosition);
+            final RuntimeException failure = e instanceof IOException ? new UncheckedIOException((IOException) e)
+                    : new IllegalStateException("Booking log group commit failed", e);
+            for (final PendingAppend pendingAppend : group) {
+                pendingAppend.durable.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void switchSegment(final PendingAppend roll) {
+        try {
+            final FileChannel nextChannel = FileChannel.open(segmentFile(roll.segment), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            nextChannel.position(nextChannel.size());
+            channel.force(true);
+            channel.close();
+            channel = nextChannel;
+            roll.durable.complete(null);
+        } catch (final IOException e) {
+            roll.durable.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    /**
+     * Cuts a partially written group off the file so that later groups are not appended after a corrupt record
+     */
+    private void discardPartialWrite(final long groupPosition) {
+        if (groupPosition < 0) {
+            return;
+        }
+        try {
+            channel.truncate(groupPosition);
+            channel.position(groupPosition);
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void replay(final Path segmentFile, final FileChannel segmentChannel, final Consumer<ByteBuffer> recordConsumer,
+                               final boolean lastSegment) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        final long size = segmentChannel.size();
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(segmentChannel, header, position);
+            header.flip();
+            final int length = header.getInt();
+            final int checksum = header.getInt();
+            if (length <= 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            final ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(segmentChannel, payload, position + HEADER_BYTES);
+            payload.flip();
+            if (checksum(payload) != checksum) {
+                break;
+            }
+            recordConsumer.accept(payload);
+            position += HEADER_BYTES + length;
+        }
+        if (position == size) {
+            return;
+        }
+        if (!lastSegment || !isTornTail(segmentChannel, position)) {
+            throw new IOException("Corrupt booking log record in " + segmentFile + " at offset " + position);
+        }
+        segmentChannel.truncate(position);
+        segmentChannel.force(true);
+    }
+
+    /**
+     * Tells whether the invalid record at the given position was torn by a crash in the middle of a write: either the record runs
+     * past the end of the file or nothing but zeros, never written, follows it
+     */
+    private static boolean isTornTail(final FileChannel segmentChannel, final long position) throws IOException {
+        final long size = segmentChannel.size();
+        if (position + HEADER_BYTES > size) {
+            return true;
+        }
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(segmentChannel, header, position);
+        header.flip();
+        final int length = header.getInt();
+        if (length > 0 && position + HEADER_BYTES + length >= size) {
+            return true;
+        }
+        final ByteBuffer rest = ByteBuffer.allocate(8192);
+        long readPosition = position;
+        while (readPosition < size) {
+            rest.clear();
+            final int read = segmentChannel.read(rest, readPosition);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (rest.get(i) != 0) {
+                    return false;
+                }
+            }
+            readPosition += read;
+        }
+        return true;
+    }
+
+    private static void readFully(final FileChannel fileChannel, final ByteBuffer buffer, final long position) throws IOException {
+        long readPosition = position;
+        while (buffer.hasRemaining()) {
+            final int read = fileChannel.read(buffer, readPosition);
+            if (read < 0) {
+                throw new IOException("Unexpected end of booking log");
+            }
+            readPosition += read;
+        }
+    }
+
+    private List<Long> segmentsFrom(final long fromSegment) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .filter(segment -> segment >= fromSegment)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path segmentFile(final long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static int checksum(final ByteBuffer payload) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(payload.duplicate());
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * A record waiting for the group commit, or a roll over to the given segment when there is no payload
+     */
+    private static final class PendingAppend {
+        private final byte[] payload;
+
+        private final long segment;
+
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        private PendingAppend(final byte[] payload, final long segment) {
+            this.payload = payload;
+            this.segment = segment;
+        }
+    }
+}
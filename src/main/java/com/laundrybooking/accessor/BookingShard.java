@@ -0,0 +1,41 @@
+package com.laundrybooking.accessor;
+
+import java.net.URI;
+
+/**
+ * A node of the sharded booking store: the bookings of the laundry rooms it owns and the claims of the houses it owns
+ */
+public class BookingShard {
+
+    public final String name;
+
+    public final BookingDataAccessor bookingDataAccessor;
+
+    public final HouseClaimDataAccessor houseClaimDataAccessor;
+
+    public BookingShard(final String name, final BookingDataAccessor bookingDataAccessor,
+                        final HouseClaimDataAccessor houseClaimDataAccessor) {
+        this.name = name;
+        this.bookingDataAccessor = bookingDataAccessor;
+        this.houseClaimDataAccessor = houseClaimDataAccessor;
+    }
+
+    /**
+     * Shard kept in this process
+     */
+    public static BookingShard inMemory(final String name) {
+        return new BookingShard(name, new InMemoryBookingDataAccessor(), new InMemoryHouseClaimDataAccessor());
+    }
+
+    /**
+     * Shard served by a BookingShardServer at the given base URI, for instance http://localhost:9001
+     */
+    public static BookingShard remote(final String name, final URI baseUri) {
+        final ShardHttpClient shardHttpClient = new ShardHttpClient(baseUri);
+        return new BookingShard(name, new RemoteBookingDataAccessor(shardHttpClient), new RemoteHouseClaimDataAccessor(shardHttpClient));
+    }
+
+    @Override public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,177 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+
+import com.laundrybooking.model.Booking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Point in time image of the ACTIVE bookings, written to and read from memory mapped files.
+ * A snapshot numbered N covers every log segment numbered below N, so on startup the snapshot is loaded and only the segments from
+ * N on are replayed.
+ * Layout: [magic][version][booking count][bookings...][CRC32 of everything before it], every booking being
+ * [id length][id][house id][laundry room id][start seconds][start nanos][end seconds][end nanos].
+ */
+final class BookingSnapshot {
+
+    private static final String SNAPSHOT_PREFIX = "bookings-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final int MAGIC = 0x4C42534E;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = Integer.BYTES * 3;
+
+    private static final int FIXED_BOOKING_BYTES = Short.BYTES + Integer.BYTES * 2 + (Long.BYTES + Integer.BYTES) * 2;
+
+    private BookingSnapshot() {
+    }
+
+    /**
+     * Writes the bookings to a temporary snapshot file which becomes visible on publish
+     *
+     * @return the temporary snapshot file
+     */
+    static Path write(final Path directory, final long segment, final List<Booking> bookings) throws IOException {
+        final byte[][] ids = new byte[bookings.size()][];
+        long size = HEADER_BYTES + Integer.BYTES;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = bookings.get(i).id.getBytes(StandardCharsets.UTF_8);
+            size += FIXED_BOOKING_BYTES + ids[i].length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Booking snapshot too large to map: " + size + " bytes");
+        }
+        final Path temporaryFile = snapshotFile(directory, segment).resolveSibling(snapshotFileName(segment) + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                final Booking booking = bookings.get(i);
+                buffer.putShort((short) ids[i].length);
+                buffer.put(ids[i]);
+                buffer.putInt(booking.houseId);
+                buffer.putInt(booking.laundryRoomId);
+                buffer.putLong(booking.bookingStartTimeUTC.getEpochSecond());
+                buffer.putInt(booking.bookingStartTimeUTC.getNano());
+                buffer.putLong(booking.bookingEndTimeUTC.getEpochSecond());
+                buffer.putInt(booking.bookingEndTimeUTC.getNano());
+            }
+            buffer.putInt(checksum(buffer, buffer.position()));
+            buffer.force();
+        }
+        return temporaryFile;
+    }
+
+    /**
+     * Atomically makes a written snapshot the latest one and deletes the older snapshots. The rename is made durable before
+     * anything it supersedes is deleted.
+     */
+    static void publish(final Path directory, final long segment, final Path temporaryFile) throws IOException {
+        Files.move(temporaryFile, snapshotFile(directory, segment), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(directory);
+        deleteBefore(directory, segment);
+    }
+
+    /**
+     * Flushes the entries of the directory, such as a file renamed into it
+     */
+    private static void syncDirectory(final Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Passes the bookings of the latest snapshot to the consumer, reading them straight from the mapped file
+     *
+     * @return the number of the first log segment not covered by the snapshot, 0 if there is no snapshot
+     */
+    static long load(final Path directory, final Consumer<Booking> bookingConsumer) throws IOException {
+        final List<Long> snapshots = snapshots(directory);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        final long segment = snapshots.get(snapshots.size() - 1);
+        final Path snapshotFile = snapshotFile(directory, segment);
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            final int checksumPosition = buffer.limit() - Integer.BYTES;
+            if (checksumPosition < HEADER_BYTES || buffer.getInt(checksumPosition) != checksum(buffer, checksumPosition)
+                    || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Corrupt booking snapshot " + snapshotFile);
+            }
+            final int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                final byte[] id = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(id);
+                bookingConsumer.accept(Booking.builder()
+                        .id(new String(id, StandardCharsets.UTF_8))
+                        .houseId(buffer.getInt())
+                        .laundryRoomId(buffer.getInt())
+                        .bookingStartTimeUTC(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()))
+                        .bookingEndTimeUTC(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()))
+                        .bookingStatus(ACTIVE)
+                        .build());
+            }
+        }
+        deleteBefore(directory, segment);
+        return segment;
+    }
+
+    private static void deleteBefore(final Path directory, final long segment) throws IOException {
+        for (final long olderSnapshot : snapshots(directory)) {
+            if (olderSnapshot < segment) {
+                Files.deleteIfExists(snapshotFile(directory, olderSnapshot));
+            }
+        }
+    }
+
+    private static List<Long> snapshots(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static Path snapshotFile(final Path directory, final long segment) {
+        return directory.resolve(snapshotFileName(segment));
+    }
+
+    private static String snapshotFileName(final long segment) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, segment, SNAPSHOT_SUFFIX);
+    }
+
+    private static int checksum(final ByteBuffer buffer, final int length) {
+        final ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(length);
+        final CRC32 crc32 = new CRC32();
+        crc32.update(content);
+        return (int) crc32.getValue();
+    }
+}
@@ -0,0 +1,79 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.utils.BoundedCache;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read through caching decorator for a data accessor. Reads by id are served from a size bounded, expiring cache and only go to
+ * the wrapped accessor on a miss. Updates and deletes invalidate the cache.
+ */
+public class CachingDataAccessor<T> implements DataAccessor<T> {
+
+    private final DataAccessor<T> dataAccessor;
+
+    private final BoundedCache<String, T> cache;
+
+    public CachingDataAccessor(final DataAccessor<T> dataAccessor, final int maximumSize, final long expireAfterWrite,
+                               final TimeUnit timeUnit) {
+        this.dataAccessor = dataAccessor;
+        cache = new BoundedCache<>(maximumSize, expireAfterWrite, timeUnit);
+    }
+
+    @Override public void create(final T object) {
+        dataAccessor.create(object);
+    }
+
+    @Override public T read(final String id) {
+        return cache.get(id, dataAccessor::read);
+    }
+
+    /**
+     * Not cached, listings always go to the wrapped accessor
+     */
+    @Override public Collection<T> readAll() {
+        return dataAccessor.readAll();
+    }
+
+    /**
+     * The updated object is not known so all the cached objects are invalidated
+     */
+    @Override public void update() {
+        try {
+            dataAccessor.update();
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * The deleted object is not known so all the cached objects are invalidated
+     */
+    @Override public void delete() {
+        try {
+            dataAccessor.delete();
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Drops the cached object with the given id, to be called when the object is changed without going through this accessor
+     */
+    public void invalidate(final String id) {
+        cache.invalidate(id);
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+}
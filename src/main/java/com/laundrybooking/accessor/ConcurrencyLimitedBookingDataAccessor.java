@@ -0,0 +1,89 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.utils.ConcurrencyLimiter;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Decorator bounding the calls running at the same time against the backing store of a booking data accessor. A query only holds
+ * its permit while it is started, not while the returned iterator is walked.
+ */
+public class ConcurrencyLimitedBookingDataAccessor extends BookingDataAccessor {
+
+    private final BookingDataAccessor bookingDataAccessor;
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitedBookingDataAccessor(final BookingDataAccessor bookingDataAccessor,
+                                                 final ConcurrencyLimiter concurrencyLimiter) {
+        this.bookingDataAccessor = bookingDataAccessor;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override public void create(final Booking booking) {
+        concurrencyLimiter.run(() -> bookingDataAccessor.create(booking));
+    }
+
+    @Override public void createAll(final List<Booking> bookings) {
+        concurrencyLimiter.run(() -> bookingDataAccessor.createAll(bookings));
+    }
+
+    @Override public Booking read(final String id) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.read(id));
+    }
+
+    @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.read(house, bookingStatus));
+    }
+
+    @Override public Booking read(final String id, final String houseId, final BookingStatus bookingStatus) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.read(id, houseId, bookingStatus));
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final String bookingStartDateTimeUTC,
+                                  final String bookingEndDateTimeUTC, final BookingStatus bookingStatus) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.read(laundryRoom, bookingStartDateTimeUTC, bookingEndDateTimeUTC,
+                bookingStatus));
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC,
+                                  final BookingStatus bookingStatus) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC,
+                bookingStatus));
+    }
+
+    @Override public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.read(startTime, endTime, bookingStatus));
+    }
+
+    @Override public Iterator<Booking> query(final BookingQuery bookingQuery) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.query(bookingQuery));
+    }
+
+    @Override public Instant findFreeSlot(final LaundryRoom laundryRoom, final Instant from, final Instant to, final long lengthMinutes) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.findFreeSlot(laundryRoom, from, to, lengthMinutes));
+    }
+
+    @Override public void update() {
+        concurrencyLimiter.run(bookingDataAccessor::update);
+    }
+
+    @Override public List<Booking> completeAll(final List<String> ids) {
+        return concurrencyLimiter.call(() -> bookingDataAccessor.completeAll(ids));
+    }
+
+    @Override public void update(final String id, final String fieldName, final String fieldValue) {
+        concurrencyLimiter.run(() -> bookingDataAccessor.update(id, fieldName, fieldValue));
+    }
+
+    @Override public void delete() {
+        concurrencyLimiter.run(bookingDataAccessor::delete);
+    }
+}
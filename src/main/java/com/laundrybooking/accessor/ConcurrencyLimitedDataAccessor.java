@@ -0,0 +1,41 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.utils.ConcurrencyLimiter;
+
+import java.util.Collection;
+
+/**
+ * Decorator bounding the calls running at the same time against the backing store of a data accessor. Accessors sharing a store
+ * should share the limiter.
+ */
+public class ConcurrencyLimitedDataAccessor<T> implements DataAccessor<T> {
+
+    private final DataAccessor<T> dataAccessor;
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitedDataAccessor(final DataAccessor<T> dataAccessor, final ConcurrencyLimiter concurrencyLimiter) {
+        this.dataAccessor = dataAccessor;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override public void create(final T object) {
+        concurrencyLimiter.run(() -> dataAccessor.create(object));
+    }
+
+    @Override public T read(final String id) {
+        return concurrencyLimiter.call(() -> dataAccessor.read(id));
+    }
+
+    @Override public Collection<T> readAll() {
+        return concurrencyLimiter.call(dataAccessor::readAll);
+    }
+
+    @Override public void update() {
+        concurrencyLimiter.run(dataAccessor::update);
+    }
+
+    @Override public void delete() {
+        concurrencyLimiter.run(dataAccessor::delete);
+    }
+}
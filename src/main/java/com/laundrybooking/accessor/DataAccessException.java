@@ -0,0 +1,17 @@
+package com.laundrybooking.accessor;
+
+/**
+ * Failure of a backing store that the data accessor interfaces cannot declare, such as a SQLException
+ */
+public class DataAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(final String message) {
+        super(message);
+    }
+
+    public DataAccessException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
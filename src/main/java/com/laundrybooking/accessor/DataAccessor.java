@@ -1,8 +1,18 @@
 package com.laundrybooking.accessor;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public interface DataAccessor<T> {
     void create(T object);
     T read(String id);
     void update();
     void delete();
+
+    /**
+     * Returns all the objects, empty for stores that cannot list them
+     */
+    default Collection<T> readAll() {
+        return Collections.emptyList();
+    }
 }
@@ -0,0 +1,35 @@
+package com.laundrybooking.accessor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Async data accessor running the calls of a blocking data accessor on an executor, for stores without a non blocking client
+ */
+public class ExecutorAsyncDataAccessor<T> implements AsyncDataAccessor<T> {
+
+    private final DataAccessor<T> dataAccessor;
+
+    protected final Executor executor;
+
+    public ExecutorAsyncDataAccessor(final DataAccessor<T> dataAccessor, final Executor executor) {
+        this.dataAccessor = dataAccessor;
+        this.executor = executor;
+    }
+
+    @Override public CompletableFuture<Void> create(final T object) {
+        return CompletableFuture.runAsync(() -> dataAccessor.create(object), executor);
+    }
+
+    @Override public CompletableFuture<T> read(final String id) {
+        return CompletableFuture.supplyAsync(() -> dataAccessor.read(id), executor);
+    }
+
+    @Override public CompletableFuture<Void> update() {
+        return CompletableFuture.runAsync(dataAccessor::update, executor);
+    }
+
+    @Override public CompletableFuture<Void> delete() {
+        return CompletableFuture.runAsync(dataAccessor::delete, executor);
+    }
+}
@@ -0,0 +1,210 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+
+import com.laundrybooking.events.BookingEventBus;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEventType;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator moving the ACTIVE bookings of a booking data accessor to COMPLETED once they end, so that past bookings no longer block
+ * their house or sit in the indexes of the active bookings.
+ * Every ACTIVE booking created goes on a lock free queue, the only thing added to the booking path. A sweeper thread moves the
+ * queued bookings onto a min heap ordered by end time that only it touches, and completes the bookings at the head of the heap that
+ * have ended, in batches of SWEEP_BATCH_SIZE, so finding them never scans the bookings. Bookings cancelled before they end are
+ * skipped by the conditional completeAll of the store. The ACTIVE bookings already stored are read once when the sweeper starts.
+ * Completions are published on the event bus if one is given.
+ */
+public class ExpiringBookingDataAccessor extends BookingDataAccessor implements Closeable {
+
+    static final int SWEEP_BATCH_SIZE = 256;
+
+    private static final Comparator<Booking> END_TIME_ORDER = Comparator.comparing(booking -> booking.bookingEndTimeUTC);
+
+    private final BookingDataAccessor bookingDataAccessor;
+
+    private final Queue<Booking> scheduled = new ConcurrentLinkedQueue<>();
+
+    // Guarded by this, only touched by sweep
+    private final PriorityQueue<Booking> byEndTime = new PriorityQueue<>(END_TIME_ORDER);
+
+    // Null when completions are not published
+    private final BookingEventBus eventBus;
+
+    private ScheduledExecutorService sweepScheduler;
+
+    public ExpiringBookingDataAccessor(final BookingDataAccessor bookingDataAccessor) {
+        this(bookingDataAccessor, null);
+    }
+
+    public ExpiringBookingDataAccessor(final BookingDataAccessor bookingDataAccessor, final BookingEventBus eventBus) {
+        this.bookingDataAccessor = bookingDataAccessor;
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Schedules the ACTIVE bookings already stored and sweeps every interval on a background thread
+     */
+    public synchronized void start(final long interval, final TimeUnit timeUnit) {
+        if (sweepScheduler != null) {
+            throw new IllegalStateException("Sweeps are already scheduled");
+        }
+        scheduled.addAll(bookingDataAccessor.read(Instant.MIN, Instant.MAX, ACTIVE));
+        sweepScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "booking-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweepScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                sweep();
+            } catch (final RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, interval, interval, timeUnit);
+    }
+
+    /**
+     * Completes the scheduled bookings that have ended. A batch the store fails to complete is kept for the next sweep.
+     *
+     * @return the number of bookings completed
+     */
+    public synchronized int sweep() {
+        for (Booking booking = scheduled.poll(); booking != null; booking = scheduled.poll()) {
+            byEndTime.add(booking);
+        }
+        final Instant now = Instant.now();
+        int completed = 0;
+        while (true) {
+            final List<Booking> batch = new ArrayList<>();
+            while (batch.size() < SWEEP_BATCH_SIZE && !byEndTime.isEmpty() && !byEndTime.peek().bookingEndTimeUTC.isAfter(now)) {
+                batch.add(byEndTime.poll());
+            }
+            if (batch.isEmpty()) {
+                return completed;
+            }
+            completed += completeBatch(batch);
+        }
+    }
+
+    @Override public void create(final Booking booking) {
+        bookingDataAccessor.create(booking);
+        schedule(booking);
+    }
+
+    @Override public void createAll(final List<Booking> bookings) {
+        bookingDataAccessor.createAll(bookings);
+        for (final Booking booking : bookings) {
+            schedule(booking);
+        }
+    }
+
+    @Override public Booking read(final String id) {
+        return bookingDataAccessor.read(id);
+    }
+
+    @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+        return bookingDataAccessor.read(house, bookingStatus);
+    }
+
+    @Override public Booking read(final String id, final String houseId, final BookingStatus bookingStatus) {
+        return bookingDataAccessor.read(id, houseId, bookingStatus);
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final String bookingStartDateTimeUTC,
+                                  final String bookingEndDateTimeUTC, final BookingStatus bookingStatus) {
+        return bookingDataAccessor.read(laundryRoom, bookingStartDateTimeUTC, bookingEndDateTimeUTC, bookingStatus);
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC,
+                                  final BookingStatus bookingStatus) {
+        return bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC, bookingStatus);
+    }
+
+    @Override public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
+        return bookingDataAccessor.read(startTime, endTime, bookingStatus);
+    }
+
+    @Override public Iterator<Booking> query(final BookingQuery bookingQuery) {
+        return bookingDataAccessor.query(bookingQuery);
+    }
+
+    @Override public Instant findFreeSlot(final LaundryRoom laundryRoom, final Instant from, final Instant to, final long lengthMinutes) {
+        return bookingDataAccessor.findFreeSlot(laundryRoom, from, to, lengthMinutes);
+    }
+
+    @Override public List<Booking> completeAll(final List<String> ids) {
+        return bookingDataAccessor.completeAll(ids);
+    }
+
+    @Override public void update() {
+        bookingDataAccessor.update();
+    }
+
+    /**
+     * Updates a field of a booking, scheduling the booking again when it is made ACTIVE
+     */
+    @Override public void update(final String id, final String fieldName, final String fieldValue) {
+        bookingDataAccessor.update(id, fieldName, fieldValue);
+        if (BOOKING_STATUS_KEY.equals(fieldName) && BookingStatus.valueOf(fieldValue) == ACTIVE) {
+            final Booking booking = bookingDataAccessor.read(id);
+            if (booking != null) {
+                schedule(booking);
+            }
+        }
+    }
+
+    @Override public void delete() {
+        bookingDataAccessor.delete();
+    }
+
+    @Override public synchronized void close() {
+        if (sweepScheduler != null) {
+            sweepScheduler.shutdown();
+        }
+    }
+
+    private void schedule(final Booking booking) {
+        if (booking.bookingStatus == ACTIVE) {
+            scheduled.offer(booking);
+        }
+    }
+
+    private int completeBatch(final List<Booking> batch) {
+        final List<String> ids = new ArrayList<>(batch.size());
+        for (final Booking booking : batch) {
+            ids.add(booking.id);
+        }
+        final List<Booking> completed;
+        try {
+            completed = bookingDataAccessor.completeAll(ids);
+        } catch (final RuntimeException e) {
+            byEndTime.addAll(batch);
+            throw e;
+        }
+        if (eventBus != null) {
+            for (final Booking booking : completed) {
+                eventBus.publish(BookingEventType.COMPLETED, booking);
+            }
+        }
+        return completed.size();
+    }
+}
@@ -0,0 +1,34 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.model.Booking;
+
+import java.util.Collection;
+
+/**
+ * Store of the ACTIVE booking claimed by every house, the single place enforcing one active booking per house when the bookings
+ * themselves are spread over shards by laundry room
+ */
+public interface HouseClaimDataAccessor {
+
+    /**
+     * Claims the house of the booking for it unless another booking holds the claim
+     *
+     * @return the booking holding the claim, the given booking if the claim was granted or was already its own
+     */
+    Booking claim(Booking booking);
+
+    /**
+     * @return the booking holding the claim of the house or null if the house has none
+     */
+    Booking read(int houseId);
+
+    /**
+     * @return the bookings holding the claims of the houses
+     */
+    Collection<Booking> readAll();
+
+    /**
+     * Releases the claim of the house of the booking if the booking holds it
+     */
+    void release(Booking booking);
+}
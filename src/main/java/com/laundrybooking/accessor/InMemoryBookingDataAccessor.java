@@ -0,0 +1,316 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.COMPLETED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.utils.IntObjectMap;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In memory booking data accessor. Bookings are stored by id and the ACTIVE bookings are additionally indexed per laundry room
+ * ordered by start time so that slot overlap checks are O(log n) instead of a scan of all the bookings, and by house id so that
+ * the one active booking per house check is a single lookup that does not allocate.
+ */
+public class InMemoryBookingDataAccessor extends BookingDataAccessor {
+
+    private final ConcurrentMap<String, Booking> bookingsById = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Integer, RoomBookingIndex> activeBookingsByRoom = new ConcurrentHashMap<>();
+
+    private final IntObjectMap<Booking> activeBookingsByHouse = new IntObjectMap<>();
+
+    /**
+     * Stores a booking. A random id is assigned to the booking if it does not have one.
+     */
+    @Override public void create(final Booking booking) {
+        if (booking.id == null) {
+            booking.id = UUID.randomUUID().toString();
+        }
+        if (bookingsById.putIfAbsent(booking.id, booking) != null) {
+            throw new IllegalArgumentException("Booking " + booking.id + " already exists");
+        }
+        if (booking.bookingStatus == ACTIVE) {
+            try {
+                addActiveBooking(booking);
+            } catch (final RuntimeException e) {
+                bookingsById.remove(booking.id, booking);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Creates all the bookings or none of them
+     */
+    @Override public void createAll(final List<Booking> bookings) {
+        int created = 0;
+        try {
+            for (final Booking booking : bookings) {
+                create(booking);
+                created++;
+            }
+        } catch (final RuntimeException e) {
+            for (int i = 0; i < created; i++) {
+                remove(bookings.get(i));
+            }
+            throw e;
+        }
+    }
+
+    @Override public Booking read(final String id) {
+        return bookingsById.get(id);
+    }
+
+    @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+        if (bookingStatus == ACTIVE) {
+            return activeBookingsByHouse.get(house.id);
+        }
+        for (final Booking booking : bookingsById.values()) {
+            if (booking.houseId == house.id && booking.bookingStatus == bookingStatus) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    @Override public Booking read(final String id, final String houseId, final BookingStatus bookingStatus) {
+        final Booking booking = bookingsById.get(id);
+        if (booking == null || booking.bookingStatus != bookingStatus || booking.houseId != Integer.parseInt(houseId)) {
+            return null;
+        }
+        return booking;
+    }
+
+    /**
+     * Returns a booking of the laundry room with the given status overlapping the [bookingStartDateTimeUTC, bookingEndDateTimeUTC)
+     * slot or null if there is none
+     */
+    @Override public Booking read(final LaundryRoom laundryRoom, final String bookingStartDateTimeUTC,
+                                  final String bookingEndDateTimeUTC, final BookingStatus bookingStatus) {
+        return read(laundryRoom, Instant.parse(bookingStartDateTimeUTC), Instant.parse(bookingEndDateTimeUTC), bookingStatus);
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC,
+                                  final BookingStatus bookingStatus) {
+        if (bookingStatus == ACTIVE) {
+            final RoomBookingIndex roomBookingIndex = activeBookingsByRoom.get(laundryRoom.id);
+            return roomBookingIndex == null ? null : roomBookingIndex.findOverlapping(bookingStartTimeUTC, bookingEndTimeUTC);
+        }
+        for (final Booking booking : bookingsById.values()) {
+            if (booking.laundryRoomId == laundryRoom.id && booking.bookingStatus == bookingStatus
+                    && overlaps(booking, bookingStartTimeUTC, bookingEndTimeUTC)) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the free slot on the occupancy bitmap of the laundry room, which is kept up to date as bookings are added and removed,
+     * instead of reading the bookings of the window
+     */
+    @Override public Instant findFreeSlot(final LaundryRoom laundryRoom, final Instant from, final Instant to, final long lengthMinutes) {
+        final RoomBookingIndex roomBookingIndex = activeBookingsByRoom.get(laundryRoom.id);
+        if (roomBookingIndex == null) {
+            final Instant start = ceilToMinute(from);
+            return start.plus(lengthMinutes, ChronoUnit.MINUTES).isAfter(to) ? null : start;
+        }
+        return roomBookingIndex.findFreeSlot(from, to, lengthMinutes);
+    }
+
+    /**
+     * Returns all the bookings with the given status overlapping the [startTime, endTime) window
+     */
+    @Override public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
+        final List<Booking> bookings = new ArrayList<>();
+        if (bookingStatus == ACTIVE) {
+            for (final RoomBookingIndex roomBookingIndex : activeBookingsByRoom.values()) {
+                bookings.addAll(roomBookingIndex.findAllOverlapping(startTime, endTime));
+            }
+            return bookings;
+        }
+        for (final Booking booking : bookingsById.values()) {
+            if (booking.bookingStatus == bookingStatus && overlaps(booking, startTime, endTime)) {
+                bookings.add(booking);
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Streams the ACTIVE bookings matching the query straight off the laundry room indexes, merging the rooms in query order, so
+     * the memory used does not depend on the number of bookings. Other statuses are read and sorted.
+     */
+    @Override public Iterator<Booking> query(final BookingQuery bookingQuery) {
+        if (bookingQuery.bookingStatus != ACTIVE) {
+            return super.query(bookingQuery);
+        }
+        final PriorityQueue<PeekingIterator> roomIterators = new PriorityQueue<>(
+                (first, second) -> QUERY_ORDER.compare(first.next, second.next));
+        for (final Map.Entry<Integer, RoomBookingIndex> room : activeBookingsByRoom.entrySet()) {
+            final int laundryRoomId = room.getKey();
+            if (bookingQuery.laundryRoomId != null && bookingQuery.laundryRoomId != laundryRoomId) {
+                continue;
+            }
+            // Rooms ordered after the cursor room may have a booking starting at the cursor time
+            final Iterator<Booking> roomIterator = room.getValue().findAllOverlapping(bookingQuery.startTime, bookingQuery.endTime,
+                    bookingQuery.afterStartTime, laundryRoomId > bookingQuery.afterLaundryRoomId).iterator();
+            if (roomIterator.hasNext()) {
+                roomIterators.add(new PeekingIterator(roomIterator));
+            }
+        }
+        return new Iterator<Booking>() {
+            @Override public boolean hasNext() {
+                return !roomIterators.isEmpty();
+            }
+
+            @Override public Booking next() {
+                final PeekingIterator roomIterator = roomIterators.poll();
+                if (roomIterator == null) {
+                    throw new NoSuchElementException();
+                }
+                final Booking booking = roomIterator.next;
+                if (roomIterator.advance()) {
+                    roomIterators.add(roomIterator);
+                }
+                return booking;
+            }
+        };
+    }
+
+    /**
+     * Updates a field of a booking. Only the booking status can be updated.
+     */
+    @Override public void update(final String id, final String fieldName, final String fieldValue) {
+        if (!BOOKING_STATUS_KEY.equals(fieldName)) {
+            throw new IllegalArgumentException("Unsupported booking field " + fieldName);
+        }
+        final Booking booking = bookingsById.get(id);
+        if (booking == null) {
+            throw new IllegalArgumentException("Unknown booking " + id);
+        }
+        final BookingStatus bookingStatus = BookingStatus.valueOf(fieldValue);
+        synchronized (booking) {
+            if (booking.bookingStatus == bookingStatus) {
+                return;
+            }
+            if (bookingStatus == ACTIVE) {
+                addActiveBooking(booking);
+                booking.bookingStatus = ACTIVE;
+            } else {
+                deactivate(booking, bookingStatus);
+            }
+        }
+    }
+
+    /**
+     * Completes the ACTIVE bookings among the given ones, each checked and updated atomically
+     */
+    @Override public List<Booking> completeAll(final List<String> ids) {
+        final List<Booking> completed = new ArrayList<>();
+        for (final String id : ids) {
+            final Booking booking = bookingsById.get(id);
+            if (booking != null) {
+                synchronized (booking) {
+                    if (complete(booking)) {
+                        completed.add(booking);
+                    }
+                }
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Moves an ACTIVE booking to COMPLETED, the caller holding the monitor of the booking
+     *
+     * @return false if the booking was not ACTIVE
+     */
+    boolean complete(final Booking booking) {
+        if (booking.bookingStatus != ACTIVE) {
+            return false;
+        }
+        deactivate(booking, COMPLETED);
+        return true;
+    }
+
+    /**
+     * Drops a booking from the store and its indexes, used to roll back a create that could not be persisted
+     */
+    void remove(final Booking booking) {
+        synchronized (booking) {
+            if (booking.bookingStatus == ACTIVE) {
+                roomIndex(booking.laundryRoomId).remove(booking);
+                activeBookingsByHouse.remove(booking.houseId, booking);
+            }
+            bookingsById.remove(booking.id, booking);
+        }
+    }
+
+    /**
+     * Adds a booking to the house and laundry room indexes, both or neither
+     */
+    private void addActiveBooking(final Booking booking) {
+        final Booking houseBooking = activeBookingsByHouse.putIfAbsent(booking.houseId, booking);
+        if (houseBooking != null && houseBooking != booking) {
+            throw new IllegalStateException("House " + booking.houseId + " already has an active booking starting "
+                    + houseBooking.bookingStartTimeUTC);
+        }
+        try {
+            roomIndex(booking.laundryRoomId).add(booking);
+        } catch (final RuntimeException e) {
+            activeBookingsByHouse.remove(booking.houseId, booking);
+            throw e;
+        }
+    }
+
+    private void deactivate(final Booking booking, final BookingStatus bookingStatus) {
+        roomIndex(booking.laundryRoomId).remove(booking);
+        activeBookingsByHouse.remove(booking.houseId, booking);
+        booking.bookingStatus = bookingStatus;
+    }
+
+    private RoomBookingIndex roomIndex(final int laundryRoomId) {
+        return activeBookingsByRoom.computeIfAbsent(laundryRoomId, id -> new RoomBookingIndex());
+    }
+
+    private static boolean overlaps(final Booking booking, final Instant startTime, final Instant endTime) {
+        return booking.bookingStartTimeUTC.isBefore(endTime) && booking.bookingEndTimeUTC.isAfter(startTime);
+    }
+
+    /**
+     * Iterator over the bookings of a laundry room with its next booking read ahead, used to merge the rooms
+     */
+    private static final class PeekingIterator {
+        private final Iterator<Booking> bookings;
+
+        private Booking next;
+
+        private PeekingIterator(final Iterator<Booking> bookings) {
+            this.bookings = bookings;
+            next = bookings.next();
+        }
+
+        private boolean advance() {
+            next = bookings.hasNext() ? bookings.next() : null;
+            return next != null;
+        }
+    }
+}
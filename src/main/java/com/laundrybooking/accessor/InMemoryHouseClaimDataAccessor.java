@@ -0,0 +1,50 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+
+import com.laundrybooking.model.Booking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In memory house claims. A claim holds an ACTIVE copy of the booking as it was claimed, so later changes made to the booking on
+ * its laundry room shard do not show through.
+ */
+public class InMemoryHouseClaimDataAccessor implements HouseClaimDataAccessor {
+
+    private final ConcurrentMap<Integer, Booking> claimsByHouse = new ConcurrentHashMap<>();
+
+    @Override public Booking claim(final Booking booking) {
+        if (booking.id == null) {
+            throw new IllegalArgumentException("A booking needs an id to claim its house");
+        }
+        final Booking claim = claimsByHouse.putIfAbsent(booking.houseId, copy(booking));
+        return claim == null || claim.id.equals(booking.id) ? booking : claim;
+    }
+
+    @Override public Booking read(final int houseId) {
+        return claimsByHouse.get(houseId);
+    }
+
+    @Override public Collection<Booking> readAll() {
+        return new ArrayList<>(claimsByHouse.values());
+    }
+
+    @Override public void release(final Booking booking) {
+        claimsByHouse.computeIfPresent(booking.houseId, (houseId, claim) -> claim.id.equals(booking.id) ? null : claim);
+    }
+
+    private static Booking copy(final Booking booking) {
+        return Booking.builder()
+                .id(booking.id)
+                .houseId(booking.houseId)
+                .laundryRoomId(booking.laundryRoomId)
+                .bookingStartTimeUTC(booking.bookingStartTimeUTC)
+                .bookingEndTimeUTC(booking.bookingEndTimeUTC)
+                .bookingStatus(ACTIVE)
+                .build();
+    }
+}
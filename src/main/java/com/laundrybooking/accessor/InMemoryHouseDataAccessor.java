@@ -0,0 +1,30 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.model.House;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * House data accessor keeping the houses in memory, keyed by the string form of their id so that reads need no parsing
+ */
+public class InMemoryHouseDataAccessor extends HouseDataAccessor {
+
+    private final ConcurrentMap<String, House> housesById = new ConcurrentHashMap<>();
+
+    @Override public void create(final House house) {
+        if (housesById.putIfAbsent(Integer.toString(house.id), house) != null) {
+            throw new IllegalArgumentException("House " + house.id + " already exists");
+        }
+    }
+
+    @Override public House read(final String id) {
+        return housesById.get(id);
+    }
+
+    @Override public Collection<House> readAll() {
+        return Collections.unmodifiableCollection(housesById.values());
+    }
+}
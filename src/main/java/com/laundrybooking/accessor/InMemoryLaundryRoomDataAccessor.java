@@ -0,0 +1,30 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.model.LaundryRoom;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Laundry room data accessor keeping the laundry rooms in memory, keyed by the string form of their id so that reads need no parsing
+ */
+public class InMemoryLaundryRoomDataAccessor extends LaundryRoomDataAccessor {
+
+    private final ConcurrentMap<String, LaundryRoom> laundryRoomsById = new ConcurrentHashMap<>();
+
+    @Override public void create(final LaundryRoom laundryRoom) {
+        if (laundryRoomsById.putIfAbsent(Integer.toString(laundryRoom.id), laundryRoom) != null) {
+            throw new IllegalArgumentException("Laundry room " + laundryRoom.id + " already exists");
+        }
+    }
+
+    @Override public LaundryRoom read(final String id) {
+        return laundryRoomsById.get(id);
+    }
+
+    @Override public Collection<LaundryRoom> readAll() {
+        return Collections.unmodifiableCollection(laundryRoomsById.values());
+    }
+}
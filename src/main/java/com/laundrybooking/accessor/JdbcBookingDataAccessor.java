@@ -0,0 +1,374 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.COMPLETED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static com.laundrybooking.utils.IsoInstantParser.NANOS_PER_SECOND;
+import static com.laundrybooking.utils.IsoInstantParser.toInstant;
+
+import com.laundrybooking.accessor.JdbcConnectionPool.PooledConnection;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Booking data accessor storing the bookings in the booking table of a JDBC database, see JdbcSchema. Bookings read are copies,
+ * changing them changes nothing in the database.
+ * Creating an ACTIVE booking or making a booking ACTIVE is one transaction locking the rows of its house and of its laundry room
+ * with SELECT ... FOR UPDATE, in the same order as the locks of the booking handler, before checking the active booking of the
+ * house and the overlapping bookings of the laundry room. Booking handlers of different processes sharing the database therefore
+ * cannot both book a house or a slot, the one losing the race gets an IllegalStateException like with the in memory store.
+ * Overlap checks of ACTIVE bookings are two seeks on the laundry room index, as the ACTIVE bookings of a laundry room do not overlap.
+ */
+public class JdbcBookingDataAccessor extends BookingDataAccessor {
+
+    static final int QUERY_PAGE_SIZE = 256;
+
+    private static final String COLUMNS = "id, house_id, laundry_room_id, booking_start, booking_end, booking_status";
+
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM booking ";
+
+    private static final String INSERT = "INSERT INTO booking (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String READ_BY_ID = SELECT + "WHERE id = ?";
+
+    private static final String READ_BY_HOUSE = SELECT + "WHERE house_id = ? AND booking_status = ? FETCH FIRST 1 ROWS ONLY";
+
+    // The last booking of the laundry room starting before the slot, the only one starting before it that can reach into it
+    private static final String READ_STARTING_BEFORE = SELECT
+            + "WHERE laundry_room_id = ? AND booking_status = ? AND booking_start < ? ORDER BY booking_start DESC FETCH FIRST 1 ROWS ONLY";
+
+    private static final String READ_STARTING_WITHIN = SELECT
+            + "WHERE laundry_room_id = ? AND booking_status = ? AND booking_start >= ? AND booking_start < ? "
+            + "ORDER BY booking_start FETCH FIRST 1 ROWS ONLY";
+
+    private static final String READ_OVERLAPPING = SELECT
+            + "WHERE laundry_room_id = ? AND booking_status = ? AND booking_start < ? AND booking_end > ? FETCH FIRST 1 ROWS ONLY";
+
+    private static final String READ_WINDOW = SELECT + "WHERE booking_status = ? AND booking_start < ? AND booking_end > ?";
+
+    private static final String LOCK_HOUSE = "SELECT id FROM house WHERE id = ? FOR UPDATE";
+
+    private static final String LOCK_LAUNDRY_ROOM = "SELECT id FROM laundry_room WHERE id = ? FOR UPDATE";
+
+    private static final String UPDATE_STATUS = "UPDATE booking SET booking_status = ? WHERE id = ?";
+
+    private static final String UPDATE_STATUS_IF = "UPDATE booking SET booking_status = ? WHERE id = ? AND booking_status = ?";
+
+    private final JdbcConnectionPool connectionPool;
+
+    public JdbcBookingDataAccessor(final JdbcConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * Stores a booking. A random id is assigned to the booking if it does not have one.
+     */
+    @Override public void create(final Booking booking) {
+        if (booking.id == null) {
+            booking.id = UUID.randomUUID().toString();
+        }
+        if (booking.bookingStatus != ACTIVE) {
+            connectionPool.call(connection -> insert(connection, booking));
+            return;
+        }
+        connectionPool.transaction(connection -> {
+            checkCanBeActive(connection, booking);
+            return insert(connection, booking);
+        });
+    }
+
+    /**
+     * Creates all the bookings or none of them in one transaction
+     */
+    @Override public void createAll(final List<Booking> bookings) {
+        for (final Booking booking : bookings) {
+            if (booking.id == null) {
+                booking.id = UUID.randomUUID().toString();
+            }
+        }
+        connectionPool.transaction(connection -> {
+            for (final Booking booking : bookings) {
+                if (booking.bookingStatus == ACTIVE) {
+                    checkCanBeActive(connection, booking);
+                }
+                insert(connection, booking);
+            }
+            return null;
+        });
+    }
+
+    @Override public Booking read(final String id) {
+        return connectionPool.call(connection -> readFirst(connection, READ_BY_ID, id));
+    }
+
+    @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+        return connectionPool.call(connection -> readFirst(connection, READ_BY_HOUSE, house.id, bookingStatus.name()));
+    }
+
+    @Override public Booking read(final String id, final String houseId, final BookingStatus bookingStatus) {
+        final Booking booking = read(id);
+        if (booking == null || booking.bookingStatus != bookingStatus || booking.houseId != Integer.parseInt(houseId)) {
+            return null;
+        }
+        return booking;
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final String bookingStartDateTimeUTC,
+                                  final String bookingEndDateTimeUTC, final BookingStatus bookingStatus) {
+        return read(laundryRoom, Instant.parse(bookingStartDateTimeUTC), Instant.parse(bookingEndDateTimeUTC), bookingStatus);
+    }
+
+    /**
+     * Returns a booking of the laundry room with the given status overlapping the [bookingStartTimeUTC, bookingEndTimeUTC) slot or
+     * null if there is none
+     */
+    @Override public Booking read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC,
+                                  final BookingStatus bookingStatus) {
+        return connectionPool.call(connection -> readOverlapping(connection, laundryRoom.id, toEpochNanos(bookingStartTimeUTC),
+                toEpochNanos(bookingEndTimeUTC), bookingStatus));
+    }
+
+    /**
+     * Returns all the bookings with the given status overlapping the [startTime, endTime) window
+     */
+    @Override public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
+        return connectionPool.call(connection -> readAll(connection, READ_WINDOW, bookingStatus.name(), toEpochNanos(endTime),
+                toEpochNanos(startTime)));
+    }
+
+    /**
+     * Pages through the ACTIVE bookings of the query, ordered by the database, with the query cursor, which is unique for them.
+     * Other statuses are read in one query.
+     */
+    @Override public Iterator<Booking> query(final BookingQuery bookingQuery) {
+        if (bookingQuery.bookingStatus != ACTIVE) {
+            return queryPage(bookingQuery, 0).iterator();
+        }
+        return new Iterator<Booking>() {
+            private BookingQuery pageQuery = bookingQuery;
+
+            private Iterator<Booking> page = queryPage(pageQuery, QUERY_PAGE_SIZE).iterator();
+
+            private int pageRemaining = QUERY_PAGE_SIZE;
+
+            private Booking last;
+
+            @Override public boolean hasNext() {
+                if (!page.hasNext() && pageRemaining == 0) {
+                    // A full page may not be the last one
+                    pageQuery = BookingQuery.builder()
+                            .startTime(bookingQuery.startTime)
+                            .endTime(bookingQuery.endTime)
+                            .laundryRoomId(bookingQuery.laundryRoomId)
+                            .bookingStatus(bookingQuery.bookingStatus)
+                            .afterStartTime(last.bookingStartTimeUTC)
+                            .afterLaundryRoomId(last.laundryRoomId)
+                            .build();
+                    page = queryPage(pageQuery, QUERY_PAGE_SIZE).iterator();
+                    pageRemaining = QUERY_PAGE_SIZE;
+                }
+                return page.hasNext();
+            }
+
+            @Override public Booking next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = page.next();
+                pageRemaining--;
+                return last;
+            }
+        };
+    }
+
+    /**
+     * Updates a field of a booking. Only the booking status can be updated, a booking made ACTIVE is checked like a created one.
+     */
+    @Override public void update(final String id, final String fieldName, final String fieldValue) {
+        if (!BOOKING_STATUS_KEY.equals(fieldName)) {
+            throw new IllegalArgumentException("Unsupported booking field " + fieldName);
+        }
+        final BookingStatus bookingStatus = BookingStatus.valueOf(fieldValue);
+        if (bookingStatus != ACTIVE) {
+            final int updated = connectionPool.call(connection -> execute(connection, UPDATE_STATUS, bookingStatus.name(), id));
+            if (updated == 0) {
+                throw new IllegalArgumentException("Unknown booking " + id);
+            }
+            return;
+        }
+        connectionPool.transaction(connection -> {
+            final Booking booking = readFirst(connection, READ_BY_ID, id);
+            if (booking == null) {
+                throw new IllegalArgumentException("Unknown booking " + id);
+            }
+            if (booking.bookingStatus == ACTIVE) {
+                return 0;
+            }
+            checkCanBeActive(connection, booking);
+            return execute(connection, UPDATE_STATUS, ACTIVE.name(), id);
+        });
+    }
+
+    /**
+     * Completes the ACTIVE bookings among the given ones with conditional updates, in one transaction
+     */
+    @Override public List<Booking> completeAll(final List<String> ids) {
+        return connectionPool.transaction(connection -> {
+            final List<Booking> completed = new ArrayList<>();
+            for (final String id : ids) {
+                if (execute(connection, UPDATE_STATUS_IF, COMPLETED.name(), id, ACTIVE.name()) == 1) {
+                    completed.add(readFirst(connection, READ_BY_ID, id));
+                }
+            }
+            return completed;
+        });
+    }
+
+    /**
+     * Locks the house and the laundry room of the booking for the rest of the transaction and checks that neither has another
+     * ACTIVE booking in the way
+     */
+    private static void checkCanBeActive(final PooledConnection connection, final Booking booking) throws SQLException {
+        lock(connection, LOCK_HOUSE, booking.houseId, "house");
+        lock(connection, LOCK_LAUNDRY_ROOM, booking.laundryRoomId, "laundry room");
+        final Booking houseBooking = readFirst(connection, READ_BY_HOUSE, booking.houseId, ACTIVE.name());
+        if (houseBooking != null && !houseBooking.id.equals(booking.id)) {
+            throw new IllegalStateException("House " + booking.houseId + " already has an active booking starting "
+                    + houseBooking.bookingStartTimeUTC);
+        }
+        final Booking overlapping = readOverlapping(connection, booking.laundryRoomId, toEpochNanos(booking.bookingStartTimeUTC),
+                toEpochNanos(booking.bookingEndTimeUTC), ACTIVE);
+        if (overlapping != null && !overlapping.id.equals(booking.id)) {
+            throw new IllegalStateException("Laundry room " + booking.laundryRoomId + " already has an active booking starting "
+                    + overlapping.bookingStartTimeUTC);
+        }
+    }
+
+    private static void lock(final PooledConnection connection, final String sql, final int id, final String rowName)
+            throws SQLException {
+        final PreparedStatement statement = connection.prepare(sql);
+        statement.setInt(1, id);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                throw new IllegalArgumentException("Unknown " + rowName + " " + id);
+            }
+        }
+    }
+
+    private static Booking readOverlapping(final PooledConnection connection, final int laundryRoomId, final long startEpochNanos,
+                                           final long endEpochNanos, final BookingStatus bookingStatus) throws SQLException {
+        if (bookingStatus != ACTIVE) {
+            return readFirst(connection, READ_OVERLAPPING, laundryRoomId, bookingStatus.name(), endEpochNanos, startEpochNanos);
+        }
+        final Booking startingBefore = readFirst(connection, READ_STARTING_BEFORE, laundryRoomId, ACTIVE.name(), startEpochNanos);
+        if (startingBefore != null && toEpochNanos(startingBefore.bookingEndTimeUTC) > startEpochNanos) {
+            return startingBefore;
+        }
+        return readFirst(connection, READ_STARTING_WITHIN, laundryRoomId, ACTIVE.name(), startEpochNanos, endEpochNanos);
+    }
+
+    /**
+     * @param limit most bookings returned, 0 for all of them
+     */
+    private List<Booking> queryPage(final BookingQuery bookingQuery, final int limit) {
+        final List<Object> parameters = new ArrayList<>();
+        final StringBuilder sql = new StringBuilder(SELECT).append("WHERE booking_status = ? AND booking_start < ? AND booking_end > ?");
+        parameters.add(bookingQuery.bookingStatus.name());
+        parameters.add(toEpochNanos(bookingQuery.endTime));
+        parameters.add(toEpochNanos(bookingQuery.startTime));
+        if (bookingQuery.laundryRoomId != null) {
+            sql.append(" AND laundry_room_id = ?");
+            parameters.add(bookingQuery.laundryRoomId);
+        }
+        if (bookingQuery.afterStartTime != null) {
+            final long afterStartEpochNanos = toEpochNanos(bookingQuery.afterStartTime);
+            sql.append(" AND (booking_start > ? OR (booking_start = ? AND laundry_room_id > ?))");
+            parameters.add(afterStartEpochNanos);
+            parameters.add(afterStartEpochNanos);
+            parameters.add(bookingQuery.afterLaundryRoomId);
+        }
+        sql.append(" ORDER BY booking_start, laundry_room_id");
+        if (limit > 0) {
+            // The limit is a constant, so the statements prepared stay few
+            sql.append(" FETCH FIRST ").append(limit).append(" ROWS ONLY");
+        }
+        return connectionPool.call(connection -> readAll(connection, sql.toString(), parameters.toArray()));
+    }
+
+    private static int insert(final PooledConnection connection, final Booking booking) throws SQLException {
+        try {
+            return execute(connection, INSERT, booking.id, booking.houseId, booking.laundryRoomId,
+                    toEpochNanos(booking.bookingStartTimeUTC), toEpochNanos(booking.bookingEndTimeUTC), booking.bookingStatus.name());
+        } catch (final SQLException e) {
+            if (JdbcConnectionPool.isDuplicateKey(e)) {
+                throw new IllegalArgumentException("Booking " + booking.id + " already exists");
+            }
+            throw e;
+        }
+    }
+
+    private static int execute(final PooledConnection connection, final String sql, final Object... parameters) throws SQLException {
+        return bind(connection.prepare(sql), parameters).executeUpdate();
+    }
+
+    private static Booking readFirst(final PooledConnection connection, final String sql, final Object... parameters)
+            throws SQLException {
+        try (ResultSet resultSet = bind(connection.prepare(sql), parameters).executeQuery()) {
+            return resultSet.next() ? toBooking(resultSet) : null;
+        }
+    }
+
+    private static List<Booking> readAll(final PooledConnection connection, final String sql, final Object... parameters)
+            throws SQLException {
+        final List<Booking> bookings = new ArrayList<>();
+        try (ResultSet resultSet = bind(connection.prepare(sql), parameters).executeQuery()) {
+            while (resultSet.next()) {
+                bookings.add(toBooking(resultSet));
+            }
+        }
+        return bookings;
+    }
+
+    private static PreparedStatement bind(final PreparedStatement statement, final Object... parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+        return statement;
+    }
+
+    private static Booking toBooking(final ResultSet resultSet) throws SQLException {
+        return Booking.builder()
+                .id(resultSet.getString(1))
+                .houseId(resultSet.getInt(2))
+                .laundryRoomId(resultSet.getInt(3))
+                .bookingStartTimeUTC(toInstant(resultSet.getLong(4)))
+                .bookingEndTimeUTC(toInstant(resultSet.getLong(5)))
+                .bookingStatus(BookingStatus.valueOf(resultSet.getString(6)))
+                .build();
+    }
+
+    /**
+     * Epoch nanoseconds of the instant, clamped to the range of a long so that windows such as [Instant.MIN, Instant.MAX) can be
+     * read
+     */
+    private static long toEpochNanos(final Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+        } catch (final ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+}
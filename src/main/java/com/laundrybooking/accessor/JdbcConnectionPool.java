@@ -0,0 +1,270 @@
+package com.laundrybooking.accessor;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of the JDBC connections shared by the JDBC data accessors. Connections are opened on demand up to the maximum size
+ * and kept open once returned, and every connection keeps the statements prepared on it, so the SQL of a call is parsed once per
+ * connection instead of once per call. A caller finding every connection busy waits up to the borrow timeout.
+ * Connections run in READ COMMITTED with auto commit on, transactions turn auto commit off for their duration and are retried when
+ * the database rolls them back on a deadlock or a serialization failure. A connection that fails and is no longer valid is closed
+ * instead of being returned.
+ */
+public class JdbcConnectionPool implements Closeable {
+
+    static final int MAX_TRANSACTION_ATTEMPTS = 3;
+
+    private static final long DEFAULT_BORROW_TIMEOUT_SECONDS = 30;
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    // SQL state class of the transactions rolled back by the database
+    private static final String TRANSACTION_ROLLBACK_STATE_CLASS = "40";
+
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+
+    private final ConnectionFactory connectionFactory;
+
+    private final int maximumSize;
+
+    private final long borrowTimeoutNanos;
+
+    private final BlockingQueue<PooledConnection> idleConnections;
+
+    // Connections open, idle or borrowed
+    private final AtomicInteger size = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    /**
+     * @param connectionFactory opens the connections, a DataSource can be given as dataSource::getConnection
+     * @param maximumSize       most connections open at once
+     * @param borrowTimeout     longest wait for a connection when all of them are busy
+     */
+    public JdbcConnectionPool(final ConnectionFactory connectionFactory, final int maximumSize, final long borrowTimeout,
+                              final TimeUnit timeUnit) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.connectionFactory = connectionFactory;
+        this.maximumSize = maximumSize;
+        this.borrowTimeoutNanos = timeUnit.toNanos(borrowTimeout);
+        this.idleConnections = new ArrayBlockingQueue<>(maximumSize);
+    }
+
+    public JdbcConnectionPool(final String url, final String user, final String password, final int maximumSize) {
+        this(() -> DriverManager.getConnection(url, user, password), maximumSize, DEFAULT_BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs the call on a pooled connection in auto commit mode
+     */
+    <T> T call(final SqlCall<T> sqlCall) {
+        final PooledConnection connection = borrow();
+        boolean valid = true;
+        try {
+            return sqlCall.call(connection);
+        } catch (final SQLException e) {
+            valid = connection.isValid();
+            throw new DataAccessException(e.getMessage(), e);
+        } finally {
+            release(connection, valid);
+        }
+    }
+
+    /**
+     * Runs the call in a transaction on a pooled connection, committed if the call returns and rolled back if it throws. The call
+     * is run again, up to MAX_TRANSACTION_ATTEMPTS times, when the database rolls the transaction back, so it must not have side
+     * effects outside of the transaction.
+     */
+    <T> T transaction(final SqlCall<T> sqlCall) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call(connection -> connection.inTransaction(sqlCall));
+            } catch (final DataAccessException e) {
+                if (attempt == MAX_TRANSACTION_ATTEMPTS || !isRolledBack(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public int getSize() {
+        return size.get();
+    }
+
+    public int getIdleCount() {
+        return idleConnections.size();
+    }
+
+    /**
+     * Closes the idle connections, the borrowed ones are closed as they are returned
+     */
+    @Override public void close() {
+        closed = true;
+        for (PooledConnection connection = idleConnections.poll(); connection != null; connection = idleConnections.poll()) {
+            discard(connection);
+        }
+    }
+
+    private PooledConnection borrow() {
+        if (closed) {
+            throw new DataAccessException("Connection pool is closed");
+        }
+        PooledConnection connection = idleConnections.poll();
+        if (connection != null) {
+            return connection;
+        }
+        if (size.incrementAndGet() <= maximumSize) {
+            try {
+                return new PooledConnection(connectionFactory.connect());
+            } catch (final SQLException e) {
+                size.decrementAndGet();
+                throw new DataAccessException("Could not open a database connection", e);
+            }
+        }
+        size.decrementAndGet();
+        try {
+            connection = idleConnections.poll(borrowTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted waiting for a database connection", e);
+        }
+        if (connection == null) {
+            throw new DataAccessException("Timed out waiting for a database connection");
+        }
+        return connection;
+    }
+
+    private void release(final PooledConnection connection, final boolean valid) {
+        if (!valid || closed || !idleConnections.offer(connection)) {
+            discard(connection);
+            return;
+        }
+        // The pool may have been closed after the check, in which case close may not have seen the connection
+        if (closed && idleConnections.remove(connection)) {
+            discard(connection);
+        }
+    }
+
+    private void discard(final PooledConnection connection) {
+        size.decrementAndGet();
+        connection.close();
+    }
+
+    /**
+     * @return true if the statement failed on a primary key or unique constraint
+     */
+    static boolean isDuplicateKey(final SQLException e) {
+        return UNIQUE_VIOLATION_STATE.equals(e.getSQLState());
+    }
+
+    private static boolean isRolledBack(final DataAccessException e) {
+        final Throwable cause = e.getCause();
+        if (!(cause instanceof SQLException)) {
+            return false;
+        }
+        final String sqlState = ((SQLException) cause).getSQLState();
+        return sqlState != null && sqlState.startsWith(TRANSACTION_ROLLBACK_STATE_CLASS);
+    }
+
+    /**
+     * Opens a JDBC connection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+
+    /**
+     * Work done on a pooled connection
+     */
+    @FunctionalInterface
+    interface SqlCall<T> {
+        T call(PooledConnection connection) throws SQLException;
+    }
+
+    /**
+     * Connection borrowed from the pool, used by one thread at a time, with the statements prepared on it
+     */
+    static final class PooledConnection {
+        private final Connection connection;
+
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private PooledConnection(final Connection connection) throws SQLException {
+            this.connection = connection;
+            try {
+                connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                connection.setAutoCommit(true);
+            } catch (final SQLException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the statement of the SQL prepared on this connection, preparing it on first use. The statement stays open for
+         * the next call, so callers close the result sets but not the statement.
+         */
+        PreparedStatement prepare(final String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        Connection getConnection() {
+            return connection;
+        }
+
+        private <T> T inTransaction(final SqlCall<T> sqlCall) throws SQLException {
+            connection.setAutoCommit(false);
+            try {
+                final T result = sqlCall.call(this);
+                connection.commit();
+                return result;
+            } catch (final SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (final SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        private boolean isValid() {
+            try {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (final SQLException e) {
+                return false;
+            }
+        }
+
+        private void close() {
+            try {
+                // Closes the prepared statements as well
+                connection.close();
+            } catch (final SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
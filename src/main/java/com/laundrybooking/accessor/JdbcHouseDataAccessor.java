@@ -0,0 +1,94 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.model.House;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * House data accessor storing the houses in the house table of a JDBC database
+ */
+public class JdbcHouseDataAccessor extends HouseDataAccessor {
+
+    private static final String COLUMNS = "id, street_address, house_number, city, state, zip_code, contact_number";
+
+    private static final String INSERT = "INSERT INTO house (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String READ_BY_ID = "SELECT " + COLUMNS + " FROM house WHERE id = ?";
+
+    private static final String READ_ALL = "SELECT " + COLUMNS + " FROM house";
+
+    private final JdbcConnectionPool connectionPool;
+
+    public JdbcHouseDataAccessor(final JdbcConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    @Override public void create(final House house) {
+        connectionPool.call(connection -> {
+            final PreparedStatement statement = connection.prepare(INSERT);
+            statement.setInt(1, house.id);
+            statement.setString(2, house.streetAddress);
+            statement.setString(3, house.houseNumber);
+            statement.setString(4, house.city);
+            statement.setString(5, house.state);
+            statement.setString(6, house.zipCode);
+            statement.setString(7, house.contactNumber);
+            try {
+                return statement.executeUpdate();
+            } catch (final SQLException e) {
+                if (JdbcConnectionPool.isDuplicateKey(e)) {
+                    throw new IllegalArgumentException("House " + house.id + " already exists");
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Returns the house or null if there is none with that id
+     */
+    @Override public House read(final String id) {
+        final int houseId;
+        try {
+            houseId = Integer.parseInt(id);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+        return connectionPool.call(connection -> {
+            final PreparedStatement statement = connection.prepare(READ_BY_ID);
+            statement.setInt(1, houseId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? toHouse(resultSet) : null;
+            }
+        });
+    }
+
+    @Override public Collection<House> readAll() {
+        return connectionPool.call(connection -> {
+            final List<House> houses = new ArrayList<>();
+            try (ResultSet resultSet = connection.prepare(READ_ALL).executeQuery()) {
+                while (resultSet.next()) {
+                    houses.add(toHouse(resultSet));
+                }
+            }
+            return houses;
+        });
+    }
+
+    private static House toHouse(final ResultSet resultSet) throws SQLException {
+        return House.builder()
+                .id(resultSet.getInt(1))
+                .streetAddress(resultSet.getString(2))
+                .houseNumber(resultSet.getString(3))
+                .city(resultSet.getString(4))
+                .state(resultSet.getString(5))
+                .zipCode(resultSet.getString(6))
+                .contactNumber(resultSet.getString(7))
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.model.LaundryRoom;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Laundry room data accessor storing the laundry rooms in the laundry_room table of a JDBC database
+ */
+public class JdbcLaundryRoomDataAccessor extends LaundryRoomDataAccessor {
+
+    private static final String COLUMNS = "id, name, start_hour, end_hour, min_slot_length, max_slot_length, booking_window";
+
+    private static final String INSERT = "INSERT INTO laundry_room (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String READ_BY_ID = "SELECT " + COLUMNS + " FROM laundry_room WHERE id = ?";
+
+    private static final String READ_ALL = "SELECT " + COLUMNS + " FROM laundry_room";
+
+    private final JdbcConnectionPool connectionPool;
+
+    public JdbcLaundryRoomDataAccessor(final JdbcConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    @Override public void create(final LaundryRoom laundryRoom) {
+        connectionPool.call(connection -> {
+            final PreparedStatement statement = connection.prepare(INSERT);
+            statement.setInt(1, laundryRoom.id);
+            statement.setString(2, laundryRoom.name);
+            statement.setInt(3, laundryRoom.startHour);
+            statement.setInt(4, laundryRoom.endHour);
+            statement.setInt(5, laundryRoom.minSlotLength);
+            statement.setInt(6, laundryRoom.maxSlotLength);
+            statement.setInt(7, laundryRoom.bookingWindow);
+            try {
+                return statement.executeUpdate();
+            } catch (final SQLException e) {
+                if (JdbcConnectionPool.isDuplicateKey(e)) {
+                    throw new IllegalArgumentException("Laundry room " + laundryRoom.id + " already exists");
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Returns the laundry room or null if there is none with that id
+     */
+    @Override public LaundryRoom read(final String id) {
+        final int laundryRoomId;
+        try {
+            laundryRoomId = Integer.parseInt(id);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+        return connectionPool.call(connection -> {
+            final PreparedStatement statement = connection.prepare(READ_BY_ID);
+            statement.setInt(1, laundryRoomId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? toLaundryRoom(resultSet) : null;
+            }
+        });
+    }
+
+    @Override public Collection<LaundryRoom> readAll() {
+        return connectionPool.call(connection -> {
+            final List<LaundryRoom> laundryRooms = new ArrayList<>();
+            try (ResultSet resultSet = connection.prepare(READ_ALL).executeQuery()) {
+                while (resultSet.next()) {
+                    laundryRooms.add(toLaundryRoom(resultSet));
+                }
+            }
+            return laundryRooms;
+        });
+    }
+
+    private static LaundryRoom toLaundryRoom(final ResultSet resultSet) throws SQLException {
+        return LaundryRoom.builder()
+                .id(resultSet.getInt(1))
+                .name(resultSet.getString(2))
+                .startHour(resultSet.getInt(3))
+                .endHour(resultSet.getInt(4))
+                .minSlotLength(resultSet.getInt(5))
+                .maxSlotLength(resultSet.getInt(6))
+                .bookingWindow(resultSet.getInt(7))
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.laundrybooking.accessor;
+
+import java.sql.Statement;
+
+/**
+ * Tables of the JDBC data accessors. Booking times are stored as epoch nanoseconds, exact and compared as plain integers. The
+ * laundry room index serves the overlap reads of a laundry room, the house index the active booking of a house and the status
+ * index the reads of a time window.
+ */
+public final class JdbcSchema {
+
+    private static final String[] STATEMENTS = {
+            "CREATE TABLE IF NOT EXISTS house (id INT PRIMARY KEY, street_address VARCHAR(255), house_number VARCHAR(32), "
+                    + "city VARCHAR(128), state VARCHAR(128), zip_code VARCHAR(32), contact_number VARCHAR(32))",
+            "CREATE TABLE IF NOT EXISTS laundry_room (id INT PRIMARY KEY, name VARCHAR(255), start_hour INT NOT NULL, "
+                    + "end_hour INT NOT NULL, min_slot_length INT NOT NULL, max_slot_length INT NOT NULL, booking_window INT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS booking (id VARCHAR(64) PRIMARY KEY, house_id INT NOT NULL REFERENCES house (id), "
+                    + "laundry_room_id INT NOT NULL REFERENCES laundry_room (id), booking_start BIGINT NOT NULL, "
+                    + "booking_end BIGINT NOT NULL, booking_status VARCHAR(16) NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS booking_laundry_room_start ON booking (laundry_room_id, booking_status, booking_start)",
+            "CREATE INDEX IF NOT EXISTS booking_house_status ON booking (house_id, booking_status)",
+            "CREATE INDEX IF NOT EXISTS booking_status_start ON booking (booking_status, booking_start)"
+    };
+
+    private JdbcSchema() {
+    }
+
+    /**
+     * Creates the tables and indexes that do not exist yet
+     */
+    public static void create(final JdbcConnectionPool connectionPool) {
+        connectionPool.call(connection -> {
+            try (Statement statement = connection.getConnection().createStatement()) {
+                for (final String sql : STATEMENTS) {
+                    statement.execute(sql);
+                }
+            }
+            return null;
+        });
+    }
+}
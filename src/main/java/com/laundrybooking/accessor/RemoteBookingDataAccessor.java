@@ -0,0 +1,162 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.accessor.ShardHttpClient.encode;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.utils.ShardProtocol.BOOKINGS_PATH;
+import static com.laundrybooking.utils.ShardProtocol.COMPLETE_PATH;
+import static com.laundrybooking.utils.ShardProtocol.FREE_SLOT_PATH;
+import static com.laundrybooking.utils.ShardProtocol.HOUSE_BOOKINGS_PATH;
+import static com.laundrybooking.utils.ShardProtocol.OVERLAPPING_PATH;
+import static com.laundrybooking.utils.ShardProtocol.QUERY_PATH;
+import static com.laundrybooking.utils.ShardProtocol.RANGE_PATH;
+import static com.laundrybooking.utils.ShardProtocol.START_KEY;
+import static com.laundrybooking.utils.ShardProtocol.parseBooking;
+import static com.laundrybooking.utils.ShardProtocol.parseBookings;
+import static com.laundrybooking.utils.ShardProtocol.toJson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Booking data accessor of a shard served by a BookingShardServer. Bookings read are copies, changing them changes nothing on the
+ * shard. Queries of ACTIVE bookings are fetched a page at a time as the iterator is walked.
+ */
+class RemoteBookingDataAccessor extends BookingDataAccessor {
+
+    static final int QUERY_PAGE_SIZE = 256;
+
+    private final ShardHttpClient shardHttpClient;
+
+    RemoteBookingDataAccessor(final ShardHttpClient shardHttpClient) {
+        this.shardHttpClient = shardHttpClient;
+    }
+
+    /**
+     * Stores a booking, the id assigned by the shard is set on the booking if it did not have one
+     */
+    @Override public void create(final Booking booking) {
+        booking.id = parseBooking(shardHttpClient.post(BOOKINGS_PATH, toJson(booking))).id;
+    }
+
+    @Override public Booking read(final String id) {
+        return parseBooking(shardHttpClient.get(BOOKINGS_PATH + "/" + encode(id)));
+    }
+
+    @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+        return parseBooking(shardHttpClient.get(HOUSE_BOOKINGS_PATH + "?houseId=" + house.id + "&status=" + bookingStatus));
+    }
+
+    @Override public Booking read(final String id, final String houseId, final BookingStatus bookingStatus) {
+        return parseBooking(shardHttpClient.get(BOOKINGS_PATH + "/" + encode(id) + "?houseId=" + encode(houseId)
+                + "&status=" + bookingStatus));
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final String bookingStartDateTimeUTC,
+                                  final String bookingEndDateTimeUTC, final BookingStatus bookingStatus) {
+        return read(laundryRoom, Instant.parse(bookingStartDateTimeUTC), Instant.parse(bookingEndDateTimeUTC), bookingStatus);
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC,
+                                  final BookingStatus bookingStatus) {
+        return parseBooking(shardHttpClient.get(OVERLAPPING_PATH + "?laundryRoomId=" + laundryRoom.id + "&start=" + bookingStartTimeUTC
+                + "&end=" + bookingEndTimeUTC + "&status=" + bookingStatus));
+    }
+
+    @Override public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
+        return parseBookings(shardHttpClient.get(RANGE_PATH + "?start=" + startTime + "&end=" + endTime + "&status=" + bookingStatus));
+    }
+
+    /**
+     * Pages through the ACTIVE bookings of the query with the query cursor, which is unique for them. Other statuses are read in one
+     * request.
+     */
+    @Override public Iterator<Booking> query(final BookingQuery bookingQuery) {
+        if (bookingQuery.bookingStatus != ACTIVE) {
+            return queryPage(bookingQuery, 0).iterator();
+        }
+        return new Iterator<Booking>() {
+            private BookingQuery pageQuery = bookingQuery;
+
+            private Iterator<Booking> page = queryPage(pageQuery, QUERY_PAGE_SIZE).iterator();
+
+            private int pageRemaining = QUERY_PAGE_SIZE;
+
+            private Booking last;
+
+            @Override public boolean hasNext() {
+                if (!page.hasNext() && pageRemaining == 0) {
+                    // A full page may not be the last one
+                    pageQuery = BookingQuery.builder()
+                            .startTime(bookingQuery.startTime)
+                            .endTime(bookingQuery.endTime)
+                            .laundryRoomId(bookingQuery.laundryRoomId)
+                            .bookingStatus(bookingQuery.bookingStatus)
+                            .afterStartTime(last.bookingStartTimeUTC)
+                            .afterLaundryRoomId(last.laundryRoomId)
+                            .build();
+                    page = queryPage(pageQuery, QUERY_PAGE_SIZE).iterator();
+                    pageRemaining = QUERY_PAGE_SIZE;
+                }
+                return page.hasNext();
+            }
+
+            @Override public Booking next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = page.next();
+                pageRemaining--;
+                return last;
+            }
+        };
+    }
+
+    @Override public Instant findFreeSlot(final LaundryRoom laundryRoom, final Instant from, final Instant to, final long lengthMinutes) {
+        final JsonElement freeSlot = new JsonParser().parse(shardHttpClient.get(FREE_SLOT_PATH + "?laundryRoomId=" + laundryRoom.id
+                + "&from=" + from + "&to=" + to + "&length=" + lengthMinutes));
+        return freeSlot.isJsonNull() ? null : Instant.parse(freeSlot.getAsJsonObject().get(START_KEY).getAsString());
+    }
+
+    @Override public List<Booking> completeAll(final List<String> ids) {
+        final JsonArray body = new JsonArray();
+        for (final String id : ids) {
+            body.add(new JsonPrimitive(id));
+        }
+        return parseBookings(shardHttpClient.post(COMPLETE_PATH, body));
+    }
+
+    @Override public void update(final String id, final String fieldName, final String fieldValue) {
+        shardHttpClient.put(BOOKINGS_PATH + "/" + encode(id) + "?field=" + encode(fieldName) + "&value=" + encode(fieldValue));
+    }
+
+    /**
+     * @param limit most bookings returned, 0 for all of them
+     */
+    private List<Booking> queryPage(final BookingQuery bookingQuery, final int limit) {
+        final StringBuilder pathAndQuery = new StringBuilder(QUERY_PATH)
+                .append("?start=").append(bookingQuery.startTime)
+                .append("&end=").append(bookingQuery.endTime)
+                .append("&status=").append(bookingQuery.bookingStatus)
+                .append("&limit=").append(limit);
+        if (bookingQuery.laundryRoomId != null) {
+            pathAndQuery.append("&laundryRoomId=").append(bookingQuery.laundryRoomId);
+        }
+        if (bookingQuery.afterStartTime != null) {
+            pathAndQuery.append("&afterStart=").append(bookingQuery.afterStartTime)
+                    .append("&afterLaundryRoomId=").append(bookingQuery.afterLaundryRoomId);
+        }
+        return parseBookings(shardHttpClient.get(pathAndQuery.toString()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.accessor.ShardHttpClient.encode;
+import static com.laundrybooking.utils.ShardProtocol.HOUSE_CLAIMS_PATH;
+import static com.laundrybooking.utils.ShardProtocol.parseBooking;
+import static com.laundrybooking.utils.ShardProtocol.parseBookings;
+import static com.laundrybooking.utils.ShardProtocol.toJson;
+
+import com.laundrybooking.model.Booking;
+
+import java.util.Collection;
+
+/**
+ * House claims of a shard served by a BookingShardServer
+ */
+class RemoteHouseClaimDataAccessor implements HouseClaimDataAccessor {
+
+    private final ShardHttpClient shardHttpClient;
+
+    RemoteHouseClaimDataAccessor(final ShardHttpClient shardHttpClient) {
+        this.shardHttpClient = shardHttpClient;
+    }
+
+    @Override public Booking claim(final Booking booking) {
+        final Booking claim = parseBooking(shardHttpClient.post(HOUSE_CLAIMS_PATH, toJson(booking)));
+        return claim.id.equals(booking.id) ? booking : claim;
+    }
+
+    @Override public Booking read(final int houseId) {
+        return parseBooking(shardHttpClient.get(HOUSE_CLAIMS_PATH + "/" + houseId));
+    }
+
+    @Override public Collection<Booking> readAll() {
+        return parseBookings(shardHttpClient.get(HOUSE_CLAIMS_PATH));
+    }
+
+    @Override public void release(final Booking booking) {
+        shardHttpClient.delete(HOUSE_CLAIMS_PATH + "/" + booking.houseId + "?bookingId=" + encode(booking.id));
+    }
+}
@@ -0,0 +1,102 @@
+package com.laundrybooking.accessor;
+
+import com.laundrybooking.model.Booking;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index of the ACTIVE bookings of a single laundry room ordered by booking start time.
+ * Active bookings of a room never overlap, so the bookings are ordered by their end times as well and the only booking that can
+ * overlap a slot is the last one starting before the slot ends. This makes the overlap check a single O(log n) skip list lookup.
+ * The index also keeps a minute occupancy bitmap of the room, so a check for a slot nobody booked is answered by a few bit
+ * operations without touching the skip list.
+ * Reads are lock free, mutations are serialized on the index monitor.
+ */
+class RoomBookingIndex {
+
+    private static final long SECONDS_PER_MINUTE = 60;
+
+    private final ConcurrentSkipListMap<Instant, Booking> bookingsByStartTime = new ConcurrentSkipListMap<>();
+
+    private final SlotOccupancyBitmap occupancy = new SlotOccupancyBitmap();
+
+    /**
+     * Returns the active booking overlapping the [startTime, endTime) slot or null if the slot is free
+     */
+    Booking findOverlapping(final Instant startTime, final Instant endTime) {
+        if (occupancy.isFree(startTime, endTime)) {
+            return null;
+        }
+        final Map.Entry<Instant, Booking> candidate = bookingsByStartTime.lowerEntry(endTime);
+        if (candidate != null && candidate.getValue().bookingEndTimeUTC.isAfter(startTime)) {
+            return candidate.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the active bookings overlapping the [startTime, endTime) window ordered by start time
+     */
+    Collection<Booking> findAllOverlapping(final Instant startTime, final Instant endTime) {
+        return findAllOverlapping(startTime, endTime, null, true);
+    }
+
+    /**
+     * Returns the active bookings overlapping the [startTime, endTime) window starting after fromStartTime, or at it when
+     * fromInclusive, ordered by start time. The returned view is lazy and weakly consistent.
+     */
+    Collection<Booking> findAllOverlapping(final Instant startTime, final Instant endTime, final Instant fromStartTime,
+                                           final boolean fromInclusive) {
+        final Map.Entry<Instant, Booking> first = bookingsByStartTime.floorEntry(startTime);
+        Instant fromKey = first != null && first.getValue().bookingEndTimeUTC.isAfter(startTime) ? first.getKey() : startTime;
+        boolean inclusive = true;
+        if (fromStartTime != null && fromStartTime.compareTo(fromKey) >= 0) {
+            fromKey = fromStartTime;
+            inclusive = fromInclusive;
+        }
+        if (fromKey.compareTo(endTime) >= 0) {
+            return Collections.emptyList();
+        }
+        return bookingsByStartTime.subMap(fromKey, inclusive, endTime, false).values();
+    }
+
+    /**
+     * Returns the start of the first run of lengthMinutes whole minutes within [from, to) that no booking touches, or null if there
+     * is none. It is a scan of the occupancy bitmap, word by word, and like the other reads it may miss a concurrent mutation.
+     */
+    Instant findFreeSlot(final Instant from, final Instant to, final long lengthMinutes) {
+        final long startMinute = occupancy.findFreeRun(SlotOccupancyBitmap.endMinute(from), SlotOccupancyBitmap.startMinute(to),
+                lengthMinutes);
+        return startMinute < 0 ? null : Instant.ofEpochSecond(startMinute * SECONDS_PER_MINUTE);
+    }
+
+    synchronized void add(final Booking booking) {
+        final Booking overlapping = findOverlapping(booking.bookingStartTimeUTC, booking.bookingEndTimeUTC);
+        if (overlapping != null) {
+            throw new IllegalStateException("Laundry room " + booking.laundryRoomId + " already has an active booking starting "
+                    + overlapping.bookingStartTimeUTC);
+        }
+        bookingsByStartTime.put(booking.bookingStartTimeUTC, booking);
+        occupancy.mark(booking.bookingStartTimeUTC, booking.bookingEndTimeUTC);
+    }
+
+    synchronized void remove(final Booking booking) {
+        if (!bookingsByStartTime.remove(booking.bookingStartTimeUTC, booking)) {
+            return;
+        }
+        occupancy.clear(booking.bookingStartTimeUTC, booking.bookingEndTimeUTC);
+        // The bookings right before and after the removed one may share its first and last minute
+        final Map.Entry<Instant, Booking> previous = bookingsByStartTime.lowerEntry(booking.bookingStartTimeUTC);
+        if (previous != null) {
+            occupancy.mark(previous.getValue().bookingStartTimeUTC, previous.getValue().bookingEndTimeUTC);
+        }
+        final Map.Entry<Instant, Booking> next = bookingsByStartTime.higherEntry(booking.bookingStartTimeUTC);
+        if (next != null) {
+            occupancy.mark(next.getValue().bookingStartTimeUTC, next.getValue().bookingEndTimeUTC);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.utils.Constants.ERROR_KEY;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_409;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Blocking HTTP client of a shard server, shared by the accessors of a remote shard. Connections are kept alive and reused.
+ * Conflicts answered by the shard are thrown as IllegalStateException and bad requests as IllegalArgumentException, as the in memory
+ * accessors do, so callers cannot tell a remote shard from a local one.
+ */
+class ShardHttpClient {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final URI baseUri;
+
+    private final HttpClient httpClient;
+
+    ShardHttpClient(final URI baseUri) {
+        this.baseUri = baseUri;
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    String get(final String pathAndQuery) {
+        return send(request(pathAndQuery).GET());
+    }
+
+    String post(final String pathAndQuery, final JsonElement body) {
+        return send(request(pathAndQuery)
+                .header("Content-Type", JSON_CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8)));
+    }
+
+    String put(final String pathAndQuery) {
+        return send(request(pathAndQuery).PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    String delete(final String pathAndQuery) {
+        return send(request(pathAndQuery).DELETE());
+    }
+
+    static String encode(final Object value) {
+        return URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8);
+    }
+
+    private HttpRequest.Builder request(final String pathAndQuery) {
+        return HttpRequest.newBuilder(baseUri.resolve(pathAndQuery)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private String send(final HttpRequest.Builder request) {
+        final HttpResponse<String> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Shard " + baseUri + " is unavailable", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for shard " + baseUri, e);
+        }
+        switch (response.statusCode()) {
+            case HTTP_200:
+                return response.body();
+            case HTTP_409:
+                throw new IllegalStateException(errorMessage(response));
+            case HTTP_400:
+                throw new IllegalArgumentException(errorMessage(response));
+            default:
+                throw new IllegalStateException("Shard " + baseUri + " answered " + response.statusCode() + ": " + errorMessage(response));
+        }
+    }
+
+    private static String errorMessage(final HttpResponse<String> response) {
+        try {
+            return new JsonParser().parse(response.body()).getAsJsonObject().get(ERROR_KEY).getAsString();
+        } catch (final JsonParseException | IllegalStateException | NullPointerException e) {
+            return response.body();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.laundrybooking.accessor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hashing ring mapping integer keys such as laundry room and house ids to shards. Every shard is placed on the ring at
+ * virtualNodes points hashed from its name, and a key belongs to the first shard point at or after the hash of the key, so adding
+ * or removing a shard only moves the keys of its own arcs, about 1/n of them, and ownership does not depend on the shard order.
+ */
+public class ShardRouter<T> {
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+
+    private final List<T> shards;
+
+    /**
+     * @param shardsByName shards by unique name, the name alone places the shard on the ring
+     * @param virtualNodes points per shard, more points spread the keys more evenly
+     */
+    public ShardRouter(final Map<String, T> shardsByName, final int virtualNodes) {
+        if (shardsByName.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("At least one shard and one virtual node per shard are required");
+        }
+        for (final Map.Entry<String, T> shard : shardsByName.entrySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                final T previous = ring.put(hash(shard.getKey() + "#" + i), shard.getValue());
+                if (previous != null && previous != shard.getValue()) {
+                    throw new IllegalArgumentException("Shards " + shard.getKey() + " and " + previous + " collide on the ring");
+                }
+            }
+        }
+        shards = Collections.unmodifiableList(new ArrayList<>(shardsByName.values()));
+    }
+
+    public T shardFor(final int key) {
+        final Map.Entry<Long, T> point = ring.ceilingEntry(mix(key));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<T> getShards() {
+        return shards;
+    }
+
+    /**
+     * 64 bit FNV-1a of the UTF-8 name, finished with the mixer so that similar names land far apart
+     */
+    private static long hash(final String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * MurmurHash3 64 bit finalizer, spreading consecutive ids over the whole ring
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
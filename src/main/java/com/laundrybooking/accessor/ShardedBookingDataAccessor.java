@@ -0,0 +1,414 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Booking data accessor spreading the bookings over shards by laundry room, as bookings only conflict within a laundry room. Every
+ * booking lives on the shard owning its laundry room, and the one active booking per house rule is enforced by the shard owning the
+ * house, which holds a claim for the ACTIVE booking of every house it owns. Both owners come from the same consistent hashing ring.
+ * Booking ids carry the laundry room id, so reads and updates by id go straight to the owning shard. Reads of a time window run on
+ * every shard at once and queries merge the ordered results of the shards, so they keep the query order.
+ * Creating an ACTIVE booking claims its house first and then creates it on its laundry room shard, so two bookings of a house made
+ * through different routers cannot both succeed. A claim is only released once its booking is known not to be ACTIVE, so a failed
+ * call that may have stored the booking on its shard anyway keeps the claim. Claims left without an ACTIVE booking, by a router
+ * stopping between the two writes or by a failed release, are released by the claim checks once two checks in a row find them so.
+ */
+public class ShardedBookingDataAccessor extends BookingDataAccessor implements Closeable {
+
+    static final char ID_SEPARATOR = '.';
+
+    private final ShardRouter<BookingShard> shardRouter;
+
+    private final Executor fanOutExecutor;
+
+    // Guarded by this, claims the last check found without an ACTIVE booking, by booking id
+    private Set<String> suspectedOrphanClaims = new HashSet<>();
+
+    private ScheduledExecutorService claimCheckScheduler;
+
+    /**
+     * @param shardRouter    ring of the shards
+     * @param fanOutExecutor runs the calls of a window read or query on the shards concurrently
+     */
+    public ShardedBookingDataAccessor(final ShardRouter<BookingShard> shardRouter, final Executor fanOutExecutor) {
+        this.shardRouter = shardRouter;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    /**
+     * Stores a booking on its laundry room shard. An id carrying the laundry room id is assigned to the booking if it does not have
+     * one.
+     */
+    @Override public void create(final Booking booking) {
+        if (booking.id == null) {
+            booking.id = booking.laundryRoomId + String.valueOf(ID_SEPARATOR) + UUID.randomUUID();
+        }
+        final BookingDataAccessor laundryRoomShard = shardRouter.shardFor(booking.laundryRoomId).bookingDataAccessor;
+        if (booking.bookingStatus != ACTIVE) {
+            laundryRoomShard.create(booking);
+            return;
+        }
+        final HouseClaimDataAccessor houseShard = shardRouter.shardFor(booking.houseId).houseClaimDataAccessor;
+        claimHouse(houseShard, booking);
+        try {
+            laundryRoomShard.create(booking);
+        } catch (final RuntimeException e) {
+            if (!releaseUnlessActive(houseShard, laundryRoomShard, booking, e)) {
+                // Stored in spite of the failure, so the create succeeded
+                return;
+            }
+            throw e;
+        }
+    }
+
+    @Override public Booking read(final String id) {
+        final BookingShard shard = shardForBooking(id);
+        if (shard != null) {
+            return shard.bookingDataAccessor.read(id);
+        }
+        for (final BookingShard anyShard : shardRouter.getShards()) {
+            final Booking booking = anyShard.bookingDataAccessor.read(id);
+            if (booking != null) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The ACTIVE booking of a house is the one holding its claim, read from the house shard alone
+     */
+    @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+        if (bookingStatus == ACTIVE) {
+            return shardRouter.shardFor(house.id).houseClaimDataAccessor.read(house.id);
+        }
+        for (final BookingShard shard : shardRouter.getShards()) {
+            final Booking booking = shard.bookingDataAccessor.read(house, bookingStatus);
+            if (booking != null) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    @Override public Booking read(final String id, final String houseId, final BookingStatus bookingStatus) {
+        final BookingShard shard = shardForBooking(id);
+        if (shard != null) {
+            return shard.bookingDataAccessor.read(id, houseId, bookingStatus);
+        }
+        for (final BookingShard anyShard : shardRouter.getShards()) {
+            final Booking booking = anyShard.bookingDataAccessor.read(id, houseId, bookingStatus);
+            if (booking != null) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final String bookingStartDateTimeUTC,
+                                  final String bookingEndDateTimeUTC, final BookingStatus bookingStatus) {
+        return shardRouter.shardFor(laundryRoom.id).bookingDataAccessor.read(laundryRoom, bookingStartDateTimeUTC,
+                bookingEndDateTimeUTC, bookingStatus);
+    }
+
+    @Override public Booking read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC,
+                                  final BookingStatus bookingStatus) {
+        return shardRouter.shardFor(laundryRoom.id).bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC,
+                bookingStatus);
+    }
+
+    @Override public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
+        final List<Booking> bookings = new ArrayList<>();
+        for (final List<Booking> shardBookings : fanOut(shard -> shard.bookingDataAccessor.read(startTime, endTime, bookingStatus))) {
+            bookings.addAll(shardBookings);
+        }
+        return bookings;
+    }
+
+    /**
+     * Runs a query of one laundry room on its shard, and any other query on every shard, merging the results in query order
+     */
+    @Override public Iterator<Booking> query(final BookingQuery bookingQuery) {
+        if (bookingQuery.laundryRoomId != null) {
+            return shardRouter.shardFor(bookingQuery.laundryRoomId).bookingDataAccessor.query(bookingQuery);
+        }
+        final PriorityQueue<PeekingIterator> shardIterators = new PriorityQueue<>(
+                (first, second) -> QUERY_ORDER.compare(first.next, second.next));
+        for (final Iterator<Booking> shardIterator : fanOut(shard -> shard.bookingDataAccessor.query(bookingQuery))) {
+            if (shardIterator.hasNext()) {
+                shardIterators.add(new PeekingIterator(shardIterator));
+            }
+        }
+        return new Iterator<Booking>() {
+            @Override public boolean hasNext() {
+                return !shardIterators.isEmpty();
+            }
+
+            @Override public Booking next() {
+                final PeekingIterator shardIterator = shardIterators.poll();
+                if (shardIterator == null) {
+                    throw new NoSuchElementException();
+                }
+                final Booking booking = shardIterator.next;
+                if (shardIterator.advance()) {
+                    shardIterators.add(shardIterator);
+                }
+                return booking;
+            }
+        };
+    }
+
+    @Override public Instant findFreeSlot(final LaundryRoom laundryRoom, final Instant from, final Instant to, final long lengthMinutes) {
+        return shardRouter.shardFor(laundryRoom.id).bookingDataAccessor.findFreeSlot(laundryRoom, from, to, lengthMinutes);
+    }
+
+    @Override public void update() {
+        for (final BookingShard shard : shardRouter.getShards()) {
+            shard.bookingDataAccessor.update();
+        }
+    }
+
+    /**
+     * Updates a field of a booking on its shard. A booking made ACTIVE claims its house first, a booking leaving ACTIVE releases the
+     * claim of its house once updated.
+     */
+    @Override public void update(final String id, final String fieldName, final String fieldValue) {
+        final BookingShard shard = shardForBooking(id);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown booking " + id);
+        }
+        if (!BOOKING_STATUS_KEY.equals(fieldName)) {
+            shard.bookingDataAccessor.update(id, fieldName, fieldValue);
+            return;
+        }
+        final Booking booking = shard.bookingDataAccessor.read(id);
+        if (booking == null) {
+            throw new IllegalArgumentException("Unknown booking " + id);
+        }
+        final HouseClaimDataAccessor houseShard = shardRouter.shardFor(booking.houseId).houseClaimDataAccessor;
+        if (BookingStatus.valueOf(fieldValue) != ACTIVE) {
+            shard.bookingDataAccessor.update(id, fieldName, fieldValue);
+            releaseQuietly(houseShard, booking);
+            return;
+        }
+        claimHouse(houseShard, booking);
+        try {
+            shard.bookingDataAccessor.update(id, fieldName, fieldValue);
+        } catch (final RuntimeException e) {
+            releaseUnlessActive(houseShard, shard.bookingDataAccessor, booking, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Completes the bookings on their shards, a group per shard, and releases the claims of their houses
+     */
+    @Override public List<Booking> completeAll(final List<String> ids) {
+        final Map<BookingShard, List<String>> idsByShard = new LinkedHashMap<>();
+        for (final String id : ids) {
+            final BookingShard shard = shardForBooking(id);
+            for (final BookingShard idShard : shard != null ? Collections.singletonList(shard) : shardRouter.getShards()) {
+                idsByShard.computeIfAbsent(idShard, ignored -> new ArrayList<>()).add(id);
+            }
+        }
+        final List<Booking> completed = new ArrayList<>();
+        for (final Map.Entry<BookingShard, List<String>> shardIds : idsByShard.entrySet()) {
+            for (final Booking booking : shardIds.getKey().bookingDataAccessor.completeAll(shardIds.getValue())) {
+                releaseQuietly(shardRouter.shardFor(booking.houseId).houseClaimDataAccessor, booking);
+                completed.add(booking);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Checks the claims every interval on a background thread
+     */
+    public synchronized void startClaimChecks(final long interval, final TimeUnit timeUnit) {
+        if (claimCheckScheduler != null) {
+            throw new IllegalStateException("Claim checks are already scheduled");
+        }
+        claimCheckScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "house-claim-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        claimCheckScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkClaims();
+            } catch (final RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, interval, interval, timeUnit);
+    }
+
+    /**
+     * Compares every house claim with its laundry room shard and releases the claims found without an ACTIVE booking by this check
+     * and the one before, a booking being created holding its claim before it is stored. Claims whose shard cannot be read are left
+     * for a later check.
+     *
+     * @return the number of claims released
+     */
+    public synchronized int checkClaims() {
+        final Set<String> orphanClaims = new HashSet<>();
+        int released = 0;
+        for (final BookingShard houseShard : shardRouter.getShards()) {
+            try {
+                for (final Booking claim : houseShard.houseClaimDataAccessor.readAll()) {
+                    if (isActive(shardRouter.shardFor(claim.laundryRoomId).bookingDataAccessor, claim)) {
+                        continue;
+                    }
+                    if (suspectedOrphanClaims.contains(claim.id)) {
+                        houseShard.houseClaimDataAccessor.release(claim);
+                        released++;
+                    } else {
+                        orphanClaims.add(claim.id);
+                    }
+                }
+            } catch (final RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        suspectedOrphanClaims = orphanClaims;
+        return released;
+    }
+
+    @Override public synchronized void close() {
+        if (claimCheckScheduler != null) {
+            claimCheckScheduler.shutdown();
+        }
+    }
+
+    @Override public void delete() {
+        for (final BookingShard shard : shardRouter.getShards()) {
+            shard.bookingDataAccessor.delete();
+        }
+    }
+
+    /**
+     * Releases the claim of a booking whose write failed, unless the booking is ACTIVE on its shard after all. A booking that cannot
+     * be read keeps its claim for the claim checks.
+     *
+     * @return false if the booking turned out to be ACTIVE
+     */
+    private static boolean releaseUnlessActive(final HouseClaimDataAccessor houseShard, final BookingDataAccessor laundryRoomShard,
+                                               final Booking booking, final RuntimeException failure) {
+        try {
+            if (isActive(laundryRoomShard, booking)) {
+                return false;
+            }
+            houseShard.release(booking);
+        } catch (final RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+        return true;
+    }
+
+    /**
+     * Releases the claim of a booking that is no longer ACTIVE, leaving it to the claim checks if the house shard fails
+     */
+    private static void releaseQuietly(final HouseClaimDataAccessor houseShard, final Booking booking) {
+        try {
+            houseShard.release(booking);
+        } catch (final RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @throws RuntimeException if the shard cannot be read
+     */
+    private static boolean isActive(final BookingDataAccessor laundryRoomShard, final Booking booking) {
+        final Booking stored = laundryRoomShard.read(booking.id);
+        return stored != null && stored.bookingStatus == ACTIVE;
+    }
+
+    private static void claimHouse(final HouseClaimDataAccessor houseShard, final Booking booking) {
+        final Booking claim = houseShard.claim(booking);
+        if (!claim.id.equals(booking.id)) {
+            throw new IllegalStateException("House " + booking.houseId + " already has an active booking starting "
+                    + claim.bookingStartTimeUTC);
+        }
+    }
+
+    /**
+     * @return the shard of the laundry room the id carries, null for ids not assigned by this accessor
+     */
+    private BookingShard shardForBooking(final String id) {
+        final int separator = id.indexOf(ID_SEPARATOR);
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return shardRouter.shardFor(Integer.parseInt(id.substring(0, separator)));
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the call on every shard concurrently and returns the results in shard order
+     */
+    private <R> List<R> fanOut(final Function<BookingShard, R> call) {
+        final List<CompletableFuture<R>> calls = new ArrayList<>();
+        for (final BookingShard shard : shardRouter.getShards()) {
+            calls.add(CompletableFuture.supplyAsync(() -> call.apply(shard), fanOutExecutor));
+        }
+        final List<R> results = new ArrayList<>(calls.size());
+        try {
+            for (final CompletableFuture<R> shardCall : calls) {
+                results.add(shardCall.join());
+            }
+        } catch (final CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return results;
+    }
+
+    /**
+     * Iterator over the bookings of a shard with its next booking read ahead, used to merge the shards
+     */
+    private static final class PeekingIterator {
+        private final Iterator<Booking> bookings;
+
+        private Booking next;
+
+        private PeekingIterator(final Iterator<Booking> bookings) {
+            this.bookings = bookings;
+            next = bookings.next();
+        }
+
+        private boolean advance() {
+            next = bookings.hasNext() ? bookings.next() : null;
+            return next != null;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.laundrybooking.accessor;
+
+import java.time.Instant;
+
+/**
+ * Minute granularity occupancy bitmap of a single laundry room. Every day the room has bookings on is a long[] of 1440 bits
+ * (184 bytes), so a room fully booked for a 30 day booking window takes about 5.5 KB. Days are kept in a ring indexed by epoch day
+ * that only grows when two days with bookings collide on the same ring slot.
+ * A booking marks every minute it touches, so a clear range means the slot is definitely free while a set bit only means that a
+ * booking might overlap the slot within the same minute. Checks and scans are word wide bit operations that do not allocate.
+ * Mutations have to be serialized by the caller.
+ */
+class SlotOccupancyBitmap {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    private static final int INITIAL_DAYS = 32;
+
+    private static final long ALL_BITS = -1L;
+
+    private volatile Ring ring = new Ring(INITIAL_DAYS);
+
+    void mark(final Instant startTime, final Instant endTime) {
+        setRange(startMinute(startTime), endMinute(endTime), true);
+    }
+
+    void clear(final Instant startTime, final Instant endTime) {
+        setRange(startMinute(startTime), endMinute(endTime), false);
+    }
+
+    /**
+     * Returns true if no booking touches any minute of the [startTime, endTime) slot
+     */
+    boolean isFree(final Instant startTime, final Instant endTime) {
+        final long endMinute = endMinute(endTime);
+        return nextSetMinute(startMinute(startTime), endMinute) == endMinute;
+    }
+
+    /**
+     * Returns the first epoch minute of a run of at least lengthMinutes untouched minutes within [fromMinute, toMinute)
+     * or -1 if there is no such run
+     */
+    long findFreeRun(final long fromMinute, final long toMinute, final long lengthMinutes) {
+        long runStart = nextClearMinute(fromMinute, toMinute);
+        while (runStart + lengthMinutes <= toMinute) {
+            final long runEnd = nextSetMinute(runStart, toMinute);
+            if (runEnd - runStart >= lengthMinutes) {
+                return runStart;
+            }
+            runStart = nextClearMinute(runEnd, toMinute);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first epoch minute in [fromMinute, toMinute) touched by a booking or toMinute if there is none
+     */
+    long nextSetMinute(final long fromMinute, final long toMinute) {
+        long minute = fromMinute;
+        while (minute < toMinute) {
+            final long epochDay = Math.floorDiv(minute, MINUTES_PER_DAY);
+            final long dayStartMinute = epochDay * MINUTES_PER_DAY;
+            final int dayEnd = (int) (Math.min(toMinute, dayStartMinute + MINUTES_PER_DAY) - dayStartMinute);
+            final long[] words = ring.words(epochDay);
+            if (words != null) {
+                final int bit = nextBit(words, (int) (minute - dayStartMinute), dayEnd, true);
+                if (bit < dayEnd) {
+                    return dayStartMinute + bit;
+                }
+            }
+            minute = dayStartMinute + dayEnd;
+        }
+        return toMinute;
+    }
+
+    /**
+     * Returns the first epoch minute in [fromMinute, toMinute) not touched by any booking or toMinute if there is none
+     */
+    long nextClearMinute(final long fromMinute, final long toMinute) {
+        long minute = fromMinute;
+        while (minute < toMinute) {
+            final long epochDay = Math.floorDiv(minute, MINUTES_PER_DAY);
+            final long dayStartMinute = epochDay * MINUTES_PER_DAY;
+            final int dayEnd = (int) (Math.min(toMinute, dayStartMinute + MINUTES_PER_DAY) - dayStartMinute);
+            final long[] words = ring.words(epochDay);
+            if (words == null) {
+                return minute;
+            }
+            final int bit = nextBit(words, (int) (minute - dayStartMinute), dayEnd, false);
+            if (bit < dayEnd) {
+                return dayStartMinute + bit;
+            }
+            minute = dayStartMinute + dayEnd;
+        }
+        return toMinute;
+    }
+
+    static long startMinute(final Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60);
+    }
+
+    static long endMinute(final Instant instant) {
+        final long endSecond = instant.getEpochSecond() + (instant.getNano() > 0 ? 1 : 0);
+        return -Math.floorDiv(-endSecond, 60);
+    }
+
+    private void setRange(final long fromMinute, final long toMinute, final boolean value) {
+        long minute = fromMinute;
+        while (minute < toMinute) {
+            final long epochDay = Math.floorDiv(minute, MINUTES_PER_DAY);
+            final long dayStartMinute = epochDay * MINUTES_PER_DAY;
+            final int dayEnd = (int) (Math.min(toMinute, dayStartMinute + MINUTES_PER_DAY) - dayStartMinute);
+            final long[] words = value ? wordsForUpdate(epochDay) : ring.words(epochDay);
+            if (words != null) {
+                setBits(words, (int) (minute - dayStartMinute), dayEnd, value);
+            }
+            minute = dayStartMinute + dayEnd;
+        }
+    }
+
+    private long[] wordsForUpdate(final long epochDay) {
+        long[] words = ring.wordsForUpdate(epochDay);
+        while (words == null) {
+            ring = ring.grow();
+            words = ring.wordsForUpdate(epochDay);
+        }
+        return words;
+    }
+
+    private static void setBits(final long[] words, final int fromBit, final int toBit, final boolean value) {
+        for (int wordIndex = fromBit >>> 6; wordIndex <= (toBit - 1) >>> 6; wordIndex++) {
+            final int wordStart = wordIndex << 6;
+            long mask = ALL_BITS;
+            if (fromBit > wordStart) {
+                mask &= ALL_BITS << (fromBit - wordStart);
+            }
+            if (toBit < wordStart + Long.SIZE) {
+                mask &= ALL_BITS >>> (wordStart + Long.SIZE - toBit);
+            }
+            words[wordIndex] = value ? words[wordIndex] | mask : words[wordIndex] & ~mask;
+        }
+    }
+
+    /**
+     * Returns the index of the first bit in [fromBit, toBit) with the given value or toBit if there is none
+     */
+    private static int nextBit(final long[] words, final int fromBit, final int toBit, final boolean value) {
+        int wordIndex = fromBit >>> 6;
+        long word = (value ? words[wordIndex] : ~words[wordIndex]) & (ALL_BITS << (fromBit & 63));
+        while (true) {
+            if (word != 0) {
+                return Math.min((wordIndex << 6) + Long.numberOfTrailingZeros(word), toBit);
+            }
+            if (++wordIndex > (toBit - 1) >>> 6) {
+                return toBit;
+            }
+            word = value ? words[wordIndex] : ~words[wordIndex];
+        }
+    }
+
+    private static boolean isEmpty(final long[] words) {
+        for (final long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Days of the bitmap in ring slots indexed by epoch day. A slot is taken over by another day only once it has no bookings left.
+     */
+    private static final class Ring {
+        private final long[] epochDays;
+
+        private final long[][] words;
+
+        private Ring(final int capacity) {
+            epochDays = new long[capacity];
+            words = new long[capacity][];
+        }
+
+        private long[] words(final long epochDay) {
+            final int slot = slot(epochDay);
+            final long[] dayWords = words[slot];
+            return dayWords != null && epochDays[slot] == epochDay ? dayWords : null;
+        }
+
+        /**
+         * Returns the words of the day, taking over the ring slot if it is free, or null if the slot is used by another day
+         */
+        private long[] wordsForUpdate(final long epochDay) {
+            final int slot = slot(epochDay);
+            if (words[slot] == null) {
+                words[slot] = new long[WORDS_PER_DAY];
+                epochDays[slot] = epochDay;
+            } else if (epochDays[slot] != epochDay) {
+                if (!isEmpty(words[slot])) {
+                    return null;
+                }
+                epochDays[slot] = epochDay;
+            }
+            return words[slot];
+        }
+
+        private Ring grow() {
+            int capacity = words.length << 1;
+            while (true) {
+                final Ring grown = new Ring(capacity);
+                if (grown.copyFrom(this)) {
+                    return grown;
+                }
+                capacity <<= 1;
+            }
+        }
+
+        private boolean copyFrom(final Ring ring) {
+            for (int slot = 0; slot < ring.words.length; slot++) {
+                final long[] dayWords = ring.words[slot];
+                if (dayWords != null && !isEmpty(dayWords)) {
+                    final int newSlot = slot(ring.epochDays[slot]);
+                    if (words[newSlot] != null) {
+                        return false;
+                    }
+                    words[newSlot] = dayWords.clone();
+                    epochDays[newSlot] = ring.epochDays[slot];
+                }
+            }
+            return true;
+        }
+
+        private int slot(final long epochDay) {
+            return (int) Math.floorMod(epochDay, (long) words.length);
+        }
+    }
+}
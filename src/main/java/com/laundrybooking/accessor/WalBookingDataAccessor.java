@@ -0,0 +1,357 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.COMPLETED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Booking data accessor persisting the bookings to a write ahead log. Every create and every status update is applied to the in
+ * memory indexes and then appended to the log, and the call returns once the log record is durable. Records of concurrent calls
+ * share a single fsync.
+ * Snapshots of the ACTIVE bookings let the log segments behind them be deleted, so cancelled and completed bookings do not pile up
+ * in the log. On startup the latest snapshot is loaded and only the log written after it is replayed.
+ */
+public class WalBookingDataAccessor extends InMemoryBookingDataAccessor implements Closeable {
+
+    private static final byte CREATE_RECORD = 1;
+
+    private static final byte UPDATE_RECORD = 2;
+
+    private final Path directory;
+
+    private final BookingLog bookingLog;
+
+    private final Object snapshotLock = new Object();
+
+    // Held shared by every change from the moment it is applied until it is durable or rolled back, and exclusively by a snapshot
+    // while it rolls the log and copies the bookings
+    private final ReadWriteLock snapshotBarrier = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService snapshotScheduler;
+
+    public WalBookingDataAccessor(final Path directory) throws IOException {
+        this.directory = directory;
+        bookingLog = new BookingLog(directory);
+        replay();
+    }
+
+    /**
+     * Takes a snapshot every interval on a background thread
+     */
+    public synchronized void startSnapshots(final long interval, final TimeUnit timeUnit) {
+        if (snapshotScheduler != null) {
+            throw new IllegalStateException("Snapshots are already scheduled");
+        }
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "booking-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (final IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, interval, interval, timeUnit);
+    }
+
+    /**
+     * Writes the ACTIVE bookings to a snapshot and deletes the log segments and snapshots it supersedes.
+     * The log is rolled over to a new segment and the bookings are copied once the changes in flight are durable or rolled back,
+     * with new changes held off meanwhile, so the copy holds exactly the changes of the old segments. Changes are only held off for
+     * that copy, not while the snapshot is written.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            final CompletableFuture<Void> rolled = new CompletableFuture<>();
+            final long segment;
+            final List<Booking> activeBookings;
+            snapshotBarrier.writeLock().lock();
+            try {
+                segment = bookingLog.roll(rolled);
+                activeBookings = read(Instant.MIN, Instant.MAX, ACTIVE);
+            } finally {
+                snapshotBarrier.writeLock().unlock();
+            }
+            final Path temporaryFile = BookingSnapshot.write(directory, segment, activeBookings);
+            try {
+                // The old segments can only be superseded once nothing more is written to them
+                BookingLog.awaitDurable(rolled);
+            } catch (final RuntimeException e) {
+                Files.deleteIfExists(temporaryFile);
+                throw e;
+            }
+            BookingSnapshot.publish(directory, segment, temporaryFile);
+            bookingLog.deleteSegmentsBefore(segment);
+        }
+    }
+
+    @Override public void create(final Booking booking) {
+        snapshotBarrier.readLock().lock();
+        try {
+            final CompletableFuture<Void> durable;
+            // A cancellation of the booking cannot reach the log before its creation
+            synchronized (booking) {
+                super.create(booking);
+                durable = bookingLog.append(encodeCreate(booking));
+            }
+            try {
+                BookingLog.awaitDurable(durable);
+            } catch (final RuntimeException e) {
+                remove(booking);
+                throw e;
+            }
+        } finally {
+            snapshotBarrier.readLock().unlock();
+        }
+    }
+
+    /**
+     * Creates the bookings and appends their records together so that they share the group commits. On failure the bookings
+     * whose records did not become durable are rolled back and the others are kept.
+     */
+    @Override public void createAll(final List<Booking> bookings) {
+        snapshotBarrier.readLock().lock();
+        try {
+            final List<CompletableFuture<Void>> durables = new ArrayList<>(bookings.size());
+            try {
+                for (final Booking booking : bookings) {
+                    synchronized (booking) {
+                        super.create(booking);
+                        durables.add(bookingLog.append(encodeCreate(booking)));
+                    }
+                }
+                BookingLog.awaitDurable(CompletableFuture.allOf(durables.toArray(new CompletableFuture<?>[0])));
+            } catch (final RuntimeException e) {
+                for (int i = 0; i < durables.size(); i++) {
+                    try {
+                        BookingLog.awaitDurable(durables.get(i));
+                    } catch (final RuntimeException notDurable) {
+                        final Booking booking = bookings.get(i);
+                        rollBack(e, () -> remove(booking));
+                    }
+                }
+                throw e;
+            }
+        } finally {
+            snapshotBarrier.readLock().unlock();
+        }
+    }
+
+    @Override public void update(final String id, final String fieldName, final String fieldValue) {
+        snapshotBarrier.readLock().lock();
+        try {
+            final Booking booking = read(id);
+            if (booking == null) {
+                throw new IllegalArgumentException("Unknown booking " + id);
+            }
+            final BookingStatus previousStatus;
+            final CompletableFuture<Void> durable;
+            // Updates of a booking reach the log in the order they are applied
+            synchronized (booking) {
+                previousStatus = booking.bookingStatus;
+                super.update(id, fieldName, fieldValue);
+                if (booking.bookingStatus == previousStatus) {
+                    return;
+                }
+                durable = bookingLog.append(encodeUpdate(id, fieldName, fieldValue));
+            }
+            try {
+                BookingLog.awaitDurable(durable);
+            } catch (final RuntimeException e) {
+                rollBack(e, () -> super.update(id, BOOKING_STATUS_KEY, previousStatus.toString()));
+                throw e;
+            }
+        } finally {
+            snapshotBarrier.readLock().unlock();
+        }
+    }
+
+    /**
+     * Completes the ACTIVE bookings among the given ones and appends their records together so that they share the group commits.
+     * On failure the bookings whose records did not become durable are made ACTIVE again and the others stay completed. Every
+     * rollback is attempted even if one of them fails, the failed ones being added to the exception thrown.
+     */
+    @Override public List<Booking> completeAll(final List<String> ids) {
+        snapshotBarrier.readLock().lock();
+        try {
+            final List<Booking> completed = new ArrayList<>();
+            final List<CompletableFuture<Void>> durables = new ArrayList<>();
+            for (final String id : ids) {
+                final Booking booking = read(id);
+                if (booking == null) {
+                    continue;
+                }
+                synchronized (booking) {
+                    if (complete(booking)) {
+                        completed.add(booking);
+                        durables.add(bookingLog.append(encodeUpdate(id, BOOKING_STATUS_KEY, COMPLETED.toString())));
+                    }
+                }
+            }
+            try {
+                BookingLog.awaitDurable(CompletableFuture.allOf(durables.toArray(new CompletableFuture<?>[0])));
+            } catch (final RuntimeException e) {
+                for (int i = 0; i < durables.size(); i++) {
+                    try {
+                        BookingLog.awaitDurable(durables.get(i));
+                    } catch (final RuntimeException notDurable) {
+                        final String id = completed.get(i).id;
+                        rollBack(e, () -> super.update(id, BOOKING_STATUS_KEY, ACTIVE.toString()));
+                    }
+                }
+                throw e;
+            }
+            return completed;
+        } finally {
+            snapshotBarrier.readLock().unlock();
+        }
+    }
+
+    @Override public void close() throws IOException {
+        synchronized (this) {
+            if (snapshotScheduler != null) {
+                snapshotScheduler.shutdown();
+            }
+        }
+        // Waits for a running snapshot to finish
+        synchronized (snapshotLock) {
+            bookingLog.close();
+        }
+    }
+
+    long getSyncCount() {
+        return bookingLog.getSyncCount();
+    }
+
+    /**
+     * Runs the rollback of a change that did not become durable. A rollback that fails, such as a booking that cannot be made
+     * ACTIVE again because its slot was taken meanwhile, is added to the failure so that the other rollbacks still run.
+     */
+    private static void rollBack(final RuntimeException failure, final Runnable rollback) {
+        try {
+            rollback.run();
+        } catch (final RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Rebuilds the store from the latest snapshot and the log written after it. The final status of every booking is worked out
+     * first and the bookings are indexed after, so the result does not depend on the order in which concurrent creates and
+     * cancellations reached the log. Replay is idempotent: a create of a booking already known and an update to an unknown status
+     * are ignored, and a booking that conflicts with one indexed before it is reported and left out rather than failing startup.
+     */
+    private void replay() throws IOException {
+        final Map<String, Booking> bookings = new LinkedHashMap<>();
+        final long firstSegment = BookingSnapshot.load(directory, booking -> bookings.put(booking.id, booking));
+        bookingLog.open(firstSegment, record -> {
+            final byte recordType = record.get();
+            if (recordType == CREATE_RECORD) {
+                final Booking booking = decodeCreate(record);
+                bookings.putIfAbsent(booking.id, booking);
+            } else if (recordType == UPDATE_RECORD) {
+                final Booking booking = bookings.get(readString(record));
+                final String fieldName = readString(record);
+                final String fieldValue = readString(record);
+                if (booking != null && BOOKING_STATUS_KEY.equals(fieldName)) {
+                    try {
+                        booking.bookingStatus = BookingStatus.valueOf(fieldValue);
+                    } catch (final IllegalArgumentException e) {
+                        e.printStackTrace();
+                    }
+                }
+            } else {
+                throw new IllegalStateException("Unknown booking log record type " + recordType);
+            }
+        });
+        for (final Booking booking : bookings.values()) {
+            try {
+                super.create(booking);
+            } catch (final RuntimeException e) {
+                new IllegalStateException("Booking " + booking.id + " left out of the replay", e).printStackTrace();
+            }
+        }
+        // Left behind by a crash between a snapshot and the deletion of the log it supersedes
+        bookingLog.deleteSegmentsBefore(firstSegment);
+    }
+
+    private static byte[] encodeCreate(final Booking booking) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CREATE_RECORD);
+            writeString(out, booking.id);
+            out.writeInt(booking.houseId);
+            out.writeInt(booking.laundryRoomId);
+            out.writeLong(booking.bookingStartTimeUTC.getEpochSecond());
+            out.writeInt(booking.bookingStartTimeUTC.getNano());
+            out.writeLong(booking.bookingEndTimeUTC.getEpochSecond());
+            out.writeInt(booking.bookingEndTimeUTC.getNano());
+            writeString(out, booking.bookingStatus.toString());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Booking decodeCreate(final ByteBuffer record) {
+        return Booking.builder()
+                .id(readString(record))
+                .houseId(record.getInt())
+                .laundryRoomId(record.getInt())
+                .bookingStartTimeUTC(Instant.ofEpochSecond(record.getLong(), record.getInt()))
+                .bookingEndTimeUTC(Instant.ofEpochSecond(record.getLong(), record.getInt()))
+                .bookingStatus(BookingStatus.valueOf(readString(record)))
+                .build();
+    }
+
+    private static byte[] encodeUpdate(final String id, final String fieldName, final String fieldValue) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(UPDATE_RECORD);
+            writeString(out, id);
+            writeString(out, fieldName);
+            writeString(out, fieldValue);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer record) {
+        final byte[] bytes = new byte[record.getShort() & 0xFFFF];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -8,6 +8,13 @@ public class ResponseBuilder {
         return new Response(payload, "", 200);
     }
 
+    /**
+     * Builds a success response around an already serialized UTF-8 payload, without copying it
+     */
+    public Response buildSuccessResponse(final byte[] payload){
+        return new Response(payload, "", 200);
+    }
+
     public Response buildErrorResponse(final String errorMessage, final int errorCode){
         return new Response("", errorMessage, errorCode);
     }
@@ -0,0 +1,265 @@
+package com.laundrybooking.events;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEvent;
+import com.laundrybooking.model.BookingEventType;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In process bus of the booking events on a ring buffer, in the manner of the Disruptor. Publishers claim the next sequence with
+ * one atomic increment, write the event into its slot and mark the slot published with that sequence. Every subscription reads
+ * the ring from its own sequence on its own thread, taking all the events published since its last read at once, so a slow
+ * subscriber never holds up the others.
+ * The ring is the backpressure: a publisher waits while its slot still holds an event the slowest subscription has not read, but
+ * only up to maxPublishWait, as the booking handler publishes holding its locks. A subscription still a full ring behind then is
+ * overrun: publishers stop waiting for it and overwrite the events it has not read, and it skips them, counting them as dropped,
+ * until it catches up. Listeners should hand slow work off rather than block. Without subscriptions events are dropped as they
+ * are overwritten.
+ * Subscriptions start at the next event published. A subscription with nothing to read parks its thread until a publisher wakes
+ * it, so idle subscriptions cost nothing.
+ */
+public class BookingEventBus {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    public static final long DEFAULT_MAX_PUBLISH_WAIT_MILLIS = 10;
+
+    // Wait of a publisher for the slowest subscription between checks
+    private static final long WAIT_NANOS = 50_000;
+
+    private final BookingEvent[] events;
+
+    // Sequence of the event in each slot, written after the event so that reading it first makes the event visible
+    private final AtomicLongArray published;
+
+    private final int mask;
+
+    private final long maxPublishWaitNanos;
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public BookingEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BookingEventBus(final int capacity) {
+        this(capacity, DEFAULT_MAX_PUBLISH_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param capacity       events the ring holds, rounded up to a power of two
+     * @param maxPublishWait longest a publisher waits for the slowest subscription before overrunning it
+     */
+    public BookingEventBus(final int capacity, final long maxPublishWait, final TimeUnit timeUnit) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Event bus capacity should be positive");
+        }
+        final int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        events = new BookingEvent[slots];
+        published = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            // As if the events before the first had been published
+            published.set(i, i - slots);
+        }
+        mask = slots - 1;
+        maxPublishWaitNanos = timeUnit.toNanos(maxPublishWait);
+    }
+
+    /**
+     * Publishes the change of a booking, waiting up to maxPublishWait for room on the ring if the slowest subscription is a full
+     * ring behind
+     *
+     * @return the event published
+     */
+    public BookingEvent publish(final BookingEventType type, final Booking booking) {
+        final long sequence = claimed.incrementAndGet();
+        final BookingEvent event = BookingEvent.builder()
+                .sequence(sequence)
+                .type(type)
+                .bookingId(booking.id)
+                .houseId(booking.houseId)
+                .laundryRoomId(booking.laundryRoomId)
+                .bookingStartTimeUTC(booking.bookingStartTimeUTC)
+                .bookingEndTimeUTC(booking.bookingEndTimeUTC)
+                .build();
+        final long wrapSequence = sequence - events.length;
+        if (wrapSequence > minimumSubscriptionSequence()) {
+            final long deadlineNanos = System.nanoTime() + maxPublishWaitNanos;
+            while (wrapSequence > minimumSubscriptionSequence()) {
+                if (System.nanoTime() - deadlineNanos >= 0) {
+                    overrun(wrapSequence);
+                    break;
+                }
+                LockSupport.parkNanos(WAIT_NANOS);
+            }
+        }
+        final int slot = (int) sequence & mask;
+        // Slots are written in sequence order, so that a publisher falling behind never overwrites a later event
+        while (published.get(slot) != wrapSequence) {
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+        events[slot] = event;
+        published.set(slot, sequence);
+        for (final Subscription subscription : subscriptions) {
+            subscription.wake();
+        }
+        return event;
+    }
+
+    /**
+     * Starts delivering the events published from now on to the listener, on a daemon thread named after the subscription.
+     * A listener throwing does not stop the subscription.
+     */
+    public Subscription subscribe(final String name, final BookingEventListener listener) {
+        // Registered before it starts, so that publishers wait for it. Publishers that claimed before did not, and may have lapped
+        // the sequence it was seeded with, so it starts after the last of them.
+        final Subscription subscription = new Subscription(claimed.get(), listener, name);
+        subscriptions.add(subscription);
+        subscription.sequence.set(claimed.get());
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Returns the sequence of the last event claimed by a publisher
+     */
+    public long getSequence() {
+        return claimed.get();
+    }
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    private long minimumSubscriptionSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (final Subscription subscription : subscriptions) {
+            if (!subscription.overrun) {
+                minimum = Math.min(minimum, subscription.sequence.get());
+            }
+        }
+        return minimum;
+    }
+
+    /**
+     * Stops waiting for the subscriptions that have not read the event before the given one
+     */
+    private void overrun(final long sequence) {
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.sequence.get() < sequence) {
+                subscription.overrun = true;
+            }
+        }
+    }
+
+    /**
+     * Reader of the ring at its own sequence
+     */
+    public final class Subscription implements Closeable {
+
+        // Sequence of the last event delivered
+        private final AtomicLong sequence;
+
+        private final BookingEventListener listener;
+
+        private final Thread thread;
+
+        private volatile boolean running = true;
+
+        // Set while the thread parks for lack of events, for publishers to wake it
+        private volatile boolean parked;
+
+        // Set by a publisher that gave up waiting for this subscription, cleared once it has caught up
+        private volatile boolean overrun;
+
+        // Written by the subscription thread only
+        private volatile long droppedCount;
+
+        private Subscription(final long sequence, final BookingEventListener listener, final String name) {
+            this.sequence = new AtomicLong(sequence);
+            this.listener = listener;
+            thread = new Thread(this::run, "booking-events-" + name);
+            thread.setDaemon(true);
+        }
+
+        /**
+         * Returns the sequence of the last event delivered to the listener
+         */
+        public long getSequence() {
+            return sequence.get();
+        }
+
+        /**
+         * Returns the number of events overwritten before this subscription could read them
+         */
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+
+        /**
+         * Stops the delivery, publishers no longer wait for this subscription
+         */
+        @Override public void close() {
+            running = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+
+        private void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void run() {
+            long next = sequence.get() + 1;
+            while (running) {
+                long available = next;
+                while (published.get((int) available & mask) == available) {
+                    available++;
+                }
+                if (available == next) {
+                    final long slotSequence = published.get((int) next & mask);
+                    if (slotSequence > next) {
+                        // Overrun, the events up to the one now in the slot are gone
+                        droppedCount += slotSequence - next;
+                        next = slotSequence;
+                        sequence.set(next - 1);
+                        continue;
+                    }
+                    overrun = false;
+                    parked = true;
+                    // Checked again once parked is set, as a publisher that read parked before then does not wake the thread
+                    if (running && published.get((int) next & mask) != next) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    continue;
+                }
+                for (; next < available; next++) {
+                    final BookingEvent event = events[(int) next & mask];
+                    if (event.sequence != next) {
+                        // Overwritten since it was published, skipped once the slot shows it
+                        break;
+                    }
+                    try {
+                        listener.onEvent(event);
+                    } catch (final RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+                // Frees the slots read for the publishers
+                sequence.set(next - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.laundrybooking.events;
+
+import com.laundrybooking.model.BookingEvent;
+
+/**
+ * Receives the booking events of a subscription, on the thread of the subscription
+ */
+@FunctionalInterface
+public interface BookingEventListener {
+
+    void onEvent(BookingEvent event);
+}
@@ -0,0 +1,178 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.utils.Constants.HTTP_429;
+
+import com.laundrybooking.builder.ResponseBuilder;
+import com.laundrybooking.model.Response;
+import com.laundrybooking.utils.AdaptiveConcurrencyLimiter;
+import com.laundrybooking.utils.IntObjectMap;
+import com.laundrybooking.utils.TokenBucket;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the bookings, rejecting requests with a 429 before they reach validation or the accessors. Every
+ * house gets a token bucket, so a house retrying in a loop is held to houseRatePerSecond attempts, and all the houses together are
+ * held to the adaptive concurrency limit, which shrinks as the bookings slow down. When the booking window opens and every house
+ * books at once, the requests over the limits are turned away at the cost of a compare and set instead of queueing behind the
+ * others, and the admitted requests keep their latency.
+ * The buckets are kept in a map keyed by house whose lookups do not lock. A scheduled eviction drops the buckets that have refilled,
+ * a full bucket being the same as a new one, so house ids that are never seen again do not pile up, while a bucket still holding
+ * back a house is never dropped, however many houses book at once.
+ */
+public class AdmissionController implements Closeable {
+
+    static final String HOUSE_RATE_LIMITED = "Too many booking attempts, please retry later";
+
+    static final String OVERLOADED = "Too many bookings in progress, please retry later";
+
+    private final IntObjectMap<TokenBucket> houseBuckets = new IntObjectMap<>();
+
+    private final double houseRatePerSecond;
+
+    private final int houseBurst;
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final ResponseBuilder responseBuilder = new ResponseBuilder();
+
+    private ScheduledExecutorService evictionScheduler;
+
+    /**
+     * @param houseRatePerSecond booking attempts a house gets per second
+     * @param houseBurst         booking attempts a house can make at once
+     * @param concurrencyLimiter limits the bookings running across all the houses
+     */
+    public AdmissionController(final double houseRatePerSecond, final int houseBurst, final AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        if (houseRatePerSecond <= 0 || houseBurst <= 0) {
+            throw new IllegalArgumentException("House booking rate and burst should be positive");
+        }
+        this.houseRatePerSecond = houseRatePerSecond;
+        this.houseBurst = houseBurst;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Evicts the full buckets every interval on a background thread
+     */
+    public synchronized void startEviction(final long interval, final TimeUnit timeUnit) {
+        if (evictionScheduler != null) {
+            throw new IllegalStateException("Evictions are already scheduled");
+        }
+        evictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "house-bucket-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictionScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                evictFullBuckets();
+            } catch (final RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, interval, interval, timeUnit);
+    }
+
+    /**
+     * Drops the buckets of the houses that have been idle long enough to refill them. A house taking a token from its bucket while
+     * it is dropped gets a new full bucket on its next attempt, which is at most one attempt more than its burst.
+     *
+     * @return the number of buckets dropped
+     */
+    public int evictFullBuckets() {
+        int evicted = 0;
+        for (final int house : houseBuckets.keys()) {
+            final TokenBucket bucket = houseBuckets.get(house);
+            if (bucket != null && bucket.isFull() && houseBuckets.remove(house, bucket)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Runs the booking of the house if admitted, or answers it with a 429. A house id that is not a number has no bucket of its own
+     * and is only held to the concurrency limit before the validation rejects it.
+     */
+    Response admit(final String houseId, final Supplier<Response> booking) {
+        final Response rejection = tryAdmit(houseId);
+        if (rejection != null) {
+            return rejection;
+        }
+        final long startNanos = System.nanoTime();
+        try {
+            return booking.get();
+        } finally {
+            concurrencyLimiter.release(startNanos);
+        }
+    }
+
+    /**
+     * Same as admit for a booking completing asynchronously, which is counted against the concurrency limit until it completes
+     */
+    CompletableFuture<Response> admitAsync(final String houseId, final Supplier<CompletableFuture<Response>> booking) {
+        final Response rejection = tryAdmit(houseId);
+        if (rejection != null) {
+            return CompletableFuture.completedFuture(rejection);
+        }
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<Response> response;
+        try {
+            response = booking.get();
+        } catch (final RuntimeException e) {
+            concurrencyLimiter.release(startNanos);
+            throw e;
+        }
+        return response.whenComplete((result, throwable) -> concurrencyLimiter.release(startNanos));
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    @Override public synchronized void close() {
+        if (evictionScheduler != null) {
+            evictionScheduler.shutdown();
+        }
+    }
+
+    /**
+     * Takes a token of the house and a slot of the concurrency limit
+     *
+     * @return the 429 response if either is missing, null if the booking is admitted
+     */
+    private Response tryAdmit(final String houseId) {
+        final TokenBucket bucket = houseBucket(houseId);
+        if (bucket != null && !bucket.tryAcquire()) {
+            return responseBuilder.buildErrorResponse(HOUSE_RATE_LIMITED, HTTP_429);
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            return responseBuilder.buildErrorResponse(OVERLOADED, HTTP_429);
+        }
+        return null;
+    }
+
+    /**
+     * @return the bucket of the house or null if the house id is not a number
+     */
+    private TokenBucket houseBucket(final String houseId) {
+        final int house;
+        try {
+            house = Integer.parseInt(houseId);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+        final TokenBucket bucket = houseBuckets.get(house);
+        if (bucket != null) {
+            return bucket;
+        }
+        final TokenBucket newBucket = new TokenBucket(houseRatePerSecond, houseBurst);
+        final TokenBucket existing = houseBuckets.putIfAbsent(house, newBucket);
+        return existing != null ? existing : newBucket;
+    }
+}
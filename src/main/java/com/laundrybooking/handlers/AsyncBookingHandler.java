@@ -0,0 +1,210 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_500;
+import static com.laundrybooking.utils.Constants.HTTP_500_MESSAGE;
+import static com.laundrybooking.utils.IsoInstantParser.parseEpochNanos;
+import static com.laundrybooking.utils.IsoInstantParser.toInstant;
+
+import com.laundrybooking.accessor.AsyncBookingDataAccessor;
+import com.laundrybooking.accessor.AsyncDataAccessor;
+import com.laundrybooking.builder.ResponseBuilder;
+import com.laundrybooking.metrics.Operation;
+import com.laundrybooking.metrics.Stage;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEventType;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.model.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Booking handler on async data accessors. A booking reads the house and the laundry room concurrently, and then the ACTIVE
+ * booking of the house and the bookings overlapping the slot concurrently, so its latency is about the longest read of each pair
+ * rather than the sum of the four.
+ * Bookings go through the idempotency cache and the admission control of the wrapped booking handler. The conflict reads and the
+ * create run without holding its locks, so no thread waits on the store while holding them. The locks are only taken to check the
+ * reads: if no booking of the house or of the laundry room changed since the reads were issued, the booking is held as pending,
+ * which any other booking of either handler sees as a conflict, until its create completes. Reads outdated by a concurrent change
+ * are issued again, and after MAX_CHECK_ATTEMPTS the booking falls back to the synchronous booking of the wrapped handler.
+ * Cancellations and listings have no independent reads and run the wrapped handler on the executor.
+ */
+public class AsyncBookingHandler {
+
+    static final int MAX_CHECK_ATTEMPTS = 4;
+
+    // Returned by the check under the locks when a booking changed since the conflict reads were issued
+    private static final String READS_OUTDATED = "Conflict reads outdated";
+
+    private final BookingHandler bookingHandler;
+
+    private final AsyncBookingDataAccessor bookingDataAccessor;
+
+    private final AsyncDataAccessor<LaundryRoom> laundryRoomDataAccessor;
+
+    private final AsyncDataAccessor<House> houseDataAccessor;
+
+    private final BookingValidator bookingValidator;
+
+    private final Executor executor;
+
+    private final ResponseBuilder responseBuilder;
+
+    public AsyncBookingHandler(final BookingHandler bookingHandler, final AsyncBookingDataAccessor bookingDataAccessor,
+                               final AsyncDataAccessor<LaundryRoom> laundryRoomDataAccessor, final AsyncDataAccessor<House> houseDataAccessor,
+                               final BookingValidator bookingValidator, final Executor executor) {
+        this.bookingHandler = bookingHandler;
+        this.bookingDataAccessor = bookingDataAccessor;
+        this.laundryRoomDataAccessor = laundryRoomDataAccessor;
+        this.houseDataAccessor = houseDataAccessor;
+        this.bookingValidator = bookingValidator;
+        this.executor = executor;
+        responseBuilder = new ResponseBuilder();
+    }
+
+    /**
+     * Books a laundry slot for a house given start and end date times and laundry room id
+     *
+     * @return future completed with the response, never exceptionally
+     */
+    public CompletableFuture<Response> book(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC,
+                                            final String bookingEndDateTimeUTC) {
+        return book(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC, null);
+    }
+
+    /**
+     * Books a laundry slot once per idempotency key, a retry with the key gets the response of the first request without booking
+     *
+     * @param idempotencyKey key of the request, null to book without de-duplication
+     * @return future completed with the response, never exceptionally
+     */
+    public CompletableFuture<Response> book(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC,
+                                            final String bookingEndDateTimeUTC, final String idempotencyKey) {
+        final long startNanos = System.nanoTime();
+        return bookingHandler.admitAndBookAsync(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC, idempotencyKey,
+                        () -> readAndBook(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC, startNanos))
+                .exceptionally(this::buildServerErrorResponse)
+                .thenApply(response -> bookingHandler.recordOutcome(Operation.BOOK, Stage.BOOK, startNanos, response));
+    }
+
+    public CompletableFuture<Response> cancelBooking(final String bookingId, final String houseId) {
+        return CompletableFuture.supplyAsync(() -> bookingHandler.cancelBooking(bookingId, houseId), executor);
+    }
+
+    public CompletableFuture<Response> listBookedTimes() {
+        return CompletableFuture.supplyAsync(bookingHandler::listBookedTimes, executor);
+    }
+
+    private CompletableFuture<Response> readAndBook(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC,
+                                                    final String bookingEndDateTimeUTC, final long startNanos) {
+        final CompletableFuture<House> house = houseDataAccessor.read(houseId);
+        final CompletableFuture<LaundryRoom> laundryRoom = laundryRoomDataAccessor.read(laundryRoomId);
+        // Both reads are complete once allOf is, so joining them does not wait
+        return CompletableFuture.allOf(house, laundryRoom)
+                .thenCompose(ignored -> book(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC, house.join(),
+                        laundryRoom.join(), startNanos))
+                .exceptionally(this::buildServerErrorResponse);
+    }
+
+    /**
+     * Validates and books the slot once the house and the laundry room are read
+     */
+    private CompletableFuture<Response> book(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC,
+                                             final String bookingEndDateTimeUTC, final House house, final LaundryRoom laundryRoom,
+                                             final long startNanos) {
+        final long bookingStartEpochNanos = parseEpochNanos(bookingStartDateTimeUTC);
+        final long bookingEndEpochNanos = parseEpochNanos(bookingEndDateTimeUTC);
+        final String validationResult = bookingValidator.validateBooking(laundryRoom, house, bookingStartEpochNanos, bookingEndEpochNanos);
+        if (validationResult != null) {
+            return CompletableFuture.completedFuture(responseBuilder.buildErrorResponse(validationResult, HTTP_400));
+        }
+
+        final Booking booking = Booking.builder()
+                .bookingStatus(ACTIVE)
+                .bookingStartTimeUTC(toInstant(bookingStartEpochNanos))
+                .bookingEndTimeUTC(toInstant(bookingEndEpochNanos))
+                .laundryRoomId(Integer.parseInt(laundryRoomId))
+                .houseId(Integer.parseInt(houseId))
+                .build();
+        return checkAndHold(booking, house, laundryRoom, 1).thenCompose(conflict -> {
+            if (READS_OUTDATED.equals(conflict)) {
+                return CompletableFuture.supplyAsync(() -> bookingHandler.book(laundryRoomId, houseId, bookingStartDateTimeUTC,
+                        bookingEndDateTimeUTC, startNanos), executor);
+            }
+            if (conflict != null) {
+                return CompletableFuture.completedFuture(responseBuilder.buildErrorResponse(conflict, HTTP_400));
+            }
+            return create(booking).thenApply(ignored -> bookingHandler.buildBookedResponse(laundryRoomId, laundryRoom,
+                    bookingStartDateTimeUTC, bookingEndDateTimeUTC));
+        });
+    }
+
+    /**
+     * Reads the ACTIVE booking of the house and the bookings overlapping the slot, and checks them under the locks, holding the
+     * booking as pending if there is no conflict
+     *
+     * @return future of the conflict message, null if the booking is pending, or READS_OUTDATED once every attempt was outdated
+     */
+    private CompletableFuture<String> checkAndHold(final Booking booking, final House house, final LaundryRoom laundryRoom,
+                                                     final int attempt) {
+        final long changeStamp = bookingHandler.changeStamp(booking.houseId, booking.laundryRoomId);
+        final CompletableFuture<Booking> activeHouseBooking = bookingDataAccessor.read(house, ACTIVE);
+        final CompletableFuture<Booking> overlappingBooking = bookingDataAccessor.read(laundryRoom, booking.bookingStartTimeUTC,
+                booking.bookingEndTimeUTC, ACTIVE);
+        return activeHouseBooking.thenCombineAsync(overlappingBooking, (houseBooking, laundryRoomBooking) ->
+                        bookingHandler.withBookingLocks(booking.houseId, booking.laundryRoomId, () -> {
+                            if (bookingHandler.changeStamp(booking.houseId, booking.laundryRoomId) != changeStamp) {
+                                return READS_OUTDATED;
+                            }
+                            String conflict = BookingHandler.conflictMessage(houseBooking, laundryRoomBooking);
+                            if (conflict == null) {
+                                conflict = bookingHandler.pendingConflict(booking.houseId, booking.laundryRoomId,
+                                        booking.bookingStartTimeUTC, booking.bookingEndTimeUTC);
+                            }
+                            if (conflict == null) {
+                                conflict = bookingHandler.reservationConflict(booking.houseId, booking.laundryRoomId,
+                                        booking.bookingStartTimeUTC, booking.bookingEndTimeUTC);
+                            }
+                            if (conflict == null) {
+                                bookingHandler.addPendingBooking(booking);
+                            }
+                            return conflict;
+                        }), executor)
+                .thenCompose(conflict -> READS_OUTDATED.equals(conflict) && attempt < MAX_CHECK_ATTEMPTS
+                        ? checkAndHold(booking, house, laundryRoom, attempt + 1) : CompletableFuture.completedFuture(conflict));
+    }
+
+    /**
+     * Creates a pending booking and, once the store has answered, releases its slot and publishes it if it was created
+     */
+    private CompletableFuture<Void> create(final Booking booking) {
+        CompletableFuture<Void> created;
+        try {
+            created = bookingDataAccessor.create(booking);
+        } catch (final RuntimeException e) {
+            created = CompletableFuture.failedFuture(e);
+        }
+        return created.handleAsync((ignored, throwable) -> {
+            bookingHandler.withBookingLocks(booking.houseId, booking.laundryRoomId, () -> {
+                bookingHandler.removePendingBooking(booking);
+                if (throwable == null) {
+                    bookingHandler.bookingChanged(BookingEventType.BOOKED, booking);
+                }
+                return null;
+            });
+            if (throwable != null) {
+                throw new CompletionException(throwable);
+            }
+            return null;
+        }, executor);
+    }
+
+    private Response buildServerErrorResponse(final Throwable throwable) {
+        throwable.printStackTrace();
+        return responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
+    }
+}
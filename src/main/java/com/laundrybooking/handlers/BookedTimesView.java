@@ -0,0 +1,255 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.utils.ResponseSerializer.serializeBookedTimes;
+
+import com.laundrybooking.accessor.BookingDataAccessor;
+import com.laundrybooking.metrics.BookingMetrics;
+import com.laundrybooking.metrics.Stage;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEventType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Materialized view of the ACTIVE bookings overlapping the next window, kept serialized. The bookings are read from the store once
+ * for the window and a reload margin, and the booking handler then hands its changes to the view. The serialized booked times are
+ * rebuilt on the first read after a change, or once time moves a booking in or out of the window, so any other read is two
+ * volatile reads.
+ * Handing a change over never waits: the change is queued and applied by whoever holds the rebuild lock next, a read or a later
+ * change finding the lock free. Reloading and serializing are only done by reads, so the bookings never wait on them.
+ * Every snapshot has an ETag, which changes when its booked times do, for conditional reads. Bookings made by other booking
+ * handlers on the same store, such as those of other processes sharing a database or routing to the same shards, are only seen by
+ * reloading. A view given a maxStaleness reloads on the first read once its bookings are that old, so its booked times lag those of
+ * other writers by up to maxStaleness; by default it only reloads when the window moves past the loaded bookings.
+ */
+class BookedTimesView {
+
+    static final Duration RELOAD_MARGIN = Duration.ofDays(1);
+
+    private static final Comparator<Booking> START_TIME_ORDER = Comparator.<Booking, Instant>comparing(booking -> booking.bookingStartTimeUTC)
+            .thenComparingInt(booking -> booking.laundryRoomId)
+            .thenComparing(booking -> booking.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final BookingDataAccessor bookingDataAccessor;
+
+    private final Duration window;
+
+    // Null when the bookings are not reloaded for their age
+    private final Duration maxStaleness;
+
+    private final BookingMetrics metrics;
+
+    // Tells the ETags of this view apart from those of a view before a restart
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Changes handed over and not applied yet, in the order they were made
+    private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+
+    // Changes handed over so far, a snapshot is current while it has seen all of them
+    private final AtomicLong changeCount = new AtomicLong();
+
+    // Taken by the reads to rebuild and by the changes only when free
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Guarded by rebuildLock, null until loaded
+    private NavigableSet<Booking> bookings;
+
+    // Guarded by rebuildLock, end of the loaded bookings
+    private Instant loadedUntil;
+
+    // Guarded by rebuildLock, when the bookings were loaded
+    private Instant loadedAt;
+
+    // Guarded by rebuildLock, the last snapshot built
+    private Snapshot latest;
+
+    // Guarded by rebuildLock
+    private long version;
+
+    private volatile Snapshot snapshot;
+
+    BookedTimesView(final BookingDataAccessor bookingDataAccessor, final Duration window, final BookingMetrics metrics) {
+        this(bookingDataAccessor, window, null, metrics);
+    }
+
+    /**
+     * @param maxStaleness longest time the bookings are served without being reloaded from the store, null to reload them only when
+     *                     the window moves past them
+     */
+    BookedTimesView(final BookingDataAccessor bookingDataAccessor, final Duration window, final Duration maxStaleness,
+                    final BookingMetrics metrics) {
+        this.bookingDataAccessor = bookingDataAccessor;
+        this.window = window;
+        this.maxStaleness = maxStaleness;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the booked times of the window starting now
+     */
+    Snapshot read() {
+        final Snapshot current = snapshot;
+        final Instant now = Instant.now();
+        if (isCurrent(current, now)) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            return rebuild(now);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Hands over a change made by the booking handler, holding the locks it was made under so that the changes of a booking are
+     * queued in order. Never waits.
+     */
+    void apply(final BookingEventType type, final Booking booking) {
+        changes.add(new Change(type == BookingEventType.BOOKED, copy(booking)));
+        changeCount.incrementAndGet();
+        if (rebuildLock.tryLock()) {
+            try {
+                applyChanges();
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    private boolean isCurrent(final Snapshot current, final Instant now) {
+        return current != null && current.changeCount == changeCount.get() && now.isBefore(current.validUntil);
+    }
+
+    private Snapshot rebuild(final Instant now) {
+        final Snapshot current = snapshot;
+        if (isCurrent(current, now)) {
+            return current;
+        }
+        // Read before the changes are applied, so that a change handed over while building makes the snapshot stale
+        final long seenChangeCount = changeCount.get();
+        long stageStartNanos = System.nanoTime();
+        final Instant windowEnd = now.plus(window);
+        if (bookings == null || windowEnd.isAfter(loadedUntil) || (maxStaleness != null && !now.isBefore(loadedAt.plus(maxStaleness)))) {
+            // The changes queued so far were made on the store before they were queued, so the read below has them. Those queued
+            // while it runs may or may not be in it, and are applied after it, adding and removing being idempotent.
+            changes.clear();
+            final Instant reloadUntil = windowEnd.plus(RELOAD_MARGIN);
+            final NavigableSet<Booking> reloaded = new TreeSet<>(START_TIME_ORDER);
+            for (final Booking booking : bookingDataAccessor.read(now, reloadUntil, ACTIVE)) {
+                reloaded.add(copy(booking));
+            }
+            bookings = reloaded;
+            loadedUntil = reloadUntil;
+            loadedAt = now;
+            stageStartNanos = metrics.recordSince(Stage.LIST_BOOKED_TIMES_READ, stageStartNanos);
+        }
+        applyChanges();
+
+        // The booked times change next when a booking ends, when a booking starts within the window, or when a reload is due
+        Instant validUntil = loadedUntil.minus(window);
+        if (maxStaleness != null) {
+            final Instant staleAt = loadedAt.plus(maxStaleness);
+            validUntil = staleAt.isBefore(validUntil) ? staleAt : validUntil;
+        }
+        final List<Booking> bookedTimes = new ArrayList<>();
+        for (final Iterator<Booking> iterator = bookings.iterator(); iterator.hasNext(); ) {
+            final Booking booking = iterator.next();
+            if (!booking.bookingEndTimeUTC.isAfter(now)) {
+                iterator.remove();
+                continue;
+            }
+            if (!booking.bookingStartTimeUTC.isBefore(windowEnd)) {
+                final Instant entersWindow = booking.bookingStartTimeUTC.minus(window);
+                validUntil = entersWindow.isBefore(validUntil) ? entersWindow : validUntil;
+                break;
+            }
+            bookedTimes.add(booking);
+            validUntil = booking.bookingEndTimeUTC.isBefore(validUntil) ? booking.bookingEndTimeUTC : validUntil;
+        }
+        final byte[] payload = serializeBookedTimes(bookedTimes);
+        if (latest == null || !Arrays.equals(latest.payload, payload)) {
+            version++;
+        }
+        latest = new Snapshot(payload, "\"" + instanceId + "-" + version + "\"", validUntil, seenChangeCount);
+        snapshot = latest;
+        metrics.recordSince(Stage.LIST_BOOKED_TIMES_SERIALIZATION, stageStartNanos);
+        return latest;
+    }
+
+    /**
+     * Applies the queued changes to the loaded bookings, holding the rebuild lock
+     */
+    private void applyChanges() {
+        for (Change change = changes.poll(); change != null; change = changes.poll()) {
+            if (bookings == null || !change.booking.bookingStartTimeUTC.isBefore(loadedUntil)) {
+                continue;
+            }
+            if (change.booked) {
+                bookings.add(change.booking);
+            } else {
+                bookings.remove(change.booking);
+            }
+        }
+    }
+
+    private static Booking copy(final Booking booking) {
+        return Booking.builder()
+                .id(booking.id)
+                .houseId(booking.houseId)
+                .laundryRoomId(booking.laundryRoomId)
+                .bookingStartTimeUTC(booking.bookingStartTimeUTC)
+                .bookingEndTimeUTC(booking.bookingEndTimeUTC)
+                .bookingStatus(ACTIVE)
+                .build();
+    }
+
+    /**
+     * Serialized booked times of the view, valid until validUntil unless the bookings change
+     */
+    static final class Snapshot {
+        final byte[] payload;
+
+        final String etag;
+
+        final Instant validUntil;
+
+        // Changes handed over to the view before the snapshot was built
+        private final long changeCount;
+
+        private Snapshot(final byte[] payload, final String etag, final Instant validUntil, final long changeCount) {
+            this.payload = payload;
+            this.etag = etag;
+            this.validUntil = validUntil;
+            this.changeCount = changeCount;
+        }
+    }
+
+    /**
+     * Booking added to or removed from the view
+     */
+    private static final class Change {
+        private final boolean booked;
+
+        private final Booking booking;
+
+        private Change(final boolean booked, final Booking booking) {
+            this.booked = booked;
+            this.booking = booking;
+        }
+    }
+}
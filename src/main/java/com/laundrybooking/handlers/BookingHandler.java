@@ -2,36 +2,66 @@ package com.laundrybooking.handlers;
 
 import static com.laundrybooking.model.BookingStatus.ACTIVE;
 import static com.laundrybooking.model.BookingStatus.CANCELLED;
+import static com.laundrybooking.utils.Constants.BOOKED_TIMES_KEY;
 import static com.laundrybooking.utils.Constants.BOOKING_END_TIME_KEY;
-import static com.laundrybooking.utils.Constants.BOOKING_END_TIME_UTC_KEY;
 import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_KEY;
-import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_UTC_KEY;
 import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_304;
 import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_429;
 import static com.laundrybooking.utils.Constants.HTTP_500;
 import static com.laundrybooking.utils.Constants.HTTP_500_MESSAGE;
-import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_ID_KEY;
 import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_KEY;
-import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_NAME_KEY;
-import static com.laundrybooking.utils.Constants.MESSAGE_KEY;
-import static com.laundrybooking.utils.JsonUtils.buildJsonString;
+import static com.laundrybooking.utils.Constants.NEXT_CURSOR_KEY;
+import static com.laundrybooking.utils.IsoInstantParser.parseEpochNanos;
+import static com.laundrybooking.utils.IsoInstantParser.toInstant;
+import static com.laundrybooking.utils.ResponseSerializer.serializeBookedSlot;
+import static com.laundrybooking.utils.ResponseSerializer.serializeTimeSlots;
 
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.laundrybooking.accessor.BookingDataAccessor;
-import com.laundrybooking.accessor.HouseDataAccessor;
-import com.laundrybooking.accessor.LaundryRoomDataAccessor;
+import com.laundrybooking.accessor.DataAccessor;
 import com.laundrybooking.builder.ResponseBuilder;
+import com.laundrybooking.events.BookingEventBus;
+import com.laundrybooking.metrics.BookingMetrics;
+import com.laundrybooking.metrics.Operation;
+import com.laundrybooking.metrics.RejectionReason;
+import com.laundrybooking.metrics.Stage;
 import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEventType;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.BookingRequest;
 import com.laundrybooking.model.House;
 import com.laundrybooking.model.LaundryRoom;
 import com.laundrybooking.model.Response;
+import com.laundrybooking.model.TimeSlot;
+import com.laundrybooking.utils.IntObjectMap;
+import com.laundrybooking.utils.StripedLock;
 
+import java.io.Writer;
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 
 public class BookingHandler {
 
@@ -45,23 +75,136 @@ public class BookingHandler {
 
     static final String INVALID_BOOKING_MESSAGE = "Invalid booking id or booking not active";
 
+    static final String INVALID_LIST_REQUEST = "Invalid laundry room id, date time or cursor";
+
+    static final String INVALID_PAGE_SIZE = "Page size should be positive";
+
+    static final String ACTIVE_BOOKING_EXISTS = "You already have an active booking starting ";
+
+    static final String INVALID_AVAILABILITY_REQUEST = "Invalid date time";
+
+    static final int MAX_AVAILABLE_SLOTS = 100;
+
+    static final String SLOT_WAITLISTED = "Slot already booked, you will get it if it is cancelled";
+
+    static final String ALREADY_WAITLISTED = "You are already waiting for a slot of this laundry room";
+
+    static final String WAITLIST_FULL = "Too many houses are waiting for this laundry room, please try another slot";
+
+    private static final String CURSOR_SEPARATOR = ":";
+
     private final ResponseBuilder responseBuilder;
 
     private final BookingDataAccessor bookingDataAccessor;
 
-    private final LaundryRoomDataAccessor laundryRoomDataAccessor;
+    private final DataAccessor<LaundryRoom> laundryRoomDataAccessor;
 
-    private final HouseDataAccessor houseDataAccessor;
+    private final DataAccessor<House> houseDataAccessor;
 
     private final BookingValidator bookingValidator;
 
-    public BookingHandler(final BookingDataAccessor bookingDataAccessor, final LaundryRoomDataAccessor laundryRoomDataAccessor,
-                          final HouseDataAccessor houseDataAccessor, final BookingValidator bookingValidator) {
+    // Bookings of a house and bookings of a laundry room are serialized on these. House locks are always taken before room locks.
+    private final StripedLock houseLocks;
+
+    private final StripedLock laundryRoomLocks;
+
+    // Bookings checked by the async handler whose create is in flight, guarded by the locks of their house and laundry room
+    private final IntObjectMap<Booking> pendingBookingsByHouse = new IntObjectMap<>();
+
+    private final ConcurrentMap<Integer, List<Booking>> pendingBookingsByLaundryRoom = new ConcurrentHashMap<>();
+
+    private final BookingMetrics metrics;
+
+    private final SlotWaitlist waitlist = new SlotWaitlist();
+
+    // Changes are published holding the locks they were made under, so the events of a booking are in the order of its changes.
+    // A publish waits on a slow subscriber for at most the maxPublishWait of the bus.
+    private final BookingEventBus eventBus;
+
+    private final BookedTimesView bookedTimesView;
+
+    private final IdempotencyCache idempotencyCache;
+
+    // Null when every booking is admitted
+    private final AdmissionController admissionController;
+
+    public BookingHandler(final BookingDataAccessor bookingDataAccessor, final DataAccessor<LaundryRoom> laundryRoomDataAccessor,
+                          final DataAccessor<House> houseDataAccessor, final BookingValidator bookingValidator) {
+        this(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor, bookingValidator, new BookingMetrics());
+    }
+
+    public BookingHandler(final BookingDataAccessor bookingDataAccessor, final DataAccessor<LaundryRoom> laundryRoomDataAccessor,
+                          final DataAccessor<House> houseDataAccessor, final BookingValidator bookingValidator,
+                          final BookingMetrics metrics) {
+        this(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor, bookingValidator, metrics, new IdempotencyCache());
+    }
+
+    public BookingHandler(final BookingDataAccessor bookingDataAccessor, final DataAccessor<LaundryRoom> laundryRoomDataAccessor,
+                          final DataAccessor<House> houseDataAccessor, final BookingValidator bookingValidator,
+                          final BookingMetrics metrics, final IdempotencyCache idempotencyCache) {
+        this(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor, bookingValidator, metrics, idempotencyCache, null);
+    }
+
+    /**
+     * @param admissionController turns bookings away before they are validated, null to admit every booking
+     */
+    public BookingHandler(final BookingDataAccessor bookingDataAccessor, final DataAccessor<LaundryRoom> laundryRoomDataAccessor,
+                          final DataAccessor<House> houseDataAccessor, final BookingValidator bookingValidator,
+                          final BookingMetrics metrics, final IdempotencyCache idempotencyCache,
+                          final AdmissionController admissionController) {
+        this(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor, bookingValidator, metrics, idempotencyCache,
+                admissionController, new BookingEventBus());
+    }
+
+    /**
+     * @param eventBus bus the changes to the bookings are published on, shared with an ExpiringBookingDataAccessor publishing the
+     *                 completions
+     */
+    public BookingHandler(final BookingDataAccessor bookingDataAccessor, final DataAccessor<LaundryRoom> laundryRoomDataAccessor,
+                          final DataAccessor<House> houseDataAccessor, final BookingValidator bookingValidator,
+                          final BookingMetrics metrics, final IdempotencyCache idempotencyCache,
+                          final AdmissionController admissionController, final BookingEventBus eventBus) {
+        this(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor, bookingValidator, metrics, idempotencyCache,
+                admissionController, eventBus, null);
+    }
+
+    /**
+     * @param bookedTimesMaxStaleness longest time the booked times are listed without reloading the store, for handlers sharing
+     *                                the store with other writers, null to reload it only when the listed window moves on
+     */
+    public BookingHandler(final BookingDataAccessor bookingDataAccessor, final DataAccessor<LaundryRoom> laundryRoomDataAccessor,
+                          final DataAccessor<House> houseDataAccessor, final BookingValidator bookingValidator,
+                          final BookingMetrics metrics, final IdempotencyCache idempotencyCache,
+                          final AdmissionController admissionController, final BookingEventBus eventBus,
+                          final Duration bookedTimesMaxStaleness) {
         responseBuilder = new ResponseBuilder();
+        this.eventBus = eventBus;
+        bookedTimesView = new BookedTimesView(bookingDataAccessor, Duration.ofDays(LIST_BOOKED_TIMES_WINDOW), bookedTimesMaxStaleness,
+                metrics);
+        this.metrics = metrics;
+        this.idempotencyCache = idempotencyCache;
+        this.admissionController = admissionController;
         this.bookingDataAccessor = bookingDataAccessor;
         this.laundryRoomDataAccessor = laundryRoomDataAccessor;
         this.houseDataAccessor = houseDataAccessor;
         this.bookingValidator = bookingValidator;
+        houseLocks = new StripedLock();
+        laundryRoomLocks = new StripedLock();
+    }
+
+    public BookingMetrics getMetrics() {
+        return metrics;
+    }
+
+    public IdempotencyCache getIdempotencyCache() {
+        return idempotencyCache;
+    }
+
+    /**
+     * Returns the bus the bookings, cancellations and waitlist handovers are published on
+     */
+    public BookingEventBus getEventBus() {
+        return eventBus;
     }
 
     /**
@@ -74,65 +217,327 @@ public class BookingHandler {
      * @return
      */
     public Response book(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC, final String bookingEndDateTimeUTC) {
-        try {
-            // Data validations
-            final String validationResult = bookingValidator.validateBooking(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC);
-            if (validationResult != null) {
-                return responseBuilder.buildErrorResponse(validationResult, HTTP_400);
-            }
+        final long startNanos = System.nanoTime();
+        return recordOutcome(Operation.BOOK, Stage.BOOK, startNanos, admitAndBook(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC,
+                startNanos));
+    }
 
+    /**
+     * Books a laundry slot once per idempotency key, a retry with the key gets the response of the first request without booking
+     *
+     * @param idempotencyKey key of the request, null to book without de-duplication
+     */
+    public Response book(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC, final String bookingEndDateTimeUTC,
+                         final String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return book(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC);
+        }
+        final long startNanos = System.nanoTime();
+        final String request = String.join("\n", Operation.BOOK.name(), laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC);
+        return recordOutcome(Operation.BOOK, Stage.BOOK, startNanos, idempotencyCache.execute(idempotencyKey, request,
+                () -> admitAndBook(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC, startNanos)));
+    }
+
+    private Response admitAndBook(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC,
+                                  final String bookingEndDateTimeUTC, final long startNanos) {
+        if (admissionController == null) {
+            return book(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC, startNanos);
+        }
+        return admissionController.admit(houseId, () -> book(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC, startNanos));
+    }
+
+    /**
+     * Runs an async booking through the same idempotency cache and admission control as book
+     *
+     * @param idempotencyKey key of the request, null to book without de-duplication
+     */
+    CompletableFuture<Response> admitAndBookAsync(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC,
+                                                  final String bookingEndDateTimeUTC, final String idempotencyKey,
+                                                  final Supplier<CompletableFuture<Response>> booking) {
+        final Supplier<CompletableFuture<Response>> admittedBooking = admissionController == null ? booking
+                : () -> admissionController.admitAsync(houseId, booking);
+        if (idempotencyKey == null) {
+            return admittedBooking.get();
+        }
+        final String request = String.join("\n", Operation.BOOK.name(), laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC);
+        return idempotencyCache.executeAsync(idempotencyKey, request, admittedBooking);
+    }
+
+    /**
+     * Books the slot holding the locks for the whole check and create, the way book does once admitted
+     */
+    Response book(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC, final String bookingEndDateTimeUTC,
+                  final long startNanos) {
+        try {
+            // The house and laundry room are read once and shared with the validations
             final House house = houseDataAccessor.read(houseId);
             final LaundryRoom laundryRoom = laundryRoomDataAccessor.read(laundryRoomId);
+            long stageStartNanos = metrics.recordSince(Stage.BOOK_READ, startNanos);
 
-            // Can house book slot?
-            final String canHouseBook = canBookLaundrySlot(house, laundryRoom, bookingStartDateTimeUTC, bookingEndDateTimeUTC);
-            if (canHouseBook != null) {
-                return responseBuilder.buildErrorResponse(canHouseBook, HTTP_400);
+            // The booking times are parsed once and shared with the validations and the booking
+            final long bookingStartEpochNanos = parseEpochNanos(bookingStartDateTimeUTC);
+            final long bookingEndEpochNanos = parseEpochNanos(bookingEndDateTimeUTC);
+
+            // Data validations
+            final String validationResult = bookingValidator.validateBooking(laundryRoom, house, bookingStartEpochNanos, bookingEndEpochNanos);
+            stageStartNanos = metrics.recordSince(Stage.BOOK_VALIDATION, stageStartNanos);
+            if (validationResult != null) {
+                return responseBuilder.buildErrorResponse(validationResult, HTTP_400);
             }
 
             final Booking booking = Booking.builder()
                     .bookingStatus(ACTIVE)
-                    .bookingStartTimeUTC(Instant.parse(bookingStartDateTimeUTC))
-                    .bookingEndTimeUTC(Instant.parse(bookingEndDateTimeUTC))
+                    .bookingStartTimeUTC(toInstant(bookingStartEpochNanos))
+                    .bookingEndTimeUTC(toInstant(bookingEndEpochNanos))
                     .laundryRoomId(Integer.parseInt(laundryRoomId))
                     .houseId(Integer.parseInt(houseId))
                     .build();
-            bookingDataAccessor.create(booking);
 
-            final Map<String, String> payloadMap = new HashMap<>();
-            payloadMap.put(MESSAGE_KEY, SLOT_SUCCESSFULLY_BOOKED);
-            payloadMap.put(LAUNDRY_ROOM_ID_KEY, laundryRoomId);
-            payloadMap.put(LAUNDRY_ROOM_NAME_KEY, laundryRoom.name);
-            payloadMap.put(BOOKING_START_TIME_UTC_KEY, bookingStartDateTimeUTC);
-            payloadMap.put(BOOKING_END_TIME_UTC_KEY, bookingEndDateTimeUTC);
+            // The check and the create have to be atomic, otherwise two concurrent requests could both see the slot as free
+            final Lock houseLock = houseLocks.get(booking.houseId);
+            final Lock laundryRoomLock = laundryRoomLocks.get(booking.laundryRoomId);
+            houseLock.lock();
+            laundryRoomLock.lock();
+            try {
+                stageStartNanos = metrics.recordSince(Stage.BOOK_LOCK_WAIT, stageStartNanos);
+                // Can house book slot?
+                final String canHouseBook = canBookLaundrySlot(house, laundryRoom, booking.bookingStartTimeUTC, booking.bookingEndTimeUTC);
+                stageStartNanos = metrics.recordSince(Stage.BOOK_CONFLICT_CHECK, stageStartNanos);
+                if (canHouseBook != null) {
+                    return responseBuilder.buildErrorResponse(canHouseBook, HTTP_400);
+                }
+                bookingDataAccessor.create(booking);
+                bookingChanged(BookingEventType.BOOKED, booking);
+                metrics.recordSince(Stage.BOOK_CREATE, stageStartNanos);
+            } finally {
+                laundryRoomLock.unlock();
+                houseLock.unlock();
+            }
 
-            final String jsonString = buildJsonString(payloadMap);
-            return responseBuilder.buildSuccessResponse(jsonString);
+            return buildBookedResponse(laundryRoomId, laundryRoom, bookingStartDateTimeUTC, bookingEndDateTimeUTC);
         } catch (final Exception e) {
             e.printStackTrace();
             return responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
         }
     }
 
+    /**
+     * Books many laundry slots at once. Each house and laundry room is read once for the whole batch, and the bookings are
+     * checked against the existing bookings and against each other, earlier requests of the batch winning conflicts, before being
+     * created together in one grouped write.
+     *
+     * @param bookingRequests
+     * @return a response per booking request, in the order of the requests
+     */
+    public List<Response> bookBatch(final List<BookingRequest> bookingRequests) {
+        final long startNanos = System.nanoTime();
+        final List<Response> responses = bookBatchUntimed(bookingRequests);
+        metrics.recordSince(Stage.BOOK_BATCH, startNanos);
+        for (final Response response : responses) {
+            recordResponse(Operation.BOOK_BATCH, response);
+        }
+        return responses;
+    }
+
+    private List<Response> bookBatchUntimed(final List<BookingRequest> bookingRequests) {
+        final Response[] responses = new Response[bookingRequests.size()];
+        final Map<String, House> houses = new HashMap<>();
+        final Map<String, LaundryRoom> laundryRooms = new HashMap<>();
+        final List<Integer> candidateIndexes = new ArrayList<>();
+        final List<Booking> candidates = new ArrayList<>();
+
+        // Data validations
+        for (int i = 0; i < responses.length; i++) {
+            final BookingRequest bookingRequest = bookingRequests.get(i);
+            try {
+                final House house = houses.computeIfAbsent(bookingRequest.houseId, houseDataAccessor::read);
+                final LaundryRoom laundryRoom = laundryRooms.computeIfAbsent(bookingRequest.laundryRoomId, laundryRoomDataAccessor::read);
+                final long bookingStartEpochNanos = parseEpochNanos(bookingRequest.bookingStartDateTimeUTC);
+                final long bookingEndEpochNanos = parseEpochNanos(bookingRequest.bookingEndDateTimeUTC);
+                final String validationResult = bookingValidator.validateBooking(laundryRoom, house, bookingStartEpochNanos,
+                        bookingEndEpochNanos);
+                if (validationResult != null) {
+                    responses[i] = responseBuilder.buildErrorResponse(validationResult, HTTP_400);
+                    continue;
+                }
+                candidates.add(Booking.builder()
+                        .bookingStatus(ACTIVE)
+                        .bookingStartTimeUTC(toInstant(bookingStartEpochNanos))
+                        .bookingEndTimeUTC(toInstant(bookingEndEpochNanos))
+                        .laundryRoomId(Integer.parseInt(bookingRequest.laundryRoomId))
+                        .houseId(Integer.parseInt(bookingRequest.houseId))
+                        .build());
+                candidateIndexes.add(i);
+            } catch (final Exception e) {
+                e.printStackTrace();
+                responses[i] = responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
+            }
+        }
+
+        // Same lock order as book, every house stripe of the batch before every laundry room stripe
+        final List<Booking> accepted = new ArrayList<>();
+        final List<Integer> acceptedIndexes = new ArrayList<>();
+        final List<Boolean> booked = new ArrayList<>();
+        final List<Lock> houseStripes = houseLocks.lockAll(candidates.stream().mapToInt(booking -> booking.houseId).toArray());
+        try {
+            final List<Lock> laundryRoomStripes = laundryRoomLocks.lockAll(
+                    candidates.stream().mapToInt(booking -> booking.laundryRoomId).toArray());
+            try {
+                final Map<Integer, Booking> acceptedByHouse = new HashMap<>();
+                final Map<Integer, NavigableMap<Instant, Booking>> acceptedByLaundryRoom = new HashMap<>();
+                for (int i = 0; i < candidates.size(); i++) {
+                    final Booking booking = candidates.get(i);
+                    final int requestIndex = candidateIndexes.get(i);
+                    final BookingRequest bookingRequest = bookingRequests.get(requestIndex);
+                    try {
+                        String conflict = canBookLaundrySlot(houses.get(bookingRequest.houseId),
+                                laundryRooms.get(bookingRequest.laundryRoomId), booking.bookingStartTimeUTC, booking.bookingEndTimeUTC);
+                        if (conflict == null) {
+                            conflict = findBatchConflict(booking, acceptedByHouse, acceptedByLaundryRoom);
+                        }
+                        if (conflict != null) {
+                            responses[requestIndex] = responseBuilder.buildErrorResponse(conflict, HTTP_400);
+                            continue;
+                        }
+                    } catch (final Exception e) {
+                        e.printStackTrace();
+                        responses[requestIndex] = responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
+                        continue;
+                    }
+                    acceptedByHouse.put(booking.houseId, booking);
+                    acceptedByLaundryRoom.computeIfAbsent(booking.laundryRoomId, laundryRoomId -> new TreeMap<>())
+                            .put(booking.bookingStartTimeUTC, booking);
+                    accepted.add(booking);
+                    acceptedIndexes.add(requestIndex);
+                }
+                final boolean created = createBatch(accepted);
+                for (final Booking booking : accepted) {
+                    // After a failed grouped write only the bookings the store kept are booked. They are published before the
+                    // locks are released, so no cancellation of theirs can be published first.
+                    final boolean kept = created || (booking.id != null && bookingDataAccessor.read(booking.id) != null);
+                    if (kept) {
+                        bookingChanged(BookingEventType.BOOKED, booking);
+                    }
+                    booked.add(kept);
+                }
+            } finally {
+                StripedLock.unlockAll(laundryRoomStripes);
+            }
+        } finally {
+            StripedLock.unlockAll(houseStripes);
+        }
+
+        for (int i = 0; i < accepted.size(); i++) {
+            final BookingRequest bookingRequest = bookingRequests.get(acceptedIndexes.get(i));
+            responses[acceptedIndexes.get(i)] = booked.get(i)
+                    ? buildBookedResponse(bookingRequest.laundryRoomId, laundryRooms.get(bookingRequest.laundryRoomId),
+                    bookingRequest.bookingStartDateTimeUTC, bookingRequest.bookingEndDateTimeUTC)
+                    : responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
+        }
+        return Arrays.asList(responses);
+    }
+
     /**
      * Lists booked times for the number of days configured in LIST_BOOKED_TIMES_WINDOW
      *
      * @return
      */
     public Response listBookedTimes() {
-        // Show booked times for the LIST_BOOKED_TIMES_WINDOW
-        try {
-            final List<Booking> activeBookings = bookingDataAccessor.read(Instant.now(),
-                    Instant.now().plus(LIST_BOOKED_TIMES_WINDOW, ChronoUnit.DAYS), ACTIVE);
-            final List<Map<String, String>> bookedTimesList = activeBookings.stream().map(booking -> {
-                final Map<String, String> map = new HashMap<>();
-                map.put(BOOKING_START_TIME_KEY, booking.bookingStartTimeUTC.toString());
-                map.put(BOOKING_END_TIME_KEY, booking.bookingEndTimeUTC.toString());
-                map.put(LAUNDRY_ROOM_KEY, Integer.toString(booking.laundryRoomId));
-                return map;
-            }).collect(Collectors.toList());
-            final String payload = new Gson().toJson(bookedTimesList);
-            return responseBuilder.buildSuccessResponse(payload);
+        return listBookedTimes((String) null);
+    }
+
+    /**
+     * Lists booked times for the number of days configured in LIST_BOOKED_TIMES_WINDOW from the materialized view, with the ETag of
+     * the booked times
+     *
+     * @param ifNoneMatch ETag of the booked times the caller has, answered with a 304 and no payload if they have not changed
+     */
+    public Response listBookedTimes(final String ifNoneMatch) {
+        final long startNanos = System.nanoTime();
+        Response response;
+        try {
+            final BookedTimesView.Snapshot bookedTimes = bookedTimesView.read();
+            response = bookedTimes.etag.equals(ifNoneMatch) ? new Response(new byte[0], "", HTTP_304, bookedTimes.etag)
+                    : new Response(bookedTimes.payload, "", HTTP_200, bookedTimes.etag);
+        } catch (final Exception e) {
+            e.printStackTrace();
+            response = responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
+        }
+        return recordOutcome(Operation.LIST_BOOKED_TIMES, Stage.LIST_BOOKED_TIMES, startNanos, response);
+    }
+
+    /**
+     * Streams a page of booked times to the writer as {"bookedTimes": [...], "nextCursor": ...} without holding the page in memory.
+     * Booked times are ordered by start time and laundry room. The next cursor resumes right after the last booked time of the page
+     * and is null on the last page.
+     * Null filters select every laundry room and the LIST_BOOKED_TIMES_WINDOW days from now.
+     *
+     * @param writer
+     * @param laundryRoomId
+     * @param fromDateTimeUTC
+     * @param toDateTimeUTC
+     * @param cursor nextCursor of the previous page or null for the first page
+     * @param pageSize
+     * @return an empty success response once the page is written or an error response
+     */
+    public Response listBookedTimes(final Writer writer, final String laundryRoomId, final String fromDateTimeUTC,
+                                    final String toDateTimeUTC, final String cursor, final int pageSize) {
+        final long startNanos = System.nanoTime();
+        // Reading and serialization interleave while streaming, so only the total is timed
+        return recordOutcome(Operation.LIST_BOOKED_TIMES, Stage.LIST_BOOKED_TIMES, startNanos,
+                streamBookedTimes(writer, laundryRoomId, fromDateTimeUTC, toDateTimeUTC, cursor, pageSize));
+    }
+
+    private Response streamBookedTimes(final Writer writer, final String laundryRoomId, final String fromDateTimeUTC,
+                                       final String toDateTimeUTC, final String cursor, final int pageSize) {
+        if (pageSize <= 0) {
+            return responseBuilder.buildErrorResponse(INVALID_PAGE_SIZE, HTTP_400);
+        }
+        final BookingQuery bookingQuery;
+        try {
+            final Instant from = fromDateTimeUTC == null ? Instant.now() : Instant.parse(fromDateTimeUTC);
+            final BookingQuery.BookingQueryBuilder bookingQueryBuilder = BookingQuery.builder()
+                    .startTime(from)
+                    .endTime(toDateTimeUTC == null ? from.plus(LIST_BOOKED_TIMES_WINDOW, ChronoUnit.DAYS) : Instant.parse(toDateTimeUTC))
+                    .laundryRoomId(laundryRoomId == null ? null : Integer.valueOf(laundryRoomId))
+                    .bookingStatus(ACTIVE);
+            if (cursor != null) {
+                final String[] cursorParts = cursor.split(CURSOR_SEPARATOR);
+                if (cursorParts.length != 3) {
+                    return responseBuilder.buildErrorResponse(INVALID_LIST_REQUEST, HTTP_400);
+                }
+                bookingQueryBuilder.afterStartTime(Instant.ofEpochSecond(Long.parseLong(cursorParts[0]), Integer.parseInt(cursorParts[1])))
+                        .afterLaundryRoomId(Integer.parseInt(cursorParts[2]));
+            }
+            bookingQuery = bookingQueryBuilder.build();
+        } catch (final DateTimeException | NumberFormatException e) {
+            return responseBuilder.buildErrorResponse(INVALID_LIST_REQUEST, HTTP_400);
+        }
+
+        try {
+            final Iterator<Booking> bookings = bookingDataAccessor.query(bookingQuery);
+            // Not closed, the writer belongs to the caller
+            final JsonWriter jsonWriter = new JsonWriter(writer);
+            jsonWriter.beginObject().name(BOOKED_TIMES_KEY).beginArray();
+            Booking lastBooking = null;
+            for (int written = 0; written < pageSize && bookings.hasNext(); written++) {
+                lastBooking = bookings.next();
+                jsonWriter.beginObject()
+                        .name(BOOKING_START_TIME_KEY).value(lastBooking.bookingStartTimeUTC.toString())
+                        .name(BOOKING_END_TIME_KEY).value(lastBooking.bookingEndTimeUTC.toString())
+                        .name(LAUNDRY_ROOM_KEY).value(Integer.toString(lastBooking.laundryRoomId))
+                        .endObject();
+            }
+            jsonWriter.endArray().name(NEXT_CURSOR_KEY);
+            if (lastBooking != null && bookings.hasNext()) {
+                jsonWriter.value(lastBooking.bookingStartTimeUTC.getEpochSecond() + CURSOR_SEPARATOR + lastBooking.bookingStartTimeUTC.getNano()
+                        + CURSOR_SEPARATOR + lastBooking.laundryRoomId);
+            } else {
+                jsonWriter.nullValue();
+            }
+            jsonWriter.endObject();
+            jsonWriter.flush();
+            return responseBuilder.buildSuccessResponse("");
         } catch (final Exception e) {
             e.printStackTrace();
             return responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
@@ -140,19 +545,68 @@ public class BookingHandler {
     }
 
     /**
-     * Cancels a booking provided the booking id represents an ACTIVE booking for the houseId
+     * Cancels a booking provided the booking id represents an ACTIVE booking for the houseId. The freed slot is booked for the
+     * houses on the waitlist of the laundry room that can have it, in the order they joined.
      *
      * @param bookingId
      * @return
      */
 
     public Response cancelBooking(final String bookingId, final String houseId) {
+        final long startNanos = System.nanoTime();
+        return recordOutcome(Operation.CANCEL_BOOKING, Stage.CANCEL_BOOKING, startNanos, cancelBooking(bookingId, houseId, startNanos));
+    }
+
+    /**
+     * Cancels a booking once per idempotency key, a retry with the key gets the response of the first request
+     *
+     * @param idempotencyKey key of the request, null to cancel without de-duplication
+     */
+    public Response cancelBooking(final String bookingId, final String houseId, final String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return cancelBooking(bookingId, houseId);
+        }
+        final long startNanos = System.nanoTime();
+        final String request = String.join("\n", Operation.CANCEL_BOOKING.name(), bookingId, houseId);
+        return recordOutcome(Operation.CANCEL_BOOKING, Stage.CANCEL_BOOKING, startNanos, idempotencyCache.execute(idempotencyKey, request,
+                () -> cancelBooking(bookingId, houseId, startNanos)));
+    }
+
+    private Response cancelBooking(final String bookingId, final String houseId, final long startNanos) {
+        final int parsedHouseId;
+        try {
+            parsedHouseId = Integer.parseInt(houseId);
+        } catch (final NumberFormatException e) {
+            return responseBuilder.buildErrorResponse(INVALID_BOOKING_MESSAGE, HTTP_400);
+        }
         try {
-            final Booking booking = bookingDataAccessor.read(bookingId, houseId, ACTIVE);
-            if (booking == null) {
-                return responseBuilder.buildErrorResponse(INVALID_BOOKING_MESSAGE, HTTP_400);
+            final Booking booking;
+            final List<SlotWaitlist.Waiter> reserved;
+            final Lock houseLock = houseLocks.get(parsedHouseId);
+            houseLock.lock();
+            try {
+                long stageStartNanos = metrics.recordSince(Stage.CANCEL_BOOKING_LOCK_WAIT, startNanos);
+                booking = bookingDataAccessor.read(bookingId, houseId, ACTIVE);
+                stageStartNanos = metrics.recordSince(Stage.CANCEL_BOOKING_READ, stageStartNanos);
+                if (booking == null) {
+                    return responseBuilder.buildErrorResponse(INVALID_BOOKING_MESSAGE, HTTP_400);
+                }
+                // The freed slot is reserved for the waiting houses before anyone else can book it
+                final Lock laundryRoomLock = laundryRoomLocks.get(booking.laundryRoomId);
+                laundryRoomLock.lock();
+                try {
+                    bookingDataAccessor.update(bookingId, BOOKING_STATUS_KEY, CANCELLED.toString());
+                    bookingChanged(BookingEventType.CANCELLED, booking);
+                    metrics.recordSince(Stage.CANCEL_BOOKING_UPDATE, stageStartNanos);
+                    reserved = waitlist.reserve(booking.laundryRoomId, booking.bookingStartTimeUTC, booking.bookingEndTimeUTC,
+                            Collections.emptySet());
+                } finally {
+                    laundryRoomLock.unlock();
+                }
+            } finally {
+                houseLock.unlock();
             }
-            bookingDataAccessor.update(bookingId, BOOKING_STATUS_KEY, CANCELLED.toString());
+            handOver(booking, reserved);
             return responseBuilder.buildSuccessResponse(SLOT_SUCCESSFULLY_CANCELLED);
         } catch (final Exception e) {
             e.printStackTrace();
@@ -160,6 +614,234 @@ public class BookingHandler {
         }
     }
 
+    /**
+     * Books a laundry slot like book, or if the slot is already booked puts the house on the waitlist of its laundry room, so that
+     * the house gets the slot if it is cancelled. A house waits for one slot per laundry room, and a full waitlist turns the house
+     * away.
+     *
+     * @param laundryRoomId
+     * @param houseId
+     * @param bookingStartDateTimeUTC
+     * @param bookingEndDateTimeUTC
+     * @return
+     */
+    public Response joinWaitlist(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC,
+                                 final String bookingEndDateTimeUTC) {
+        final long startNanos = System.nanoTime();
+        return recordOutcome(Operation.JOIN_WAITLIST, Stage.JOIN_WAITLIST, startNanos,
+                joinWaitlistUntimed(laundryRoomId, houseId, bookingStartDateTimeUTC, bookingEndDateTimeUTC));
+    }
+
+    private Response joinWaitlistUntimed(final String laundryRoomId, final String houseId, final String bookingStartDateTimeUTC,
+                                         final String bookingEndDateTimeUTC) {
+        try {
+            final House house = houseDataAccessor.read(houseId);
+            final LaundryRoom laundryRoom = laundryRoomDataAccessor.read(laundryRoomId);
+            final long bookingStartEpochNanos = parseEpochNanos(bookingStartDateTimeUTC);
+            final long bookingEndEpochNanos = parseEpochNanos(bookingEndDateTimeUTC);
+            final String validationResult = bookingValidator.validateBooking(laundryRoom, house, bookingStartEpochNanos, bookingEndEpochNanos);
+            if (validationResult != null) {
+                return responseBuilder.buildErrorResponse(validationResult, HTTP_400);
+            }
+
+            final SlotWaitlist.Waiter waiter = new SlotWaitlist.Waiter(house, laundryRoom, toInstant(bookingStartEpochNanos),
+                    toInstant(bookingEndEpochNanos));
+            // Joining holds the laundry room lock, so the slot cannot be freed between the check and the join
+            return withBookingLocks(house.id, laundryRoom.id, () -> {
+                final String canHouseBook = canBookLaundrySlot(house, laundryRoom, waiter.bookingStartTimeUTC, waiter.bookingEndTimeUTC);
+                if (canHouseBook == null) {
+                    final Booking booking = activeBooking(waiter);
+                    bookingDataAccessor.create(booking);
+                    bookingChanged(BookingEventType.BOOKED, booking);
+                    return buildBookedResponse(laundryRoomId, laundryRoom, bookingStartDateTimeUTC, bookingEndDateTimeUTC);
+                }
+                if (!canHouseBook.equals(SLOT_ALREADY_BOOKED)) {
+                    return responseBuilder.buildErrorResponse(canHouseBook, HTTP_400);
+                }
+                final SlotWaitlist.AddResult added = waitlist.add(waiter);
+                if (added == SlotWaitlist.AddResult.ALREADY_WAITING) {
+                    return responseBuilder.buildErrorResponse(ALREADY_WAITLISTED, HTTP_400);
+                }
+                if (added == SlotWaitlist.AddResult.FULL) {
+                    return responseBuilder.buildErrorResponse(WAITLIST_FULL, HTTP_400);
+                }
+                return responseBuilder.buildSuccessResponse(serializeBookedSlot(SLOT_WAITLISTED, laundryRoomId, laundryRoom.name,
+                        bookingStartDateTimeUTC, bookingEndDateTimeUTC));
+            });
+        } catch (final Exception e) {
+            e.printStackTrace();
+            return responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
+        }
+    }
+
+    /**
+     * Lists free slots of the given length in a laundry room, as [{"bookingStartTime", "bookingEndTime", "laundryRoom"}, ...] ordered
+     * by start time, so that clients can book a slot that is free instead of guessing. The slots do not overlap, fall within the
+     * opening hours of the room and its booking window, and at most MAX_AVAILABLE_SLOTS are listed.
+     * The slots come from the availability structure of the booking store rather than from a scan of the bookings.
+     *
+     * @param laundryRoomId
+     * @param fromDateTimeUTC earliest slot start, now if null
+     * @param toDateTimeUTC   latest slot end, the end of the booking window if null
+     * @param slotLength      slot length in minutes
+     * @return
+     */
+    public Response findAvailableSlots(final String laundryRoomId, final String fromDateTimeUTC, final String toDateTimeUTC,
+                                       final int slotLength) {
+        final long startNanos = System.nanoTime();
+        return recordOutcome(Operation.FIND_AVAILABLE_SLOTS, Stage.FIND_AVAILABLE_SLOTS, startNanos,
+                findAvailableSlotsUntimed(laundryRoomId, fromDateTimeUTC, toDateTimeUTC, slotLength));
+    }
+
+    private Response findAvailableSlotsUntimed(final String laundryRoomId, final String fromDateTimeUTC, final String toDateTimeUTC,
+                                               final int slotLength) {
+        final Instant from;
+        final Instant to;
+        try {
+            from = fromDateTimeUTC == null ? Instant.now() : Instant.parse(fromDateTimeUTC);
+            to = toDateTimeUTC == null ? null : Instant.parse(toDateTimeUTC);
+        } catch (final DateTimeException e) {
+            return responseBuilder.buildErrorResponse(INVALID_AVAILABILITY_REQUEST, HTTP_400);
+        }
+        try {
+            final LaundryRoom laundryRoom = laundryRoomId == null ? null : laundryRoomDataAccessor.read(laundryRoomId);
+            if (laundryRoom == null) {
+                return responseBuilder.buildErrorResponse(BookingValidator.INVALID_LAUNDRY_ROOM_ID, HTTP_400);
+            }
+            final String slotLengthValidation = bookingValidator.validateSlotLength(slotLength, laundryRoom);
+            if (slotLengthValidation != null) {
+                return responseBuilder.buildErrorResponse(slotLengthValidation, HTTP_400);
+            }
+            return responseBuilder.buildSuccessResponse(serializeTimeSlots(findAvailableSlots(laundryRoom, from, to, slotLength,
+                    MAX_AVAILABLE_SLOTS)));
+        } catch (final Exception e) {
+            e.printStackTrace();
+            return responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
+        }
+    }
+
+    /**
+     * Finds the earliest free slot of the given length across all the laundry rooms allowing that length, the lowest laundry room id
+     * winning ties, in the shape of findAvailableSlots with one slot or none
+     *
+     * @param fromDateTimeUTC earliest slot start, now if null
+     * @param slotLength      slot length in minutes
+     * @return
+     */
+    public Response findNextAvailableSlot(final String fromDateTimeUTC, final int slotLength) {
+        final long startNanos = System.nanoTime();
+        return recordOutcome(Operation.FIND_AVAILABLE_SLOTS, Stage.FIND_AVAILABLE_SLOTS, startNanos,
+                findNextAvailableSlotUntimed(fromDateTimeUTC, slotLength));
+    }
+
+    private Response findNextAvailableSlotUntimed(final String fromDateTimeUTC, final int slotLength) {
+        final Instant from;
+        try {
+            from = fromDateTimeUTC == null ? Instant.now() : Instant.parse(fromDateTimeUTC);
+        } catch (final DateTimeException e) {
+            return responseBuilder.buildErrorResponse(INVALID_AVAILABILITY_REQUEST, HTTP_400);
+        }
+        try {
+            TimeSlot nextSlot = null;
+            for (final LaundryRoom laundryRoom : laundryRoomDataAccessor.readAll()) {
+                if (bookingValidator.validateSlotLength(slotLength, laundryRoom) != null) {
+                    continue;
+                }
+                // Later rooms only have to be searched up to the best slot found so far
+                final List<TimeSlot> slots = findAvailableSlots(laundryRoom, from, nextSlot == null ? null : nextSlot.endTime,
+                        slotLength, 1);
+                if (!slots.isEmpty() && (nextSlot == null || slots.get(0).startTime.isBefore(nextSlot.startTime)
+                        || (slots.get(0).startTime.equals(nextSlot.startTime) && laundryRoom.id < nextSlot.laundryRoomId))) {
+                    nextSlot = slots.get(0);
+                }
+            }
+            return responseBuilder.buildSuccessResponse(serializeTimeSlots(nextSlot == null ? Collections.emptyList()
+                    : Collections.singletonList(nextSlot)));
+        } catch (final Exception e) {
+            e.printStackTrace();
+            return responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500);
+        }
+    }
+
+    /**
+     * Collects up to maxSlots free slots of the laundry room, day by day within the opening hours [startHour, endHour) of the room,
+     * starting no earlier than now and ending within the booking window
+     */
+    private List<TimeSlot> findAvailableSlots(final LaundryRoom laundryRoom, final Instant from, final Instant to, final int slotLength,
+                                              final int maxSlots) {
+        final Instant now = Instant.now();
+        final Instant bookingWindowEnd = now.plus(laundryRoom.bookingWindow, ChronoUnit.DAYS);
+        final Instant searchFrom = from.isBefore(now) ? now : from;
+        final Instant searchTo = to == null || to.isAfter(bookingWindowEnd) ? bookingWindowEnd : to;
+        final List<TimeSlot> slots = new ArrayList<>();
+        for (Instant dayStart = searchFrom.truncatedTo(ChronoUnit.DAYS); slots.size() < maxSlots && dayStart.isBefore(searchTo);
+             dayStart = dayStart.plus(1, ChronoUnit.DAYS)) {
+            final Instant opening = dayStart.plus(laundryRoom.startHour, ChronoUnit.HOURS);
+            final Instant closing = dayStart.plus(laundryRoom.endHour, ChronoUnit.HOURS);
+            final Instant openTo = closing.isAfter(searchTo) ? searchTo : closing;
+            Instant slotFrom = opening.isBefore(searchFrom) ? searchFrom : opening;
+            while (slots.size() < maxSlots && slotFrom.isBefore(openTo)) {
+                final Instant slotStart = bookingDataAccessor.findFreeSlot(laundryRoom, slotFrom, openTo, slotLength);
+                if (slotStart == null) {
+                    break;
+                }
+                slotFrom = slotStart.plus(slotLength, ChronoUnit.MINUTES);
+                slots.add(TimeSlot.builder()
+                        .laundryRoomId(laundryRoom.id)
+                        .startTime(slotStart)
+                        .endTime(slotFrom)
+                        .build());
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Checks a booking against the bookings already accepted earlier in the same batch
+     *
+     * @return null if the booking does not conflict with them else returns the appropriate message
+     */
+    private static String findBatchConflict(final Booking booking, final Map<Integer, Booking> acceptedByHouse,
+                                            final Map<Integer, NavigableMap<Instant, Booking>> acceptedByLaundryRoom) {
+        final Booking houseBooking = acceptedByHouse.get(booking.houseId);
+        if (houseBooking != null) {
+            return ACTIVE_BOOKING_EXISTS + houseBooking.bookingStartTimeUTC.toString();
+        }
+        final NavigableMap<Instant, Booking> laundryRoomBookings = acceptedByLaundryRoom.get(booking.laundryRoomId);
+        if (laundryRoomBookings != null) {
+            // Accepted bookings of a room never overlap, so only the last one starting before the end can overlap
+            final Map.Entry<Instant, Booking> previous = laundryRoomBookings.lowerEntry(booking.bookingEndTimeUTC);
+            if (previous != null && previous.getValue().bookingEndTimeUTC.isAfter(booking.bookingStartTimeUTC)) {
+                return SLOT_ALREADY_BOOKED;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the accepted bookings of a batch in one grouped write
+     *
+     * @return false if the write failed, in which case some of the bookings may still have been created
+     */
+    private boolean createBatch(final List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return true;
+        }
+        try {
+            bookingDataAccessor.createAll(bookings);
+            return true;
+        } catch (final Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    Response buildBookedResponse(final String laundryRoomId, final LaundryRoom laundryRoom, final String bookingStartDateTimeUTC,
+                                 final String bookingEndDateTimeUTC) {
+        return responseBuilder.buildSuccessResponse(serializeBookedSlot(SLOT_SUCCESSFULLY_BOOKED, laundryRoomId, laundryRoom.name,
+                bookingStartDateTimeUTC, bookingEndDateTimeUTC));
+    }
+
     /**
      * Checks if a house can book a laundry slot.
      * Checks performed-
@@ -170,15 +852,240 @@ public class BookingHandler {
      */
     String canBookLaundrySlot(final House house, final LaundryRoom laundryRoom, final String bookingStartDateTimeUTC,
                               final String bookingEndDateTimeUTC) {
+        return canBookLaundrySlot(house, laundryRoom, Instant.parse(bookingStartDateTimeUTC), Instant.parse(bookingEndDateTimeUTC));
+    }
+
+    /**
+     * Same checks as canBookLaundrySlot for booking times already parsed by the caller
+     */
+    String canBookLaundrySlot(final House house, final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC,
+                              final Instant bookingEndTimeUTC) {
         Booking booking = bookingDataAccessor.read(house, ACTIVE);
         if (booking != null) {
-            return "You already have an active booking starting " + booking.bookingStartTimeUTC.toString();
+            return ACTIVE_BOOKING_EXISTS + booking.bookingStartTimeUTC.toString();
         }
 
-        booking = bookingDataAccessor.read(laundryRoom, bookingStartDateTimeUTC, bookingEndDateTimeUTC, ACTIVE);
+        booking = bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC, ACTIVE);
         if (booking != null) {
             return SLOT_ALREADY_BOOKED;
         }
-        return null;
+        final String pendingConflict = pendingConflict(house.id, laundryRoom.id, bookingStartTimeUTC, bookingEndTimeUTC);
+        if (pendingConflict != null) {
+            return pendingConflict;
+        }
+        return reservationConflict(house.id, laundryRoom.id, bookingStartTimeUTC, bookingEndTimeUTC);
+    }
+
+    /**
+     * Checks the slot against the bookings the async handler has checked and is still creating, the caller holding the locks of the
+     * house and of the laundry room
+     *
+     * @return the conflict message as conflictMessage would word it for a stored booking, or null
+     */
+    String pendingConflict(final int houseId, final int laundryRoomId, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC) {
+        final Booking houseBooking = pendingBookingsByHouse.get(houseId);
+        Booking overlappingBooking = null;
+        final List<Booking> laundryRoomBookings = pendingBookingsByLaundryRoom.get(laundryRoomId);
+        if (laundryRoomBookings != null) {
+            for (final Booking booking : laundryRoomBookings) {
+                if (booking.bookingStartTimeUTC.isBefore(bookingEndTimeUTC) && booking.bookingEndTimeUTC.isAfter(bookingStartTimeUTC)) {
+                    overlappingBooking = booking;
+                    break;
+                }
+            }
+        }
+        return conflictMessage(houseBooking, overlappingBooking);
+    }
+
+    /**
+     * Holds the slot of a booking checked by the async handler until its create completes, the caller holding the locks of its house
+     * and laundry room
+     */
+    void addPendingBooking(final Booking booking) {
+        pendingBookingsByHouse.put(booking.houseId, booking);
+        pendingBookingsByLaundryRoom.computeIfAbsent(booking.laundryRoomId, laundryRoomId -> new ArrayList<>()).add(booking);
+    }
+
+    /**
+     * Releases the slot held by addPendingBooking, the caller holding the locks of the house and laundry room of the booking
+     */
+    void removePendingBooking(final Booking booking) {
+        pendingBookingsByHouse.remove(booking.houseId, booking);
+        pendingBookingsByLaundryRoom.get(booking.laundryRoomId).remove(booking);
+    }
+
+    /**
+     * Stamp of the bookings of the house and of the laundry room, which changes whenever a booking of either changes. A check made
+     * from reads taken after the stamp is still current under the locks if the stamp has not changed.
+     */
+    long changeStamp(final int houseId, final int laundryRoomId) {
+        // Both versions only ever grow, so their sum changes whenever either does
+        return houseLocks.version(houseId) + laundryRoomLocks.version(laundryRoomId);
+    }
+
+    /**
+     * Checks the slot against the slots freed by cancellations and reserved for waiting houses, the caller holding the lock of the
+     * laundry room
+     *
+     * @return SLOT_ALREADY_BOOKED if the slot is reserved for another house else null
+     */
+    String reservationConflict(final int houseId, final int laundryRoomId, final Instant bookingStartTimeUTC,
+                               final Instant bookingEndTimeUTC) {
+        return waitlist.findReserved(laundryRoomId, bookingStartTimeUTC, bookingEndTimeUTC, houseId) != null ? SLOT_ALREADY_BOOKED : null;
+    }
+
+    /**
+     * Message of the conflict, if any, given the ACTIVE booking of the house and the ACTIVE booking overlapping the requested slot
+     *
+     * @return null if neither exists
+     */
+    static String conflictMessage(final Booking activeHouseBooking, final Booking overlappingBooking) {
+        if (activeHouseBooking != null) {
+            return ACTIVE_BOOKING_EXISTS + activeHouseBooking.bookingStartTimeUTC.toString();
+        }
+        return overlappingBooking != null ? SLOT_ALREADY_BOOKED : null;
+    }
+
+    /**
+     * Advances the change stamp of the house and laundry room of a changed booking, applies the change to the booked times view and
+     * publishes it, holding the locks the change was made under
+     */
+    void bookingChanged(final BookingEventType type, final Booking booking) {
+        houseLocks.advance(booking.houseId);
+        laundryRoomLocks.advance(booking.laundryRoomId);
+        bookedTimesView.apply(type, booking);
+        eventBus.publish(type, booking);
+    }
+
+    /**
+     * Books the slot freed by a cancelled booking for the waiting houses it was reserved for, in arrival order, taking the house and
+     * laundry room locks of each like a booking does. A waiter that cannot have the slot by then, having booked another one, keeps
+     * waiting without the reservation, and the slot is reserved again for the waiters queued behind it.
+     */
+    private void handOver(final Booking cancelled, final List<SlotWaitlist.Waiter> reserved) {
+        final Set<SlotWaitlist.Waiter> passedOver = new HashSet<>();
+        final Deque<SlotWaitlist.Waiter> pending = new ArrayDeque<>(reserved);
+        try {
+            while (!pending.isEmpty()) {
+                final SlotWaitlist.Waiter waiter = pending.poll();
+                if (!withBookingLocks(waiter.house.id, waiter.laundryRoom.id, () -> handOverTo(waiter))) {
+                    passedOver.add(waiter);
+                    pending.addAll(withLaundryRoomLock(cancelled.laundryRoomId, () -> waitlist.reserve(cancelled.laundryRoomId,
+                            cancelled.bookingStartTimeUTC, cancelled.bookingEndTimeUTC, passedOver)));
+                }
+            }
+        } catch (final RuntimeException e) {
+            // The booking is cancelled either way, the houses not handed the slot keep waiting
+            e.printStackTrace();
+            withLaundryRoomLock(cancelled.laundryRoomId, () -> {
+                pending.forEach(waitlist::release);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Books the slot of a reserved waiter, holding its house and laundry room locks
+     *
+     * @return false if the house cannot have the slot and keeps waiting
+     */
+    private boolean handOverTo(final SlotWaitlist.Waiter waiter) {
+        waitlist.release(waiter);
+        if (canBookLaundrySlot(waiter.house, waiter.laundryRoom, waiter.bookingStartTimeUTC, waiter.bookingEndTimeUTC) != null) {
+            return false;
+        }
+        final Booking booking = activeBooking(waiter);
+        bookingDataAccessor.create(booking);
+        waitlist.handedOver(waiter);
+        bookingChanged(BookingEventType.BOOKED, booking);
+        return true;
+    }
+
+    private static Booking activeBooking(final SlotWaitlist.Waiter waiter) {
+        return Booking.builder()
+                .bookingStatus(ACTIVE)
+                .bookingStartTimeUTC(waiter.bookingStartTimeUTC)
+                .bookingEndTimeUTC(waiter.bookingEndTimeUTC)
+                .laundryRoomId(waiter.laundryRoom.id)
+                .houseId(waiter.house.id)
+                .build();
+    }
+
+    /**
+     * Runs the action holding the locks of the house and of the laundry room, the locks under which bookings are checked and created
+     */
+    <T> T withBookingLocks(final int houseId, final int laundryRoomId, final Supplier<T> action) {
+        final Lock houseLock = houseLocks.get(houseId);
+        final Lock laundryRoomLock = laundryRoomLocks.get(laundryRoomId);
+        houseLock.lock();
+        laundryRoomLock.lock();
+        try {
+            return action.get();
+        } finally {
+            laundryRoomLock.unlock();
+            houseLock.unlock();
+        }
+    }
+
+    private <T> T withLaundryRoomLock(final int laundryRoomId, final Supplier<T> action) {
+        final Lock laundryRoomLock = laundryRoomLocks.get(laundryRoomId);
+        laundryRoomLock.lock();
+        try {
+            return action.get();
+        } finally {
+            laundryRoomLock.unlock();
+        }
+    }
+
+    Response recordOutcome(final Operation operation, final Stage totalStage, final long startNanos, final Response response) {
+        metrics.recordSince(totalStage, startNanos);
+        recordResponse(operation, response);
+        return response;
+    }
+
+    private void recordResponse(final Operation operation, final Response response) {
+        metrics.recordResponse(operation, response.getResponseCode());
+        if (response.getResponseCode() == HTTP_400 || response.getResponseCode() == HTTP_429) {
+            metrics.recordRejection(rejectionReason(response.getErrorMessage()));
+        }
+    }
+
+    /**
+     * Maps the message of a 400 or 429 response back to the check that rejected the request
+     */
+    private static RejectionReason rejectionReason(final String errorMessage) {
+        if (errorMessage == null) {
+            return RejectionReason.OTHER;
+        } else if (errorMessage.equals(SLOT_ALREADY_BOOKED)) {
+            return RejectionReason.SLOT_ALREADY_BOOKED;
+        } else if (errorMessage.startsWith(ACTIVE_BOOKING_EXISTS)) {
+            return RejectionReason.ACTIVE_BOOKING_EXISTS;
+        } else if (errorMessage.equals(BookingValidator.INVALID_LAUNDRY_ROOM_ID)) {
+            return RejectionReason.INVALID_LAUNDRY_ROOM_ID;
+        } else if (errorMessage.equals(BookingValidator.INVALID_HOUSE_ID)) {
+            return RejectionReason.INVALID_HOUSE_ID;
+        } else if (errorMessage.startsWith(BookingValidator.SLOT_OUTSIDE_BOOKING_HOURS)) {
+            return RejectionReason.OUTSIDE_BOOKING_HOURS;
+        } else if (errorMessage.equals(BookingValidator.BOOKING_START_TIME_GT_END_TIME)) {
+            return RejectionReason.START_AFTER_END;
+        } else if (errorMessage.startsWith(BookingValidator.BOOKING_TOO_FAR_IN_FUTURE)) {
+            return RejectionReason.OUTSIDE_BOOKING_WINDOW;
+        } else if (errorMessage.startsWith(BookingValidator.SLOT_TOO_SMALL)) {
+            return RejectionReason.SLOT_TOO_SHORT;
+        } else if (errorMessage.startsWith(BookingValidator.SLOT_TOO_BIG)) {
+            return RejectionReason.SLOT_TOO_LONG;
+        } else if (errorMessage.equals(INVALID_BOOKING_MESSAGE)) {
+            return RejectionReason.INVALID_BOOKING;
+        } else if (errorMessage.equals(INVALID_LIST_REQUEST) || errorMessage.equals(INVALID_PAGE_SIZE)
+                || errorMessage.equals(INVALID_AVAILABILITY_REQUEST) || errorMessage.equals(IdempotencyCache.IDEMPOTENCY_KEY_REUSED)) {
+            return RejectionReason.INVALID_REQUEST;
+        } else if (errorMessage.equals(ALREADY_WAITLISTED)) {
+            return RejectionReason.ALREADY_WAITLISTED;
+        } else if (errorMessage.equals(AdmissionController.HOUSE_RATE_LIMITED)) {
+            return RejectionReason.HOUSE_RATE_LIMITED;
+        } else if (errorMessage.equals(AdmissionController.OVERLOADED)) {
+            return RejectionReason.OVERLOADED;
+        }
+        return RejectionReason.OTHER;
     }
 }
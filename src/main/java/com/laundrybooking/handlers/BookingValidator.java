@@ -1,16 +1,13 @@
 package com.laundrybooking.handlers;
 
-import static java.time.ZoneOffset.UTC;
+import static com.laundrybooking.utils.IsoInstantParser.NANOS_PER_SECOND;
+import static com.laundrybooking.utils.IsoInstantParser.parseEpochNanos;
+import static com.laundrybooking.utils.IsoInstantParser.toEpochSecond;
 
-import com.laundrybooking.accessor.HouseDataAccessor;
-import com.laundrybooking.accessor.LaundryRoomDataAccessor;
+import com.laundrybooking.accessor.DataAccessor;
 import com.laundrybooking.model.House;
 import com.laundrybooking.model.LaundryRoom;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-
 
 public class BookingValidator {
 
@@ -20,12 +17,28 @@ public class BookingValidator {
 
     static final String INVALID_HOUSE_ID = "Invalid house id";
 
-    private final LaundryRoomDataAccessor laundryRoomDataAccessor;
+    static final String SLOT_OUTSIDE_BOOKING_HOURS = "Slot outside valid booking hours";
+
+    static final String BOOKING_TOO_FAR_IN_FUTURE = "Booking too far out in the future";
+
+    static final String SLOT_TOO_SMALL = "Booking slot cannot be smaller than ";
+
+    static final String SLOT_TOO_BIG = "Booking slot cannot be greater than ";
+
+    private static final long SECONDS_PER_MINUTE = 60;
 
-    private final HouseDataAccessor houseDataAccessor;
+    private static final long SECONDS_PER_HOUR = 3_600;
 
-    public BookingValidator(final LaundryRoomDataAccessor laundryRoomDataAccessor,
-                            final HouseDataAccessor houseDataAccessor) {
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final DataAccessor<LaundryRoom> laundryRoomDataAccessor;
+
+    private final DataAccessor<House> houseDataAccessor;
+
+    public BookingValidator(final DataAccessor<LaundryRoom> laundryRoomDataAccessor,
+                            final DataAccessor<House> houseDataAccessor) {
         this.laundryRoomDataAccessor = laundryRoomDataAccessor;
         this.houseDataAccessor = houseDataAccessor;
     }
@@ -36,11 +49,19 @@ public class BookingValidator {
      */
     String validateBooking(final String laundryRoomId, final String houseId,
                            final String bookingStartDateTimeUTC, final String bookingEndDateTimeUTC) {
-        final LaundryRoom laundryRoom = laundryRoomDataAccessor.read(laundryRoomId);
+        return validateBooking(laundryRoomDataAccessor.read(laundryRoomId), houseDataAccessor.read(houseId), bookingStartDateTimeUTC,
+                bookingEndDateTimeUTC);
+    }
+
+    /**
+     * Validates a book request for a laundry room and house already read by the caller, so that a request reads each of them once.
+     * Null laundry room or house means the id in the request was invalid.
+     */
+    String validateBooking(final LaundryRoom laundryRoom, final House house,
+                           final String bookingStartDateTimeUTC, final String bookingEndDateTimeUTC) {
         if (laundryRoom == null) {
             return INVALID_LAUNDRY_ROOM_ID;
         }
-        final House house = houseDataAccessor.read(houseId);
         if (house == null) {
             return INVALID_HOUSE_ID;
         }
@@ -48,6 +69,21 @@ public class BookingValidator {
         return validateBookingTimes(bookingStartDateTimeUTC, bookingEndDateTimeUTC, laundryRoom);
     }
 
+    /**
+     * Validates a book request with booking times the caller already parsed to epoch nanoseconds, see validateBookingTimes
+     */
+    String validateBooking(final LaundryRoom laundryRoom, final House house, final long bookingStartEpochNanos,
+                           final long bookingEndEpochNanos) {
+        if (laundryRoom == null) {
+            return INVALID_LAUNDRY_ROOM_ID;
+        }
+        if (house == null) {
+            return INVALID_HOUSE_ID;
+        }
+
+        return validateBookingTimes(bookingStartEpochNanos, bookingEndEpochNanos, laundryRoom);
+    }
+
     /**
      * Validates the booking times for a laundry room. Validations performed
      * - Laundry slots should be within the bookable times
@@ -62,43 +98,57 @@ public class BookingValidator {
      * @return
      */
     String validateBookingTimes(final String bookingStartTimeUTCStr, final String bookingEndTimeUTCStr, final LaundryRoom laundryRoom) {
-        final Instant bookingStartTimeUTC = Instant.parse(bookingStartTimeUTCStr);
-        final Instant bookingEndTimeUTC = Instant.parse(bookingEndTimeUTCStr);
-        final int bookingStartHour = bookingStartTimeUTC.atZone(UTC).getHour();
-        final int bookingEndHour = bookingEndTimeUTC.atZone(UTC).getHour();
+        return validateBookingTimes(parseEpochNanos(bookingStartTimeUTCStr), parseEpochNanos(bookingEndTimeUTCStr), laundryRoom);
+    }
+
+    /**
+     * Validates the booking times given as nanoseconds since the epoch. All the checks are integer arithmetic, nothing is allocated
+     * unless the validation fails.
+     */
+    String validateBookingTimes(final long bookingStartEpochNanos, final long bookingEndEpochNanos, final LaundryRoom laundryRoom) {
+        final long bookingStartEpochSecond = toEpochSecond(bookingStartEpochNanos);
+        final long bookingEndEpochSecond = toEpochSecond(bookingEndEpochNanos);
+        final long bookingStartHour = Math.floorMod(bookingStartEpochSecond, SECONDS_PER_DAY) / SECONDS_PER_HOUR;
+        final long bookingEndHour = Math.floorMod(bookingEndEpochSecond, SECONDS_PER_DAY) / SECONDS_PER_HOUR;
 
         if (bookingStartHour < laundryRoom.startHour || bookingEndHour > laundryRoom.endHour) {
-            return "Slot outside valid booking hours. Rooms are bookable between " + laundryRoom.startHour + " and " + laundryRoom.endHour +
+            return SLOT_OUTSIDE_BOOKING_HOURS + ". Rooms are bookable between " + laundryRoom.startHour + " and " + laundryRoom.endHour +
                     " every day.";
         }
 
-        if (bookingStartTimeUTC.isAfter(bookingEndTimeUTC)) {
+        if (bookingStartEpochNanos > bookingEndEpochNanos) {
             return BOOKING_START_TIME_GT_END_TIME;
         }
 
-        if (laundryRoom.bookingWindow < getDaysBetween(Instant.now(), bookingStartTimeUTC)) {
-            return "Booking too far out in the future. Slots can be booked only for the next " + laundryRoom.bookingWindow + " days";
+        final long nowEpochNanos = System.currentTimeMillis() * NANOS_PER_MILLI;
+        if (laundryRoom.bookingWindow < getSecondsBetween(nowEpochNanos, bookingStartEpochNanos) / SECONDS_PER_DAY) {
+            return BOOKING_TOO_FAR_IN_FUTURE + ". Slots can be booked only for the next " + laundryRoom.bookingWindow + " days";
         }
 
-        if (laundryRoom.minSlotLength > getMinutesBetween(bookingStartTimeUTC, bookingEndTimeUTC)) {
-            return "Booking slot cannot be smaller than " + laundryRoom.minSlotLength + " minutes";
+        return validateSlotLength(getSecondsBetween(bookingStartEpochNanos, bookingEndEpochNanos) / SECONDS_PER_MINUTE, laundryRoom);
+    }
+
+    /**
+     * Validates the length of a slot against the minSlotLength and maxSlotLength of the laundry room
+     */
+    String validateSlotLength(final long slotMinutes, final LaundryRoom laundryRoom) {
+        if (laundryRoom.minSlotLength > slotMinutes) {
+            return SLOT_TOO_SMALL + laundryRoom.minSlotLength + " minutes";
         }
 
-        if (laundryRoom.maxSlotLength < getMinutesBetween(bookingStartTimeUTC, bookingEndTimeUTC)) {
-            return "Booking slot cannot be greater than " + laundryRoom.maxSlotLength + " minutes";
+        if (laundryRoom.maxSlotLength < slotMinutes) {
+            return SLOT_TOO_BIG + laundryRoom.maxSlotLength + " minutes";
         }
         return null;
     }
 
-    private static long getMinutesBetween(final Instant fromInstant, final Instant toInstant) {
-        final Duration duration = Duration.between(fromInstant, toInstant);
-        final long seconds = duration.get(ChronoUnit.SECONDS);
-        return seconds / 60;
-    }
-
-    private static long getDaysBetween(final Instant fromInstant, final Instant toInstant) {
-        final Duration duration = Duration.between(fromInstant, toInstant);
-        final long seconds = duration.get(ChronoUnit.SECONDS);
-        return seconds / 60 / 60 / 24;
+    /**
+     * Whole seconds between two epoch nanosecond values, rounded like the seconds of a Duration
+     */
+    private static long getSecondsBetween(final long fromEpochNanos, final long toEpochNanos) {
+        // Split in seconds and nanos, the plain difference can overflow for date times centuries apart
+        return toEpochSecond(toEpochNanos) - toEpochSecond(fromEpochNanos)
+                + Math.floorDiv(Math.floorMod(toEpochNanos, NANOS_PER_SECOND) - Math.floorMod(fromEpochNanos, NANOS_PER_SECOND),
+                NANOS_PER_SECOND);
     }
 }
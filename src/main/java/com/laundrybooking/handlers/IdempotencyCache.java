@@ -0,0 +1,124 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_429;
+import static com.laundrybooking.utils.Constants.HTTP_500;
+import static com.laundrybooking.utils.Constants.HTTP_500_MESSAGE;
+
+import com.laundrybooking.builder.ResponseBuilder;
+import com.laundrybooking.model.Response;
+import com.laundrybooking.utils.BoundedCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Responses of the requests made with an idempotency key, so that a retry is answered with the response of the original request
+ * instead of running it again. A retry arriving while the original request still runs waits for its response. Server errors and
+ * requests turned away by admission control are not kept, so their retries run again. A key reused for a different request is
+ * rejected. At most maximumSize keys are kept, each for expireAfterWrite.
+ */
+public class IdempotencyCache {
+
+    static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key already used for a different request";
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 100_000;
+
+    private static final long DEFAULT_EXPIRE_AFTER_WRITE_HOURS = 24;
+
+    private final BoundedCache<String, IdempotentRequest> requests;
+
+    private final ResponseBuilder responseBuilder = new ResponseBuilder();
+
+    private final LongAdder replayCount = new LongAdder();
+
+    public IdempotencyCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE_HOURS, TimeUnit.HOURS);
+    }
+
+    public IdempotencyCache(final int maximumSize, final long expireAfterWrite, final TimeUnit timeUnit) {
+        requests = new BoundedCache<>(maximumSize, expireAfterWrite, timeUnit);
+    }
+
+    /**
+     * Runs the request unless a request with the idempotency key already ran or is running
+     *
+     * @param idempotencyKey key chosen by the client, the same for all the retries of a request
+     * @param request        operation and parameters of the request, to tell a retry from a different request reusing the key
+     * @param action         runs the request
+     * @return the response of the first request made with the key
+     */
+    Response execute(final String idempotencyKey, final String request, final Supplier<Response> action) {
+        final IdempotentRequest idempotentRequest = new IdempotentRequest(request);
+        final IdempotentRequest original = requests.putIfAbsent(idempotencyKey, idempotentRequest);
+        if (original != null) {
+            return replay(original, request).join();
+        }
+        Response response = null;
+        try {
+            response = action.get();
+        } finally {
+            complete(idempotencyKey, idempotentRequest, response);
+        }
+        return response;
+    }
+
+    /**
+     * Same as execute for a request completing asynchronously. A retry arriving while the original request runs gets a future of
+     * its response instead of waiting for it.
+     */
+    CompletableFuture<Response> executeAsync(final String idempotencyKey, final String request,
+                                             final Supplier<CompletableFuture<Response>> action) {
+        final IdempotentRequest idempotentRequest = new IdempotentRequest(request);
+        final IdempotentRequest original = requests.putIfAbsent(idempotencyKey, idempotentRequest);
+        if (original != null) {
+            return replay(original, request);
+        }
+        final CompletableFuture<Response> response;
+        try {
+            response = action.get();
+        } catch (final RuntimeException e) {
+            complete(idempotencyKey, idempotentRequest, null);
+            throw e;
+        }
+        return response.whenComplete((result, throwable) -> complete(idempotencyKey, idempotentRequest, throwable == null ? result : null));
+    }
+
+    private CompletableFuture<Response> replay(final IdempotentRequest original, final String request) {
+        if (!original.request.equals(request)) {
+            return CompletableFuture.completedFuture(responseBuilder.buildErrorResponse(IDEMPOTENCY_KEY_REUSED, HTTP_400));
+        }
+        replayCount.increment();
+        return original.response;
+    }
+
+    /**
+     * Hands the response of a request to its retries, null standing for a request that failed
+     */
+    private void complete(final String idempotencyKey, final IdempotentRequest idempotentRequest, final Response response) {
+        if (response == null || response.getResponseCode() == HTTP_500 || response.getResponseCode() == HTTP_429) {
+            // Retries waiting on a failed request get its error, later retries run it again
+            requests.invalidate(idempotencyKey);
+        }
+        idempotentRequest.response.complete(response != null ? response : responseBuilder.buildErrorResponse(HTTP_500_MESSAGE, HTTP_500));
+    }
+
+    /**
+     * Number of retries answered with the response of their original request
+     */
+    public long getReplayCount() {
+        return replayCount.sum();
+    }
+
+    private static final class IdempotentRequest {
+        private final String request;
+
+        private final CompletableFuture<Response> response = new CompletableFuture<>();
+
+        private IdempotentRequest(final String request) {
+            this.request = request;
+        }
+    }
+}
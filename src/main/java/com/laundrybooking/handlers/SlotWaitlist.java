@@ -0,0 +1,264 @@
+package com.laundrybooking.handlers;
+
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.utils.IntObjectMap;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Houses waiting for booked slots, per laundry room. A freed slot is handed to the waiters in arrival order, so a house waiting
+ * longer is served first. The waiters of a room are indexed by start time, so a freed slot only looks at the waiters whose slot can
+ * overlap it and the waiters whose slot has started are dropped from the front, and by house, so a house already waiting is found
+ * without a scan. At most maxWaitersPerLaundryRoom houses wait for a laundry room.
+ * The waitlists are read without locking, the booking handler changes them holding the lock of the laundry room, so that a house
+ * joining cannot miss the slot being freed.
+ * A handover first reserves the freed slot for the waiters it goes to, holding the lock of the laundry room, and books it for them
+ * once it can take their house locks in the usual house before laundry room order. Until then the reservations keep the slot from
+ * anyone else, including the waiters queued behind them.
+ */
+class SlotWaitlist {
+
+    static final int DEFAULT_MAX_WAITERS_PER_LAUNDRY_ROOM = 1_000;
+
+    /**
+     * Outcome of a house joining the waitlist
+     */
+    enum AddResult {
+        ADDED,
+        ALREADY_WAITING,
+        FULL
+    }
+
+    private final IntObjectMap<LaundryRoomWaitlist> waitlistsByLaundryRoom = new IntObjectMap<>();
+
+    private final int maxWaitersPerLaundryRoom;
+
+    private final LongAdder handOverCount = new LongAdder();
+
+    SlotWaitlist() {
+        this(DEFAULT_MAX_WAITERS_PER_LAUNDRY_ROOM);
+    }
+
+    SlotWaitlist(final int maxWaitersPerLaundryRoom) {
+        if (maxWaitersPerLaundryRoom <= 0) {
+            throw new IllegalArgumentException("Maximum number of waiters should be positive");
+        }
+        this.maxWaitersPerLaundryRoom = maxWaitersPerLaundryRoom;
+    }
+
+    /**
+     * Queues the house for the slot, dropping first the waiters of the laundry room whose slot has started. The caller holds the
+     * lock of the laundry room.
+     *
+     * @return ALREADY_WAITING if the house already waits for a slot of the laundry room, FULL if maxWaitersPerLaundryRoom houses do
+     */
+    AddResult add(final Waiter waiter) {
+        final LaundryRoomWaitlist waitlist = waitlist(waiter.laundryRoom.id);
+        waitlist.dropStarted(Instant.now());
+        if (waitlist.waitersByHouse.get(waiter.house.id) != null) {
+            return AddResult.ALREADY_WAITING;
+        }
+        if (waitlist.waitersByHouse.size() >= maxWaitersPerLaundryRoom) {
+            return AddResult.FULL;
+        }
+        waiter.arrival = waitlist.nextArrival++;
+        waitlist.waitersByHouse.put(waiter.house.id, waiter);
+        waitlist.waitersByStartTime.computeIfAbsent(waiter.bookingStartTimeUTC, startTime -> new ConcurrentLinkedQueue<>()).offer(waiter);
+        final Duration slotLength = Duration.between(waiter.bookingStartTimeUTC, waiter.bookingEndTimeUTC);
+        if (slotLength.compareTo(waitlist.longestSlot) > 0) {
+            waitlist.longestSlot = slotLength;
+        }
+        return AddResult.ADDED;
+    }
+
+    /**
+     * Reserves the slot freed in the laundry room for the waiters overlapping it, in arrival order. A waiter is passed over while
+     * its slot overlaps that of a reserved waiter, so it cannot overtake the houses queued before it. Waiters whose slot has started
+     * are dropped. The caller holds the lock of the laundry room.
+     *
+     * @param passedOver waiters already handed this slot and kept waiting, not reserved again
+     * @return the waiters reserved, in arrival order
+     */
+    List<Waiter> reserve(final int laundryRoomId, final Instant freedStartTimeUTC, final Instant freedEndTimeUTC,
+                         final Set<Waiter> passedOver) {
+        final LaundryRoomWaitlist waitlist = waitlistsByLaundryRoom.get(laundryRoomId);
+        if (waitlist == null) {
+            return Collections.emptyList();
+        }
+        waitlist.dropStarted(Instant.now());
+        // Only a waiter starting less than the longest slot before the freed slot can overlap it
+        final List<Waiter> candidates = new ArrayList<>();
+        for (final Queue<Waiter> waiters : waitlist.waitersByStartTime.subMap(freedStartTimeUTC.minus(waitlist.longestSlot), false,
+                freedEndTimeUTC, false).values()) {
+            for (final Waiter waiter : waiters) {
+                if (!waiter.reserved && !passedOver.contains(waiter) && waiter.overlaps(freedStartTimeUTC, freedEndTimeUTC)) {
+                    candidates.add(waiter);
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong(waiter -> waiter.arrival));
+        final List<Waiter> reserved = new ArrayList<>();
+        for (final Waiter waiter : candidates) {
+            if (findReserved(laundryRoomId, waiter.bookingStartTimeUTC, waiter.bookingEndTimeUTC, waiter.house.id) == null) {
+                waiter.reserved = true;
+                waitlist.reserved.offer(waiter);
+                reserved.add(waiter);
+            }
+        }
+        return reserved;
+    }
+
+    /**
+     * Drops the reservation of a waiter, which keeps its place in the queue. The caller holds the lock of the laundry room.
+     */
+    void release(final Waiter waiter) {
+        if (waiter.reserved) {
+            waiter.reserved = false;
+            waitlistsByLaundryRoom.get(waiter.laundryRoom.id).reserved.remove(waiter);
+        }
+    }
+
+    /**
+     * Takes a waiter that has been booked its slot off the waitlist. The caller holds the lock of the laundry room.
+     */
+    void handedOver(final Waiter waiter) {
+        release(waiter);
+        waitlistsByLaundryRoom.get(waiter.laundryRoom.id).remove(waiter);
+        handOverCount.increment();
+    }
+
+    /**
+     * Returns a waiter of another house with the laundry room slot overlapping [startTimeUTC, endTimeUTC) reserved, or null if there
+     * is none. The caller holds the lock of the laundry room.
+     */
+    Waiter findReserved(final int laundryRoomId, final Instant startTimeUTC, final Instant endTimeUTC, final int houseId) {
+        final LaundryRoomWaitlist waitlist = waitlistsByLaundryRoom.get(laundryRoomId);
+        if (waitlist == null || waitlist.reserved.isEmpty()) {
+            return null;
+        }
+        for (final Waiter waiter : waitlist.reserved) {
+            if (waiter.house.id != houseId && waiter.overlaps(startTimeUTC, endTimeUTC)) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of houses waiting for a slot of the laundry room
+     */
+    int size(final int laundryRoomId) {
+        final LaundryRoomWaitlist waitlist = waitlistsByLaundryRoom.get(laundryRoomId);
+        return waitlist == null ? 0 : waitlist.waitersByHouse.size();
+    }
+
+    /**
+     * Returns the number of slots handed to waiting houses
+     */
+    long getHandOverCount() {
+        return handOverCount.sum();
+    }
+
+    private LaundryRoomWaitlist waitlist(final int laundryRoomId) {
+        final LaundryRoomWaitlist waitlist = waitlistsByLaundryRoom.get(laundryRoomId);
+        if (waitlist != null) {
+            return waitlist;
+        }
+        final LaundryRoomWaitlist newWaitlist = new LaundryRoomWaitlist();
+        final LaundryRoomWaitlist existing = waitlistsByLaundryRoom.putIfAbsent(laundryRoomId, newWaitlist);
+        return existing != null ? existing : newWaitlist;
+    }
+
+    /**
+     * Waiters of a laundry room, changed holding the lock of the laundry room
+     */
+    private static final class LaundryRoomWaitlist {
+        // Waiters by start time, those starting together in arrival order
+        private final ConcurrentNavigableMap<Instant, Queue<Waiter>> waitersByStartTime = new ConcurrentSkipListMap<>();
+
+        private final IntObjectMap<Waiter> waitersByHouse = new IntObjectMap<>();
+
+        // Reserved waiters, usually empty so that bookings check them for free
+        private final Queue<Waiter> reserved = new ConcurrentLinkedQueue<>();
+
+        // Longest slot waited for, bounding how long before a freed slot the waiters overlapping it start
+        private volatile Duration longestSlot = Duration.ZERO;
+
+        private long nextArrival;
+
+        /**
+         * Drops the waiters whose slot has started, unless it is reserved for them
+         */
+        private void dropStarted(final Instant now) {
+            for (final Iterator<Map.Entry<Instant, Queue<Waiter>>> entries = waitersByStartTime.headMap(now, true).entrySet().iterator();
+                 entries.hasNext(); ) {
+                final Queue<Waiter> waiters = entries.next().getValue();
+                for (final Iterator<Waiter> iterator = waiters.iterator(); iterator.hasNext(); ) {
+                    final Waiter waiter = iterator.next();
+                    if (!waiter.reserved) {
+                        iterator.remove();
+                        waitersByHouse.remove(waiter.house.id, waiter);
+                    }
+                }
+                if (waiters.isEmpty()) {
+                    entries.remove();
+                }
+            }
+        }
+
+        private void remove(final Waiter waiter) {
+            waitersByHouse.remove(waiter.house.id, waiter);
+            final Queue<Waiter> waiters = waitersByStartTime.get(waiter.bookingStartTimeUTC);
+            if (waiters != null) {
+                waiters.remove(waiter);
+                if (waiters.isEmpty()) {
+                    waitersByStartTime.remove(waiter.bookingStartTimeUTC, waiters);
+                }
+            }
+        }
+    }
+
+    /**
+     * House waiting for a slot of a laundry room
+     */
+    static final class Waiter {
+        final House house;
+
+        final LaundryRoom laundryRoom;
+
+        final Instant bookingStartTimeUTC;
+
+        final Instant bookingEndTimeUTC;
+
+        // Guarded by the lock of the laundry room
+        boolean reserved;
+
+        // Order in which the house joined the waitlist, set by add
+        long arrival;
+
+        Waiter(final House house, final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC, final Instant bookingEndTimeUTC) {
+            this.house = house;
+            this.laundryRoom = laundryRoom;
+            this.bookingStartTimeUTC = bookingStartTimeUTC;
+            this.bookingEndTimeUTC = bookingEndTimeUTC;
+        }
+
+        boolean overlaps(final Instant startTimeUTC, final Instant endTimeUTC) {
+            return bookingStartTimeUTC.isBefore(endTimeUTC) && bookingEndTimeUTC.isAfter(startTimeUTC);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.laundrybooking.metrics;
+
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_304;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_429;
+import static com.laundrybooking.utils.Constants.HTTP_500;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms per stage and outcome counters of the booking handler operations, cheap enough to be updated on every request.
+ * Responses are counted per operation and response code, and rejected requests per rejection reason.
+ */
+public class BookingMetrics {
+
+    // Response codes counted individually, other codes are counted together
+    private static final int[] RESPONSE_CODES = {HTTP_200, HTTP_304, HTTP_400, HTTP_429, HTTP_500};
+
+    private static final int OTHER_RESPONSE_CODE = -1;
+
+    private final Map<Stage, LatencyHistogram> latencies = new EnumMap<>(Stage.class);
+
+    private final Map<Operation, LongAdder[]> responseCounts = new EnumMap<>(Operation.class);
+
+    private final Map<RejectionReason, LongAdder> rejectionCounts = new EnumMap<>(RejectionReason.class);
+
+    public BookingMetrics() {
+        for (final Stage stage : Stage.values()) {
+            latencies.put(stage, new LatencyHistogram());
+        }
+        for (final Operation operation : Operation.values()) {
+            final LongAdder[] counts = new LongAdder[RESPONSE_CODES.length + 1];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+            responseCounts.put(operation, counts);
+        }
+        for (final RejectionReason rejectionReason : RejectionReason.values()) {
+            rejectionCounts.put(rejectionReason, new LongAdder());
+        }
+    }
+
+    /**
+     * Records the time since startNanos, a System.nanoTime value, for the stage
+     *
+     * @return the current System.nanoTime, the start of the next stage
+     */
+    public long recordSince(final Stage stage, final long startNanos) {
+        final long nowNanos = System.nanoTime();
+        latencies.get(stage).record(nowNanos - startNanos);
+        return nowNanos;
+    }
+
+    public void recordResponse(final Operation operation, final int responseCode) {
+        final LongAdder[] counts = responseCounts.get(operation);
+        for (int i = 0; i < RESPONSE_CODES.length; i++) {
+            if (RESPONSE_CODES[i] == responseCode) {
+                counts[i].increment();
+                return;
+            }
+        }
+        counts[RESPONSE_CODES.length].increment();
+    }
+
+    public void recordRejection(final RejectionReason rejectionReason) {
+        rejectionCounts.get(rejectionReason).increment();
+    }
+
+    /**
+     * Copies all the metrics for export. Counters are read one by one, the copy is not atomic across metrics.
+     */
+    public MetricsSnapshot snapshot() {
+        final Map<Stage, HistogramSnapshot> latencySnapshots = new EnumMap<>(Stage.class);
+        latencies.forEach((stage, histogram) -> latencySnapshots.put(stage, histogram.snapshot()));
+        final Map<Operation, Map<Integer, Long>> responseCountSnapshots = new EnumMap<>(Operation.class);
+        responseCounts.forEach((operation, counts) -> {
+            final Map<Integer, Long> countsByResponseCode = new TreeMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                countsByResponseCode.put(i < RESPONSE_CODES.length ? RESPONSE_CODES[i] : OTHER_RESPONSE_CODE, counts[i].sum());
+            }
+            responseCountSnapshots.put(operation, countsByResponseCode);
+        });
+        final Map<RejectionReason, Long> rejectionCountSnapshots = new EnumMap<>(RejectionReason.class);
+        rejectionCounts.forEach((rejectionReason, count) -> rejectionCountSnapshots.put(rejectionReason, count.sum()));
+        return new MetricsSnapshot(latencySnapshots, responseCountSnapshots, rejectionCountSnapshots);
+    }
+}
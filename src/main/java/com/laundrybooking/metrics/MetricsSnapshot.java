@@ -0,0 +1,78 @@
+package com.laundrybooking.metrics;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Point in time copy of the booking metrics, exportable in the Prometheus text format for scraping
+ */
+public class MetricsSnapshot {
+
+    private static final double[] EXPORTED_PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final Map<Stage, HistogramSnapshot> latencies;
+
+    private final Map<Operation, Map<Integer, Long>> responseCounts;
+
+    private final Map<RejectionReason, Long> rejectionCounts;
+
+    MetricsSnapshot(final Map<Stage, HistogramSnapshot> latencies, final Map<Operation, Map<Integer, Long>> responseCounts,
+                    final Map<RejectionReason, Long> rejectionCounts) {
+        this.latencies = Collections.unmodifiableMap(latencies);
+        this.responseCounts = Collections.unmodifiableMap(responseCounts);
+        this.rejectionCounts = Collections.unmodifiableMap(rejectionCounts);
+    }
+
+    public HistogramSnapshot getLatency(final Stage stage) {
+        return latencies.get(stage);
+    }
+
+    /**
+     * Returns the number of responses of the operation with the response code, -1 standing for all the codes not counted apart
+     */
+    public long getResponseCount(final Operation operation, final int responseCode) {
+        return responseCounts.get(operation).getOrDefault(responseCode, 0L);
+    }
+
+    public long getRejectionCount(final RejectionReason rejectionReason) {
+        return rejectionCounts.get(rejectionReason);
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format, latencies as summaries in seconds
+     */
+    public void writePrometheus(final Appendable out) throws IOException {
+        out.append("# TYPE laundry_booking_stage_latency_seconds summary\n");
+        for (final Map.Entry<Stage, HistogramSnapshot> latency : latencies.entrySet()) {
+            final String stage = latency.getKey().name().toLowerCase(Locale.ROOT);
+            final HistogramSnapshot histogram = latency.getValue();
+            for (final double percentile : EXPORTED_PERCENTILES) {
+                out.append("laundry_booking_stage_latency_seconds{stage=\"").append(stage).append("\",quantile=\"")
+                        .append(Double.toString(percentile / 100)).append("\"} ")
+                        .append(Double.toString(histogram.getValueAtPercentile(percentile) / NANOS_PER_SECOND)).append('\n');
+            }
+            out.append("laundry_booking_stage_latency_seconds_sum{stage=\"").append(stage).append("\"} ")
+                    .append(Double.toString(histogram.getSum() / NANOS_PER_SECOND)).append('\n');
+            out.append("laundry_booking_stage_latency_seconds_count{stage=\"").append(stage).append("\"} ")
+                    .append(Long.toString(histogram.getCount())).append('\n');
+        }
+        out.append("# TYPE laundry_booking_responses_total counter\n");
+        for (final Map.Entry<Operation, Map<Integer, Long>> operationCounts : responseCounts.entrySet()) {
+            final String operation = operationCounts.getKey().name().toLowerCase(Locale.ROOT);
+            for (final Map.Entry<Integer, Long> count : operationCounts.getValue().entrySet()) {
+                out.append("laundry_booking_responses_total{operation=\"").append(operation).append("\",code=\"")
+                        .append(count.getKey() < 0 ? "other" : Integer.toString(count.getKey())).append("\"} ")
+                        .append(Long.toString(count.getValue())).append('\n');
+            }
+        }
+        out.append("# TYPE laundry_booking_rejections_total counter\n");
+        for (final Map.Entry<RejectionReason, Long> count : rejectionCounts.entrySet()) {
+            out.append("laundry_booking_rejections_total{reason=\"").append(count.getKey().name().toLowerCase(Locale.ROOT))
+                    .append("\"} ").append(Long.toString(count.getValue())).append('\n');
+        }
+    }
+}
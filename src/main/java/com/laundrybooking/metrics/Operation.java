@@ -0,0 +1,13 @@
+package com.laundrybooking.metrics;
+
+/**
+ * Booking handler operations whose outcomes are counted
+ */
+public enum Operation {
+    BOOK,
+    BOOK_BATCH,
+    CANCEL_BOOKING,
+    LIST_BOOKED_TIMES,
+    FIND_AVAILABLE_SLOTS,
+    JOIN_WAITLIST
+}
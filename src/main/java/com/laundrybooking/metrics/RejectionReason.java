@@ -0,0 +1,22 @@
+package com.laundrybooking.metrics;
+
+/**
+ * Reasons for which the booking handler answers a request with a 400, or a 429 when it is not admitted
+ */
+public enum RejectionReason {
+    SLOT_ALREADY_BOOKED,
+    ACTIVE_BOOKING_EXISTS,
+    INVALID_LAUNDRY_ROOM_ID,
+    INVALID_HOUSE_ID,
+    OUTSIDE_BOOKING_HOURS,
+    START_AFTER_END,
+    OUTSIDE_BOOKING_WINDOW,
+    SLOT_TOO_SHORT,
+    SLOT_TOO_LONG,
+    INVALID_BOOKING,
+    INVALID_REQUEST,
+    ALREADY_WAITLISTED,
+    HOUSE_RATE_LIMITED,
+    OVERLOADED,
+    OTHER
+}
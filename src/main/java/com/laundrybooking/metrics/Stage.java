@@ -0,0 +1,29 @@
+package com.laundrybooking.metrics;
+
+/**
+ * Timed stages of the booking handler operations. The stage named after an operation times the whole operation.
+ */
+public enum Stage {
+    BOOK(Operation.BOOK),
+    BOOK_READ(Operation.BOOK),
+    BOOK_VALIDATION(Operation.BOOK),
+    BOOK_LOCK_WAIT(Operation.BOOK),
+    BOOK_CONFLICT_CHECK(Operation.BOOK),
+    BOOK_CREATE(Operation.BOOK),
+    BOOK_BATCH(Operation.BOOK_BATCH),
+    CANCEL_BOOKING(Operation.CANCEL_BOOKING),
+    CANCEL_BOOKING_LOCK_WAIT(Operation.CANCEL_BOOKING),
+    CANCEL_BOOKING_READ(Operation.CANCEL_BOOKING),
+    CANCEL_BOOKING_UPDATE(Operation.CANCEL_BOOKING),
+    LIST_BOOKED_TIMES(Operation.LIST_BOOKED_TIMES),
+    LIST_BOOKED_TIMES_READ(Operation.LIST_BOOKED_TIMES),
+    LIST_BOOKED_TIMES_SERIALIZATION(Operation.LIST_BOOKED_TIMES),
+    FIND_AVAILABLE_SLOTS(Operation.FIND_AVAILABLE_SLOTS),
+    JOIN_WAITLIST(Operation.JOIN_WAITLIST);
+
+    public final Operation operation;
+
+    Stage(final Operation operation) {
+        this.operation = operation;
+    }
+}
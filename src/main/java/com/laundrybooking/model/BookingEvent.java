@@ -0,0 +1,26 @@
+package com.laundrybooking.model;
+
+import java.time.Instant;
+
+import lombok.Builder;
+
+/**
+ * Change of a booking, a copy of the booking as it was when the change was made
+ */
+@Builder
+public class BookingEvent {
+    // Position of the event on the event bus, events of a booking are in the order of their changes
+    public final long sequence;
+
+    public final BookingEventType type;
+
+    public final String bookingId;
+
+    public final int houseId;
+
+    public final int laundryRoomId;
+
+    public final Instant bookingStartTimeUTC;
+
+    public final Instant bookingEndTimeUTC;
+}
@@ -0,0 +1,7 @@
+package com.laundrybooking.model;
+
+public enum BookingEventType {
+    BOOKED,
+    CANCELLED,
+    COMPLETED
+}
@@ -0,0 +1,25 @@
+package com.laundrybooking.model;
+
+import java.time.Instant;
+
+import lombok.Builder;
+
+/**
+ * Page request for bookings overlapping the [startTime, endTime) window, ordered by start time and laundry room id.
+ * A null laundryRoomId matches every laundry room. When afterStartTime is set only the bookings ordered after the booking of
+ * laundry room afterLaundryRoomId starting at afterStartTime are returned.
+ */
+@Builder
+public class BookingQuery {
+    public Instant startTime;
+
+    public Instant endTime;
+
+    public Integer laundryRoomId;
+
+    public Instant afterStartTime;
+
+    public int afterLaundryRoomId;
+
+    public BookingStatus bookingStatus;
+}
@@ -0,0 +1,17 @@
+package com.laundrybooking.model;
+
+import lombok.Builder;
+
+/**
+ * A single booking of a batch, with the same fields as a book request
+ */
+@Builder
+public class BookingRequest {
+    public String laundryRoomId;
+
+    public String houseId;
+
+    public String bookingStartDateTimeUTC;
+
+    public String bookingEndDateTimeUTC;
+}
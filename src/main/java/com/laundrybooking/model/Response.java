@@ -1,25 +1,58 @@
 package com.laundrybooking.model;
 
+import java.nio.charset.StandardCharsets;
+
 /**
- * Model for responses from APIs
+ * Model for responses from APIs. The payload is kept either as a string or as the UTF-8 bytes it was serialized to, and converted
+ * to the other form only when asked for.
  */
 public class Response {
-    private final String payload;
+    private String payload;
+
+    private byte[] payloadBytes;
 
     private final String errorMessage;
 
     private final int responseCode;
 
+    // Version of the payload for conditional requests, null if the payload is not versioned
+    private String etag;
+
     public Response(final String payload, final String errorMessage, final int responseCode) {
         this.payload = payload;
         this.errorMessage = errorMessage;
         this.responseCode = responseCode;
     }
 
+    public Response(final byte[] payloadBytes, final String errorMessage, final int responseCode) {
+        this.payloadBytes = payloadBytes;
+        this.errorMessage = errorMessage;
+        this.responseCode = responseCode;
+    }
+
+    public Response(final byte[] payloadBytes, final String errorMessage, final int responseCode, final String etag) {
+        this(payloadBytes, errorMessage, responseCode);
+        this.etag = etag;
+    }
+
     public String getPayload() {
+        // Racing callers decode the same string, the last write wins harmlessly
+        if (payload == null && payloadBytes != null) {
+            payload = new String(payloadBytes, StandardCharsets.UTF_8);
+        }
         return payload;
     }
 
+    /**
+     * Returns the payload as UTF-8 bytes. The array is shared and should not be modified.
+     */
+    public byte[] getPayloadBytes() {
+        if (payloadBytes == null && payload != null) {
+            payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        }
+        return payloadBytes;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -27,5 +60,8 @@ public class Response {
     public int getResponseCode() {
         return responseCode;
     }
-}
 
+    public String getEtag() {
+        return etag;
+    }
+}
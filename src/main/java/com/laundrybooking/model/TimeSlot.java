@@ -0,0 +1,17 @@
+package com.laundrybooking.model;
+
+import java.time.Instant;
+
+import lombok.Builder;
+
+/**
+ * A free [startTime, endTime) slot of a laundry room
+ */
+@Builder
+public class TimeSlot {
+    public int laundryRoomId;
+
+    public Instant startTime;
+
+    public Instant endTime;
+}
@@ -0,0 +1,385 @@
+package com.laundrybooking.server;
+
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_304;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_429;
+import static com.laundrybooking.utils.Constants.HTTP_500;
+import static com.laundrybooking.utils.Constants.HTTP_500_MESSAGE;
+import static com.laundrybooking.utils.ResponseSerializer.serializeError;
+
+import com.google.gson.stream.JsonReader;
+import com.laundrybooking.handlers.BookingHandler;
+import com.laundrybooking.model.BookingRequest;
+import com.laundrybooking.model.Response;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP/1.1 server in front of the booking handler, built on the JDK HttpServer. Its selector thread accepts connections and
+ * parses requests, which then run on a fixed pool of worker threads or on virtual threads, see ExecutionMode. Connections are kept
+ * alive between requests and requests pipelined on a connection are answered in order, every response carrying its Content-Length.
+ * Routes:
+ * - POST /bookings with {"laundryRoomId", "houseId", "bookingStartDateTimeUTC", "bookingEndDateTimeUTC"} books a slot
+ * - DELETE /bookings/{bookingId}?houseId= cancels a booking
+ * - POST /waitlist with the body of a booking books the slot, or puts the house on its waitlist if the slot is already booked
+ * - GET /bookedTimes lists the booked times, a page of them when pageSize, at most MAX_PAGE_SIZE, is given along with the optional
+ * laundryRoomId, from, to and cursor parameters. The full list carries an ETag and is answered with a 304 when If-None-Match has
+ * the current one
+ * - GET /availableSlots?slotLength= lists free slots of a laundry room given laundryRoomId, and optionally from and to, or else the
+ * next free slot across all the laundry rooms from the optional from
+ * - GET /metrics exports the booking metrics in the Prometheus text format
+ * Bookings and cancellations carrying an Idempotency-Key header run once per key, retries get the response of the first request.
+ * Bookings turned away by admission control get a 429 with a Retry-After header.
+ * Error responses carry {"error": message}.
+ */
+public class BookingHttpServer implements Closeable {
+
+    static final String BOOKINGS_PATH = "/bookings";
+
+    static final String BOOKED_TIMES_PATH = "/bookedTimes";
+
+    static final String AVAILABLE_SLOTS_PATH = "/availableSlots";
+
+    static final String METRICS_PATH = "/metrics";
+
+    static final String WAITLIST_PATH = "/waitlist";
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    static final String ETAG_HEADER = "ETag";
+
+    static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    // Bookings turned away by admission control are worth retrying once a house token has been refilled
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    static final String NOT_FOUND_MESSAGE = "Not found";
+
+    static final String METHOD_NOT_ALLOWED_MESSAGE = "Method not allowed";
+
+    static final String INVALID_REQUEST = "Invalid request body or parameters";
+
+    static final int HTTP_404 = 404;
+
+    static final int HTTP_405 = 405;
+
+    static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Connections waiting for their next request are not counted against the backlog
+    private static final int BACKLOG = 1024;
+
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    // A page is buffered before it is sent, which bounds the memory a single request can take
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final BookingHandler bookingHandler;
+
+    private final HttpServer httpServer;
+
+    private final ExecutorService workers;
+
+    /**
+     * @param bookingHandler
+     * @param address        port 0 picks a free port
+     * @param workerThreads  platform threads running the booking handler
+     */
+    public BookingHttpServer(final BookingHandler bookingHandler, final InetSocketAddress address, final int workerThreads)
+            throws IOException {
+        this(bookingHandler, address, ExecutionMode.PLATFORM_THREADS, workerThreads);
+    }
+
+    /**
+     * @param bookingHandler
+     * @param address        port 0 picks a free port
+     * @param executionMode  threads running the booking handler
+     * @param workerThreads  size of the worker pool when running on platform threads
+     */
+    public BookingHttpServer(final BookingHandler bookingHandler, final InetSocketAddress address, final ExecutionMode executionMode,
+                             final int workerThreads) throws IOException {
+        this.bookingHandler = bookingHandler;
+        httpServer = HttpServer.create(address, BACKLOG);
+        workers = executionMode.newExecutor(workerThreads);
+        httpServer.setExecutor(workers);
+        httpServer.createContext(BOOKINGS_PATH, this::handleBookings);
+        httpServer.createContext(BOOKED_TIMES_PATH, this::handleBookedTimes);
+        httpServer.createContext(AVAILABLE_SLOTS_PATH, this::handleAvailableSlots);
+        httpServer.createContext(METRICS_PATH, this::handleMetrics);
+        httpServer.createContext(WAITLIST_PATH, this::handleWaitlist);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits shortly for the exchanges in flight and stops the workers
+     */
+    @Override public void close() {
+        httpServer.stop(STOP_DELAY_SECONDS);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleBookings(final HttpExchange exchange) throws IOException {
+        try {
+            final String path = exchange.getRequestURI().getPath();
+            if (path.equals(BOOKINGS_PATH)) {
+                if (!"POST".equals(exchange.getRequestMethod())) {
+                    sendError(exchange, METHOD_NOT_ALLOWED_MESSAGE, HTTP_405);
+                    return;
+                }
+                final BookingRequest bookingRequest = readBookingRequest(exchange);
+                if (bookingRequest == null) {
+                    sendError(exchange, INVALID_REQUEST, HTTP_400);
+                    return;
+                }
+                send(exchange, bookingHandler.book(bookingRequest.laundryRoomId, bookingRequest.houseId,
+                        bookingRequest.bookingStartDateTimeUTC, bookingRequest.bookingEndDateTimeUTC,
+                        exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY_HEADER)), JSON_CONTENT_TYPE);
+            } else if (path.startsWith(BOOKINGS_PATH + "/") && path.indexOf('/', BOOKINGS_PATH.length() + 1) < 0) {
+                if (!"DELETE".equals(exchange.getRequestMethod())) {
+                    sendError(exchange, METHOD_NOT_ALLOWED_MESSAGE, HTTP_405);
+                    return;
+                }
+                final String bookingId = path.substring(BOOKINGS_PATH.length() + 1);
+                final String houseId = parseQuery(exchange.getRequestURI().getRawQuery()).get("houseId");
+                if (houseId == null) {
+                    sendError(exchange, INVALID_REQUEST, HTTP_400);
+                    return;
+                }
+                send(exchange, bookingHandler.cancelBooking(bookingId, houseId,
+                        exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY_HEADER)), TEXT_CONTENT_TYPE);
+            } else {
+                sendError(exchange, NOT_FOUND_MESSAGE, HTTP_404);
+            }
+        } catch (final RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, HTTP_500_MESSAGE, HTTP_500);
+        }
+    }
+
+    private void handleBookedTimes(final HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(BOOKED_TIMES_PATH)) {
+                sendError(exchange, NOT_FOUND_MESSAGE, HTTP_404);
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, METHOD_NOT_ALLOWED_MESSAGE, HTTP_405);
+                return;
+            }
+            final Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            final String pageSize = parameters.get("pageSize");
+            if (pageSize == null) {
+                send(exchange, bookingHandler.listBookedTimes(exchange.getRequestHeaders().getFirst(IF_NONE_MATCH_HEADER)),
+                        JSON_CONTENT_TYPE);
+                return;
+            }
+            final int parsedPageSize;
+            try {
+                parsedPageSize = Integer.parseInt(pageSize);
+            } catch (final NumberFormatException e) {
+                sendError(exchange, INVALID_REQUEST, HTTP_400);
+                return;
+            }
+            if (parsedPageSize > MAX_PAGE_SIZE) {
+                sendError(exchange, INVALID_REQUEST, HTTP_400);
+                return;
+            }
+            // A page is buffered so that the status line can still turn into an error until the page is complete
+            final ByteArrayOutputStream page = new ByteArrayOutputStream();
+            final Writer writer = new OutputStreamWriter(page, StandardCharsets.UTF_8);
+            final Response response = bookingHandler.listBookedTimes(writer, parameters.get("laundryRoomId"), parameters.get("from"),
+                    parameters.get("to"), parameters.get("cursor"), parsedPageSize);
+            writer.flush();
+            if (response.getResponseCode() == HTTP_200) {
+                sendBytes(exchange, HTTP_200, page.toByteArray(), JSON_CONTENT_TYPE);
+            } else {
+                send(exchange, response, JSON_CONTENT_TYPE);
+            }
+        } catch (final RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, HTTP_500_MESSAGE, HTTP_500);
+        }
+    }
+
+    private void handleWaitlist(final HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(WAITLIST_PATH)) {
+                sendError(exchange, NOT_FOUND_MESSAGE, HTTP_404);
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, METHOD_NOT_ALLOWED_MESSAGE, HTTP_405);
+                return;
+            }
+            final BookingRequest bookingRequest = readBookingRequest(exchange);
+            if (bookingRequest == null) {
+                sendError(exchange, INVALID_REQUEST, HTTP_400);
+                return;
+            }
+            send(exchange, bookingHandler.joinWaitlist(bookingRequest.laundryRoomId, bookingRequest.houseId,
+                    bookingRequest.bookingStartDateTimeUTC, bookingRequest.bookingEndDateTimeUTC), JSON_CONTENT_TYPE);
+        } catch (final RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, HTTP_500_MESSAGE, HTTP_500);
+        }
+    }
+
+    private void handleAvailableSlots(final HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(AVAILABLE_SLOTS_PATH)) {
+                sendError(exchange, NOT_FOUND_MESSAGE, HTTP_404);
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, METHOD_NOT_ALLOWED_MESSAGE, HTTP_405);
+                return;
+            }
+            final Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            final int slotLength;
+            try {
+                slotLength = Integer.parseInt(parameters.get("slotLength"));
+            } catch (final NumberFormatException e) {
+                sendError(exchange, INVALID_REQUEST, HTTP_400);
+                return;
+            }
+            final String laundryRoomId = parameters.get("laundryRoomId");
+            send(exchange, laundryRoomId == null ? bookingHandler.findNextAvailableSlot(parameters.get("from"), slotLength)
+                    : bookingHandler.findAvailableSlots(laundryRoomId, parameters.get("from"), parameters.get("to"), slotLength),
+                    JSON_CONTENT_TYPE);
+        } catch (final RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, HTTP_500_MESSAGE, HTTP_500);
+        }
+    }
+
+    private void handleMetrics(final HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, METHOD_NOT_ALLOWED_MESSAGE, HTTP_405);
+            return;
+        }
+        final StringBuilder metrics = new StringBuilder();
+        bookingHandler.getMetrics().snapshot().writePrometheus(metrics);
+        sendBytes(exchange, HTTP_200, metrics.toString().getBytes(StandardCharsets.UTF_8), PROMETHEUS_CONTENT_TYPE);
+    }
+
+    /**
+     * Reads the book request from the JSON body
+     *
+     * @return null if the body is not a JSON object or misses one of the fields
+     */
+    private static BookingRequest readBookingRequest(final HttpExchange exchange) {
+        final BookingRequest.BookingRequestBuilder bookingRequestBuilder = BookingRequest.builder();
+        // Not closed, closing the request body before the response is sent closes the exchange
+        final JsonReader reader = new JsonReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                switch (name) {
+                    case "laundryRoomId":
+                        bookingRequestBuilder.laundryRoomId(reader.nextString());
+                        break;
+                    case "houseId":
+                        bookingRequestBuilder.houseId(reader.nextString());
+                        break;
+                    case "bookingStartDateTimeUTC":
+                        bookingRequestBuilder.bookingStartDateTimeUTC(reader.nextString());
+                        break;
+                    case "bookingEndDateTimeUTC":
+                        bookingRequestBuilder.bookingEndDateTimeUTC(reader.nextString());
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (final IllegalStateException | IOException e) {
+            // Malformed JSON is reported by Gson as an IOException
+            return null;
+        }
+        final BookingRequest bookingRequest = bookingRequestBuilder.build();
+        if (bookingRequest.laundryRoomId == null || bookingRequest.houseId == null || bookingRequest.bookingStartDateTimeUTC == null
+                || bookingRequest.bookingEndDateTimeUTC == null) {
+            return null;
+        }
+        return bookingRequest;
+    }
+
+    static Map<String, String> parseQuery(final String rawQuery) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (final String parameter : rawQuery.split("&")) {
+            final int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static void send(final HttpExchange exchange, final Response response, final String contentType) throws IOException {
+        if (response.getEtag() != null) {
+            exchange.getResponseHeaders().set(ETAG_HEADER, response.getEtag());
+        }
+        if (response.getResponseCode() == HTTP_200 || response.getResponseCode() == HTTP_304) {
+            sendBytes(exchange, response.getResponseCode(), response.getPayloadBytes(), contentType);
+        } else {
+            if (response.getResponseCode() == HTTP_429) {
+                exchange.getResponseHeaders().set(RETRY_AFTER_HEADER, RETRY_AFTER_SECONDS);
+            }
+            sendError(exchange, response.getErrorMessage(), response.getResponseCode());
+        }
+    }
+
+    static void sendError(final HttpExchange exchange, final String errorMessage, final int responseCode) throws IOException {
+        sendBytes(exchange, responseCode, serializeError(errorMessage), JSON_CONTENT_TYPE);
+    }
+
+    static void sendBytes(final HttpExchange exchange, final int responseCode, final byte[] body, final String contentType)
+            throws IOException {
+        // Whatever is left of the request body has to be consumed for the connection to be reused
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        // A length of -1 tells the HttpServer there is no body
+        exchange.sendResponseHeaders(responseCode, body.length == 0 ? -1 : body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.laundrybooking.server;
+
+import static com.laundrybooking.server.BookingHttpServer.HTTP_404;
+import static com.laundrybooking.server.BookingHttpServer.HTTP_405;
+import static com.laundrybooking.server.BookingHttpServer.JSON_CONTENT_TYPE;
+import static com.laundrybooking.server.BookingHttpServer.METHOD_NOT_ALLOWED_MESSAGE;
+import static com.laundrybooking.server.BookingHttpServer.NOT_FOUND_MESSAGE;
+import static com.laundrybooking.server.BookingHttpServer.parseQuery;
+import static com.laundrybooking.server.BookingHttpServer.sendBytes;
+import static com.laundrybooking.server.BookingHttpServer.sendError;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_409;
+import static com.laundrybooking.utils.Constants.HTTP_500;
+import static com.laundrybooking.utils.Constants.HTTP_500_MESSAGE;
+import static com.laundrybooking.utils.ShardProtocol.BOOKINGS_PATH;
+import static com.laundrybooking.utils.ShardProtocol.COMPLETE_PATH;
+import static com.laundrybooking.utils.ShardProtocol.FREE_SLOT_PATH;
+import static com.laundrybooking.utils.ShardProtocol.HOUSE_BOOKINGS_PATH;
+import static com.laundrybooking.utils.ShardProtocol.HOUSE_CLAIMS_PATH;
+import static com.laundrybooking.utils.ShardProtocol.OVERLAPPING_PATH;
+import static com.laundrybooking.utils.ShardProtocol.QUERY_PATH;
+import static com.laundrybooking.utils.ShardProtocol.RANGE_PATH;
+import static com.laundrybooking.utils.ShardProtocol.SHARD_PATH;
+import static com.laundrybooking.utils.ShardProtocol.START_KEY;
+import static com.laundrybooking.utils.ShardProtocol.parseBooking;
+import static com.laundrybooking.utils.ShardProtocol.toJson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.laundrybooking.accessor.BookingDataAccessor;
+import com.laundrybooking.accessor.HouseClaimDataAccessor;
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseClaimDataAccessor;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node of the sharded booking store, serving the bookings and house claims of one shard over the HTTP protocol of ShardProtocol.
+ * Run one per process with
+ * java -cp <classpath> com.laundrybooking.server.BookingShardServer <port>
+ * which keeps the shard in memory and prints the port it listens on, useful with port 0.
+ */
+public class BookingShardServer implements Closeable {
+
+    static final String LISTENING_MESSAGE = "Booking shard listening on port ";
+
+    private static final int BACKLOG = 1024;
+
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private static final int DEFAULT_WORKER_THREADS = 16;
+
+    private final BookingDataAccessor bookingDataAccessor;
+
+    private final HouseClaimDataAccessor houseClaimDataAccessor;
+
+    private final HttpServer httpServer;
+
+    private final ExecutorService workers;
+
+    /**
+     * @param bookingDataAccessor    bookings of the shard
+     * @param houseClaimDataAccessor house claims of the shard
+     * @param address                port 0 picks a free port
+     * @param executionMode          threads running the shard calls
+     * @param workerThreads          size of the worker pool when running on platform threads
+     */
+    public BookingShardServer(final BookingDataAccessor bookingDataAccessor, final HouseClaimDataAccessor houseClaimDataAccessor,
+                              final InetSocketAddress address, final ExecutionMode executionMode, final int workerThreads)
+            throws IOException {
+        this.bookingDataAccessor = bookingDataAccessor;
+        this.houseClaimDataAccessor = houseClaimDataAccessor;
+        httpServer = HttpServer.create(address, BACKLOG);
+        workers = executionMode.newExecutor(workerThreads);
+        httpServer.setExecutor(workers);
+        httpServer.createContext(SHARD_PATH, this::handle);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        final BookingShardServer server = new BookingShardServer(new InMemoryBookingDataAccessor(),
+                new InMemoryHouseClaimDataAccessor(), new InetSocketAddress(port), ExecutionMode.VIRTUAL_THREADS,
+                DEFAULT_WORKER_THREADS);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        System.out.println(LISTENING_MESSAGE + server.getPort());
+        System.out.flush();
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits shortly for the exchanges in flight and stops the workers
+     */
+    @Override public void close() {
+        httpServer.stop(STOP_DELAY_SECONDS);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            final String path = exchange.getRequestURI().getPath();
+            final String method = exchange.getRequestMethod();
+            final Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            final JsonElement result;
+            if (path.equals(BOOKINGS_PATH) && "POST".equals(method)) {
+                final Booking booking = readBooking(exchange);
+                bookingDataAccessor.create(booking);
+                result = toJson(booking);
+            } else if (path.startsWith(BOOKINGS_PATH + "/") && "GET".equals(method)) {
+                final String id = path.substring(BOOKINGS_PATH.length() + 1);
+                result = toJson(parameters.containsKey("status")
+                        ? bookingDataAccessor.read(id, parameter(parameters, "houseId"), status(parameters))
+                        : bookingDataAccessor.read(id));
+            } else if (path.startsWith(BOOKINGS_PATH + "/") && "PUT".equals(method)) {
+                bookingDataAccessor.update(path.substring(BOOKINGS_PATH.length() + 1), parameter(parameters, "field"),
+                        parameter(parameters, "value"));
+                result = JsonNull.INSTANCE;
+            } else if (path.equals(HOUSE_BOOKINGS_PATH) && "GET".equals(method)) {
+                result = toJson(bookingDataAccessor.read(House.builder().id(intParameter(parameters, "houseId")).build(),
+                        status(parameters)));
+            } else if (path.equals(OVERLAPPING_PATH) && "GET".equals(method)) {
+                result = toJson(bookingDataAccessor.read(laundryRoom(parameters), instant(parameters, "start"), instant(parameters, "end"),
+                        status(parameters)));
+            } else if (path.equals(RANGE_PATH) && "GET".equals(method)) {
+                result = toJson(bookingDataAccessor.read(instant(parameters, "start"), instant(parameters, "end"), status(parameters)));
+            } else if (path.equals(QUERY_PATH) && "GET".equals(method)) {
+                result = toJson(query(parameters));
+            } else if (path.equals(FREE_SLOT_PATH) && "GET".equals(method)) {
+                final Instant start = bookingDataAccessor.findFreeSlot(laundryRoom(parameters), instant(parameters, "from"),
+                        instant(parameters, "to"), Long.parseLong(parameter(parameters, "length")));
+                result = freeSlot(start);
+            } else if (path.equals(COMPLETE_PATH) && "POST".equals(method)) {
+                result = toJson(bookingDataAccessor.completeAll(readIds(exchange)));
+            } else if (path.equals(HOUSE_CLAIMS_PATH) && "POST".equals(method)) {
+                result = toJson(houseClaimDataAccessor.claim(readBooking(exchange)));
+            } else if (path.equals(HOUSE_CLAIMS_PATH) && "GET".equals(method)) {
+                result = toJson(houseClaimDataAccessor.readAll());
+            } else if (path.startsWith(HOUSE_CLAIMS_PATH + "/") && "GET".equals(method)) {
+                result = toJson(houseClaimDataAccessor.read(Integer.parseInt(path.substring(HOUSE_CLAIMS_PATH.length() + 1))));
+            } else if (path.startsWith(HOUSE_CLAIMS_PATH + "/") && "DELETE".equals(method)) {
+                houseClaimDataAccessor.release(Booking.builder()
+                        .id(parameter(parameters, "bookingId"))
+                        .houseId(Integer.parseInt(path.substring(HOUSE_CLAIMS_PATH.length() + 1)))
+                        .build());
+                result = JsonNull.INSTANCE;
+            } else {
+                sendError(exchange, isKnownPath(path) ? METHOD_NOT_ALLOWED_MESSAGE : NOT_FOUND_MESSAGE,
+                        isKnownPath(path) ? HTTP_405 : HTTP_404);
+                return;
+            }
+            sendBytes(exchange, HTTP_200, result.toString().getBytes(StandardCharsets.UTF_8), JSON_CONTENT_TYPE);
+        } catch (final IllegalStateException e) {
+            sendError(exchange, e.getMessage(), HTTP_409);
+        } catch (final IllegalArgumentException | DateTimeException | JsonParseException e) {
+            sendError(exchange, String.valueOf(e.getMessage()), HTTP_400);
+        } catch (final RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, HTTP_500_MESSAGE, HTTP_500);
+        }
+    }
+
+    /**
+     * Reads a page of the query, every matching booking when the limit is 0
+     */
+    private List<Booking> query(final Map<String, String> parameters) {
+        final BookingQuery.BookingQueryBuilder bookingQuery = BookingQuery.builder()
+                .startTime(instant(parameters, "start"))
+                .endTime(instant(parameters, "end"))
+                .bookingStatus(status(parameters));
+        if (parameters.containsKey("laundryRoomId")) {
+            bookingQuery.laundryRoomId(intParameter(parameters, "laundryRoomId"));
+        }
+        if (parameters.containsKey("afterStart")) {
+            bookingQuery.afterStartTime(instant(parameters, "afterStart"))
+                    .afterLaundryRoomId(intParameter(parameters, "afterLaundryRoomId"));
+        }
+        final int limit = intParameter(parameters, "limit");
+        final List<Booking> bookings = new ArrayList<>();
+        final Iterator<Booking> matches = bookingDataAccessor.query(bookingQuery.build());
+        while (matches.hasNext() && (limit == 0 || bookings.size() < limit)) {
+            bookings.add(matches.next());
+        }
+        return bookings;
+    }
+
+    /**
+     * Reads the booking of the body, a missing or malformed one is a bad request
+     */
+    private static Booking readBooking(final HttpExchange exchange) {
+        // Not closed, closing the request body before the response is sent closes the exchange
+        final Booking booking = parseBooking(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        if (booking == null) {
+            throw new IllegalArgumentException("Missing booking");
+        }
+        return booking;
+    }
+
+    private static List<String> readIds(final HttpExchange exchange) {
+        // Not closed, closing the request body before the response is sent closes the exchange
+        final JsonArray body = new JsonParser().parse(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))
+                .getAsJsonArray();
+        final List<String> ids = new ArrayList<>(body.size());
+        for (final JsonElement id : body) {
+            ids.add(id.getAsString());
+        }
+        return ids;
+    }
+
+    private static JsonElement freeSlot(final Instant start) {
+        if (start == null) {
+            return JsonNull.INSTANCE;
+        }
+        final JsonObject freeSlot = new JsonObject();
+        freeSlot.addProperty(START_KEY, start.toString());
+        return freeSlot;
+    }
+
+    private static LaundryRoom laundryRoom(final Map<String, String> parameters) {
+        return LaundryRoom.builder().id(intParameter(parameters, "laundryRoomId")).build();
+    }
+
+    private static BookingStatus status(final Map<String, String> parameters) {
+        return BookingStatus.valueOf(parameter(parameters, "status"));
+    }
+
+    private static Instant instant(final Map<String, String> parameters, final String name) {
+        return Instant.parse(parameter(parameters, name));
+    }
+
+    private static int intParameter(final Map<String, String> parameters, final String name) {
+        return Integer.parseInt(parameter(parameters, name));
+    }
+
+    private static String parameter(final Map<String, String> parameters, final String name) {
+        final String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        return value;
+    }
+
+    private static boolean isKnownPath(final String path) {
+        return path.equals(BOOKINGS_PATH) || path.startsWith(BOOKINGS_PATH + "/") || path.equals(HOUSE_BOOKINGS_PATH)
+                || path.equals(OVERLAPPING_PATH) || path.equals(RANGE_PATH) || path.equals(QUERY_PATH) || path.equals(FREE_SLOT_PATH)
+                || path.equals(COMPLETE_PATH) || path.equals(HOUSE_CLAIMS_PATH) || path.startsWith(HOUSE_CLAIMS_PATH + "/");
+    }
+}
@@ -0,0 +1,49 @@
+package com.laundrybooking.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * How the booking handler invocations of the server are run.
+ * PLATFORM_THREADS runs them on a fixed pool of platform threads, so at most that many requests can block in the data accessors at
+ * a time. VIRTUAL_THREADS runs every invocation on its own virtual thread, which unmounts from its carrier thread while it blocks,
+ * so blocking accessors no longer tie up OS threads. Virtual threads need a Java 21 runtime; the code is compiled for Java 11 and
+ * looks the factory up reflectively, falling back to the platform thread pool on older runtimes.
+ */
+public enum ExecutionMode {
+    PLATFORM_THREADS,
+    VIRTUAL_THREADS;
+
+    // Executors.newVirtualThreadPerTaskExecutor, null before Java 21
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    /**
+     * @param platformThreads size of the platform thread pool, when platform threads are used
+     */
+    public ExecutorService newExecutor(final int platformThreads) {
+        if (this == VIRTUAL_THREADS && NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create the virtual thread executor", e);
+            }
+        }
+        return Executors.newFixedThreadPool(platformThreads);
+    }
+
+    /**
+     * Whether the runtime has virtual threads, otherwise VIRTUAL_THREADS falls back to platform threads
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
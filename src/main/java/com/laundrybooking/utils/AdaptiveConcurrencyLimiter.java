@@ -0,0 +1,98 @@
+package com.laundrybooking.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit adapting to the latency of the calls it admits, by additive increase and multiplicative decrease. Calls over
+ * the limit are rejected right away instead of queued, unlike ConcurrencyLimiter, so a burst of calls cannot build a queue in front
+ * of the store. A call slower than the target latency shrinks the limit by BACKOFF_RATIO, once for all the calls that started
+ * before the previous decrease, and a call within the target while at least half the limit is in use grows it by about one per
+ * limit calls. The limit stays between minimumLimit and maximumLimit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final int minimumLimit;
+
+    private final int maximumLimit;
+
+    private final long targetLatencyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Double bits of the limit
+    private final AtomicLong limit;
+
+    private final AtomicLong lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(final int initialLimit, final int minimumLimit, final int maximumLimit, final long targetLatency,
+                                      final TimeUnit timeUnit) {
+        if (minimumLimit <= 0 || minimumLimit > initialLimit || initialLimit > maximumLimit) {
+            throw new IllegalArgumentException("Concurrency limits should be positive and ordered minimum <= initial <= maximum");
+        }
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        targetLatencyNanos = timeUnit.toNanos(targetLatency);
+        limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        lastDecreaseNanos = new AtomicLong(System.nanoTime() - 1);
+    }
+
+    /**
+     * Admits a call if fewer calls than the limit are running, never waits. An admitted call must call release once it completes.
+     */
+    public boolean tryAcquire() {
+        final int currentLimit = getLimit();
+        while (true) {
+            final int running = inFlight.get();
+            if (running >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted call and adapts the limit to its latency
+     *
+     * @param startNanos System.nanoTime when the call was admitted
+     */
+    public void release(final long startNanos) {
+        final long nowNanos = System.nanoTime();
+        final int running = inFlight.getAndDecrement();
+        if (nowNanos - startNanos > targetLatencyNanos) {
+            final long lastDecrease = lastDecreaseNanos.get();
+            if (startNanos - lastDecrease > 0 && lastDecreaseNanos.compareAndSet(lastDecrease, nowNanos)) {
+                updateLimit(currentLimit -> Math.max(minimumLimit, currentLimit * BACKOFF_RATIO));
+            }
+        } else if (running * 2 >= getLimit()) {
+            updateLimit(currentLimit -> Math.min(maximumLimit, currentLimit + 1 / currentLimit));
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    /**
+     * Returns the number of admitted calls not yet released
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLimit(final DoubleUnaryOperator update) {
+        while (true) {
+            final long currentBits = limit.get();
+            final long nextBits = Double.doubleToLongBits(update.applyAsDouble(Double.longBitsToDouble(currentBits)));
+            if (currentBits == nextBits || limit.compareAndSet(currentBits, nextBits)) {
+                return;
+            }
+        }
+    }
+}
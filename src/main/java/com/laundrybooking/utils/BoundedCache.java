@@ -0,0 +1,176 @@
+package com.laundrybooking.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Size bounded cache with least recently used eviction and expiry after write. Entries are spread over independently locked
+ * segments, each an access ordered LinkedHashMap, so concurrent lookups of different keys rarely contend.
+ * Null values are never cached.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+
+    private final long expireAfterWriteNanos;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(final int maximumSize, final long expireAfterWrite, final TimeUnit timeUnit) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum cache size should be positive");
+        }
+        expireAfterWriteNanos = timeUnit.toNanos(expireAfterWrite);
+        final int segmentCount = Math.min(SEGMENTS, Integer.highestOneBit(maximumSize));
+        final int segmentSize = (maximumSize + segmentCount - 1) / segmentCount;
+        segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentSize, evictionCount);
+        }
+    }
+
+    /**
+     * Returns the cached value of the key or null if it is not cached or has expired
+     */
+    public V get(final K key) {
+        final Segment<K, V> segment = segmentFor(key);
+        final V value;
+        synchronized (segment) {
+            value = segment.getIfFresh(key, System.nanoTime());
+        }
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value of the key, loading and caching it if it is not cached or has expired.
+     * The loader is called outside the segment lock, concurrent misses of the same key may load it more than once.
+     */
+    public V get(final K key, final Function<K, V> loader) {
+        final V cachedValue = get(key);
+        if (cachedValue != null) {
+            return cachedValue;
+        }
+        final V value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void put(final K key, final V value) {
+        final Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new CacheEntry<>(value, System.nanoTime() + expireAfterWriteNanos));
+        }
+    }
+
+    /**
+     * Caches the value unless the key already has a fresh value
+     *
+     * @return the value already cached or null if the given value was cached
+     */
+    public V putIfAbsent(final K key, final V value) {
+        final Segment<K, V> segment = segmentFor(key);
+        final long nowNanos = System.nanoTime();
+        synchronized (segment) {
+            final V cachedValue = segment.getIfFresh(key, nowNanos);
+            if (cachedValue != null) {
+                return cachedValue;
+            }
+            segment.put(key, new CacheEntry<>(value, nowNanos + expireAfterWriteNanos));
+        }
+        return null;
+    }
+
+    public void invalidate(final K key) {
+        final Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (final Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private Segment<K, V> segmentFor(final K key) {
+        final int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+
+        private final long expiresAtNanos;
+
+        private CacheEntry(final V value, final long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, CacheEntry<V>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maximumSize;
+
+        private final LongAdder evictionCount;
+
+        private Segment(final int maximumSize, final LongAdder evictionCount) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+            this.evictionCount = evictionCount;
+        }
+
+        private V getIfFresh(final K key, final long nowNanos) {
+            final CacheEntry<V> entry = get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAtNanos - nowNanos <= 0) {
+                remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        @Override protected boolean removeEldestEntry(final Map.Entry<K, CacheEntry<V>> eldest) {
+            if (size() > maximumSize) {
+                evictionCount.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
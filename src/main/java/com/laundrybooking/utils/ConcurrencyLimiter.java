@@ -0,0 +1,63 @@
+package com.laundrybooking.utils;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of calls running at the same time against a backing store. Callers over the limit wait for a permit; a waiting
+ * virtual thread is unmounted from its carrier, so thousands of requests can queue here without holding OS threads while the
+ * store only ever sees the limited number of concurrent calls.
+ */
+public class ConcurrencyLimiter {
+
+    private final Semaphore permits;
+
+    private final int maximumConcurrency;
+
+    public ConcurrencyLimiter(final int maximumConcurrency) {
+        if (maximumConcurrency <= 0) {
+            throw new IllegalArgumentException("Maximum concurrency should be positive");
+        }
+        this.maximumConcurrency = maximumConcurrency;
+        // Fair so that waiting callers are served in arrival order rather than starved under load
+        permits = new Semaphore(maximumConcurrency, true);
+    }
+
+    public <T> T call(final Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(final Runnable call) {
+        acquire();
+        try {
+            call.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getMaximumConcurrency() {
+        return maximumConcurrency;
+    }
+
+    /**
+     * Returns the number of calls running against the store
+     */
+    public int getActiveCount() {
+        return maximumConcurrency - permits.availablePermits();
+    }
+
+    private void acquire() {
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the backing store", e);
+        }
+    }
+}
@@ -3,8 +3,16 @@ package com.laundrybooking.utils;
 public class Constants {
     public static final String HTTP_500_MESSAGE = "Something went wrong!";
 
+    public static final int HTTP_200 = 200;
+
+    public static final int HTTP_304 = 304;
+
     public static final int HTTP_400 = 400;
 
+    public static final int HTTP_409 = 409;
+
+    public static final int HTTP_429 = 429;
+
     public static final int HTTP_500 = 500;
 
     public static final String BOOKING_STATUS_KEY = "bookingStatus";
@@ -24,4 +32,10 @@ public class Constants {
     public static final String LAUNDRY_ROOM_NAME_KEY = "laundryRoomName";
 
     public static final String MESSAGE_KEY = "MESSAGE";
+
+    public static final String BOOKED_TIMES_KEY = "bookedTimes";
+
+    public static final String NEXT_CURSOR_KEY = "nextCursor";
+
+    public static final String ERROR_KEY = "error";
 }
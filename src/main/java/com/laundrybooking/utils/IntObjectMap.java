@@ -0,0 +1,228 @@
+package com.laundrybooking.utils;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent map from primitive int keys to objects using open addressing with linear probing, so neither the keys nor the
+ * lookups are boxed. Lookups are optimistic reads that do not lock or allocate, writes are serialized.
+ * Null values are not supported.
+ */
+public class IntObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+
+    private volatile Table table;
+
+    private int size;
+
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectMap(final int expectedSize) {
+        // Keep the load factor at or below one half
+        table = new Table(Math.max(Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1, DEFAULT_CAPACITY));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final int key) {
+        final long stamp = lock.tryOptimisticRead();
+        final Object value = table.get(key);
+        if (lock.validate(stamp)) {
+            return (V) value;
+        }
+        final long readStamp = lock.readLock();
+        try {
+            return (V) table.get(key);
+        } finally {
+            lock.unlockRead(readStamp);
+        }
+    }
+
+    /**
+     * @return the previous value of the key or null if there was none
+     */
+    public V put(final int key, final V value) {
+        final long stamp = lock.writeLock();
+        try {
+            return putLocked(key, value, false);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the current value of the key or null if the value was added
+     */
+    public V putIfAbsent(final int key, final V value) {
+        final long stamp = lock.writeLock();
+        try {
+            return putLocked(key, value, true);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the removed value or null if the key was not present
+     */
+    public V remove(final int key) {
+        final long stamp = lock.writeLock();
+        try {
+            return removeLocked(key, null);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the key only if it is currently mapped to the given value
+     *
+     * @return true if the key was removed
+     */
+    public boolean remove(final int key, final V value) {
+        final long stamp = lock.writeLock();
+        try {
+            return removeLocked(key, value) != null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the keys present at the time of the call, for callers that walk the map and remove entries
+     */
+    public int[] keys() {
+        final long stamp = lock.readLock();
+        try {
+            final Table current = table;
+            final int[] keys = new int[size];
+            int key = 0;
+            for (int slot = 0; slot < current.keys.length; slot++) {
+                if (current.values[slot] != null) {
+                    keys[key++] = current.keys[slot];
+                }
+            }
+            return keys;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        final long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V putLocked(final int key, final V value, final boolean onlyIfAbsent) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        final Table current = table;
+        final int slot = current.slotOf(key);
+        if (current.values[slot] != null) {
+            final V previous = (V) current.values[slot];
+            if (!onlyIfAbsent) {
+                current.values[slot] = value;
+            }
+            return previous;
+        }
+        if ((size + 1) * 2 > current.keys.length) {
+            table = current.resize();
+            return putLocked(key, value, onlyIfAbsent);
+        }
+        current.keys[slot] = key;
+        current.values[slot] = value;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeLocked(final int key, final V expectedValue) {
+        final Table current = table;
+        int slot = current.slotOf(key);
+        final V value = (V) current.values[slot];
+        if (value == null || expectedValue != null && value != expectedValue) {
+            return null;
+        }
+        // Backward shift the rest of the probe sequence so lookups never need tombstones
+        final int mask = current.keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (current.values[next] != null) {
+            final int home = hash(current.keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                current.keys[slot] = current.keys[next];
+                current.values[slot] = current.values[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        current.values[slot] = null;
+        size--;
+        return value;
+    }
+
+    private static final class Table {
+        private final int[] keys;
+
+        private final Object[] values;
+
+        private Table(final int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+        }
+
+        private Object get(final int key) {
+            final int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            // Bounded by the capacity, an optimistic read may observe a table in the middle of a write
+            for (int probes = 0; probes < keys.length; probes++) {
+                final Object value = values[slot];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[slot] == key) {
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the slot holding the key or the empty slot the key would be inserted at
+         */
+        private int slotOf(final int key) {
+            final int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] != null && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private Table resize() {
+            final Table resized = new Table(keys.length << 1);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (values[slot] != null) {
+                    final int newSlot = resized.slotOf(keys[slot]);
+                    resized.keys[newSlot] = keys[slot];
+                    resized.values[newSlot] = values[slot];
+                }
+            }
+            return resized;
+        }
+    }
+
+    private static int hash(final int key) {
+        final int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,125 @@
+package com.laundrybooking.utils;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+
+/**
+ * Parser of ISO-8601 UTC date times such as 2030-01-01T08:00:00.123Z into nanoseconds since the epoch, without allocating.
+ * The common yyyy-MM-ddTHH:mm:ss[.fraction]Z form is parsed by hand, anything else Instant.parse accepts goes through
+ * Instant.parse. Epoch nanoseconds cover the years 1677 to 2262.
+ */
+public final class IsoInstantParser {
+
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final int MINIMUM_LENGTH = "yyyy-MM-ddTHH:mm:ssZ".length();
+
+    // Days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar
+    private static final long DAYS_0000_TO_1970 = 719_468L;
+
+    private IsoInstantParser() {
+    }
+
+    /**
+     * Parses an ISO-8601 UTC date time into nanoseconds since the epoch
+     *
+     * @throws DateTimeException if the text is not a valid date time or is out of the epoch nanoseconds range
+     */
+    public static long parseEpochNanos(final String text) {
+        final long epochNanos = parseCommonForm(text);
+        if (epochNanos != Long.MIN_VALUE) {
+            return epochNanos;
+        }
+        final Instant instant = Instant.parse(text);
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+        } catch (final ArithmeticException e) {
+            throw new DateTimeException("Date time out of range: " + text, e);
+        }
+    }
+
+    public static long toEpochSecond(final long epochNanos) {
+        return Math.floorDiv(epochNanos, NANOS_PER_SECOND);
+    }
+
+    public static Instant toInstant(final long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND), Math.floorMod(epochNanos, NANOS_PER_SECOND));
+    }
+
+    /**
+     * Returns the epoch nanoseconds of a date time in the common form or Long.MIN_VALUE if the text is in another form or
+     * out of range, for Instant.parse to handle or reject
+     */
+    private static long parseCommonForm(final String text) {
+        final int length = text.length();
+        if (length < MINIMUM_LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-' || (text.charAt(10) | 0x20) != 't'
+                || text.charAt(13) != ':' || text.charAt(16) != ':' || (text.charAt(length - 1) | 0x20) != 'z') {
+            return Long.MIN_VALUE;
+        }
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 2);
+        final int day = digits(text, 8, 2);
+        final int hour = digits(text, 11, 2);
+        final int minute = digits(text, 14, 2);
+        final int second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+        long nanos = 0;
+        if (length > MINIMUM_LENGTH) {
+            final int fractionDigits = length - MINIMUM_LENGTH - 1;
+            if (text.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                return Long.MIN_VALUE;
+            }
+            final int fraction = digits(text, 20, fractionDigits);
+            if (fraction < 0) {
+                return Long.MIN_VALUE;
+            }
+            nanos = fraction;
+            for (int i = fractionDigits; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+        final long epochSecond = epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+        // Outside of the range of epoch nanoseconds, left for the overflow check of the slow path
+        if (epochSecond <= Long.MIN_VALUE / NANOS_PER_SECOND || epochSecond >= Long.MAX_VALUE / NANOS_PER_SECOND) {
+            return Long.MIN_VALUE;
+        }
+        return epochSecond * NANOS_PER_SECOND + nanos;
+    }
+
+    /**
+     * Returns the value of count decimal digits starting at offset or -1 if one of the characters is not a digit
+     */
+    private static int digits(final String text, final int offset, final int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int daysInMonth(final int year, final int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * Days since the epoch of a proleptic Gregorian date, counting years from March so that the leap day comes last
+     */
+    private static long epochDay(final int year, final int month, final int day) {
+        final long marchYear = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(marchYear, 400);
+        final long yearOfEra = marchYear - era * 400;
+        final long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+}
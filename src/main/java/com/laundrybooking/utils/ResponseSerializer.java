@@ -0,0 +1,271 @@
+package com.laundrybooking.utils;
+
+import static com.laundrybooking.utils.Constants.BOOKING_END_TIME_KEY;
+import static com.laundrybooking.utils.Constants.BOOKING_END_TIME_UTC_KEY;
+import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_KEY;
+import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_UTC_KEY;
+import static com.laundrybooking.utils.Constants.ERROR_KEY;
+import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_ID_KEY;
+import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_KEY;
+import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_NAME_KEY;
+import static com.laundrybooking.utils.Constants.MESSAGE_KEY;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.TimeSlot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Serializer for the fixed shapes of the booking responses. The JSON is written as UTF-8 straight into a reusable per thread buffer
+ * from keys encoded once, without building maps or JSON objects; the only allocation per response is the returned byte array.
+ * Null values are left out like JSONObject does.
+ */
+public final class ResponseSerializer {
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    // Buffers grown past this by a large response are not kept for the next one
+    private static final int MAXIMUM_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] MESSAGE_NAME = encodeName(MESSAGE_KEY);
+
+    private static final byte[] LAUNDRY_ROOM_ID_NAME = encodeName(LAUNDRY_ROOM_ID_KEY);
+
+    private static final byte[] LAUNDRY_ROOM_NAME_NAME = encodeName(LAUNDRY_ROOM_NAME_KEY);
+
+    private static final byte[] BOOKING_START_TIME_UTC_NAME = encodeName(BOOKING_START_TIME_UTC_KEY);
+
+    private static final byte[] BOOKING_END_TIME_UTC_NAME = encodeName(BOOKING_END_TIME_UTC_KEY);
+
+    private static final byte[] BOOKING_START_TIME_NAME = encodeName(BOOKING_START_TIME_KEY);
+
+    private static final byte[] BOOKING_END_TIME_NAME = encodeName(BOOKING_END_TIME_KEY);
+
+    private static final byte[] LAUNDRY_ROOM_NAME = encodeName(LAUNDRY_ROOM_KEY);
+
+    private static final byte[] ERROR_NAME = encodeName(ERROR_KEY);
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<JsonBuffer> BUFFERS = ThreadLocal.withInitial(JsonBuffer::new);
+
+    private ResponseSerializer() {
+    }
+
+    /**
+     * Serializes the response to a successful book request
+     */
+    public static byte[] serializeBookedSlot(final String message, final String laundryRoomId, final String laundryRoomName,
+                                             final String bookingStartDateTimeUTC, final String bookingEndDateTimeUTC) {
+        final JsonBuffer buffer = acquireBuffer();
+        buffer.beginObject();
+        buffer.writeField(MESSAGE_NAME, message);
+        buffer.writeField(LAUNDRY_ROOM_ID_NAME, laundryRoomId);
+        buffer.writeField(LAUNDRY_ROOM_NAME_NAME, laundryRoomName);
+        buffer.writeField(BOOKING_START_TIME_UTC_NAME, bookingStartDateTimeUTC);
+        buffer.writeField(BOOKING_END_TIME_UTC_NAME, bookingEndDateTimeUTC);
+        buffer.writeByte('}');
+        return releaseBuffer(buffer);
+    }
+
+    /**
+     * Serializes the booked times of the bookings as a JSON array
+     */
+    public static byte[] serializeBookedTimes(final Collection<Booking> bookings) {
+        final JsonBuffer buffer = acquireBuffer();
+        buffer.writeByte('[');
+        boolean first = true;
+        for (final Booking booking : bookings) {
+            if (!first) {
+                buffer.writeByte(',');
+            }
+            first = false;
+            buffer.beginObject();
+            buffer.writeField(BOOKING_START_TIME_NAME, booking.bookingStartTimeUTC.toString());
+            buffer.writeField(BOOKING_END_TIME_NAME, booking.bookingEndTimeUTC.toString());
+            buffer.writeIntField(LAUNDRY_ROOM_NAME, booking.laundryRoomId);
+            buffer.writeByte('}');
+        }
+        buffer.writeByte(']');
+        return releaseBuffer(buffer);
+    }
+
+    /**
+     * Serializes free slots as a JSON array, in the shape of the booked times
+     */
+    public static byte[] serializeTimeSlots(final Collection<TimeSlot> timeSlots) {
+        final JsonBuffer buffer = acquireBuffer();
+        buffer.writeByte('[');
+        boolean first = true;
+        for (final TimeSlot timeSlot : timeSlots) {
+            if (!first) {
+                buffer.writeByte(',');
+            }
+            first = false;
+            buffer.beginObject();
+            buffer.writeField(BOOKING_START_TIME_NAME, timeSlot.startTime.toString());
+            buffer.writeField(BOOKING_END_TIME_NAME, timeSlot.endTime.toString());
+            buffer.writeIntField(LAUNDRY_ROOM_NAME, timeSlot.laundryRoomId);
+            buffer.writeByte('}');
+        }
+        buffer.writeByte(']');
+        return releaseBuffer(buffer);
+    }
+
+    /**
+     * Serializes the message of an error response as {"error": message}
+     */
+    public static byte[] serializeError(final String errorMessage) {
+        final JsonBuffer buffer = acquireBuffer();
+        buffer.beginObject();
+        buffer.writeField(ERROR_NAME, errorMessage);
+        buffer.writeByte('}');
+        return releaseBuffer(buffer);
+    }
+
+    private static JsonBuffer acquireBuffer() {
+        final JsonBuffer buffer = BUFFERS.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    private static byte[] releaseBuffer(final JsonBuffer buffer) {
+        final byte[] bytes = buffer.toByteArray();
+        if (buffer.capacity() > MAXIMUM_RETAINED_BUFFER_SIZE) {
+            BUFFERS.remove();
+        }
+        return bytes;
+    }
+
+    private static byte[] encodeName(final String key) {
+        return ("\"" + key + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Growable UTF-8 JSON output buffer
+     */
+    private static final class JsonBuffer {
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+
+        private int size;
+
+        // Whether the current object has a field already and the next one needs a separator
+        private boolean fieldWritten;
+
+        private void reset() {
+            size = 0;
+        }
+
+        private int capacity() {
+            return bytes.length;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void writeField(final byte[] name, final String value) {
+            if (value == null) {
+                return;
+            }
+            writeName(name);
+            writeString(value);
+        }
+
+        private void writeIntField(final byte[] name, final int value) {
+            writeName(name);
+            writeByte('"');
+            writeInt(value);
+            writeByte('"');
+        }
+
+        private void writeName(final byte[] name) {
+            if (fieldWritten) {
+                writeByte(',');
+            }
+            fieldWritten = true;
+            ensureCapacity(name.length);
+            System.arraycopy(name, 0, bytes, size, name.length);
+            size += name.length;
+        }
+
+        private void beginObject() {
+            writeByte('{');
+            fieldWritten = false;
+        }
+
+        private void writeByte(final int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeInt(final int value) {
+            // Widened so that Integer.MIN_VALUE can be negated
+            long remaining = value;
+            if (remaining < 0) {
+                writeByte('-');
+                remaining = -remaining;
+            }
+            int digits = 1;
+            for (long bound = 10; bound <= remaining; bound *= 10) {
+                digits++;
+            }
+            ensureCapacity(digits);
+            for (int i = size + digits - 1; i >= size; i--) {
+                bytes[i] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            }
+            size += digits;
+        }
+
+        /**
+         * Writes a quoted JSON string encoding the characters as UTF-8
+         */
+        private void writeString(final String value) {
+            // Worst case of 6 bytes per char for \\u escapes, 3 bytes for UTF-8 and the quotes
+            ensureCapacity(value.length() * 6 + 2);
+            bytes[size++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    bytes[size++] = '\\';
+                    bytes[size++] = (byte) c;
+                } else if (c < 0x20) {
+                    bytes[size++] = '\\';
+                    bytes[size++] = 'u';
+                    bytes[size++] = '0';
+                    bytes[size++] = '0';
+                    bytes[size++] = HEX_DIGITS[c >> 4];
+                    bytes[size++] = HEX_DIGITS[c & 0xF];
+                } else if (c < 0x80) {
+                    bytes[size++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xC0 | c >> 6);
+                    bytes[size++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogates are not valid UTF-8
+                    bytes[size++] = '?';
+                } else {
+                    bytes[size++] = (byte) (0xE0 | c >> 12);
+                    bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            bytes[size++] = '"';
+        }
+
+        private void ensureCapacity(final int additionalBytes) {
+            if (size + additionalBytes > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additionalBytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.laundrybooking.utils;
+
+import static com.laundrybooking.utils.Constants.BOOKING_END_TIME_UTC_KEY;
+import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_UTC_KEY;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_ID_KEY;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingStatus;
+
+import java.io.Reader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * HTTP protocol between the sharded booking store and its shard servers: the paths of the shard operations and the JSON form of
+ * the bookings they exchange, in which a missing booking is null.
+ * Paths:
+ * - POST /shard/bookings creates the booking of the body and answers it with its id
+ * - GET /shard/bookings/{id} reads a booking, restricted to a house and status with houseId and status
+ * - PUT /shard/bookings/{id}?field=&value= updates a field of a booking
+ * - GET /shard/houseBookings?houseId=&status= reads the booking of a house with the status
+ * - GET /shard/overlapping?laundryRoomId=&start=&end=&status= reads a booking of the laundry room overlapping the slot
+ * - GET /shard/range?start=&end=&status= reads the bookings overlapping the window
+ * - GET /shard/query?start=&end=&status=&laundryRoomId=&afterStart=&afterLaundryRoomId=&limit= reads a page of a booking query
+ * - GET /shard/freeSlot?laundryRoomId=&from=&to=&length= finds a free slot, answered as {"start": ...} or null
+ * - POST /shard/complete completes the ACTIVE bookings among the ids of the body array and answers the bookings completed
+ * - POST /shard/houseClaims claims the house of the booking of the body and answers the booking holding the claim
+ * - GET /shard/houseClaims reads the bookings holding the claims of the houses of the shard
+ * - GET /shard/houseClaims/{houseId} reads the booking holding the claim of the house
+ * - DELETE /shard/houseClaims/{houseId}?bookingId= releases the claim of the house held by the booking
+ * Conflicts are answered with 409 and bad requests with 400, both with {"error": message}.
+ */
+public final class ShardProtocol {
+
+    public static final String SHARD_PATH = "/shard";
+
+    public static final String BOOKINGS_PATH = SHARD_PATH + "/bookings";
+
+    public static final String HOUSE_BOOKINGS_PATH = SHARD_PATH + "/houseBookings";
+
+    public static final String OVERLAPPING_PATH = SHARD_PATH + "/overlapping";
+
+    public static final String RANGE_PATH = SHARD_PATH + "/range";
+
+    public static final String QUERY_PATH = SHARD_PATH + "/query";
+
+    public static final String FREE_SLOT_PATH = SHARD_PATH + "/freeSlot";
+
+    public static final String COMPLETE_PATH = SHARD_PATH + "/complete";
+
+    public static final String HOUSE_CLAIMS_PATH = SHARD_PATH + "/houseClaims";
+
+    public static final String START_KEY = "start";
+
+    private static final String ID_KEY = "id";
+
+    private static final String HOUSE_ID_KEY = "houseId";
+
+    private ShardProtocol() {
+    }
+
+    public static JsonElement toJson(final Booking booking) {
+        if (booking == null) {
+            return JsonNull.INSTANCE;
+        }
+        final JsonObject json = new JsonObject();
+        json.addProperty(ID_KEY, booking.id);
+        json.addProperty(HOUSE_ID_KEY, booking.houseId);
+        json.addProperty(LAUNDRY_ROOM_ID_KEY, booking.laundryRoomId);
+        json.addProperty(BOOKING_START_TIME_UTC_KEY, booking.bookingStartTimeUTC.toString());
+        json.addProperty(BOOKING_END_TIME_UTC_KEY, booking.bookingEndTimeUTC.toString());
+        json.addProperty(BOOKING_STATUS_KEY, booking.bookingStatus.toString());
+        return json;
+    }
+
+    public static JsonArray toJson(final Collection<Booking> bookings) {
+        final JsonArray json = new JsonArray();
+        for (final Booking booking : bookings) {
+            json.add(toJson(booking));
+        }
+        return json;
+    }
+
+    public static Booking parseBooking(final String json) {
+        return toBooking(new JsonParser().parse(json));
+    }
+
+    public static Booking parseBooking(final Reader json) {
+        return toBooking(new JsonParser().parse(json));
+    }
+
+    public static List<Booking> parseBookings(final String json) {
+        final JsonArray array = new JsonParser().parse(json).getAsJsonArray();
+        final List<Booking> bookings = new ArrayList<>(array.size());
+        for (final JsonElement booking : array) {
+            bookings.add(toBooking(booking));
+        }
+        return bookings;
+    }
+
+    private static Booking toBooking(final JsonElement json) {
+        if (json.isJsonNull()) {
+            return null;
+        }
+        final JsonObject booking = json.getAsJsonObject();
+        final JsonElement id = booking.get(ID_KEY);
+        return Booking.builder()
+                .id(id == null || id.isJsonNull() ? null : id.getAsString())
+                .houseId(booking.get(HOUSE_ID_KEY).getAsInt())
+                .laundryRoomId(booking.get(LAUNDRY_ROOM_ID_KEY).getAsInt())
+                .bookingStartTimeUTC(Instant.parse(booking.get(BOOKING_START_TIME_UTC_KEY).getAsString()))
+                .bookingEndTimeUTC(Instant.parse(booking.get(BOOKING_END_TIME_UTC_KEY).getAsString()))
+                .bookingStatus(BookingStatus.valueOf(booking.get(BOOKING_STATUS_KEY).getAsString()))
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.laundrybooking.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks keyed by int ids. Each id maps to one of the stripes so that operations on the same id are serialized
+ * while operations on unrelated ids run in parallel, without keeping a lock per id.
+ * Every stripe also has a version, advanced by the holder of the stripe when it changes what the stripe guards, so that a check
+ * made from reads taken without the lock can tell under the lock whether they are still current.
+ */
+public class StripedLock {
+
+    private static final int DEFAULT_STRIPES_PER_PROCESSOR = 64;
+
+    private final Lock[] stripes;
+
+    private final AtomicLongArray versions;
+
+    private final int mask;
+
+    public StripedLock() {
+        this(Runtime.getRuntime().availableProcessors() * DEFAULT_STRIPES_PER_PROCESSOR);
+    }
+
+    public StripedLock(final int minimumStripes) {
+        if (minimumStripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes should be positive");
+        }
+        final int stripeCount = Integer.highestOneBit(minimumStripes - 1) << 1;
+        stripes = new Lock[Math.max(stripeCount, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        versions = new AtomicLongArray(stripes.length);
+        mask = stripes.length - 1;
+    }
+
+    /**
+     * Returns the lock guarding the given id
+     */
+    public Lock get(final int id) {
+        return stripes[stripeIndex(id)];
+    }
+
+    /**
+     * Returns the version of the stripe of the given id, read without the lock
+     */
+    public long version(final int id) {
+        return versions.get(stripeIndex(id));
+    }
+
+    /**
+     * Advances the version of the stripe of the given id, the caller holding the lock of the stripe
+     */
+    public void advance(final int id) {
+        versions.incrementAndGet(stripeIndex(id));
+    }
+
+    /**
+     * Locks the stripes of all the given ids, each stripe once and in stripe order so that concurrent callers cannot deadlock
+     *
+     * @return the locks taken, to be released with unlockAll
+     */
+    public List<Lock> lockAll(final int[] ids) {
+        final BitSet stripeIndexes = new BitSet(stripes.length);
+        for (final int id : ids) {
+            stripeIndexes.set(stripeIndex(id));
+        }
+        final List<Lock> locks = new ArrayList<>(stripeIndexes.cardinality());
+        try {
+            for (int i = stripeIndexes.nextSetBit(0); i >= 0; i = stripeIndexes.nextSetBit(i + 1)) {
+                stripes[i].lock();
+                locks.add(stripes[i]);
+            }
+        } catch (final RuntimeException e) {
+            unlockAll(locks);
+            throw e;
+        }
+        return locks;
+    }
+
+    /**
+     * Releases locks taken with lockAll in reverse order
+     */
+    public static void unlockAll(final List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private int stripeIndex(final int id) {
+        // Spread sequential ids over the stripes
+        final int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
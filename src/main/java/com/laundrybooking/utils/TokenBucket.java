@@ -0,0 +1,62 @@
+package com.laundrybooking.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free token bucket holding up to burst tokens, refilled at ratePerSecond. The bucket is kept as the single time at which it
+ * is full again, so taking a token is one compare and set, and an idle bucket needs no refill.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+
+    private final long burstNanos;
+
+    // Time at which the bucket is full again, in System.nanoTime. Taking a token pushes it one token later.
+    private final AtomicLong fullAtNanos;
+
+    public TokenBucket(final double ratePerSecond, final int burst) {
+        this(ratePerSecond, burst, System.nanoTime());
+    }
+
+    TokenBucket(final double ratePerSecond, final int burst, final long nowNanos) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Token bucket rate and burst should be positive");
+        }
+        nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        burstNanos = nanosPerToken * burst;
+        fullAtNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if there is one, never waits
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * Tells whether the bucket holds all its tokens, in which case it is the same as a new bucket
+     */
+    public boolean isFull() {
+        return isFull(System.nanoTime());
+    }
+
+    boolean isFull(final long nowNanos) {
+        return fullAtNanos.get() - nowNanos <= 0;
+    }
+
+    boolean tryAcquire(final long nowNanos) {
+        while (true) {
+            final long fullAt = fullAtNanos.get();
+            final long nextFullAt = (fullAt - nowNanos < 0 ? nowNanos : fullAt) + nanosPerToken;
+            if (nextFullAt - nowNanos > burstNanos) {
+                return false;
+            }
+            if (fullAtNanos.compareAndSet(fullAt, nextFullAt)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.laundrybooking;
+
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static java.time.temporal.ChronoUnit.HOURS;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.time.Instant;
+
+/**
+ * Laundry rooms and bookings shared by the tests
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Laundry room open from 6 to 22, booking slots of 30 to 120 minutes up to 30 days ahead
+     */
+    public static LaundryRoom laundryRoom(final int id) {
+        return LaundryRoom.builder()
+                .id(id)
+                .name("Room " + id)
+                .startHour(6)
+                .endHour(22)
+                .minSlotLength(30)
+                .maxSlotLength(120)
+                .bookingWindow(30)
+                .build();
+    }
+
+    /**
+     * ACTIVE booking of one hour
+     */
+    public static Booking booking(final int houseId, final int laundryRoomId, final Instant start) {
+        return booking(houseId, laundryRoomId, start, start.plus(1, HOURS));
+    }
+
+    public static Booking booking(final int houseId, final int laundryRoomId, final Instant start, final Instant end) {
+        return Booking.builder()
+                .houseId(houseId)
+                .laundryRoomId(laundryRoomId)
+                .bookingStartTimeUTC(start)
+                .bookingEndTimeUTC(end)
+                .bookingStatus(ACTIVE)
+                .build();
+    }
+}
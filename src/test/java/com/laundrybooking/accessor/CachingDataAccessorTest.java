@@ -0,0 +1,107 @@
+package com.laundrybooking.accessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.laundrybooking.model.House;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CachingDataAccessorTest {
+
+    private CachingDataAccessor<House> cachingDataAccessor;
+
+    @Mock
+    private HouseDataAccessor houseDataAccessor;
+
+    @BeforeEach
+    public void setup() {
+        cachingDataAccessor = new CachingDataAccessor<>(houseDataAccessor, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void test_read_secondReadServedFromCache() {
+        // Arrange
+        final House house = House.builder().id(1).build();
+        when(houseDataAccessor.read("1")).thenReturn(house);
+
+        // Act
+        cachingDataAccessor.read("1");
+        final House actual = cachingDataAccessor.read("1");
+
+        // Assert
+        assertSame(house, actual);
+        verify(houseDataAccessor, times(1)).read("1");
+        assertEquals(1, cachingDataAccessor.getHitCount());
+        assertEquals(1, cachingDataAccessor.getMissCount());
+    }
+
+    @Test
+    public void test_read_missingObjectNotCached() {
+        // Arrange
+        when(houseDataAccessor.read("1")).thenReturn(null);
+
+        // Act
+        cachingDataAccessor.read("1");
+        final House actual = cachingDataAccessor.read("1");
+
+        // Assert
+        assertNull(actual);
+        verify(houseDataAccessor, times(2)).read("1");
+    }
+
+    @Test
+    public void test_read_leastRecentlyUsedEvicted() {
+        // Arrange
+        when(houseDataAccessor.read("1")).thenReturn(House.builder().id(1).build());
+        when(houseDataAccessor.read("2")).thenReturn(House.builder().id(2).build());
+
+        // Act
+        cachingDataAccessor.read("1");
+        cachingDataAccessor.read("2");
+        cachingDataAccessor.read("1");
+
+        // Assert
+        verify(houseDataAccessor, times(2)).read("1");
+        assertEquals(2, cachingDataAccessor.getEvictionCount());
+    }
+
+    @Test
+    public void test_update_invalidatesCache() {
+        // Arrange
+        when(houseDataAccessor.read("1")).thenReturn(House.builder().id(1).build());
+        cachingDataAccessor.read("1");
+
+        // Act
+        cachingDataAccessor.update();
+        cachingDataAccessor.read("1");
+
+        // Assert
+        verify(houseDataAccessor, times(2)).read("1");
+    }
+
+    @Test
+    public void test_read_expiredEntryReloaded() {
+        // Arrange
+        cachingDataAccessor = new CachingDataAccessor<>(houseDataAccessor, 10, 0, TimeUnit.NANOSECONDS);
+        when(houseDataAccessor.read("1")).thenReturn(House.builder().id(1).build());
+
+        // Act
+        cachingDataAccessor.read("1");
+        cachingDataAccessor.read("1");
+
+        // Assert
+        verify(houseDataAccessor, times(2)).read("1");
+    }
+}
@@ -0,0 +1,117 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.TestFixtures.booking;
+import static com.laundrybooking.accessor.ExpiringBookingDataAccessor.SWEEP_BATCH_SIZE;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.CANCELLED;
+import static com.laundrybooking.model.BookingStatus.COMPLETED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.laundrybooking.events.BookingEventBus;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEvent;
+import com.laundrybooking.model.BookingEventType;
+import com.laundrybooking.model.House;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ExpiringBookingDataAccessorTest {
+
+    private final Instant now = Instant.now();
+
+    @Test
+    public void test_sweep_completesEndedBookingsOnly() {
+        // Arrange
+        final ExpiringBookingDataAccessor bookingDataAccessor = new ExpiringBookingDataAccessor(new InMemoryBookingDataAccessor());
+        final Booking ended = booking(1, 1, now.minus(2, HOURS), now.minus(1, HOURS));
+        final Booking cancelled = booking(2, 1, now.minus(1, HOURS), now.minus(30, MINUTES));
+        final Booking running = booking(3, 1, now.minus(10, MINUTES), now.plus(1, HOURS));
+        bookingDataAccessor.create(ended);
+        bookingDataAccessor.create(cancelled);
+        bookingDataAccessor.create(running);
+        bookingDataAccessor.update(cancelled.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+
+        // Act
+        final int completed = bookingDataAccessor.sweep();
+
+        // Assert
+        assertEquals(1, completed);
+        assertEquals(COMPLETED, ended.bookingStatus);
+        assertEquals(CANCELLED, cancelled.bookingStatus);
+        assertEquals(ACTIVE, running.bookingStatus);
+        assertNull(bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE));
+        assertEquals(1, bookingDataAccessor.read(now.minus(1, HOURS), now.plus(1, HOURS), ACTIVE).size());
+    }
+
+    @Test
+    public void test_sweep_publishesCompletions() throws Exception {
+        // Arrange
+        final BookingEventBus eventBus = new BookingEventBus();
+        final ExpiringBookingDataAccessor bookingDataAccessor = new ExpiringBookingDataAccessor(new InMemoryBookingDataAccessor(),
+                eventBus);
+        final Booking ended = booking(1, 1, now.minus(2, HOURS), now.minus(1, HOURS));
+        bookingDataAccessor.create(ended);
+        final CompletableFuture<BookingEvent> completion = new CompletableFuture<>();
+        eventBus.subscribe("test", completion::complete);
+
+        // Act
+        bookingDataAccessor.sweep();
+
+        // Assert
+        final BookingEvent event = completion.get(5, TimeUnit.SECONDS);
+        assertEquals(BookingEventType.COMPLETED, event.type);
+        assertEquals(ended.id, event.bookingId);
+    }
+
+    @Test
+    public void test_sweep_completesInBatches() {
+        // Arrange
+        final List<Integer> batchSizes = new ArrayList<>();
+        final ExpiringBookingDataAccessor bookingDataAccessor = new ExpiringBookingDataAccessor(new InMemoryBookingDataAccessor() {
+            @Override public List<Booking> completeAll(final List<String> ids) {
+                batchSizes.add(ids.size());
+                return super.completeAll(ids);
+            }
+        });
+        final int bookings = SWEEP_BATCH_SIZE + 10;
+        for (int i = 0; i < bookings; i++) {
+            final Instant start = now.minus(bookings - i + 1, HOURS);
+            bookingDataAccessor.create(booking(i, 1, start, start.plus(1, HOURS)));
+        }
+
+        // Act
+        final int completed = bookingDataAccessor.sweep();
+
+        // Assert
+        assertEquals(bookings, completed);
+        assertEquals(List.of(SWEEP_BATCH_SIZE, 10), batchSizes);
+        assertEquals(0, bookingDataAccessor.sweep());
+    }
+
+    @Test
+    public void test_start_schedulesStoredBookings() {
+        // Arrange
+        final InMemoryBookingDataAccessor store = new InMemoryBookingDataAccessor();
+        final Booking ended = booking(1, 1, now.minus(2, HOURS), now.minus(1, HOURS));
+        store.create(ended);
+
+        // Act
+        try (ExpiringBookingDataAccessor bookingDataAccessor = new ExpiringBookingDataAccessor(store)) {
+            bookingDataAccessor.start(1, TimeUnit.HOURS);
+            bookingDataAccessor.sweep();
+        }
+
+        // Assert
+        assertEquals(COMPLETED, ended.bookingStatus);
+    }
+}
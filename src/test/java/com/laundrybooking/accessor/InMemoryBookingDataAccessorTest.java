@@ -0,0 +1,246 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.TestFixtures.booking;
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.CANCELLED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.House;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InMemoryBookingDataAccessorTest {
+
+    private static final Instant BASE_TIME = Instant.parse("2030-01-01T08:00:00Z");
+
+    private InMemoryBookingDataAccessor bookingDataAccessor;
+
+    @BeforeEach
+    public void setup() {
+        bookingDataAccessor = new InMemoryBookingDataAccessor();
+    }
+
+    @Test
+    public void test_create_assignsId() {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+
+        // Act
+        bookingDataAccessor.create(booking);
+
+        // Assert
+        assertNotNull(booking.id);
+        assertSame(booking, bookingDataAccessor.read(booking.id));
+    }
+
+    @Test
+    public void test_create_overlappingActiveBooking_throws() {
+        // Arrange
+        bookingDataAccessor.create(booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES)));
+        final Booking overlapping = booking(2, 1, BASE_TIME.plus(30, MINUTES), BASE_TIME.plus(90, MINUTES));
+
+        // Act / Assert
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.create(overlapping));
+        assertNull(bookingDataAccessor.read(overlapping.id));
+    }
+
+    @Test
+    public void test_create_secondActiveBookingForHouse_throws() {
+        // Arrange
+        bookingDataAccessor.create(booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES)));
+        final Booking secondBooking = booking(1, 2, BASE_TIME.plus(1, DAYS), BASE_TIME.plus(1, DAYS).plus(60, MINUTES));
+
+        // Act / Assert
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.create(secondBooking));
+        assertNull(bookingDataAccessor.read(laundryRoom(2), secondBooking.bookingStartTimeUTC.toString(),
+                secondBooking.bookingEndTimeUTC.toString(), ACTIVE));
+    }
+
+    @Test
+    public void test_create_afterHouseBookingCancelled() {
+        // Arrange
+        final Booking cancelled = booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+        bookingDataAccessor.create(cancelled);
+        bookingDataAccessor.update(cancelled.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+        final Booking booking = booking(1, 2, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+
+        // Act
+        bookingDataAccessor.create(booking);
+
+        // Assert
+        assertSame(booking, bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE));
+        assertSame(cancelled, bookingDataAccessor.read(House.builder().id(1).build(), CANCELLED));
+    }
+
+    @Test
+    public void test_readLaundryRoomSlot_overlappingBooking() {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+        bookingDataAccessor.create(booking);
+        bookingDataAccessor.create(booking(2, 1, BASE_TIME.plus(2, HOURS), BASE_TIME.plus(3, HOURS)));
+
+        // Act
+        final Booking actual = bookingDataAccessor.read(laundryRoom(1), BASE_TIME.minus(30, MINUTES).toString(),
+                BASE_TIME.plus(1, MINUTES).toString(), ACTIVE);
+
+        // Assert
+        assertSame(booking, actual);
+    }
+
+    @Test
+    public void test_readLaundryRoomSlot_adjacentSlotsAndOtherRooms_free() {
+        // Arrange
+        bookingDataAccessor.create(booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES)));
+        bookingDataAccessor.create(booking(2, 1, BASE_TIME.plus(2, HOURS), BASE_TIME.plus(3, HOURS)));
+        bookingDataAccessor.create(booking(3, 2, BASE_TIME.plus(60, MINUTES), BASE_TIME.plus(2, HOURS)));
+
+        // Act
+        final Booking actual = bookingDataAccessor.read(laundryRoom(1), BASE_TIME.plus(60, MINUTES).toString(),
+                BASE_TIME.plus(2, HOURS).toString(), ACTIVE);
+
+        // Assert
+        assertNull(actual);
+    }
+
+    @Test
+    public void test_update_cancelledBookingFreesSlot() {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+        bookingDataAccessor.create(booking);
+
+        // Act
+        bookingDataAccessor.update(booking.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+
+        // Assert
+        assertEquals(CANCELLED, booking.bookingStatus);
+        assertNull(bookingDataAccessor.read(laundryRoom(1), BASE_TIME.toString(), BASE_TIME.plus(60, MINUTES).toString(), ACTIVE));
+        assertNull(bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE));
+        assertSame(booking, bookingDataAccessor.read(laundryRoom(1), BASE_TIME.toString(), BASE_TIME.plus(60, MINUTES).toString(), CANCELLED));
+    }
+
+    @Test
+    public void test_update_cancelledBookingSharingMinuteWithNeighbour_neighbourStillBooked() {
+        // Arrange
+        final Instant sharedMinute = BASE_TIME.plusSeconds(30);
+        final Booking cancelled = booking(1, 1, BASE_TIME.minus(60, MINUTES), sharedMinute);
+        final Booking neighbour = booking(2, 1, sharedMinute, BASE_TIME.plus(60, MINUTES));
+        bookingDataAccessor.create(cancelled);
+        bookingDataAccessor.create(neighbour);
+
+        // Act
+        bookingDataAccessor.update(cancelled.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+
+        // Assert
+        assertSame(neighbour, bookingDataAccessor.read(laundryRoom(1), BASE_TIME.toString(), BASE_TIME.plusSeconds(45).toString(), ACTIVE));
+        assertNull(bookingDataAccessor.read(laundryRoom(1), BASE_TIME.minus(60, MINUTES).toString(), sharedMinute.toString(), ACTIVE));
+    }
+
+    @Test
+    public void test_update_unsupportedField_throws() {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+        bookingDataAccessor.create(booking);
+
+        // Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> bookingDataAccessor.update(booking.id, "houseId", "2"));
+    }
+
+    @Test
+    public void test_readByIdAndHouse() {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+        bookingDataAccessor.create(booking);
+
+        // Act / Assert
+        assertSame(booking, bookingDataAccessor.read(booking.id, "1", ACTIVE));
+        assertNull(bookingDataAccessor.read(booking.id, "2", ACTIVE));
+        assertNull(bookingDataAccessor.read(booking.id, "1", CANCELLED));
+        assertSame(booking, bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE));
+    }
+
+    @Test
+    public void test_readTimeWindow_returnsOverlappingActiveBookings() {
+        // Arrange
+        bookingDataAccessor.create(booking(1, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES)));
+        bookingDataAccessor.create(booking(2, 2, BASE_TIME.plus(30, MINUTES), BASE_TIME.plus(90, MINUTES)));
+        bookingDataAccessor.create(booking(3, 1, BASE_TIME.plus(3, DAYS), BASE_TIME.plus(3, DAYS).plus(1, HOURS)));
+
+        // Act
+        final List<Booking> actual = bookingDataAccessor.read(BASE_TIME.plus(45, MINUTES), BASE_TIME.plus(1, DAYS), ACTIVE);
+
+        // Assert
+        assertEquals(2, actual.size());
+    }
+
+    @Test
+    public void test_query_active_mergesRoomsInOrderAndResumesAfterCursor() {
+        // Arrange
+        final Booking roomTwoFirst = booking(1, 2, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+        final Booking roomOneFirst = booking(2, 1, BASE_TIME, BASE_TIME.plus(60, MINUTES));
+        final Booking roomOneSecond = booking(3, 1, BASE_TIME.plus(2, HOURS), BASE_TIME.plus(3, HOURS));
+        final Booking outsideWindow = booking(4, 3, BASE_TIME.plus(2, DAYS), BASE_TIME.plus(2, DAYS).plus(60, MINUTES));
+        bookingDataAccessor.create(roomTwoFirst);
+        bookingDataAccessor.create(roomOneFirst);
+        bookingDataAccessor.create(roomOneSecond);
+        bookingDataAccessor.create(outsideWindow);
+        final BookingQuery.BookingQueryBuilder bookingQuery = BookingQuery.builder()
+                .startTime(BASE_TIME.plus(30, MINUTES))
+                .endTime(BASE_TIME.plus(1, DAYS))
+                .bookingStatus(ACTIVE);
+
+        // Act
+        final List<Booking> all = toList(bookingDataAccessor.query(bookingQuery.build()));
+        final List<Booking> afterCursor = toList(bookingDataAccessor.query(bookingQuery
+                .afterStartTime(BASE_TIME)
+                .afterLaundryRoomId(1)
+                .build()));
+        final List<Booking> roomOne = toList(bookingDataAccessor.query(bookingQuery.laundryRoomId(1).build()));
+
+        // Assert
+        assertEquals(Arrays.asList(roomOneFirst, roomTwoFirst, roomOneSecond), all);
+        assertEquals(Arrays.asList(roomTwoFirst, roomOneSecond), afterCursor);
+        assertEquals(Arrays.asList(roomOneSecond), roomOne);
+    }
+
+    @Test
+    public void test_findFreeSlot_skipsBookedAndTooShortGaps() {
+        // Arrange
+        bookingDataAccessor.create(booking(1, 1, BASE_TIME.plus(2, HOURS), BASE_TIME.plus(3, HOURS)));
+        bookingDataAccessor.create(booking(2, 1, BASE_TIME.plus(210, MINUTES), BASE_TIME.plus(4, HOURS)));
+        bookingDataAccessor.create(booking(3, 2, BASE_TIME.plus(4, HOURS), BASE_TIME.plus(5, HOURS)));
+
+        // Act
+        final Instant halfHourSlot = bookingDataAccessor.findFreeSlot(laundryRoom(1), BASE_TIME.plus(2, HOURS), BASE_TIME.plus(6, HOURS), 30);
+        final Instant hourSlot = bookingDataAccessor.findFreeSlot(laundryRoom(1), BASE_TIME.plus(2, HOURS), BASE_TIME.plus(6, HOURS), 60);
+        final Instant noSlot = bookingDataAccessor.findFreeSlot(laundryRoom(1), BASE_TIME.plus(2, HOURS), BASE_TIME.plus(4, HOURS), 60);
+
+        // Assert
+        assertEquals(BASE_TIME.plus(3, HOURS), halfHourSlot);
+        assertEquals(BASE_TIME.plus(4, HOURS), hourSlot);
+        assertNull(noSlot);
+    }
+
+    private static List<Booking> toList(final Iterator<Booking> bookings) {
+        final List<Booking> list = new ArrayList<>();
+        bookings.forEachRemaining(list::add);
+        return list;
+    }
+}
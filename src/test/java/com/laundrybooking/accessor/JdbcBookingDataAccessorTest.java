@@ -0,0 +1,238 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.TestFixtures.booking;
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.CANCELLED;
+import static com.laundrybooking.model.BookingStatus.COMPLETED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.laundrybooking.handlers.BookingHandler;
+import com.laundrybooking.handlers.BookingValidator;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.model.Response;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JdbcBookingDataAccessorTest {
+
+    private static final Instant BASE_TIME = Instant.parse("2030-01-01T08:00:00.123456789Z");
+
+    private static final int HOUSES = 300;
+
+    private static final int LAUNDRY_ROOMS = 3;
+
+    private JdbcConnectionPool connectionPool;
+
+    private JdbcHouseDataAccessor houseDataAccessor;
+
+    private JdbcLaundryRoomDataAccessor laundryRoomDataAccessor;
+
+    private JdbcBookingDataAccessor bookingDataAccessor;
+
+    @BeforeEach
+    public void setup() {
+        // Each test gets its own database, kept while the pool holds a connection to it
+        connectionPool = new JdbcConnectionPool("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", 4);
+        JdbcSchema.create(connectionPool);
+        houseDataAccessor = new JdbcHouseDataAccessor(connectionPool);
+        laundryRoomDataAccessor = new JdbcLaundryRoomDataAccessor(connectionPool);
+        bookingDataAccessor = new JdbcBookingDataAccessor(connectionPool);
+        for (int houseId = 1; houseId <= HOUSES; houseId++) {
+            houseDataAccessor.create(House.builder().id(houseId).city("Stockholm").build());
+        }
+        for (int laundryRoomId = 1; laundryRoomId <= LAUNDRY_ROOMS; laundryRoomId++) {
+            laundryRoomDataAccessor.create(laundryRoom(laundryRoomId));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionPool.close();
+    }
+
+    @Test
+    public void test_create_bookingReadBackExactly() {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME);
+
+        // Act
+        bookingDataAccessor.create(booking);
+
+        // Assert
+        final Booking byId = bookingDataAccessor.read(booking.id);
+        assertEquals(BASE_TIME, byId.bookingStartTimeUTC);
+        assertEquals(BASE_TIME.plus(1, HOURS), byId.bookingEndTimeUTC);
+        assertEquals(ACTIVE, byId.bookingStatus);
+        assertEquals(booking.id, bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE).id);
+        assertEquals(booking.id, bookingDataAccessor.read(booking.id, "1", ACTIVE).id);
+        assertNull(bookingDataAccessor.read(booking.id, "2", ACTIVE));
+        assertEquals("Stockholm", houseDataAccessor.read("1").city);
+        assertEquals(HOUSES, houseDataAccessor.readAll().size());
+    }
+
+    @Test
+    public void test_readOverlapping_activeBookings_findsOnlyOverlappingOnes() {
+        // Arrange
+        final LaundryRoom laundryRoom = LaundryRoom.builder().id(1).build();
+        final Booking first = booking(1, 1, BASE_TIME);
+        final Booking second = booking(2, 1, BASE_TIME.plus(3, HOURS));
+        bookingDataAccessor.create(first);
+        bookingDataAccessor.create(second);
+
+        // Act / Assert
+        assertEquals(first.id, bookingDataAccessor.read(laundryRoom, BASE_TIME.plus(30, MINUTES), BASE_TIME.plus(2, HOURS), ACTIVE).id);
+        assertEquals(second.id, bookingDataAccessor.read(laundryRoom, BASE_TIME.plus(2, HOURS), BASE_TIME.plus(4, HOURS), ACTIVE).id);
+        assertNull(bookingDataAccessor.read(laundryRoom, BASE_TIME.plus(1, HOURS), BASE_TIME.plus(3, HOURS), ACTIVE));
+        assertNull(bookingDataAccessor.read(LaundryRoom.builder().id(2).build(), BASE_TIME, BASE_TIME.plus(1, HOURS), ACTIVE));
+    }
+
+    @Test
+    public void test_create_conflictingActiveBookings_throwAndStoreNothing() {
+        // Arrange
+        bookingDataAccessor.create(booking(1, 1, BASE_TIME));
+        final Booking sameHouse = booking(1, 2, BASE_TIME.plus(1, DAYS));
+        final Booking sameSlot = booking(2, 1, BASE_TIME.plus(30, MINUTES));
+
+        // Act / Assert
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.create(sameHouse));
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.create(sameSlot));
+        assertNull(bookingDataAccessor.read(sameHouse.id));
+        assertNull(bookingDataAccessor.read(sameSlot.id));
+        assertThrows(IllegalArgumentException.class, () -> bookingDataAccessor.create(booking(HOUSES + 1, 1, BASE_TIME.plus(1, DAYS))));
+    }
+
+    @Test
+    public void test_createAll_laterBookingConflicts_noneStored() {
+        // Arrange
+        final Booking first = booking(1, 1, BASE_TIME);
+        final Booking conflicting = booking(2, 1, BASE_TIME.plus(30, MINUTES));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.createAll(Arrays.asList(first, conflicting)));
+
+        // Assert
+        assertNull(bookingDataAccessor.read(first.id));
+        assertEquals(1, connectionPool.getIdleCount());
+    }
+
+    @Test
+    public void test_update_cancelledAndReactivated_checkedLikeCreate() {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME);
+        bookingDataAccessor.create(booking);
+        bookingDataAccessor.update(booking.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+        bookingDataAccessor.create(booking(2, 1, BASE_TIME));
+
+        // Act / Assert
+        assertEquals(CANCELLED, bookingDataAccessor.read(booking.id).bookingStatus);
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.update(booking.id, BOOKING_STATUS_KEY, ACTIVE.toString()));
+        assertThrows(IllegalArgumentException.class, () -> bookingDataAccessor.update(booking.id, "houseId", "2"));
+        assertThrows(IllegalArgumentException.class, () -> bookingDataAccessor.update("unknown", BOOKING_STATUS_KEY, CANCELLED.toString()));
+    }
+
+    @Test
+    public void test_completeAll_onlyActiveBookingsCompleted() {
+        // Arrange
+        final Booking active = booking(1, 1, BASE_TIME);
+        final Booking cancelled = booking(2, 1, BASE_TIME.plus(2, HOURS));
+        bookingDataAccessor.create(active);
+        bookingDataAccessor.create(cancelled);
+        bookingDataAccessor.update(cancelled.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+
+        // Act
+        final List<Booking> completed = bookingDataAccessor.completeAll(Arrays.asList(active.id, cancelled.id, "unknown"));
+
+        // Assert
+        assertEquals(1, completed.size());
+        assertEquals(active.id, completed.get(0).id);
+        assertEquals(COMPLETED, bookingDataAccessor.read(active.id).bookingStatus);
+        assertEquals(CANCELLED, bookingDataAccessor.read(cancelled.id).bookingStatus);
+        assertEquals(1, bookingDataAccessor.read(Instant.MIN, Instant.MAX, COMPLETED).size());
+    }
+
+    @Test
+    public void test_query_morePagesThanOne_allBookingsInQueryOrder() {
+        // Arrange
+        final List<Booking> bookings = new ArrayList<>();
+        for (int houseId = 1; houseId <= HOUSES; houseId++) {
+            // Rooms share start times, so the pages break on bookings of the same start
+            bookings.add(booking(houseId, (houseId % LAUNDRY_ROOMS) + 1, BASE_TIME.plus((houseId - 1) / LAUNDRY_ROOMS, HOURS)));
+        }
+        bookingDataAccessor.createAll(bookings);
+        bookings.sort(BookingDataAccessor.QUERY_ORDER);
+
+        // Act
+        final Iterator<Booking> results = bookingDataAccessor.query(BookingQuery.builder().startTime(Instant.MIN).endTime(Instant.MAX)
+                .bookingStatus(ACTIVE).build());
+
+        // Assert
+        assertTrue(HOUSES > JdbcBookingDataAccessor.QUERY_PAGE_SIZE);
+        for (final Booking booking : bookings) {
+            assertEquals(booking.id, results.next().id);
+        }
+        assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void test_book_handlersSharingDatabase_slotBookedOnce() throws Exception {
+        // Arrange
+        final int handlers = 8;
+        final BookingValidator bookingValidator = mock(BookingValidator.class);
+        final Instant start = Instant.now().plus(1, DAYS);
+        final List<Callable<Response>> requests = new ArrayList<>();
+        for (int i = 1; i <= handlers; i++) {
+            // A handler with locks of its own per request, like booking servers in different processes
+            final BookingHandler bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor,
+                    bookingValidator);
+            final String houseId = Integer.toString(i);
+            requests.add(() -> bookingHandler.book("1", houseId, start.toString(), start.plus(1, HOURS).toString()));
+        }
+        final ExecutorService executorService = Executors.newFixedThreadPool(handlers);
+
+        // Act
+        int successfulBookings = 0;
+        try {
+            for (final Future<Response> response : executorService.invokeAll(requests)) {
+                if (response.get().getResponseCode() == 200) {
+                    successfulBookings++;
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertEquals(1, successfulBookings);
+        assertNotNull(bookingDataAccessor.read(LaundryRoom.builder().id(1).build(), start, start.plus(1, HOURS), ACTIVE));
+        assertEquals(1, bookingDataAccessor.read(Instant.MIN, Instant.MAX, ACTIVE).size());
+    }
+}
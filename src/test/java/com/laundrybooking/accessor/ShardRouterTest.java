@@ -0,0 +1,68 @@
+package com.laundrybooking.accessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ShardRouterTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    public void test_shardFor_independentOfShardOrder() {
+        // Arrange
+        final Map<String, String> shards = shards(3);
+        final Map<String, String> reversedShards = new LinkedHashMap<>();
+        reversedShards.put("shard-2", "shard-2");
+        reversedShards.put("shard-1", "shard-1");
+        reversedShards.put("shard-0", "shard-0");
+
+        // Act
+        final ShardRouter<String> shardRouter = new ShardRouter<>(shards, 64);
+        final ShardRouter<String> reversedShardRouter = new ShardRouter<>(reversedShards, 64);
+
+        // Assert
+        for (int key = 0; key < KEYS; key++) {
+            assertEquals(shardRouter.shardFor(key), reversedShardRouter.shardFor(key));
+        }
+    }
+
+    @Test
+    public void test_shardFor_addedShardOnlyTakesKeys() {
+        // Arrange
+        final ShardRouter<String> shardRouter = new ShardRouter<>(shards(4), 64);
+        final ShardRouter<String> grownShardRouter = new ShardRouter<>(shards(5), 64);
+        final Map<String, Integer> keysByShard = new HashMap<>();
+        int movedKeys = 0;
+
+        // Act
+        for (int key = 0; key < KEYS; key++) {
+            final String shard = grownShardRouter.shardFor(key);
+            keysByShard.merge(shard, 1, Integer::sum);
+            if (!shard.equals(shardRouter.shardFor(key))) {
+                assertEquals("shard-4", shard);
+                movedKeys++;
+            }
+        }
+
+        // Assert
+        // About a fifth of the keys move, all of them to the new shard, and every shard gets a fair share
+        assertTrue(movedKeys > KEYS / 10 && movedKeys < KEYS * 3 / 10, "Moved " + movedKeys);
+        for (final int keys : keysByShard.values()) {
+            assertTrue(keys > KEYS / 10 && keys < KEYS * 3 / 10, "Shard keys " + keysByShard);
+        }
+    }
+
+    private static Map<String, String> shards(final int count) {
+        final Map<String, String> shards = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            shards.put("shard-" + i, "shard-" + i);
+        }
+        return shards;
+    }
+}
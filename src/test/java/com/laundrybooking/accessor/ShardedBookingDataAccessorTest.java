@@ -0,0 +1,196 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.TestFixtures.booking;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.CANCELLED;
+import static com.laundrybooking.model.BookingStatus.COMPLETED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
+import com.laundrybooking.model.House;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ShardedBookingDataAccessorTest {
+
+    private static final Instant BASE_TIME = Instant.parse("2030-01-01T08:00:00Z");
+
+    private ShardRouter<BookingShard> shardRouter;
+
+    private ShardedBookingDataAccessor bookingDataAccessor;
+
+    @BeforeEach
+    public void setup() {
+        final Map<String, BookingShard> shards = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            shards.put("shard-" + i, BookingShard.inMemory("shard-" + i));
+        }
+        shardRouter = new ShardRouter<>(shards, 64);
+        bookingDataAccessor = new ShardedBookingDataAccessor(shardRouter, Runnable::run);
+    }
+
+    @Test
+    public void test_create_storesOnLaundryRoomShard() {
+        // Arrange
+        final int laundryRoomId = 7;
+        final Booking booking = booking(1, laundryRoomId, BASE_TIME);
+
+        // Act
+        bookingDataAccessor.create(booking);
+
+        // Assert
+        assertSame(booking, shardRouter.shardFor(laundryRoomId).bookingDataAccessor.read(booking.id));
+        assertSame(booking, bookingDataAccessor.read(booking.id));
+        assertEquals(booking.id, bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE).id);
+    }
+
+    @Test
+    public void test_create_activeBookingOfHouseOnOtherShard_throws() {
+        // Arrange
+        final int[] laundryRoomIds = laundryRoomsOnDifferentShards();
+        bookingDataAccessor.create(booking(1, laundryRoomIds[0], BASE_TIME));
+        final Booking secondBooking = booking(1, laundryRoomIds[1], BASE_TIME.plus(1, DAYS));
+
+        // Act / Assert
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.create(secondBooking));
+        assertNull(bookingDataAccessor.read(secondBooking.id));
+    }
+
+    @Test
+    public void test_create_slotConflict_releasesHouseClaim() {
+        // Arrange
+        bookingDataAccessor.create(booking(1, 1, BASE_TIME));
+        final Booking overlapping = booking(2, 1, BASE_TIME.plus(30, MINUTES));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.create(overlapping));
+
+        // Assert
+        assertNull(bookingDataAccessor.read(House.builder().id(2).build(), ACTIVE));
+    }
+
+    @Test
+    public void test_update_cancelledBookingReleasesHouse() {
+        // Arrange
+        final int[] laundryRoomIds = laundryRoomsOnDifferentShards();
+        final Booking booking = booking(1, laundryRoomIds[0], BASE_TIME);
+        bookingDataAccessor.create(booking);
+
+        // Act
+        bookingDataAccessor.update(booking.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+        final Booking nextBooking = booking(1, laundryRoomIds[1], BASE_TIME.plus(1, DAYS));
+        bookingDataAccessor.create(nextBooking);
+
+        // Assert
+        assertEquals(CANCELLED, bookingDataAccessor.read(booking.id).bookingStatus);
+        assertEquals(nextBooking.id, bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE).id);
+    }
+
+    @Test
+    public void test_completeAll_releasesHouse() {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME);
+        bookingDataAccessor.create(booking);
+
+        // Act
+        final List<Booking> completed = bookingDataAccessor.completeAll(List.of(booking.id));
+
+        // Assert
+        assertEquals(List.of(booking), completed);
+        assertEquals(COMPLETED, booking.bookingStatus);
+        assertNull(bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE));
+    }
+
+    @Test
+    public void test_create_shardFailsAfterStoring_claimKept() {
+        // Arrange
+        final InMemoryBookingDataAccessor failingShard = new InMemoryBookingDataAccessor() {
+            @Override public void create(final Booking booking) {
+                super.create(booking);
+                throw new UncheckedIOException(new IOException("Timed out reading the response"));
+            }
+        };
+        final ShardedBookingDataAccessor singleShard = new ShardedBookingDataAccessor(new ShardRouter<>(
+                Map.of("shard", new BookingShard("shard", failingShard, new InMemoryHouseClaimDataAccessor())), 64), Runnable::run);
+        final Booking booking = booking(1, 1, BASE_TIME);
+
+        // Act
+        singleShard.create(booking);
+
+        // Assert
+        assertEquals(booking.id, singleShard.read(House.builder().id(1).build(), ACTIVE).id);
+        assertThrows(IllegalStateException.class, () -> singleShard.create(booking(1, 2, BASE_TIME.plus(1, DAYS))));
+        assertEquals(0, singleShard.checkClaims());
+        assertEquals(0, singleShard.checkClaims());
+    }
+
+    @Test
+    public void test_checkClaims_claimWithoutBooking_releasedOnSecondCheck() {
+        // Arrange
+        final Booking orphan = booking(1, 1, BASE_TIME);
+        orphan.id = "1" + ShardedBookingDataAccessor.ID_SEPARATOR + "orphan";
+        // As left by a router stopping between the claim and the create
+        shardRouter.shardFor(1).houseClaimDataAccessor.claim(orphan);
+        final Booking retry = booking(1, 1, BASE_TIME);
+
+        // Act
+        final int firstCheck = bookingDataAccessor.checkClaims();
+        assertThrows(IllegalStateException.class, () -> bookingDataAccessor.create(retry));
+        final int secondCheck = bookingDataAccessor.checkClaims();
+        bookingDataAccessor.create(booking(1, 1, BASE_TIME));
+
+        // Assert
+        assertEquals(0, firstCheck);
+        assertEquals(1, secondCheck);
+        assertEquals(0, bookingDataAccessor.checkClaims());
+    }
+
+    @Test
+    public void test_query_mergesShardsInQueryOrder() {
+        // Arrange
+        final List<Booking> expected = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            final Booking booking = booking(i, i % 6 + 1, BASE_TIME.plus(i % 4, HOURS));
+            bookingDataAccessor.create(booking);
+            expected.add(booking);
+        }
+        expected.sort(BookingDataAccessor.QUERY_ORDER);
+
+        // Act
+        final List<Booking> actual = new ArrayList<>();
+        bookingDataAccessor.query(BookingQuery.builder()
+                .startTime(BASE_TIME)
+                .endTime(BASE_TIME.plus(1, DAYS))
+                .bookingStatus(ACTIVE)
+                .build()).forEachRemaining(actual::add);
+
+        // Assert
+        assertEquals(expected, actual);
+        assertEquals(12, bookingDataAccessor.read(BASE_TIME, BASE_TIME.plus(1, DAYS), ACTIVE).size());
+    }
+
+    private int[] laundryRoomsOnDifferentShards() {
+        for (int laundryRoomId = 2; ; laundryRoomId++) {
+            if (shardRouter.shardFor(laundryRoomId) != shardRouter.shardFor(1)) {
+                return new int[] {1, laundryRoomId};
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.laundrybooking.accessor;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SlotOccupancyBitmapTest {
+
+    private static final Instant BASE_TIME = Instant.parse("2030-01-01T08:00:00Z");
+
+    private SlotOccupancyBitmap occupancy;
+
+    @BeforeEach
+    public void setup() {
+        occupancy = new SlotOccupancyBitmap();
+    }
+
+    @Test
+    public void test_isFree_markedSlot() {
+        // Arrange
+        occupancy.mark(BASE_TIME, BASE_TIME.plus(90, MINUTES));
+
+        // Act / Assert
+        assertFalse(occupancy.isFree(BASE_TIME.plus(89, MINUTES), BASE_TIME.plus(2, HOURS)));
+        assertFalse(occupancy.isFree(BASE_TIME.minus(1, HOURS), BASE_TIME.plusSeconds(1)));
+        assertTrue(occupancy.isFree(BASE_TIME.plus(90, MINUTES), BASE_TIME.plus(2, HOURS)));
+        assertTrue(occupancy.isFree(BASE_TIME.minus(1, HOURS), BASE_TIME));
+    }
+
+    @Test
+    public void test_isFree_partialMinutesAreOccupied() {
+        // Arrange
+        occupancy.mark(BASE_TIME.plusSeconds(10), BASE_TIME.plusSeconds(70));
+
+        // Act / Assert
+        assertFalse(occupancy.isFree(BASE_TIME, BASE_TIME.plusSeconds(5)));
+        assertFalse(occupancy.isFree(BASE_TIME.plusSeconds(110), BASE_TIME.plusSeconds(115)));
+        assertTrue(occupancy.isFree(BASE_TIME.plus(2, MINUTES), BASE_TIME.plus(3, MINUTES)));
+    }
+
+    @Test
+    public void test_isFree_slotAcrossMidnight() {
+        // Arrange
+        final Instant midnight = Instant.parse("2030-01-02T00:00:00Z");
+        occupancy.mark(midnight.minus(30, MINUTES), midnight.plus(30, MINUTES));
+
+        // Act / Assert
+        assertFalse(occupancy.isFree(midnight.plus(29, MINUTES), midnight.plus(40, MINUTES)));
+        assertFalse(occupancy.isFree(midnight.minus(40, MINUTES), midnight.minus(29, MINUTES)));
+        occupancy.clear(midnight.minus(30, MINUTES), midnight.plus(30, MINUTES));
+        assertTrue(occupancy.isFree(midnight.minus(1, HOURS), midnight.plus(1, HOURS)));
+    }
+
+    @Test
+    public void test_mark_collidingDays_ringGrows() {
+        // Arrange
+        final Instant farDay = BASE_TIME.plus(32, DAYS);
+        occupancy.mark(BASE_TIME, BASE_TIME.plus(1, HOURS));
+
+        // Act
+        occupancy.mark(farDay, farDay.plus(1, HOURS));
+
+        // Assert
+        assertFalse(occupancy.isFree(BASE_TIME, BASE_TIME.plus(1, HOURS)));
+        assertFalse(occupancy.isFree(farDay, farDay.plus(1, HOURS)));
+        assertTrue(occupancy.isFree(BASE_TIME.plus(64, DAYS), BASE_TIME.plus(64, DAYS).plus(1, HOURS)));
+    }
+
+    @Test
+    public void test_findFreeRun() {
+        // Arrange
+        final long fromMinute = SlotOccupancyBitmap.startMinute(BASE_TIME);
+        occupancy.mark(BASE_TIME, BASE_TIME.plus(60, MINUTES));
+        occupancy.mark(BASE_TIME.plus(90, MINUTES), BASE_TIME.plus(150, MINUTES));
+
+        // Act / Assert
+        assertEquals(fromMinute + 60, occupancy.findFreeRun(fromMinute, fromMinute + 300, 30));
+        assertEquals(fromMinute + 150, occupancy.findFreeRun(fromMinute, fromMinute + 300, 31));
+        assertEquals(-1, occupancy.findFreeRun(fromMinute, fromMinute + 160, 31));
+    }
+}
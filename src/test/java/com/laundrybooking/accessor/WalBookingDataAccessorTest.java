@@ -0,0 +1,301 @@
+package com.laundrybooking.accessor;
+
+import static com.laundrybooking.TestFixtures.booking;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.model.BookingStatus.CANCELLED;
+import static com.laundrybooking.model.BookingStatus.COMPLETED;
+import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WalBookingDataAccessorTest {
+
+    private static final Instant BASE_TIME = Instant.parse("2030-01-01T08:00:00.123456Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void test_reopen_bookingsReplayedFromLog() throws IOException {
+        // Arrange
+        final Booking active = booking(1, 1, BASE_TIME);
+        final Booking cancelled = booking(2, 1, BASE_TIME.plus(2, HOURS));
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            bookingDataAccessor.create(active);
+            bookingDataAccessor.create(cancelled);
+            bookingDataAccessor.update(cancelled.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+        }
+
+        // Act
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+
+            // Assert
+            final Booking replayed = bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE);
+            assertNotNull(replayed);
+            assertEquals(active.id, replayed.id);
+            assertEquals(BASE_TIME, replayed.bookingStartTimeUTC);
+            assertEquals(CANCELLED, bookingDataAccessor.read(cancelled.id).bookingStatus);
+            assertNull(bookingDataAccessor.read(House.builder().id(2).build(), ACTIVE));
+        }
+    }
+
+    @Test
+    public void test_completeAll_replayedAsCompleted() throws IOException {
+        // Arrange
+        final Booking ended = booking(1, 1, BASE_TIME);
+        final Booking cancelled = booking(2, 1, BASE_TIME.plus(2, HOURS));
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            bookingDataAccessor.create(ended);
+            bookingDataAccessor.create(cancelled);
+            bookingDataAccessor.update(cancelled.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+
+            // Act
+            final List<Booking> completed = bookingDataAccessor.completeAll(List.of(ended.id, cancelled.id));
+
+            // Assert
+            assertEquals(List.of(ended), completed);
+        }
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            assertEquals(COMPLETED, bookingDataAccessor.read(ended.id).bookingStatus);
+            assertEquals(CANCELLED, bookingDataAccessor.read(cancelled.id).bookingStatus);
+            assertNull(bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE));
+        }
+    }
+
+    @Test
+    public void test_reopen_tornTailDiscarded() throws IOException {
+        // Arrange
+        final Booking booking = booking(1, 1, BASE_TIME);
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            bookingDataAccessor.create(booking);
+        }
+        final Path logFile = tempDir.resolve(String.format("bookings-%020d.wal", 0));
+        final long validLength = Files.size(logFile);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 42, 1, 2}));
+        }
+
+        // Act
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            final Booking secondBooking = booking(2, 2, BASE_TIME);
+            bookingDataAccessor.create(secondBooking);
+        }
+
+        // Assert
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            assertTrue(Files.size(logFile) > validLength);
+            assertNotNull(bookingDataAccessor.read(booking.id));
+            assertNotNull(bookingDataAccessor.read(House.builder().id(2).build(), ACTIVE));
+        }
+    }
+
+    @Test
+    public void test_reopen_corruptRecordBeforeTail_failsNamingFileAndOffset() throws IOException {
+        // Arrange
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            bookingDataAccessor.create(booking(1, 1, BASE_TIME));
+            bookingDataAccessor.create(booking(2, 2, BASE_TIME));
+        }
+        final Path logFile = tempDir.resolve(String.format("bookings-%020d.wal", 0));
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Flips the record type byte of the first record
+            channel.write(ByteBuffer.wrap(new byte[] {9}), 8);
+        }
+
+        // Act
+        final IOException exception = assertThrows(IOException.class, () -> new WalBookingDataAccessor(tempDir));
+
+        // Assert
+        assertTrue(exception.getMessage().contains(logFile.getFileName().toString()));
+        assertTrue(exception.getMessage().contains("offset 0"));
+    }
+
+    @Test
+    public void test_reopen_duplicateCreateRecord_ignored() throws IOException {
+        // Arrange
+        final Booking cancelled = booking(1, 1, BASE_TIME);
+        final Booking active = booking(1, 1, BASE_TIME.plus(2, HOURS));
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            bookingDataAccessor.create(cancelled);
+            bookingDataAccessor.update(cancelled.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+            bookingDataAccessor.create(active);
+        }
+        final Path logFile = tempDir.resolve(String.format("bookings-%020d.wal", 0));
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 0);
+            final ByteBuffer firstRecord = ByteBuffer.allocate(Integer.BYTES * 2 + length.flip().getInt());
+            channel.read(firstRecord, 0);
+            channel.write(firstRecord.flip(), channel.size());
+        }
+
+        // Act
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+
+            // Assert
+            assertEquals(CANCELLED, bookingDataAccessor.read(cancelled.id).bookingStatus);
+            assertEquals(active.id, bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE).id);
+        }
+    }
+
+    @Test
+    public void test_append_groupCommitFails_groupFailedAndLaterAppendsCommitted() throws IOException {
+        // Arrange
+        final byte[] payload = new byte[3 << 20];
+        final List<CompletableFuture<Void>> group = new ArrayList<>();
+        try (BookingLog bookingLog = new BookingLog(tempDir)) {
+            // Queued before the log is open so that they are committed as one group, too large for one buffer
+            for (int i = 0; i < 1024; i++) {
+                group.add(bookingLog.append(payload));
+            }
+            bookingLog.open(0, record -> { });
+
+            // Act
+            final CompletableFuture<Void> later = bookingLog.append(new byte[] { 1 });
+
+            // Assert
+            for (final CompletableFuture<Void> append : group) {
+                assertThrows(IllegalStateException.class, () -> BookingLog.awaitDurable(append));
+            }
+            BookingLog.awaitDurable(later);
+        }
+        final List<ByteBuffer> records = new ArrayList<>();
+        try (BookingLog bookingLog = new BookingLog(tempDir)) {
+            bookingLog.open(0, records::add);
+        }
+        assertEquals(1, records.size());
+    }
+
+    @Test
+    public void test_create_concurrentCreatesShareSyncs() throws Exception {
+        // Arrange
+        final int bookings = 200;
+        final ExecutorService executorService = Executors.newFixedThreadPool(16);
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            // Act
+            final List<Future<?>> creates = new ArrayList<>();
+            for (int i = 0; i < bookings; i++) {
+                final int id = i;
+                creates.add(executorService.submit(() -> bookingDataAccessor.create(booking(id, id, BASE_TIME))));
+            }
+            for (final Future<?> create : creates) {
+                create.get();
+            }
+
+            // Assert
+            assertTrue(bookingDataAccessor.getSyncCount() <= bookings);
+        } finally {
+            executorService.shutdownNow();
+        }
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            assertEquals(bookings, bookingDataAccessor.read(BASE_TIME, BASE_TIME.plus(1, MINUTES), ACTIVE).size());
+            assertNotNull(bookingDataAccessor.read(LaundryRoom.builder().id(7).build(), BASE_TIME.toString(),
+                    BASE_TIME.plus(1, MINUTES).toString(), ACTIVE));
+        }
+    }
+
+    @Test
+    public void test_createAll_bookingsReplayedFromLog() throws IOException {
+        // Arrange
+        final List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bookings.add(booking(i, i, BASE_TIME));
+        }
+
+        // Act
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            bookingDataAccessor.createAll(bookings);
+        }
+
+        // Assert
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            assertEquals(bookings.size(), bookingDataAccessor.read(BASE_TIME, BASE_TIME.plus(1, MINUTES), ACTIVE).size());
+        }
+    }
+
+    @Test
+    public void test_snapshot_logBehindSnapshotDeleted() throws IOException {
+        // Arrange
+        final Booking active = booking(1, 1, BASE_TIME);
+        final Booking cancelled = booking(2, 1, BASE_TIME.plus(2, HOURS));
+        final Booking afterSnapshot = booking(3, 2, BASE_TIME);
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            bookingDataAccessor.create(active);
+            bookingDataAccessor.create(cancelled);
+            bookingDataAccessor.update(cancelled.id, BOOKING_STATUS_KEY, CANCELLED.toString());
+
+            // Act
+            bookingDataAccessor.snapshot();
+            bookingDataAccessor.create(afterSnapshot);
+        }
+
+        // Assert
+        assertFalse(Files.exists(tempDir.resolve(String.format("bookings-%020d.wal", 0))));
+        assertTrue(Files.exists(tempDir.resolve(String.format("bookings-%020d.snapshot", 1))));
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            final Booking replayed = bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE);
+            assertNotNull(replayed);
+            assertEquals(active.id, replayed.id);
+            assertEquals(BASE_TIME, replayed.bookingStartTimeUTC);
+            assertNull(bookingDataAccessor.read(cancelled.id));
+            assertNotNull(bookingDataAccessor.read(afterSnapshot.id));
+            assertNotNull(bookingDataAccessor.read(LaundryRoom.builder().id(2).build(), BASE_TIME.toString(),
+                    BASE_TIME.plus(1, MINUTES).toString(), ACTIVE));
+        }
+    }
+
+    @Test
+    public void test_snapshot_concurrentCreatesNotLost() throws Exception {
+        // Arrange
+        final int bookings = 200;
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            bookingDataAccessor.startSnapshots(1, TimeUnit.MILLISECONDS);
+
+            // Act
+            final List<Future<?>> creates = new ArrayList<>();
+            for (int i = 0; i < bookings; i++) {
+                final int id = i;
+                creates.add(executorService.submit(() -> bookingDataAccessor.create(booking(id, id, BASE_TIME))));
+            }
+            for (final Future<?> create : creates) {
+                create.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // Assert
+        try (WalBookingDataAccessor bookingDataAccessor = new WalBookingDataAccessor(tempDir)) {
+            assertEquals(bookings, bookingDataAccessor.read(BASE_TIME, BASE_TIME.plus(1, MINUTES), ACTIVE).size());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.laundrybooking.events;
+
+import static com.laundrybooking.model.BookingEventType.BOOKED;
+import static com.laundrybooking.model.BookingEventType.CANCELLED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class BookingEventBusTest {
+
+    @Test
+    public void test_publish_everySubscriptionGetsEventsInOrder() throws Exception {
+        // Arrange
+        final BookingEventBus eventBus = new BookingEventBus(4);
+        final List<BookingEvent> first = new CopyOnWriteArrayList<>();
+        final List<BookingEvent> second = new CopyOnWriteArrayList<>();
+        final CountDownLatch delivered = new CountDownLatch(20);
+        final BookingEventBus.Subscription firstSubscription = eventBus.subscribe("first", event -> {
+            first.add(event);
+            delivered.countDown();
+        });
+        final BookingEventBus.Subscription secondSubscription = eventBus.subscribe("second", event -> {
+            second.add(event);
+            delivered.countDown();
+        });
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            eventBus.publish(i % 2 == 0 ? BOOKED : CANCELLED, booking("booking-" + i));
+        }
+
+        // Assert
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, first.get(i).sequence);
+            assertEquals("booking-" + i, first.get(i).bookingId);
+            assertEquals(i % 2 == 0 ? BOOKED : CANCELLED, second.get(i).type);
+        }
+        firstSubscription.close();
+        secondSubscription.close();
+    }
+
+    @Test
+    public void test_publish_fullRing_waitsForSlowestSubscription() throws Exception {
+        // Arrange
+        final BookingEventBus eventBus = new BookingEventBus(2, 1, TimeUnit.MINUTES);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BookingEventBus.Subscription subscription = eventBus.subscribe("slow", event -> {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        eventBus.publish(BOOKED, booking("booking-0"));
+        eventBus.publish(BOOKED, booking("booking-1"));
+
+        // Act
+        final CompletableFuture<BookingEvent> blocked = CompletableFuture.supplyAsync(() -> eventBus.publish(BOOKED, booking("booking-2")));
+
+        // Assert
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+        release.countDown();
+        assertEquals(2, blocked.get(5, TimeUnit.SECONDS).sequence);
+        subscription.close();
+    }
+
+    @Test
+    public void test_publish_stalledSubscription_overrunAndEventsCountedAsDropped() throws Exception {
+        // Arrange
+        final int events = 50;
+        final BookingEventBus eventBus = new BookingEventBus(2, 10, TimeUnit.MILLISECONDS);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger delivered = new AtomicInteger();
+        final BookingEventBus.Subscription subscription = eventBus.subscribe("stalled", event -> {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.incrementAndGet();
+        });
+
+        // Act
+        final CompletableFuture<Void> publishing = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < events; i++) {
+                eventBus.publish(BOOKED, booking("booking-" + i));
+            }
+        });
+
+        // Assert
+        publishing.get(5, TimeUnit.SECONDS);
+        release.countDown();
+        final long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (delivered.get() + subscription.getDroppedCount() < events && System.nanoTime() < deadlineNanos) {
+            Thread.sleep(10);
+        }
+        assertEquals(events, delivered.get() + subscription.getDroppedCount());
+        assertTrue(subscription.getDroppedCount() > 0);
+        subscription.close();
+    }
+
+    @Test
+    public void test_publish_closedSubscription_doesNotHoldPublishers() {
+        // Arrange
+        final BookingEventBus eventBus = new BookingEventBus(2);
+        eventBus.subscribe("closed", event -> { }).close();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            eventBus.publish(BOOKED, booking("booking-" + i));
+        }
+
+        // Assert
+        assertEquals(9, eventBus.getSequence());
+    }
+
+    @Test
+    public void test_subscribe_whilePublishersLapRing_deliveryKeepsUp() throws Exception {
+        // Arrange
+        final BookingEventBus eventBus = new BookingEventBus(1);
+        final AtomicBoolean publishing = new AtomicBoolean(true);
+        final List<CompletableFuture<Void>> publishers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            publishers.add(CompletableFuture.runAsync(() -> {
+                while (publishing.get()) {
+                    eventBus.publish(BOOKED, booking("booking"));
+                }
+            }));
+        }
+
+        try {
+            // Act
+            for (int i = 0; i < 500; i++) {
+                // Alone on the bus, so publishers lap the ring freely until it is registered
+                final CountDownLatch delivered = new CountDownLatch(1);
+                try (BookingEventBus.Subscription subscription = eventBus.subscribe("subscriber-" + i, event -> delivered.countDown())) {
+
+                    // Assert
+                    assertTrue(delivered.await(5, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            publishing.set(false);
+        }
+        for (final CompletableFuture<Void> publisher : publishers) {
+            publisher.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Booking booking(final String id) {
+        return Booking.builder()
+                .id(id)
+                .houseId(1)
+                .laundryRoomId(1)
+                .bookingStartTimeUTC(Instant.parse("2030-01-01T08:00:00Z"))
+                .bookingEndTimeUTC(Instant.parse("2030-01-01T09:00:00Z"))
+                .build();
+    }
+}
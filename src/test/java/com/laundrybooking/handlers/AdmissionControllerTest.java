@@ -0,0 +1,128 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.handlers.AdmissionController.HOUSE_RATE_LIMITED;
+import static com.laundrybooking.handlers.AdmissionController.OVERLOADED;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_429;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.laundrybooking.accessor.BookingDataAccessor;
+import com.laundrybooking.accessor.HouseDataAccessor;
+import com.laundrybooking.accessor.LaundryRoomDataAccessor;
+import com.laundrybooking.metrics.BookingMetrics;
+import com.laundrybooking.metrics.RejectionReason;
+import com.laundrybooking.model.Response;
+import com.laundrybooking.utils.AdaptiveConcurrencyLimiter;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControllerTest {
+
+    private final AdmissionController admissionController = new AdmissionController(1, 1,
+            new AdaptiveConcurrencyLimiter(1, 1, 10, 1, TimeUnit.MINUTES));
+
+    @Mock
+    private LaundryRoomDataAccessor laundryRoomDataAccessor;
+
+    @Mock
+    private HouseDataAccessor houseDataAccessor;
+
+    @Mock
+    private BookingDataAccessor bookingDataAccessor;
+
+    @Mock
+    private BookingValidator bookingValidator;
+
+    @Test
+    public void test_admit_houseOverRate_rejected() {
+        // Arrange
+        admissionController.admit("1", this::booked);
+
+        // Act
+        final Response actual = admissionController.admit("1", this::booked);
+
+        // Assert
+        assertEquals(HTTP_429, actual.getResponseCode());
+        assertEquals(HOUSE_RATE_LIMITED, actual.getErrorMessage());
+        assertEquals(HTTP_200, admissionController.admit("2", this::booked).getResponseCode());
+    }
+
+    @Test
+    public void test_evictFullBuckets_bucketHoldingBackHouseKept() {
+        // Arrange
+        admissionController.admit("1", this::booked);
+
+        // Act
+        final int evicted = admissionController.evictFullBuckets();
+
+        // Assert
+        assertEquals(0, evicted);
+        assertEquals(HTTP_429, admissionController.admit("1", this::booked).getResponseCode());
+    }
+
+    @Test
+    public void test_evictFullBuckets_refilledBucketDropped() throws InterruptedException {
+        // Arrange
+        final AdmissionController admissionController = new AdmissionController(1000, 1,
+                new AdaptiveConcurrencyLimiter(1, 1, 10, 1, TimeUnit.MINUTES));
+        admissionController.admit("1", this::booked);
+        Thread.sleep(10);
+
+        // Act
+        final int evicted = admissionController.evictFullBuckets();
+
+        // Assert
+        assertEquals(1, evicted);
+        assertEquals(0, admissionController.evictFullBuckets());
+    }
+
+    @Test
+    public void test_admit_houseIdNotNumber_heldToConcurrencyLimit() {
+        // Act
+        final Response actual = admissionController.admit("1", () -> admissionController.admit("house", this::booked));
+
+        // Assert
+        assertEquals(HTTP_429, actual.getResponseCode());
+        assertEquals(OVERLOADED, actual.getErrorMessage());
+    }
+
+    @Test
+    public void test_admit_overConcurrencyLimit_rejected() {
+        // Act
+        final Response actual = admissionController.admit("1", () -> admissionController.admit("2", this::booked));
+
+        // Assert
+        assertEquals(HTTP_429, actual.getResponseCode());
+        assertEquals(OVERLOADED, actual.getErrorMessage());
+        assertEquals(0, admissionController.getConcurrencyLimiter().getInFlight());
+    }
+
+    @Test
+    public void test_book_rejectedBeforeAccessors() {
+        // Arrange
+        final BookingMetrics metrics = new BookingMetrics();
+        final BookingHandler bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor,
+                bookingValidator, metrics, new IdempotencyCache(), admissionController);
+        admissionController.admit("1", this::booked);
+
+        // Act
+        final Response actual = bookingHandler.book("1", "1", Instant.now().toString(), Instant.now().toString());
+
+        // Assert
+        assertEquals(HTTP_429, actual.getResponseCode());
+        assertEquals(1, metrics.snapshot().getRejectionCount(RejectionReason.HOUSE_RATE_LIMITED));
+        verifyNoInteractions(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor, bookingValidator);
+    }
+
+    private Response booked() {
+        return new Response("booked", null, HTTP_200);
+    }
+}
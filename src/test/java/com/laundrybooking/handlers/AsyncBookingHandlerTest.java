@@ -0,0 +1,279 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.handlers.AdmissionController.HOUSE_RATE_LIMITED;
+import static com.laundrybooking.handlers.BookingHandler.SLOT_ALREADY_BOOKED;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_429;
+import static com.laundrybooking.utils.Constants.HTTP_500;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.laundrybooking.accessor.AsyncBookingDataAccessor;
+import com.laundrybooking.accessor.DataAccessor;
+import com.laundrybooking.accessor.ExecutorAsyncDataAccessor;
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.metrics.BookingMetrics;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.model.Response;
+import com.laundrybooking.utils.AdaptiveConcurrencyLimiter;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncBookingHandlerTest {
+
+    private final ExecutorService accessorExecutor = Executors.newCachedThreadPool();
+
+    private final ExecutorService handlerExecutor = Executors.newCachedThreadPool();
+
+    private InMemoryHouseDataAccessor houseDataAccessor;
+
+    private InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor;
+
+    private Instant bookingStartTime;
+
+    @BeforeEach
+    public void setup() {
+        houseDataAccessor = new InMemoryHouseDataAccessor();
+        houseDataAccessor.create(House.builder().id(1).build());
+        houseDataAccessor.create(House.builder().id(2).build());
+        laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        laundryRoomDataAccessor.create(laundryRoom(1));
+        bookingStartTime = Instant.now().truncatedTo(DAYS).plus(1, DAYS).plus(10, HOURS);
+    }
+
+    @AfterEach
+    public void teardown() {
+        accessorExecutor.shutdownNow();
+        handlerExecutor.shutdownNow();
+    }
+
+    @Test
+    public void test_book_independentReadsInFlightTogether() {
+        // Arrange
+        // Each read of a pair only returns once the other read of the pair has started
+        final CountDownLatch houseAndRoomReads = new CountDownLatch(2);
+        final CountDownLatch conflictReads = new CountDownLatch(2);
+        final DataAccessor<House> gatedHouseDataAccessor = new GatedDataAccessor<>(houseDataAccessor, houseAndRoomReads);
+        final DataAccessor<LaundryRoom> gatedLaundryRoomDataAccessor = new GatedDataAccessor<>(laundryRoomDataAccessor,
+                houseAndRoomReads);
+        final InMemoryBookingDataAccessor bookingDataAccessor = new InMemoryBookingDataAccessor() {
+            @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+                await(conflictReads);
+                return super.read(house, bookingStatus);
+            }
+
+            @Override public Booking read(final LaundryRoom laundryRoom, final Instant bookingStartTimeUTC,
+                                          final Instant bookingEndTimeUTC, final BookingStatus bookingStatus) {
+                await(conflictReads);
+                return super.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC, bookingStatus);
+            }
+        };
+        final AsyncBookingHandler asyncBookingHandler = asyncBookingHandler(bookingDataAccessor, gatedLaundryRoomDataAccessor,
+                gatedHouseDataAccessor);
+
+        // Act
+        final Response actual = asyncBookingHandler.book("1", "1", bookingStartTime.toString(),
+                bookingStartTime.plus(1, HOURS).toString()).join();
+
+        // Assert
+        assertEquals(200, actual.getResponseCode());
+        assertEquals(1, bookingDataAccessor.read(bookingStartTime, bookingStartTime.plus(1, HOURS), BookingStatus.ACTIVE).size());
+    }
+
+    @Test
+    public void test_book_slotAlreadyBooked_errorResponse() {
+        // Arrange
+        final AsyncBookingHandler asyncBookingHandler = asyncBookingHandler(new InMemoryBookingDataAccessor(), laundryRoomDataAccessor,
+                houseDataAccessor);
+        asyncBookingHandler.book("1", "1", bookingStartTime.toString(), bookingStartTime.plus(1, HOURS).toString()).join();
+
+        // Act
+        final Response actual = asyncBookingHandler.book("1", "2", bookingStartTime.plus(30, MINUTES).toString(),
+                bookingStartTime.plus(2, HOURS).toString()).join();
+
+        // Assert
+        assertEquals(HTTP_400, actual.getResponseCode());
+        assertEquals(SLOT_ALREADY_BOOKED, actual.getErrorMessage());
+    }
+
+    @Test
+    public void test_book_readFailed_500Response() {
+        // Arrange
+        final InMemoryBookingDataAccessor bookingDataAccessor = new InMemoryBookingDataAccessor() {
+            @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+                throw new IllegalStateException("Store unavailable");
+            }
+        };
+        final AsyncBookingHandler asyncBookingHandler = asyncBookingHandler(bookingDataAccessor, laundryRoomDataAccessor,
+                houseDataAccessor);
+
+        // Act
+        final Response actual = asyncBookingHandler.book("1", "1", bookingStartTime.toString(),
+                bookingStartTime.plus(1, HOURS).toString()).join();
+
+        // Assert
+        assertEquals(HTTP_500, actual.getResponseCode());
+    }
+
+    @Test
+    public void test_book_conflictReadsInFlight_bookingLocksNotHeld() throws Exception {
+        // Arrange
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRead = new CountDownLatch(1);
+        final InMemoryBookingDataAccessor bookingDataAccessor = new InMemoryBookingDataAccessor() {
+            @Override public Booking read(final House house, final BookingStatus bookingStatus) {
+                if (house.id == 1) {
+                    readStarted.countDown();
+                    try {
+                        releaseRead.await(5, TimeUnit.SECONDS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.read(house, bookingStatus);
+            }
+        };
+        final BookingHandler bookingHandler = bookingHandler(bookingDataAccessor, null);
+        final AsyncBookingHandler asyncBookingHandler = asyncBookingHandler(bookingHandler, bookingDataAccessor);
+        final CompletableFuture<Response> asyncBooking = asyncBookingHandler.book("1", "1", bookingStartTime.toString(),
+                bookingStartTime.plus(1, HOURS).toString());
+        readStarted.await(5, TimeUnit.SECONDS);
+
+        // Act
+        final Response booked = CompletableFuture.supplyAsync(() -> bookingHandler.book("1", "2",
+                bookingStartTime.plus(2, HOURS).toString(), bookingStartTime.plus(3, HOURS).toString()), handlerExecutor)
+                .get(5, TimeUnit.SECONDS);
+        releaseRead.countDown();
+
+        // Assert
+        assertEquals(200, booked.getResponseCode());
+        assertEquals(200, asyncBooking.join().getResponseCode());
+        assertEquals(2, bookingDataAccessor.read(bookingStartTime, bookingStartTime.plus(3, HOURS), BookingStatus.ACTIVE).size());
+    }
+
+    @Test
+    public void test_book_sameIdempotencyKey_replayed() {
+        // Arrange
+        final InMemoryBookingDataAccessor bookingDataAccessor = new InMemoryBookingDataAccessor();
+        final BookingHandler bookingHandler = bookingHandler(bookingDataAccessor, null);
+        final AsyncBookingHandler asyncBookingHandler = asyncBookingHandler(bookingHandler, bookingDataAccessor);
+        final Response first = asyncBookingHandler.book("1", "1", bookingStartTime.toString(),
+                bookingStartTime.plus(1, HOURS).toString(), "key").join();
+
+        // Act
+        final Response actual = asyncBookingHandler.book("1", "1", bookingStartTime.toString(),
+                bookingStartTime.plus(1, HOURS).toString(), "key").join();
+
+        // Assert
+        assertEquals(200, actual.getResponseCode());
+        assertSame(first, actual);
+        assertEquals(1, bookingHandler.getIdempotencyCache().getReplayCount());
+    }
+
+    @Test
+    public void test_book_houseOverRate_rejectedByAdmissionControl() {
+        // Arrange
+        final InMemoryBookingDataAccessor bookingDataAccessor = new InMemoryBookingDataAccessor();
+        final AdmissionController admissionController = new AdmissionController(1, 1,
+                new AdaptiveConcurrencyLimiter(1, 1, 10, 1, TimeUnit.MINUTES));
+        final BookingHandler bookingHandler = bookingHandler(bookingDataAccessor, admissionController);
+        final AsyncBookingHandler asyncBookingHandler = asyncBookingHandler(bookingHandler, bookingDataAccessor);
+        asyncBookingHandler.book("1", "1", bookingStartTime.toString(), bookingStartTime.plus(1, HOURS).toString()).join();
+
+        // Act
+        final Response actual = asyncBookingHandler.book("1", "1", bookingStartTime.plus(2, HOURS).toString(),
+                bookingStartTime.plus(3, HOURS).toString()).join();
+
+        // Assert
+        assertEquals(HTTP_429, actual.getResponseCode());
+        assertEquals(HOUSE_RATE_LIMITED, actual.getErrorMessage());
+        assertEquals(0, admissionController.getConcurrencyLimiter().getInFlight());
+    }
+
+    private BookingHandler bookingHandler(final InMemoryBookingDataAccessor bookingDataAccessor,
+                                          final AdmissionController admissionController) {
+        return new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor,
+                new BookingValidator(laundryRoomDataAccessor, houseDataAccessor), new BookingMetrics(), new IdempotencyCache(),
+                admissionController);
+    }
+
+    private AsyncBookingHandler asyncBookingHandler(final BookingHandler bookingHandler,
+                                                    final InMemoryBookingDataAccessor bookingDataAccessor) {
+        return new AsyncBookingHandler(bookingHandler, new AsyncBookingDataAccessor(bookingDataAccessor, accessorExecutor),
+                new ExecutorAsyncDataAccessor<>(laundryRoomDataAccessor, accessorExecutor),
+                new ExecutorAsyncDataAccessor<>(houseDataAccessor, accessorExecutor),
+                new BookingValidator(laundryRoomDataAccessor, houseDataAccessor), handlerExecutor);
+    }
+
+    private AsyncBookingHandler asyncBookingHandler(final InMemoryBookingDataAccessor bookingDataAccessor,
+                                                    final DataAccessor<LaundryRoom> laundryRoomDataAccessor,
+                                                    final DataAccessor<House> houseDataAccessor) {
+        final BookingValidator bookingValidator = new BookingValidator(laundryRoomDataAccessor, houseDataAccessor);
+        final BookingHandler bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor,
+                bookingValidator);
+        return new AsyncBookingHandler(bookingHandler, new AsyncBookingDataAccessor(bookingDataAccessor, accessorExecutor),
+                new ExecutorAsyncDataAccessor<>(laundryRoomDataAccessor, accessorExecutor),
+                new ExecutorAsyncDataAccessor<>(houseDataAccessor, accessorExecutor), bookingValidator, handlerExecutor);
+    }
+
+    private static void await(final CountDownLatch reads) {
+        reads.countDown();
+        try {
+            if (!reads.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Reads were not in flight together");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Data accessor whose reads wait for the other reads sharing the latch
+     */
+    private static final class GatedDataAccessor<T> implements DataAccessor<T> {
+        private final DataAccessor<T> dataAccessor;
+
+        private final CountDownLatch reads;
+
+        private GatedDataAccessor(final DataAccessor<T> dataAccessor, final CountDownLatch reads) {
+            this.dataAccessor = dataAccessor;
+            this.reads = reads;
+        }
+
+        @Override public void create(final T object) {
+            dataAccessor.create(object);
+        }
+
+        @Override public T read(final String id) {
+            await(reads);
+            return dataAccessor.read(id);
+        }
+
+        @Override public void update() {
+            dataAccessor.update();
+        }
+
+        @Override public void delete() {
+            dataAccessor.delete();
+        }
+    }
+}
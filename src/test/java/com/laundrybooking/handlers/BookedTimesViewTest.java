@@ -0,0 +1,190 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.TestFixtures.booking;
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_304;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.metrics.BookingMetrics;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEventType;
+import com.laundrybooking.model.BookingStatus;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.Response;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class BookedTimesViewTest {
+
+    private final Instant now = Instant.now();
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    // Houses of the bookings made straight on the store, above the houses booking through the handler
+    private final AtomicInteger nextHouseId = new AtomicInteger(100);
+
+    private final InMemoryBookingDataAccessor bookingDataAccessor = new InMemoryBookingDataAccessor() {
+        @Override public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
+            reads.incrementAndGet();
+            return super.read(startTime, endTime, bookingStatus);
+        }
+    };
+
+    private final BookedTimesView bookedTimesView = new BookedTimesView(bookingDataAccessor, Duration.ofDays(30), new BookingMetrics());
+
+    @Test
+    public void test_read_unchanged_sameSnapshot() {
+        // Arrange
+        bookingDataAccessor.create(otherHouseBooking(1, now.plus(1, HOURS), now.plus(2, HOURS)));
+        final BookedTimesView.Snapshot first = bookedTimesView.read();
+
+        // Act
+        final BookedTimesView.Snapshot actual = bookedTimesView.read();
+
+        // Assert
+        assertSame(first, actual);
+        assertEquals(1, reads.get());
+        assertEquals(1, new Gson().fromJson(new String(actual.payload), List.class).size());
+    }
+
+    @Test
+    public void test_apply_changesPayloadWithoutReadingStore() {
+        // Arrange
+        final BookedTimesView.Snapshot first = bookedTimesView.read();
+        final Booking booking = otherHouseBooking(1, now.plus(1, HOURS), now.plus(2, HOURS));
+        bookingDataAccessor.create(booking);
+
+        // Act
+        bookedTimesView.apply(BookingEventType.BOOKED, booking);
+        final BookedTimesView.Snapshot booked = bookedTimesView.read();
+        bookedTimesView.apply(BookingEventType.CANCELLED, booking);
+        final BookedTimesView.Snapshot cancelled = bookedTimesView.read();
+
+        // Assert
+        assertEquals(1, reads.get());
+        assertNotEquals(first.etag, booked.etag);
+        assertEquals(1, new Gson().fromJson(new String(booked.payload), List.class).size());
+        assertEquals(0, new Gson().fromJson(new String(cancelled.payload), List.class).size());
+    }
+
+    @Test
+    public void test_read_validUntilNextBookingLeavesOrEntersWindow() {
+        // Arrange
+        final Instant firstEnd = now.plus(90, MINUTES);
+        final Instant laterStart = now.plus(30, DAYS).plus(2, HOURS);
+        final Booking booking = otherHouseBooking(1, now.plus(1, HOURS), firstEnd);
+        bookingDataAccessor.create(booking);
+        bookingDataAccessor.create(otherHouseBooking(1, laterStart, laterStart.plus(1, HOURS)));
+        bookingDataAccessor.create(otherHouseBooking(2, now.plus(1, DAYS), now.plus(1, DAYS).plus(1, HOURS)));
+
+        // Act
+        final BookedTimesView.Snapshot actual = bookedTimesView.read();
+
+        // Assert
+        assertEquals(firstEnd, actual.validUntil);
+        assertEquals(2, new Gson().fromJson(new String(actual.payload), List.class).size());
+        bookedTimesView.apply(BookingEventType.CANCELLED, booking);
+        assertEquals(laterStart.minus(30, DAYS), bookedTimesView.read().validUntil);
+    }
+
+    @Test
+    public void test_read_bookingOfOtherWriter_seenOnceStale() {
+        // Arrange
+        final BookedTimesView alwaysStale = new BookedTimesView(bookingDataAccessor, Duration.ofDays(30), Duration.ZERO,
+                new BookingMetrics());
+        final BookedTimesView.Snapshot first = alwaysStale.read();
+
+        // Act
+        bookingDataAccessor.create(otherHouseBooking(1, now.plus(1, HOURS), now.plus(2, HOURS)));
+        final BookedTimesView.Snapshot reloaded = alwaysStale.read();
+        final BookedTimesView.Snapshot unchanged = alwaysStale.read();
+
+        // Assert
+        assertEquals(3, reads.get());
+        assertNotEquals(first.etag, reloaded.etag);
+        assertEquals(reloaded.etag, unchanged.etag);
+        assertEquals(1, new Gson().fromJson(new String(reloaded.payload), List.class).size());
+    }
+
+    @Test
+    public void test_apply_whileReloading_doesNotWait() throws Exception {
+        // Arrange
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final InMemoryBookingDataAccessor slowStore = new InMemoryBookingDataAccessor() {
+            @Override public List<Booking> read(final Instant startTime, final Instant endTime, final BookingStatus bookingStatus) {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.read(startTime, endTime, bookingStatus);
+            }
+        };
+        final BookedTimesView slowView = new BookedTimesView(slowStore, Duration.ofDays(30), new BookingMetrics());
+        final CompletableFuture<BookedTimesView.Snapshot> firstRead = CompletableFuture.supplyAsync(slowView::read);
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        final Booking booking = otherHouseBooking(1, now.plus(1, HOURS), now.plus(2, HOURS));
+        slowStore.create(booking);
+
+        // Act
+        final CompletableFuture<Void> applied = CompletableFuture.runAsync(() -> slowView.apply(BookingEventType.BOOKED, booking));
+
+        // Assert
+        applied.get(5, TimeUnit.SECONDS);
+        assertFalse(firstRead.isDone());
+        release.countDown();
+        firstRead.get(5, TimeUnit.SECONDS);
+        assertEquals(1, new Gson().fromJson(new String(slowView.read().payload), List.class).size());
+    }
+
+    @Test
+    public void test_listBookedTimes_unchanged_notModified() {
+        // Arrange
+        final InMemoryHouseDataAccessor houseDataAccessor = new InMemoryHouseDataAccessor();
+        houseDataAccessor.create(House.builder().id(1).build());
+        final InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        laundryRoomDataAccessor.create(laundryRoom(1));
+        final BookingHandler bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor,
+                new BookingValidator(laundryRoomDataAccessor, houseDataAccessor));
+        final String etag = bookingHandler.listBookedTimes().getEtag();
+
+        // Act
+        final Response unchanged = bookingHandler.listBookedTimes(etag);
+        final Instant dayStart = now.truncatedTo(DAYS).plus(1, DAYS);
+        bookingHandler.book("1", "1", dayStart.plus(8, HOURS).toString(), dayStart.plus(9, HOURS).toString());
+        final Response changed = bookingHandler.listBookedTimes(etag);
+
+        // Assert
+        assertEquals(HTTP_304, unchanged.getResponseCode());
+        assertEquals(HTTP_200, changed.getResponseCode());
+        assertNotEquals(etag, changed.getEtag());
+        assertEquals(1, new Gson().fromJson(changed.getPayload(), List.class).size());
+        assertEquals(1, reads.get());
+    }
+
+    private Booking otherHouseBooking(final int laundryRoomId, final Instant start, final Instant end) {
+        return booking(nextHouseId.incrementAndGet(), laundryRoomId, start, end);
+    }
+}
@@ -0,0 +1,96 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.handlers.BookingValidator.SLOT_TOO_SMALL;
+import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_KEY;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_KEY;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.gson.Gson;
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.Response;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookingHandlerAvailabilityTest {
+
+    private final Gson gson = new Gson();
+
+    private final Instant dayStart = Instant.now().truncatedTo(DAYS).plus(1, DAYS);
+
+    private BookingHandler bookingHandler;
+
+    @BeforeEach
+    public void setup() {
+        final InMemoryHouseDataAccessor houseDataAccessor = new InMemoryHouseDataAccessor();
+        houseDataAccessor.create(House.builder().id(1).build());
+        houseDataAccessor.create(House.builder().id(2).build());
+        final InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        laundryRoomDataAccessor.create(laundryRoom(1));
+        laundryRoomDataAccessor.create(laundryRoom(2));
+        bookingHandler = new BookingHandler(new InMemoryBookingDataAccessor(), laundryRoomDataAccessor, houseDataAccessor,
+                new BookingValidator(laundryRoomDataAccessor, houseDataAccessor));
+    }
+
+    @Test
+    public void test_findAvailableSlots_skipsBookedSlots() {
+        // Arrange
+        book("1", "1", 8, 9);
+
+        // Act
+        final Response actual = bookingHandler.findAvailableSlots("1", dayStart.plus(8, HOURS).toString(),
+                dayStart.plus(11, HOURS).toString(), 60);
+
+        // Assert
+        assertEquals(HTTP_200, actual.getResponseCode());
+        final List<Map> slots = gson.fromJson(actual.getPayload(), List.class);
+        assertEquals(2, slots.size());
+        assertEquals(dayStart.plus(9, HOURS).toString(), slots.get(0).get(BOOKING_START_TIME_KEY));
+        assertEquals(dayStart.plus(10, HOURS).toString(), slots.get(1).get(BOOKING_START_TIME_KEY));
+    }
+
+    @Test
+    public void test_findNextAvailableSlot_earliestAcrossRooms() {
+        // Arrange
+        book("1", "1", 8, 10);
+        book("2", "2", 8, 9);
+
+        // Act
+        final Response actual = bookingHandler.findNextAvailableSlot(dayStart.plus(8, HOURS).toString(), 60);
+
+        // Assert
+        assertEquals(HTTP_200, actual.getResponseCode());
+        final List<Map> slots = gson.fromJson(actual.getPayload(), List.class);
+        assertEquals(1, slots.size());
+        assertEquals(dayStart.plus(9, HOURS).toString(), slots.get(0).get(BOOKING_START_TIME_KEY));
+        assertEquals("2", slots.get(0).get(LAUNDRY_ROOM_KEY));
+    }
+
+    @Test
+    public void test_findAvailableSlots_slotTooSmall_errorResponse() {
+        // Act
+        final Response actual = bookingHandler.findAvailableSlots("1", null, null, 15);
+
+        // Assert
+        assertEquals(HTTP_400, actual.getResponseCode());
+        assertEquals(SLOT_TOO_SMALL + "30 minutes", actual.getErrorMessage());
+    }
+
+    private void book(final String laundryRoomId, final String houseId, final int startHour, final int endHour) {
+        final Response response = bookingHandler.book(laundryRoomId, houseId, dayStart.plus(startHour, HOURS).toString(),
+                dayStart.plus(endHour, HOURS).toString());
+        assertEquals(HTTP_200, response.getResponseCode());
+    }
+}
@@ -0,0 +1,153 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.handlers.BookingHandler.SLOT_ALREADY_BOOKED;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.IsoInstantParser.parseEpochNanos;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.laundrybooking.accessor.HouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.LaundryRoomDataAccessor;
+import com.laundrybooking.model.BookingRequest;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.model.Response;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookingHandlerBatchTest {
+
+    private final Instant bookingStartTimeUTC = Instant.now().plus(1, DAYS);
+
+    private BookingHandler bookingHandler;
+
+    private InMemoryBookingDataAccessor bookingDataAccessor;
+
+    @Mock
+    private LaundryRoomDataAccessor laundryRoomDataAccessor;
+
+    @Mock
+    private HouseDataAccessor houseDataAccessor;
+
+    @Mock
+    private BookingValidator bookingValidator;
+
+    @BeforeEach
+    public void setup() {
+        bookingDataAccessor = new InMemoryBookingDataAccessor();
+        bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor, bookingValidator);
+        lenient().when(bookingValidator.validateBooking(any(LaundryRoom.class), any(House.class), anyLong(), anyLong())).thenReturn(null);
+        when(houseDataAccessor.read(anyString())).thenAnswer(invocation ->
+                House.builder().id(Integer.parseInt(invocation.getArgument(0))).build());
+        when(laundryRoomDataAccessor.read(anyString())).thenAnswer(invocation ->
+                LaundryRoom.builder().id(Integer.parseInt(invocation.getArgument(0))).name("Room").build());
+    }
+
+    @Test
+    public void test_bookBatch_conflictsWithinBatch_earlierRequestsWin() {
+        // Arrange
+        final List<BookingRequest> bookingRequests = Arrays.asList(
+                request("1", "1", 0),
+                request("1", "2", 30),
+                request("2", "1", 120),
+                request("2", "3", 0));
+
+        // Act
+        final List<Response> responses = bookingHandler.bookBatch(bookingRequests);
+
+        // Assert
+        assertEquals(4, responses.size());
+        assertEquals(200, responses.get(0).getResponseCode());
+        assertEquals(SLOT_ALREADY_BOOKED, responses.get(1).getErrorMessage());
+        assertEquals(HTTP_400, responses.get(2).getResponseCode());
+        assertTrue(responses.get(2).getErrorMessage().startsWith("You already have an active booking"));
+        assertEquals(200, responses.get(3).getResponseCode());
+        assertEquals(2, bookingDataAccessor.read(bookingStartTimeUTC, bookingStartTimeUTC.plus(1, DAYS), ACTIVE).size());
+    }
+
+    @Test
+    public void test_bookBatch_conflictsWithExistingBookingAndValidationFailure_errorResponses() {
+        // Arrange
+        bookingHandler.book("1", "9", bookingStartTimeUTC.toString(), bookingStartTimeUTC.plus(60, MINUTES).toString());
+        final BookingRequest invalidRequest = request("3", "3", 0);
+        when(bookingValidator.validateBooking(any(LaundryRoom.class), any(House.class), eq(parseEpochNanos(invalidRequest.bookingStartDateTimeUTC)),
+                anyLong())).thenReturn("Invalid");
+
+        // Act
+        final List<Response> responses = bookingHandler.bookBatch(Arrays.asList(
+                request("1", "1", 30),
+                invalidRequest,
+                request("2", "2", 120)));
+
+        // Assert
+        assertEquals(SLOT_ALREADY_BOOKED, responses.get(0).getErrorMessage());
+        assertEquals("Invalid", responses.get(1).getErrorMessage());
+        assertEquals(200, responses.get(2).getResponseCode());
+    }
+
+    @Test
+    public void test_bookBatch_concurrentBatchesForSameSlots_eachSlotBookedOnce() throws Exception {
+        // Arrange
+        final int batches = 8;
+        final int rooms = 50;
+        final ExecutorService executorService = Executors.newFixedThreadPool(batches);
+        final List<Future<List<Response>>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int batch = 0; batch < batches; batch++) {
+                final List<BookingRequest> bookingRequests = new ArrayList<>();
+                for (int room = 0; room < rooms; room++) {
+                    bookingRequests.add(request(Integer.toString(room), Integer.toString(batch * rooms + room), 0));
+                }
+                results.add(executorService.submit(() -> bookingHandler.bookBatch(bookingRequests)));
+            }
+            int successfulBookings = 0;
+            for (final Future<List<Response>> result : results) {
+                for (final Response response : result.get()) {
+                    if (response.getResponseCode() == 200) {
+                        successfulBookings++;
+                    }
+                }
+            }
+
+            // Assert
+            assertEquals(rooms, successfulBookings);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private BookingRequest request(final String laundryRoomId, final String houseId, final int startOffsetMinutes) {
+        final Instant start = bookingStartTimeUTC.plus(startOffsetMinutes, MINUTES);
+        return BookingRequest.builder()
+                .laundryRoomId(laundryRoomId)
+                .houseId(houseId)
+                .bookingStartDateTimeUTC(start.toString())
+                .bookingEndDateTimeUTC(start.plus(60, MINUTES).toString())
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.laundrybooking.handlers;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.laundrybooking.accessor.HouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.LaundryRoomDataAccessor;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+import com.laundrybooking.model.Response;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookingHandlerConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private final Instant bookingStartTimeUTC = Instant.now().plus(1, DAYS);
+
+    private final Instant bookingEndTimeUTC = bookingStartTimeUTC.plus(60, MINUTES);
+
+    private BookingHandler bookingHandler;
+
+    private ExecutorService executorService;
+
+    @Mock
+    private LaundryRoomDataAccessor laundryRoomDataAccessor;
+
+    @Mock
+    private HouseDataAccessor houseDataAccessor;
+
+    @Mock
+    private BookingValidator bookingValidator;
+
+    @BeforeEach
+    public void setup() {
+        bookingHandler = new BookingHandler(new InMemoryBookingDataAccessor(), laundryRoomDataAccessor, houseDataAccessor, bookingValidator);
+        executorService = Executors.newFixedThreadPool(THREADS);
+        when(bookingValidator.validateBooking(any(LaundryRoom.class), any(House.class), anyLong(), anyLong())).thenReturn(null);
+        when(houseDataAccessor.read(anyString())).thenAnswer(invocation ->
+                House.builder().id(Integer.parseInt(invocation.getArgument(0))).build());
+        when(laundryRoomDataAccessor.read(anyString())).thenAnswer(invocation ->
+                LaundryRoom.builder().id(Integer.parseInt(invocation.getArgument(0))).name("Room").build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void test_book_concurrentRequestsForSameSlot_singleBooking() throws Exception {
+        // Act
+        final int successfulBookings = bookConcurrently(i -> bookingHandler.book("1", Integer.toString(i),
+                bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString()));
+
+        // Assert
+        assertEquals(1, successfulBookings);
+    }
+
+    @Test
+    public void test_book_concurrentRequestsForSameHouse_singleBooking() throws Exception {
+        // Act
+        final int successfulBookings = bookConcurrently(i -> bookingHandler.book(Integer.toString(i), "1",
+                bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString()));
+
+        // Assert
+        assertEquals(1, successfulBookings);
+    }
+
+    @Test
+    public void test_book_concurrentRequestsForDifferentRooms_allBooked() throws Exception {
+        // Act
+        final int successfulBookings = bookConcurrently(i -> bookingHandler.book(Integer.toString(i), Integer.toString(i),
+                bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString()));
+
+        // Assert
+        assertEquals(THREADS, successfulBookings);
+    }
+
+    private int bookConcurrently(final IntFunction<Response> bookingRequest) throws Exception {
+        final List<Callable<Response>> requests = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            final int requestNumber = i;
+            requests.add(() -> bookingRequest.apply(requestNumber));
+        }
+        int successfulBookings = 0;
+        for (final Future<Response> response : executorService.invokeAll(requests)) {
+            if (response.get().getResponseCode() == 200) {
+                successfulBookings++;
+            }
+        }
+        return successfulBookings;
+    }
+}
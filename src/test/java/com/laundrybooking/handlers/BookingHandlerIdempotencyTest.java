@@ -0,0 +1,99 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.handlers.BookingHandler.SLOT_SUCCESSFULLY_BOOKED;
+import static com.laundrybooking.handlers.BookingHandler.SLOT_SUCCESSFULLY_CANCELLED;
+import static com.laundrybooking.handlers.IdempotencyCache.IDEMPOTENCY_KEY_REUSED;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.metrics.BookingMetrics;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.Response;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookingHandlerIdempotencyTest {
+
+    private final Instant dayStart = Instant.now().truncatedTo(DAYS).plus(1, DAYS);
+
+    private final InMemoryBookingDataAccessor bookingDataAccessor = new InMemoryBookingDataAccessor();
+
+    private BookingHandler bookingHandler;
+
+    @BeforeEach
+    public void setup() {
+        final InMemoryHouseDataAccessor houseDataAccessor = new InMemoryHouseDataAccessor();
+        houseDataAccessor.create(House.builder().id(1).build());
+        final InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        laundryRoomDataAccessor.create(laundryRoom(1));
+        bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor,
+                new BookingValidator(laundryRoomDataAccessor, houseDataAccessor), new BookingMetrics(),
+                new IdempotencyCache(100, 1, TimeUnit.HOURS));
+    }
+
+    @Test
+    public void test_book_retryWithKey_bookedOnce() {
+        // Arrange
+        final Response original = book("key");
+
+        // Act
+        final Response actual = book("key");
+
+        // Assert
+        assertEquals(HTTP_200, actual.getResponseCode());
+        assertTrue(original.getPayload().contains(SLOT_SUCCESSFULLY_BOOKED));
+        assertEquals(original.getPayload(), actual.getPayload());
+        assertEquals(1, bookingDataAccessor.read(Instant.MIN, Instant.MAX, ACTIVE).size());
+        assertEquals(1, bookingHandler.getIdempotencyCache().getReplayCount());
+    }
+
+    @Test
+    public void test_book_keyReusedForDifferentSlot_errorResponse() {
+        // Arrange
+        book("key");
+
+        // Act
+        final Response actual = bookingHandler.book("1", "1", dayStart.plus(10, HOURS).toString(), dayStart.plus(11, HOURS).toString(),
+                "key");
+
+        // Assert
+        assertEquals(HTTP_400, actual.getResponseCode());
+        assertEquals(IDEMPOTENCY_KEY_REUSED, actual.getErrorMessage());
+    }
+
+    @Test
+    public void test_cancelBooking_retryWithKey_cancelledOnce() {
+        // Arrange
+        book("book");
+        final Booking booking = bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE);
+        final Response original = bookingHandler.cancelBooking(booking.id, "1", "cancel");
+
+        // Act
+        final Response actual = bookingHandler.cancelBooking(booking.id, "1", "cancel");
+
+        // Assert
+        assertEquals(HTTP_200, actual.getResponseCode());
+        assertEquals(SLOT_SUCCESSFULLY_CANCELLED, original.getPayload());
+        assertEquals(original.getPayload(), actual.getPayload());
+        assertNull(bookingDataAccessor.read(House.builder().id(1).build(), ACTIVE));
+    }
+
+    private Response book(final String idempotencyKey) {
+        return bookingHandler.book("1", "1", dayStart.plus(8, HOURS).toString(), dayStart.plus(9, HOURS).toString(), idempotencyKey);
+    }
+}
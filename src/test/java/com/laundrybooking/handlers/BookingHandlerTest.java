@@ -1,21 +1,25 @@
 package com.laundrybooking.handlers;
 
 import static com.laundrybooking.handlers.BookingHandler.INVALID_BOOKING_MESSAGE;
+import static com.laundrybooking.handlers.BookingHandler.INVALID_LIST_REQUEST;
 import static com.laundrybooking.handlers.BookingHandler.SLOT_ALREADY_BOOKED;
 import static com.laundrybooking.handlers.BookingHandler.SLOT_SUCCESSFULLY_BOOKED;
 import static com.laundrybooking.handlers.BookingHandler.SLOT_SUCCESSFULLY_CANCELLED;
 import static com.laundrybooking.handlers.BookingValidator.BOOKING_START_TIME_GT_END_TIME;
 import static com.laundrybooking.model.BookingStatus.ACTIVE;
 import static com.laundrybooking.model.BookingStatus.CANCELLED;
+import static com.laundrybooking.utils.Constants.BOOKED_TIMES_KEY;
 import static com.laundrybooking.utils.Constants.BOOKING_END_TIME_UTC_KEY;
 import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_UTC_KEY;
 import static com.laundrybooking.utils.Constants.BOOKING_STATUS_KEY;
+import static com.laundrybooking.utils.Constants.HTTP_200;
 import static com.laundrybooking.utils.Constants.HTTP_400;
 import static com.laundrybooking.utils.Constants.HTTP_500;
 import static com.laundrybooking.utils.Constants.HTTP_500_MESSAGE;
 import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_ID_KEY;
 import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_NAME_KEY;
 import static com.laundrybooking.utils.Constants.MESSAGE_KEY;
+import static com.laundrybooking.utils.Constants.NEXT_CURSOR_KEY;
 import static java.time.temporal.ChronoUnit.DAYS;
 import static java.time.temporal.ChronoUnit.HOURS;
 import static java.time.temporal.ChronoUnit.MINUTES;
@@ -24,20 +28,28 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.gson.Gson;
 import com.laundrybooking.accessor.BookingDataAccessor;
 import com.laundrybooking.accessor.HouseDataAccessor;
 import com.laundrybooking.accessor.LaundryRoomDataAccessor;
+import com.laundrybooking.metrics.MetricsSnapshot;
+import com.laundrybooking.metrics.Operation;
+import com.laundrybooking.metrics.RejectionReason;
+import com.laundrybooking.metrics.Stage;
 import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingQuery;
 import com.laundrybooking.model.House;
 import com.laundrybooking.model.LaundryRoom;
 import com.laundrybooking.model.Response;
 
+import java.io.StringWriter;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
@@ -88,9 +100,9 @@ class BookingHandlerTest {
                 .maxSlotLength(90)
                 .build();
 
-        when(bookingValidator.validateBooking(laundryRoomId, houseId, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString())).thenReturn(null);
+        when(bookingValidator.validateBooking(eq(laundryRoom), eq(house), anyLong(), anyLong())).thenReturn(null);
         when(bookingDataAccessor.read(house, ACTIVE)).thenReturn(null);
-        when(bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString(), ACTIVE)).thenReturn(null);
+        when(bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC, ACTIVE)).thenReturn(null);
         when(houseDataAccessor.read(houseId)).thenReturn(house);
         when(laundryRoomDataAccessor.read(laundryRoomId)).thenReturn(laundryRoom);
         doNothing().when(bookingDataAccessor).create(any());
@@ -125,7 +137,9 @@ class BookingHandlerTest {
                 .maxSlotLength(90)
                 .build();
 
-        when(bookingValidator.validateBooking(laundryRoomId, houseId, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString())).thenReturn(
+        when(houseDataAccessor.read(houseId)).thenReturn(house);
+        when(laundryRoomDataAccessor.read(laundryRoomId)).thenReturn(laundryRoom);
+        when(bookingValidator.validateBooking(eq(laundryRoom), eq(house), anyLong(), anyLong())).thenReturn(
                 BOOKING_START_TIME_GT_END_TIME);
 
         // Act
@@ -156,7 +170,7 @@ class BookingHandlerTest {
                 .bookingStartTimeUTC(Instant.now().plus(10, DAYS))
                 .build();
         final String expected = "You already have an active booking starting " + booking.bookingStartTimeUTC.toString();
-        when(bookingValidator.validateBooking(laundryRoomId, houseId, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString())).thenReturn(null);
+        when(bookingValidator.validateBooking(eq(laundryRoom), eq(house), anyLong(), anyLong())).thenReturn(null);
         when(houseDataAccessor.read(houseId)).thenReturn(house);
         when(laundryRoomDataAccessor.read(laundryRoomId)).thenReturn(laundryRoom);
         when(bookingDataAccessor.read(house, ACTIVE)).thenReturn(booking);
@@ -185,9 +199,9 @@ class BookingHandlerTest {
                 .maxSlotLength(90)
                 .build();
 
-        when(bookingValidator.validateBooking(laundryRoomId, houseId, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString())).thenReturn(null);
+        when(bookingValidator.validateBooking(eq(laundryRoom), eq(house), anyLong(), anyLong())).thenReturn(null);
         when(bookingDataAccessor.read(house, ACTIVE)).thenReturn(null);
-        when(bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString(), ACTIVE)).thenReturn(null);
+        when(bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC, ACTIVE)).thenReturn(null);
         when(houseDataAccessor.read(houseId)).thenReturn(house);
         when(laundryRoomDataAccessor.read(laundryRoomId)).thenReturn(laundryRoom);
         doThrow(new RuntimeException()).when(bookingDataAccessor).create(any());
@@ -245,6 +259,57 @@ class BookingHandlerTest {
         assertEquals(HTTP_500, actual.getResponseCode());
     }
 
+    @Test
+    public void test_listBookedTimesStreaming_firstPage_writesPageAndCursor() {
+        // Arrange
+        final List<Booking> bookings = generateBookings();
+        final StringWriter writer = new StringWriter();
+        when(bookingDataAccessor.query(any(BookingQuery.class))).thenReturn(bookings.iterator());
+
+        // Act
+        final Response actual = bookingHandler.listBookedTimes(writer, null, null, null, null, 2);
+
+        // Assert
+        final Map payloadMap = new Gson().fromJson(writer.toString(), Map.class);
+        final Booking lastBooking = bookings.get(1);
+        assertEquals(200, actual.getResponseCode());
+        assertEquals(2, ((List) payloadMap.get(BOOKED_TIMES_KEY)).size());
+        assertEquals(lastBooking.bookingStartTimeUTC.getEpochSecond() + ":" + lastBooking.bookingStartTimeUTC.getNano() + ":"
+                + lastBooking.laundryRoomId, payloadMap.get(NEXT_CURSOR_KEY));
+    }
+
+    @Test
+    public void test_listBookedTimesStreaming_cursor_queriesAfterCursor() {
+        // Arrange
+        final StringWriter writer = new StringWriter();
+        when(bookingDataAccessor.query(any(BookingQuery.class))).thenAnswer(invocation -> {
+            final BookingQuery bookingQuery = invocation.getArgument(0);
+            assertEquals(Instant.ofEpochSecond(1900000000L, 5), bookingQuery.afterStartTime);
+            assertEquals(3, bookingQuery.afterLaundryRoomId);
+            assertEquals(7, bookingQuery.laundryRoomId);
+            return EMPTY_LIST.iterator();
+        });
+
+        // Act
+        final Response actual = bookingHandler.listBookedTimes(writer, "7", null, null, "1900000000:5:3", 10);
+
+        // Assert
+        final Map payloadMap = new Gson().fromJson(writer.toString(), Map.class);
+        assertEquals(200, actual.getResponseCode());
+        assertEquals(EMPTY_LIST, payloadMap.get(BOOKED_TIMES_KEY));
+        assertNull(payloadMap.get(NEXT_CURSOR_KEY));
+    }
+
+    @Test
+    public void test_listBookedTimesStreaming_invalidCursor_errorResponse() {
+        // Act
+        final Response actual = bookingHandler.listBookedTimes(new StringWriter(), null, null, null, "not-a-cursor", 10);
+
+        // Assert
+        assertEquals(INVALID_LIST_REQUEST, actual.getErrorMessage());
+        assertEquals(HTTP_400, actual.getResponseCode());
+    }
+
     @Test
     public void test_cancel_success() {
         // Arrange
@@ -277,6 +342,58 @@ class BookingHandlerTest {
         assertEquals(HTTP_400, actual.getResponseCode());
     }
 
+    @Test
+    public void test_cancel_houseIdNotNumber_invalidBooking() {
+        // Act
+        final Response actual = bookingHandler.cancelBooking(UUID.randomUUID().toString(), "house");
+
+        // Assert
+        assertEquals(INVALID_BOOKING_MESSAGE, actual.getErrorMessage());
+        assertEquals(HTTP_400, actual.getResponseCode());
+        verifyNoInteractions(bookingDataAccessor);
+    }
+
+    @Test
+    public void test_cancel_success_metricsRecorded() {
+        // Arrange
+        final String bookingId = UUID.randomUUID().toString();
+        final String houseId = "2";
+        when(bookingDataAccessor.read(bookingId, houseId, ACTIVE)).thenReturn(Booking.builder().build());
+
+        // Act
+        bookingHandler.cancelBooking(bookingId, houseId);
+
+        // Assert
+        final MetricsSnapshot metrics = bookingHandler.getMetrics().snapshot();
+        assertEquals(1, metrics.getResponseCount(Operation.CANCEL_BOOKING, HTTP_200));
+        assertEquals(1, metrics.getLatency(Stage.CANCEL_BOOKING).getCount());
+        assertEquals(1, metrics.getLatency(Stage.CANCEL_BOOKING_UPDATE).getCount());
+        assertEquals(0, metrics.getResponseCount(Operation.BOOK, HTTP_200));
+    }
+
+    @Test
+    public void test_book_bookingValidationsFailed_rejectionRecorded() {
+        // Arrange
+        final String laundryRoomId = "1";
+        final String houseId = "2";
+        final House house = House.builder().build();
+        final LaundryRoom laundryRoom = LaundryRoom.builder().id(Integer.parseInt(laundryRoomId)).build();
+        when(houseDataAccessor.read(houseId)).thenReturn(house);
+        when(laundryRoomDataAccessor.read(laundryRoomId)).thenReturn(laundryRoom);
+        when(bookingValidator.validateBooking(eq(laundryRoom), eq(house), anyLong(), anyLong())).thenReturn(
+                BOOKING_START_TIME_GT_END_TIME);
+
+        // Act
+        bookingHandler.book(laundryRoomId, houseId, Instant.now().plus(60, MINUTES).toString(), Instant.now().toString());
+
+        // Assert
+        final MetricsSnapshot metrics = bookingHandler.getMetrics().snapshot();
+        assertEquals(1, metrics.getResponseCount(Operation.BOOK, HTTP_400));
+        assertEquals(1, metrics.getRejectionCount(RejectionReason.START_AFTER_END));
+        assertEquals(1, metrics.getLatency(Stage.BOOK_VALIDATION).getCount());
+        assertEquals(0, metrics.getLatency(Stage.BOOK_CREATE).getCount());
+    }
+
     @Test
     public void test_cancel_HTTP500() {
         // Arrange
@@ -308,7 +425,7 @@ class BookingHandlerTest {
                 .build();
 
         when(bookingDataAccessor.read(house, ACTIVE)).thenReturn(null);
-        when(bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString(), ACTIVE)).thenReturn(null);
+        when(bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC, ACTIVE)).thenReturn(null);
 
         // Act
         final String actual = bookingHandler.canBookLaundrySlot(house, laundryRoom, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString());
@@ -359,7 +476,7 @@ class BookingHandlerTest {
                 .build();
         final Booking booking = Booking.builder().build();
         when(bookingDataAccessor.read(house, ACTIVE)).thenReturn(null);
-        when(bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString(), ACTIVE)).thenReturn(booking);
+        when(bookingDataAccessor.read(laundryRoom, bookingStartTimeUTC, bookingEndTimeUTC, ACTIVE)).thenReturn(booking);
 
         // Act
         final String actual = bookingHandler.canBookLaundrySlot(house, laundryRoom, bookingStartTimeUTC.toString(), bookingEndTimeUTC.toString());
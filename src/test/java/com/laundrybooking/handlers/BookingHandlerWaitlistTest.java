@@ -0,0 +1,196 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.handlers.BookingHandler.ALREADY_WAITLISTED;
+import static com.laundrybooking.handlers.BookingHandler.SLOT_ALREADY_BOOKED;
+import static com.laundrybooking.handlers.BookingHandler.SLOT_SUCCESSFULLY_BOOKED;
+import static com.laundrybooking.handlers.BookingHandler.SLOT_WAITLISTED;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.MESSAGE_KEY;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.BookingEvent;
+import com.laundrybooking.model.BookingEventType;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.Response;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookingHandlerWaitlistTest {
+
+    private final Gson gson = new Gson();
+
+    private final Instant dayStart = Instant.now().truncatedTo(DAYS).plus(1, DAYS);
+
+    private final InMemoryBookingDataAccessor bookingDataAccessor = new InMemoryBookingDataAccessor();
+
+    private BookingHandler bookingHandler;
+
+    @BeforeEach
+    public void setup() {
+        final InMemoryHouseDataAccessor houseDataAccessor = new InMemoryHouseDataAccessor();
+        for (int houseId = 1; houseId <= 3; houseId++) {
+            houseDataAccessor.create(House.builder().id(houseId).build());
+        }
+        final InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        laundryRoomDataAccessor.create(laundryRoom(1));
+        laundryRoomDataAccessor.create(laundryRoom(2));
+        bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor,
+                new BookingValidator(laundryRoomDataAccessor, houseDataAccessor));
+    }
+
+    @Test
+    public void test_joinWaitlist_freeSlot_booked() {
+        // Act
+        final Response actual = joinWaitlist("1", "1");
+
+        // Assert
+        assertEquals(HTTP_200, actual.getResponseCode());
+        assertEquals(SLOT_SUCCESSFULLY_BOOKED, gson.fromJson(actual.getPayload(), Map.class).get(MESSAGE_KEY));
+        assertEquals(1, activeBooking(1).laundryRoomId);
+    }
+
+    @Test
+    public void test_cancelBooking_slotHandedToWaitingHouse() {
+        // Arrange
+        joinWaitlist("1", "1");
+        final Response waitlisted = joinWaitlist("1", "2");
+
+        // Act
+        final Response actual = bookingHandler.cancelBooking(activeBooking(1).id, "1");
+
+        // Assert
+        assertEquals(HTTP_200, actual.getResponseCode());
+        assertEquals(SLOT_WAITLISTED, gson.fromJson(waitlisted.getPayload(), Map.class).get(MESSAGE_KEY));
+        assertNull(activeBooking(1));
+        assertEquals(dayStart.plus(18, HOURS), activeBooking(2).bookingStartTimeUTC);
+    }
+
+    @Test
+    public void test_cancelBooking_handOverPublishedAfterCancellation() throws Exception {
+        // Arrange
+        joinWaitlist("1", "1");
+        joinWaitlist("1", "2");
+        final List<BookingEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch delivered = new CountDownLatch(2);
+        bookingHandler.getEventBus().subscribe("test", event -> {
+            events.add(event);
+            delivered.countDown();
+        });
+        final String cancelledId = activeBooking(1).id;
+
+        // Act
+        bookingHandler.cancelBooking(cancelledId, "1");
+
+        // Assert
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(BookingEventType.CANCELLED, events.get(0).type);
+        assertEquals(cancelledId, events.get(0).bookingId);
+        assertEquals(BookingEventType.BOOKED, events.get(1).type);
+        assertEquals(2, events.get(1).houseId);
+    }
+
+    @Test
+    public void test_cancelBooking_houseWithActiveBookingSkipped() {
+        // Arrange
+        joinWaitlist("1", "1");
+        joinWaitlist("1", "2");
+        joinWaitlist("1", "3");
+        bookingHandler.book("2", "2", dayStart.plus(8, HOURS).toString(), dayStart.plus(9, HOURS).toString());
+
+        // Act
+        bookingHandler.cancelBooking(activeBooking(1).id, "1");
+
+        // Assert
+        assertEquals(2, activeBooking(2).laundryRoomId);
+        assertEquals(1, activeBooking(3).laundryRoomId);
+        assertEquals(dayStart.plus(18, HOURS), activeBooking(3).bookingStartTimeUTC);
+    }
+
+    @Test
+    public void test_cancelBooking_waitingHouseLockHeld_slotKeptForWaitingHouse() throws Exception {
+        // Arrange
+        joinWaitlist("1", "1");
+        joinWaitlist("1", "2");
+        joinWaitlist("1", "3");
+        final String cancelledId = activeBooking(1).id;
+        final CountDownLatch houseLocked = new CountDownLatch(1);
+        final CountDownLatch releaseHouse = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            // Holds the lock of the first waiting house, as a booking of another laundry room would
+            executorService.submit(() -> bookingHandler.withBookingLocks(2, 2, () -> {
+                houseLocked.countDown();
+                try {
+                    return releaseHouse.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            assertTrue(houseLocked.await(5, TimeUnit.SECONDS));
+            final Future<Response> cancelled = executorService.submit(() -> bookingHandler.cancelBooking(cancelledId, "1"));
+            while (activeBooking(1) != null) {
+                Thread.sleep(1);
+            }
+
+            // Act
+            final Response overtaking = bookingHandler.book("1", "3", dayStart.plus(18, HOURS).toString(),
+                    dayStart.plus(19, HOURS).toString());
+            releaseHouse.countDown();
+
+            // Assert
+            assertEquals(HTTP_200, cancelled.get(5, TimeUnit.SECONDS).getResponseCode());
+            assertEquals(HTTP_400, overtaking.getResponseCode());
+            assertEquals(SLOT_ALREADY_BOOKED, overtaking.getErrorMessage());
+            assertEquals(dayStart.plus(18, HOURS), activeBooking(2).bookingStartTimeUTC);
+            assertNull(activeBooking(3));
+        } finally {
+            releaseHouse.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_joinWaitlist_alreadyWaiting_errorResponse() {
+        // Arrange
+        joinWaitlist("1", "1");
+        joinWaitlist("1", "2");
+
+        // Act
+        final Response actual = joinWaitlist("1", "2");
+
+        // Assert
+        assertEquals(HTTP_400, actual.getResponseCode());
+        assertEquals(ALREADY_WAITLISTED, actual.getErrorMessage());
+    }
+
+    private Response joinWaitlist(final String laundryRoomId, final String houseId) {
+        return bookingHandler.joinWaitlist(laundryRoomId, houseId, dayStart.plus(18, HOURS).toString(), dayStart.plus(19, HOURS).toString());
+    }
+
+    private Booking activeBooking(final int houseId) {
+        return bookingDataAccessor.read(House.builder().id(houseId).build(), ACTIVE);
+    }
+}
@@ -0,0 +1,96 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.handlers.IdempotencyCache.IDEMPOTENCY_KEY_REUSED;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static com.laundrybooking.utils.Constants.HTTP_500;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.laundrybooking.model.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class IdempotencyCacheTest {
+
+    private final IdempotencyCache idempotencyCache = new IdempotencyCache(100, 1, TimeUnit.HOURS);
+
+    @Test
+    public void test_execute_retryReplaysResponse() {
+        // Arrange
+        final AtomicInteger runs = new AtomicInteger();
+        final Response original = idempotencyCache.execute("key", "request", () -> {
+            runs.incrementAndGet();
+            return new Response("booked", null, HTTP_200);
+        });
+
+        // Act
+        final Response actual = idempotencyCache.execute("key", "request", () -> {
+            runs.incrementAndGet();
+            return new Response("booked again", null, HTTP_200);
+        });
+
+        // Assert
+        assertSame(original, actual);
+        assertEquals(1, runs.get());
+        assertEquals(1, idempotencyCache.getReplayCount());
+    }
+
+    @Test
+    public void test_execute_keyReusedForDifferentRequest_errorResponse() {
+        // Arrange
+        idempotencyCache.execute("key", "request", () -> new Response("booked", null, HTTP_200));
+
+        // Act
+        final Response actual = idempotencyCache.execute("key", "other request", () -> new Response("booked", null, HTTP_200));
+
+        // Assert
+        assertEquals(HTTP_400, actual.getResponseCode());
+        assertEquals(IDEMPOTENCY_KEY_REUSED, actual.getErrorMessage());
+        assertEquals(0, idempotencyCache.getReplayCount());
+    }
+
+    @Test
+    public void test_execute_serverErrorNotKept() {
+        // Arrange
+        idempotencyCache.execute("key", "request", () -> new Response("", "failed", HTTP_500));
+
+        // Act
+        final Response actual = idempotencyCache.execute("key", "request", () -> new Response("booked", null, HTTP_200));
+
+        // Assert
+        assertEquals(HTTP_200, actual.getResponseCode());
+        assertEquals(0, idempotencyCache.getReplayCount());
+    }
+
+    @Test
+    public void test_execute_concurrentRetryWaitsForOriginal() throws Exception {
+        // Arrange
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Response> original = CompletableFuture.supplyAsync(() -> idempotencyCache.execute("key", "request", () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Response("booked", null, HTTP_200);
+        }));
+        running.await();
+
+        // Act
+        final CompletableFuture<Response> retry = CompletableFuture.supplyAsync(
+                () -> idempotencyCache.execute("key", "request", () -> new Response("booked again", null, HTTP_200)));
+        release.countDown();
+
+        // Assert
+        assertSame(original.get(5, TimeUnit.SECONDS), retry.get(5, TimeUnit.SECONDS));
+        assertEquals(1, idempotencyCache.getReplayCount());
+    }
+}
@@ -0,0 +1,90 @@
+package com.laundrybooking.handlers;
+
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.LaundryRoom;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SlotWaitlistTest {
+
+    private final LaundryRoom laundryRoom = laundryRoom(1);
+
+    private final Instant slotStart = Instant.now().truncatedTo(DAYS).plus(1, DAYS).plus(10, HOURS);
+
+    private final SlotWaitlist waitlist = new SlotWaitlist(2);
+
+    @Test
+    public void test_add_houseAlreadyWaiting_alreadyWaiting() {
+        // Arrange
+        waitlist.add(waiter(1, slotStart));
+
+        // Act
+        final SlotWaitlist.AddResult actual = waitlist.add(waiter(1, slotStart.plus(2, HOURS)));
+
+        // Assert
+        assertEquals(SlotWaitlist.AddResult.ALREADY_WAITING, actual);
+        assertEquals(1, waitlist.size(laundryRoom.id));
+    }
+
+    @Test
+    public void test_add_maxWaiters_full() {
+        // Arrange
+        waitlist.add(waiter(1, slotStart));
+        waitlist.add(waiter(2, slotStart));
+
+        // Act
+        final SlotWaitlist.AddResult actual = waitlist.add(waiter(3, slotStart));
+
+        // Assert
+        assertEquals(SlotWaitlist.AddResult.FULL, actual);
+        assertEquals(2, waitlist.size(laundryRoom.id));
+    }
+
+    @Test
+    public void test_add_startedWaitersDropped() {
+        // Arrange
+        waitlist.add(waiter(1, Instant.now().minus(1, MINUTES)));
+        waitlist.add(waiter(2, Instant.now().minus(1, MINUTES)));
+
+        // Act
+        final SlotWaitlist.AddResult actual = waitlist.add(waiter(3, slotStart));
+
+        // Assert
+        assertEquals(SlotWaitlist.AddResult.ADDED, actual);
+        assertEquals(1, waitlist.size(laundryRoom.id));
+    }
+
+    @Test
+    public void test_reserve_overlappingWaitersInArrivalOrder() {
+        // Arrange
+        final SlotWaitlist waitlist = new SlotWaitlist();
+        final SlotWaitlist.Waiter late = waiter(1, slotStart.plus(30, MINUTES));
+        final SlotWaitlist.Waiter early = waiter(2, slotStart);
+        final SlotWaitlist.Waiter other = waiter(3, slotStart.plus(2, HOURS));
+        waitlist.add(late);
+        waitlist.add(early);
+        waitlist.add(other);
+
+        // Act
+        final List<SlotWaitlist.Waiter> actual = waitlist.reserve(laundryRoom.id, slotStart, slotStart.plus(1, HOURS),
+                Collections.emptySet());
+
+        // Assert
+        assertEquals(List.of(late), actual);
+        assertEquals(late, waitlist.findReserved(laundryRoom.id, slotStart, slotStart.plus(1, HOURS), 2));
+    }
+
+    private SlotWaitlist.Waiter waiter(final int houseId, final Instant start) {
+        return new SlotWaitlist.Waiter(House.builder().id(houseId).build(), laundryRoom, start, start.plus(1, HOURS));
+    }
+}
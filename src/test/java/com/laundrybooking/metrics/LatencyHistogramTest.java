@@ -0,0 +1,81 @@
+package com.laundrybooking.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    public void test_bucketIndex_valueWithinBucketBounds() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            // Act
+            final int index = LatencyHistogram.bucketIndex(value);
+
+            // Assert
+            assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            assertTrue(index == 0 || value > LatencyHistogram.bucketUpperBound(index - 1));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void test_snapshot_percentilesWithinPrecision() {
+        // Arrange
+        final LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            latencyHistogram.record(value * 1_000);
+        }
+
+        // Act
+        final HistogramSnapshot snapshot = latencyHistogram.snapshot();
+
+        // Assert
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000_000, snapshot.getMax());
+        assertEquals(50_000_500, snapshot.getMean(), 1);
+        assertWithinPrecision(50_000_000, snapshot.getValueAtPercentile(50));
+        assertWithinPrecision(99_000_000, snapshot.getValueAtPercentile(99));
+        assertWithinPrecision(99_900_000, snapshot.getValueAtPercentile(99.9));
+        assertEquals(100_000_000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void test_snapshot_empty() {
+        // Act
+        final HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+
+        // Assert
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void test_writePrometheus_countersExported() throws IOException {
+        // Arrange
+        final BookingMetrics bookingMetrics = new BookingMetrics();
+        bookingMetrics.recordSince(Stage.BOOK, System.nanoTime());
+        bookingMetrics.recordResponse(Operation.BOOK, 400);
+        bookingMetrics.recordResponse(Operation.BOOK, 418);
+        bookingMetrics.recordRejection(RejectionReason.SLOT_ALREADY_BOOKED);
+        final StringBuilder out = new StringBuilder();
+
+        // Act
+        bookingMetrics.snapshot().writePrometheus(out);
+
+        // Assert
+        final String exported = out.toString();
+        assertTrue(exported.contains("laundry_booking_stage_latency_seconds_count{stage=\"book\"} 1\n"));
+        assertTrue(exported.contains("laundry_booking_responses_total{operation=\"book\",code=\"400\"} 1\n"));
+        assertTrue(exported.contains("laundry_booking_responses_total{operation=\"book\",code=\"other\"} 1\n"));
+        assertTrue(exported.contains("laundry_booking_rejections_total{reason=\"slot_already_booked\"} 1\n"));
+    }
+
+    private static void assertWithinPrecision(final long expected, final long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / LatencyHistogram.SUB_BUCKETS,
+                "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,203 @@
+package com.laundrybooking.server;
+
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.model.BookingStatus.ACTIVE;
+import static com.laundrybooking.server.BookingHttpServer.INVALID_REQUEST;
+import static com.laundrybooking.server.BookingHttpServer.MAX_PAGE_SIZE;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laundrybooking.accessor.InMemoryBookingDataAccessor;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.handlers.BookingHandler;
+import com.laundrybooking.handlers.BookingValidator;
+import com.laundrybooking.model.Booking;
+import com.laundrybooking.model.House;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookingHttpServerTest {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private BookingHandler bookingHandler;
+
+    private InMemoryBookingDataAccessor bookingDataAccessor;
+
+    private BookingHttpServer bookingHttpServer;
+
+    private Instant bookingStartTime;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        bookingDataAccessor = new InMemoryBookingDataAccessor();
+        final InMemoryHouseDataAccessor houseDataAccessor = new InMemoryHouseDataAccessor();
+        final InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        laundryRoomDataAccessor.create(laundryRoom(1));
+        houseDataAccessor.create(House.builder().id(2).build());
+        bookingHandler = new BookingHandler(bookingDataAccessor, laundryRoomDataAccessor, houseDataAccessor,
+                new BookingValidator(laundryRoomDataAccessor, houseDataAccessor));
+        bookingHttpServer = new BookingHttpServer(bookingHandler, new InetSocketAddress("localhost", 0), 4);
+        bookingHttpServer.start();
+        bookingStartTime = Instant.now().truncatedTo(DAYS).plus(1, DAYS).plus(10, HOURS);
+    }
+
+    @AfterEach
+    public void teardown() {
+        bookingHttpServer.close();
+    }
+
+    @Test
+    public void test_book_listAndCancel() throws Exception {
+        // Act
+        final HttpResponse<String> booked = send(HttpRequest.newBuilder(uri("/bookings"))
+                .POST(HttpRequest.BodyPublishers.ofString(bookRequestBody())));
+        final HttpResponse<String> bookedTimes = send(HttpRequest.newBuilder(uri("/bookedTimes?pageSize=10&laundryRoomId=1")));
+        final Booking booking = bookingDataAccessor.read(House.builder().id(2).build(), ACTIVE);
+        final HttpResponse<String> cancelled = send(HttpRequest.newBuilder(uri("/bookings/" + booking.id + "?houseId=2")).DELETE());
+
+        // Assert
+        assertEquals(200, booked.statusCode());
+        assertTrue(booked.body().contains("\"laundryRoomName\":\"Room 1\""));
+        assertEquals(200, bookedTimes.statusCode());
+        assertTrue(bookedTimes.body().contains(bookingStartTime.toString()));
+        assertEquals(200, cancelled.statusCode());
+    }
+
+    @Test
+    public void test_book_invalidBody_400() throws Exception {
+        // Act
+        final HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/bookings"))
+                .POST(HttpRequest.BodyPublishers.ofString("[not an object")));
+
+        // Assert
+        assertEquals(400, actual.statusCode());
+        assertEquals("{\"error\":\"" + INVALID_REQUEST + "\"}", actual.body());
+    }
+
+    @Test
+    public void test_book_missingField_400() throws Exception {
+        // Act
+        final HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/bookings"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"laundryRoomId\":\"1\",\"houseId\":\"2\",\"bookingStartDateTimeUTC\":\""
+                        + bookingStartTime + "\"}")));
+
+        // Assert
+        assertEquals(400, actual.statusCode());
+        assertEquals("{\"error\":\"" + INVALID_REQUEST + "\"}", actual.body());
+    }
+
+    @Test
+    public void test_bookedTimes_pageSizeOverMaximum_400() throws Exception {
+        // Act
+        final HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/bookedTimes?pageSize=" + (MAX_PAGE_SIZE + 1))));
+
+        // Assert
+        assertEquals(400, actual.statusCode());
+        assertEquals("{\"error\":\"" + INVALID_REQUEST + "\"}", actual.body());
+    }
+
+    @Test
+    public void test_unknownRouteAndMethod_404And405() throws Exception {
+        // Act
+        final HttpResponse<String> notFound = send(HttpRequest.newBuilder(uri("/bookings/1/2")).DELETE());
+        final HttpResponse<String> notAllowed = send(HttpRequest.newBuilder(uri("/bookings")));
+
+        // Assert
+        assertEquals(404, notFound.statusCode());
+        assertEquals(405, notAllowed.statusCode());
+    }
+
+    @Test
+    public void test_metrics_prometheusText() throws Exception {
+        // Arrange
+        send(HttpRequest.newBuilder(uri("/bookedTimes")));
+
+        // Act
+        final HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/metrics")));
+
+        // Assert
+        assertEquals(200, actual.statusCode());
+        assertTrue(actual.body().contains("laundry_booking_responses_total{operation=\"list_booked_times\",code=\"200\"} 1"));
+    }
+
+    @Test
+    public void test_pipelinedRequests_answeredInOrderOnOneConnection() throws IOException {
+        // Arrange
+        final String request = "GET /bookedTimes?pageSize=1 HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                + "GET /bookedTimes?pageSize=0 HTTP/1.1\r\nHost: localhost\r\n\r\n";
+        try (Socket socket = new Socket("localhost", bookingHttpServer.getPort())) {
+            // Act
+            final OutputStream out = socket.getOutputStream();
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            // Assert
+            final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("HTTP/1.1 200 OK", in.readLine());
+            skipResponse(in);
+            assertTrue(in.readLine().startsWith("HTTP/1.1 400"));
+        }
+    }
+
+    @Test
+    public void test_book_virtualThreads() throws Exception {
+        try (BookingHttpServer virtualThreadServer = new BookingHttpServer(bookingHandler, new InetSocketAddress("localhost", 0),
+                ExecutionMode.VIRTUAL_THREADS, 1)) {
+            virtualThreadServer.start();
+
+            // Act
+            final HttpResponse<String> actual = send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + virtualThreadServer.getPort() + "/bookings"))
+                    .POST(HttpRequest.BodyPublishers.ofString(bookRequestBody())));
+
+            // Assert
+            assertEquals(200, actual.statusCode());
+        }
+    }
+
+    private String bookRequestBody() {
+        return "{\"laundryRoomId\": \"1\", \"houseId\": \"2\", \"bookingStartDateTimeUTC\": \"" + bookingStartTime
+                + "\", \"bookingEndDateTimeUTC\": \"" + bookingStartTime.plus(1, HOURS) + "\"}";
+    }
+
+    private URI uri(final String pathAndQuery) {
+        return URI.create("http://localhost:" + bookingHttpServer.getPort() + pathAndQuery);
+    }
+
+    private HttpResponse<String> send(final HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Reads the headers and body of a response whose status line was read
+     */
+    private static void skipResponse(final BufferedReader in) throws IOException {
+        int contentLength = 0;
+        for (String header = in.readLine(); !header.isEmpty(); header = in.readLine()) {
+            if (header.toLowerCase().startsWith("content-length:")) {
+                contentLength = Integer.parseInt(header.substring("content-length:".length()).trim());
+            }
+        }
+        // The bodies are ASCII, one char per byte
+        assertEquals(contentLength, in.skip(contentLength));
+    }
+}
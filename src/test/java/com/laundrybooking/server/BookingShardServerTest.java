@@ -0,0 +1,132 @@
+package com.laundrybooking.server;
+
+import static com.laundrybooking.TestFixtures.laundryRoom;
+import static com.laundrybooking.server.BookingShardServer.LISTENING_MESSAGE;
+import static com.laundrybooking.utils.Constants.BOOKED_TIMES_KEY;
+import static com.laundrybooking.utils.Constants.HTTP_200;
+import static com.laundrybooking.utils.Constants.HTTP_400;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import com.laundrybooking.accessor.BookingShard;
+import com.laundrybooking.accessor.InMemoryHouseDataAccessor;
+import com.laundrybooking.accessor.InMemoryLaundryRoomDataAccessor;
+import com.laundrybooking.accessor.ShardRouter;
+import com.laundrybooking.accessor.ShardedBookingDataAccessor;
+import com.laundrybooking.handlers.BookingHandler;
+import com.laundrybooking.handlers.BookingValidator;
+import com.laundrybooking.model.House;
+import com.laundrybooking.model.Response;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs every shard of the booking store in its own JVM, the way the shards are deployed
+ */
+class BookingShardServerTest {
+
+    private static final int SHARDS = 3;
+
+    private static final List<Process> shardProcesses = new ArrayList<>();
+
+    private static final ExecutorService fanOutExecutor = Executors.newCachedThreadPool();
+
+    private static ShardRouter<BookingShard> shardRouter;
+
+    private final Gson gson = new Gson();
+
+    private final Instant dayStart = Instant.now().truncatedTo(DAYS).plus(1, DAYS);
+
+    @BeforeAll
+    public static void startShards() throws IOException {
+        final Map<String, BookingShard> shards = new LinkedHashMap<>();
+        for (int i = 0; i < SHARDS; i++) {
+            final Process shardProcess = new ProcessBuilder(System.getProperty("java.home") + File.separator + "bin" + File.separator
+                    + "java", "-cp", System.getProperty("java.class.path"), BookingShardServer.class.getName(), "0")
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            shardProcesses.add(shardProcess);
+            final String listening = new BufferedReader(new InputStreamReader(shardProcess.getInputStream(), StandardCharsets.UTF_8))
+                    .readLine();
+            assertTrue(listening != null && listening.startsWith(LISTENING_MESSAGE), "Shard did not start: " + listening);
+            final String port = listening.substring(LISTENING_MESSAGE.length());
+            shards.put("shard-" + i, BookingShard.remote("shard-" + i, URI.create("http://localhost:" + port)));
+        }
+        shardRouter = new ShardRouter<>(shards, 64);
+    }
+
+    @AfterAll
+    public static void stopShards() {
+        for (final Process shardProcess : shardProcesses) {
+            shardProcess.destroy();
+        }
+        fanOutExecutor.shutdownNow();
+    }
+
+    @Test
+    public void test_bookingHandler_onShardProcesses() {
+        // Arrange
+        // One house and two laundry rooms per shard
+        final InMemoryHouseDataAccessor houseDataAccessor = new InMemoryHouseDataAccessor();
+        final InMemoryLaundryRoomDataAccessor laundryRoomDataAccessor = new InMemoryLaundryRoomDataAccessor();
+        final List<Integer> laundryRoomIds = new ArrayList<>();
+        final Map<BookingShard, Integer> houseByShard = new LinkedHashMap<>();
+        for (int id = 1; laundryRoomIds.size() < 2 || houseByShard.size() < SHARDS; id++) {
+            houseDataAccessor.create(House.builder().id(id).build());
+            houseByShard.putIfAbsent(shardRouter.shardFor(id), id);
+            if (laundryRoomIds.isEmpty() || shardRouter.shardFor(id) != shardRouter.shardFor(laundryRoomIds.get(0))) {
+                if (laundryRoomIds.size() < 2) {
+                    laundryRoomIds.add(id);
+                    laundryRoomDataAccessor.create(laundryRoom(id));
+                }
+            }
+        }
+        final BookingHandler bookingHandler = new BookingHandler(new ShardedBookingDataAccessor(shardRouter, fanOutExecutor),
+                laundryRoomDataAccessor, houseDataAccessor, new BookingValidator(laundryRoomDataAccessor, houseDataAccessor));
+        final List<Integer> houseIds = new ArrayList<>(houseByShard.values());
+        final String firstRoom = String.valueOf(laundryRoomIds.get(0));
+        final String secondRoom = String.valueOf(laundryRoomIds.get(1));
+
+        // Act
+        final Response firstBooking = book(bookingHandler, firstRoom, houseIds.get(0), 8);
+        final Response secondBooking = book(bookingHandler, secondRoom, houseIds.get(1), 8);
+        final Response sameHouseOtherShard = book(bookingHandler, secondRoom, houseIds.get(0), 12);
+        final Response sameSlot = book(bookingHandler, firstRoom, houseIds.get(2), 8);
+        final StringWriter page = new StringWriter();
+        final Response listed = bookingHandler.listBookedTimes(page, null, null, null, null, 10);
+
+        // Assert
+        assertEquals(HTTP_200, firstBooking.getResponseCode());
+        assertEquals(HTTP_200, secondBooking.getResponseCode());
+        assertEquals(HTTP_400, sameHouseOtherShard.getResponseCode());
+        assertEquals(HTTP_400, sameSlot.getResponseCode());
+        assertEquals(HTTP_200, listed.getResponseCode());
+        final List<?> bookedTimes = (List<?>) gson.fromJson(page.toString(), Map.class).get(BOOKED_TIMES_KEY);
+        assertEquals(2, bookedTimes.size());
+    }
+
+    private Response book(final BookingHandler bookingHandler, final String laundryRoomId, final int houseId, final int startHour) {
+        return bookingHandler.book(laundryRoomId, String.valueOf(houseId), dayStart.plus(startHour, HOURS).toString(),
+                dayStart.plus(startHour + 1, HOURS).toString());
+    }
+}
@@ -0,0 +1,62 @@
+package com.laundrybooking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void test_tryAcquire_overLimit_rejected() {
+        // Arrange
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1, TimeUnit.SECONDS);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void test_release_slowCalls_limitDecreasedOnce() {
+        // Arrange
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 20, 1, TimeUnit.MILLISECONDS);
+        final long startNanos = System.nanoTime();
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        while (System.nanoTime() - startNanos <= TimeUnit.MILLISECONDS.toNanos(2)) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        limiter.release(startNanos);
+        limiter.release(startNanos);
+
+        // Assert
+        assertEquals(18, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void test_release_fastCallsAtLimit_limitIncreased() {
+        // Arrange
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1, TimeUnit.MINUTES);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            final long startNanos = System.nanoTime();
+            limiter.release(startNanos);
+            limiter.release(startNanos);
+        }
+
+        // Assert
+        assertEquals(3, limiter.getLimit());
+    }
+}
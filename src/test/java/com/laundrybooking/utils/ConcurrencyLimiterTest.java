@@ -0,0 +1,70 @@
+package com.laundrybooking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laundrybooking.server.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    public void test_call_concurrencyBounded() throws Exception {
+        // Arrange
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(3);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximumRunning = new AtomicInteger();
+        final ExecutorService executorService = ExecutionMode.VIRTUAL_THREADS.newExecutor(16);
+        try {
+            // Act
+            final List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final int value = i;
+                calls.add(executorService.submit(() -> concurrencyLimiter.call(() -> {
+                    maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(1);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return value;
+                })));
+            }
+            int sum = 0;
+            for (final Future<Integer> call : calls) {
+                sum += call.get();
+            }
+
+            // Assert
+            assertEquals(64 * 63 / 2, sum);
+            assertTrue(maximumRunning.get() <= 3);
+            assertEquals(0, concurrencyLimiter.getActiveCount());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_run_permitReleasedOnException() {
+        // Arrange
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1);
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> concurrencyLimiter.run(() -> {
+            throw new IllegalArgumentException();
+        }));
+
+        // Assert
+        assertEquals(0, concurrencyLimiter.getActiveCount());
+        assertEquals(1, (int) concurrencyLimiter.call(() -> 1));
+    }
+}
@@ -0,0 +1,95 @@
+package com.laundrybooking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IntObjectMapTest {
+
+    private IntObjectMap<String> map;
+
+    @BeforeEach
+    public void setup() {
+        map = new IntObjectMap<>();
+    }
+
+    @Test
+    public void test_putGetRemove() {
+        // Act
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(-7, "minus seven"));
+        assertEquals("zero", map.put(0, "ZERO"));
+        assertEquals("ZERO", map.putIfAbsent(0, "zero"));
+
+        // Assert
+        assertEquals("ZERO", map.get(0));
+        assertEquals("minus seven", map.get(-7));
+        assertNull(map.get(7));
+        assertEquals(2, map.size());
+        assertEquals("ZERO", map.remove(0));
+        assertNull(map.get(0));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void test_keys() {
+        // Arrange
+        map.put(3, "three");
+        map.put(-1, "minus one");
+        map.put(8, "eight");
+        map.remove(8);
+
+        // Act
+        final int[] keys = map.keys();
+
+        // Assert
+        Arrays.sort(keys);
+        assertArrayEquals(new int[] {-1, 3}, keys);
+    }
+
+    @Test
+    public void test_conditionalRemove() {
+        // Arrange
+        map.put(1, "one");
+
+        // Act / Assert
+        assertFalse(map.remove(1, "uno"));
+        assertEquals("one", map.get(1));
+        assertTrue(map.remove(1, "one"));
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void test_randomOperations_matchHashMap() {
+        // Arrange
+        final Random random = new Random(42);
+        final Map<Integer, String> expected = new HashMap<>();
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            final int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                final String value = Integer.toString(i);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
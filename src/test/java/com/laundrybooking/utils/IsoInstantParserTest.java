@@ -0,0 +1,54 @@
+package com.laundrybooking.utils;
+
+import static com.laundrybooking.utils.IsoInstantParser.parseEpochNanos;
+import static com.laundrybooking.utils.IsoInstantParser.toInstant;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class IsoInstantParserTest {
+
+    @Test
+    public void test_parseEpochNanos_matchesInstantParse() {
+        // Arrange
+        final SplittableRandom random = new SplittableRandom(42);
+        final long minimumSecond = Instant.parse("1700-01-01T00:00:00Z").getEpochSecond();
+        final long maximumSecond = Instant.parse("2260-12-31T23:59:59Z").getEpochSecond();
+
+        for (int i = 0; i < 10_000; i++) {
+            final Instant expected = Instant.ofEpochSecond(random.nextLong(minimumSecond, maximumSecond),
+                    i % 3 == 0 ? 0 : random.nextInt(1_000_000_000));
+
+            // Act
+            final long actual = parseEpochNanos(expected.toString());
+
+            // Assert
+            assertEquals(expected, toInstant(actual), expected.toString());
+        }
+    }
+
+    @Test
+    public void test_parseEpochNanos_leapDaysAndOtherForms() {
+        // Act / Assert
+        assertEquals(Instant.parse("2024-02-29T23:59:59.5Z"), toInstant(parseEpochNanos("2024-02-29T23:59:59.5Z")));
+        assertEquals(Instant.parse("2000-02-29T00:00:00Z"), toInstant(parseEpochNanos("2000-02-29t00:00:00z")));
+        assertEquals(Instant.parse("2030-01-01T24:00:00Z"), toInstant(parseEpochNanos("2030-01-01T24:00:00Z")));
+        assertEquals(Instant.parse("1969-12-31T23:59:59.999999999Z"), toInstant(parseEpochNanos("1969-12-31T23:59:59.999999999Z")));
+    }
+
+    @Test
+    public void test_parseEpochNanos_invalid_throws() {
+        // Act / Assert
+        assertThrows(DateTimeException.class, () -> parseEpochNanos("2023-02-29T08:00:00Z"));
+        assertThrows(DateTimeException.class, () -> parseEpochNanos("2030-01-01T25:00:00Z"));
+        assertThrows(DateTimeException.class, () -> parseEpochNanos("2030-01-01T08:00:00.1aZ"));
+        assertThrows(DateTimeException.class, () -> parseEpochNanos("2030-01-01 08:00:00Z"));
+        assertThrows(DateTimeException.class, () -> parseEpochNanos("2030-01-01T08:00:00"));
+        assertThrows(DateTimeException.class, () -> parseEpochNanos("3000-01-01T08:00:00Z"));
+    }
+}
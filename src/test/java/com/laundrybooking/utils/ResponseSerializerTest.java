@@ -0,0 +1,77 @@
+package com.laundrybooking.utils;
+
+import static com.laundrybooking.utils.Constants.BOOKING_END_TIME_KEY;
+import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_KEY;
+import static com.laundrybooking.utils.Constants.BOOKING_START_TIME_UTC_KEY;
+import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_ID_KEY;
+import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_KEY;
+import static com.laundrybooking.utils.Constants.LAUNDRY_ROOM_NAME_KEY;
+import static com.laundrybooking.utils.Constants.MESSAGE_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.google.gson.Gson;
+import com.laundrybooking.model.Booking;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ResponseSerializerTest {
+
+    @Test
+    public void test_serializeBookedSlot_matchesFields() {
+        // Act
+        final byte[] actual = ResponseSerializer.serializeBookedSlot("Booked", "1", "Room 1", "2030-01-01T08:00:00Z",
+                "2030-01-01T09:00:00Z");
+
+        // Assert
+        final Map payloadMap = new Gson().fromJson(new String(actual, StandardCharsets.UTF_8), Map.class);
+        assertEquals("Booked", payloadMap.get(MESSAGE_KEY));
+        assertEquals("1", payloadMap.get(LAUNDRY_ROOM_ID_KEY));
+        assertEquals("Room 1", payloadMap.get(LAUNDRY_ROOM_NAME_KEY));
+        assertEquals("2030-01-01T08:00:00Z", payloadMap.get(BOOKING_START_TIME_UTC_KEY));
+    }
+
+    @Test
+    public void test_serializeBookedSlot_escapesAndEncodesUtf8_nullsLeftOut() {
+        // Arrange
+        final String laundryRoomName = "W\u00e4sche \"Keller\" \\ \n \u20ac \ud83e\uddfa";
+
+        // Act
+        final byte[] actual = ResponseSerializer.serializeBookedSlot("Booked", null, laundryRoomName, null, null);
+
+        // Assert
+        final Map payloadMap = new Gson().fromJson(new String(actual, StandardCharsets.UTF_8), Map.class);
+        assertEquals(laundryRoomName, payloadMap.get(LAUNDRY_ROOM_NAME_KEY));
+        assertFalse(payloadMap.containsKey(LAUNDRY_ROOM_ID_KEY));
+        assertEquals(2, payloadMap.size());
+    }
+
+    @Test
+    public void test_serializeBookedTimes_array() {
+        // Arrange
+        final Instant start = Instant.parse("2030-01-01T08:00:00Z");
+        final List<Booking> bookings = Arrays.asList(
+                Booking.builder().bookingStartTimeUTC(start).bookingEndTimeUTC(start.plusSeconds(3600)).laundryRoomId(-12).build(),
+                Booking.builder().bookingStartTimeUTC(start).bookingEndTimeUTC(start.plusSeconds(60)).laundryRoomId(Integer.MIN_VALUE).build());
+
+        // Act
+        final byte[] actual = ResponseSerializer.serializeBookedTimes(bookings);
+        final byte[] empty = ResponseSerializer.serializeBookedTimes(Collections.emptyList());
+
+        // Assert
+        final List<Map> payloadList = Arrays.asList(new Gson().fromJson(new String(actual, StandardCharsets.UTF_8), Map[].class));
+        assertEquals(2, payloadList.size());
+        assertEquals(start.toString(), payloadList.get(0).get(BOOKING_START_TIME_KEY));
+        assertEquals(start.plusSeconds(3600).toString(), payloadList.get(0).get(BOOKING_END_TIME_KEY));
+        assertEquals("-12", payloadList.get(0).get(LAUNDRY_ROOM_KEY));
+        assertEquals(Integer.toString(Integer.MIN_VALUE), payloadList.get(1).get(LAUNDRY_ROOM_KEY));
+        assertEquals("[]", new String(empty, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,48 @@
+package com.laundrybooking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private static final long START_NANOS = 1_000L;
+
+    @Test
+    public void test_tryAcquire_burstThenRejected() {
+        // Arrange
+        final TokenBucket tokenBucket = new TokenBucket(1, 3, START_NANOS);
+
+        // Act & Assert
+        assertTrue(tokenBucket.tryAcquire(START_NANOS));
+        assertTrue(tokenBucket.tryAcquire(START_NANOS));
+        assertTrue(tokenBucket.tryAcquire(START_NANOS));
+        assertFalse(tokenBucket.tryAcquire(START_NANOS));
+    }
+
+    @Test
+    public void test_tryAcquire_refilledAtRate() {
+        // Arrange
+        final TokenBucket tokenBucket = new TokenBucket(2, 1, START_NANOS);
+        tokenBucket.tryAcquire(START_NANOS);
+
+        // Act & Assert
+        assertFalse(tokenBucket.tryAcquire(START_NANOS + TimeUnit.MILLISECONDS.toNanos(400)));
+        assertTrue(tokenBucket.tryAcquire(START_NANOS + TimeUnit.MILLISECONDS.toNanos(500)));
+    }
+
+    @Test
+    public void test_tryAcquire_idleBucketHoldsAtMostBurst() {
+        // Arrange
+        final TokenBucket tokenBucket = new TokenBucket(10, 2, START_NANOS);
+        final long later = START_NANOS + TimeUnit.HOURS.toNanos(1);
+
+        // Act & Assert
+        assertTrue(tokenBucket.tryAcquire(later));
+        assertTrue(tokenBucket.tryAcquire(later));
+        assertFalse(tokenBucket.tryAcquire(later));
+    }
+}